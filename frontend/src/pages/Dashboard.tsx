@@ -69,7 +69,7 @@ export default function Dashboard() {
       let hasMore = true;
 
       while (hasMore) {
-        const response = await listExpenses(filters, page, 100, 'date,desc');
+        const response = await listExpenses(filters, page, 100, 'date,desc', false);
         allData = [...allData, ...response.content];
         hasMore = !response.last;
         page++;
@@ -3,12 +3,14 @@ import { Expense, ExpenseCreateDto, ExpenseUpdateDto, PaginatedResponse, Expense
 
 /**
  * List expenses with optional filters and pagination
+ * Set withTotal to false when only `last` is needed; totalElements/totalPages are then omitted
  */
 export const listExpenses = async (
   filters: ExpenseFilters = {},
   page: number = 0,
   size: number = 20,
-  sort: string = 'date,desc'
+  sort: string = 'date,desc',
+  withTotal: boolean = true
 ): Promise<PaginatedResponse<Expense>> => {
   const params = new URLSearchParams();
   
@@ -16,6 +18,7 @@ export const listExpenses = async (
   params.append('page', page.toString());
   params.append('size', size.toString());
   params.append('sort', sort);
+  params.append('withTotal', withTotal.toString());
   
   // Add filter parameters
   if (filters.fromDate) params.append('fromDate', filters.fromDate);
@@ -0,0 +1,13 @@
+package com.expense.tracker.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables the Spring cache abstraction, so Spring Boot configures the CacheManager from spring.cache.*
+ * and binds its caches to Actuator metrics
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
@@ -6,6 +6,9 @@ import com.expense.tracker.model.User;
 import com.expense.tracker.repository.CategoryRepository;
 import com.expense.tracker.repository.ExpenseRepository;
 import com.expense.tracker.repository.UserRepository;
+import com.expense.tracker.service.rollup.AmountSketchService;
+import com.expense.tracker.service.rollup.ExpenseTotalService;
+import com.expense.tracker.service.rollup.MonthlyRollupService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -34,6 +37,9 @@ public class DataSeeder implements CommandLineRunner {
     private final CategoryRepository categoryRepository;
     private final ExpenseRepository expenseRepository;
     private final PasswordEncoder passwordEncoder;
+    private final MonthlyRollupService monthlyRollupService;
+    private final ExpenseTotalService expenseTotalService;
+    private final AmountSketchService amountSketchService;
 
     private static final String[] CATEGORY_NAMES = {
             "Food & Dining", "Groceries", "Transportation", "Shopping", "Entertainment",
@@ -101,6 +107,12 @@ public class DataSeeder implements CommandLineRunner {
             int totalExpenses = seedExpenses(categoriesByUser);
             log.info("✅ Created {} expenses across all users", totalExpenses);
 
+            // Seeded expenses bypass ExpenseService, so derive their rollups, totals and sketches in one pass
+            expenseRepository.flush();
+            monthlyRollupService.rebuild();
+            expenseTotalService.rebuild();
+            amountSketchService.rebuild();
+
             log.info("=".repeat(80));
             log.info("Data seeding completed successfully!");
             log.info("Test accounts:");
@@ -0,0 +1,74 @@
+package com.expense.tracker.config;
+
+import com.expense.tracker.service.UserDataVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Conditional GET support for the per-user read endpoints
+ * Tags every GET under /api/v1/users/{userId} with a weak ETag of the user's data version and answers
+ * a matching If-None-Match with 304 Not Modified before the controller runs, so an unchanged poll
+ * costs one primary key lookup. The version is read before any data, so a tag is never newer than
+ * the body it is sent with
+ * Requests for unknown users pass through untagged, leaving the 404 to the controller
+ */
+@Component
+@RequiredArgsConstructor
+public class DataVersionETagInterceptor implements HandlerInterceptor {
+
+    private static final String USER_ID_VARIABLE = "userId";
+
+    // Clients may store responses but must revalidate them; replaces Spring Security's no-store default
+    private static final String CACHE_CONTROL = "private, no-cache";
+
+    private final UserDataVersionService userDataVersionService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+        Long userId = userId(request);
+        if (userId == null) {
+            return true;
+        }
+
+        Optional<Long> version = userDataVersionService.currentVersion(userId);
+        if (version.isEmpty()) {
+            // Unknown user: no tag, so the controller answers 404 even to a stale If-None-Match
+            return true;
+        }
+
+        String etag = "W/\"" + version.get() + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        return !new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    /**
+     * The userId path variable, or null when absent or malformed (left for the controller to reject)
+     */
+    @SuppressWarnings("unchecked")
+    private static Long userId(HttpServletRequest request) {
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String value = variables != null ? variables.get(USER_ID_VARIABLE) : null;
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.expense.tracker.config;
+
+import com.expense.tracker.service.rollup.AmountSketchService;
+import com.expense.tracker.service.rollup.ExpenseTotalService;
+import com.expense.tracker.service.rollup.MonthlyRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Backfill commands for the derived expense tables
+ * Start the application with --rebuild-monthly-rollups, --rebuild-expense-totals and/or
+ * --rebuild-amount-sketches to recompute them from the expenses table before serving requests
+ */
+@Component
+@RequiredArgsConstructor
+public class RollupRebuildRunner implements ApplicationRunner {
+
+    static final String REBUILD_MONTHLY_ROLLUPS_OPTION = "rebuild-monthly-rollups";
+    static final String REBUILD_EXPENSE_TOTALS_OPTION = "rebuild-expense-totals";
+    static final String REBUILD_AMOUNT_SKETCHES_OPTION = "rebuild-amount-sketches";
+
+    private final MonthlyRollupService monthlyRollupService;
+    private final ExpenseTotalService expenseTotalService;
+    private final AmountSketchService amountSketchService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(REBUILD_MONTHLY_ROLLUPS_OPTION)) {
+            monthlyRollupService.rebuild();
+        }
+        if (args.containsOption(REBUILD_EXPENSE_TOTALS_OPTION)) {
+            expenseTotalService.rebuild();
+        }
+        if (args.containsOption(REBUILD_AMOUNT_SKETCHES_OPTION)) {
+            amountSketchService.rebuild();
+        }
+    }
+}
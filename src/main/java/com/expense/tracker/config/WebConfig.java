@@ -0,0 +1,27 @@
+package com.expense.tracker.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC configuration
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final DataVersionETagInterceptor dataVersionETagInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // The dashboard is left out: its default date window moves with the current day, not the data version
+        registry.addInterceptor(dataVersionETagInterceptor)
+                .addPathPatterns(
+                        "/api/v1/users/*/expenses/**",
+                        "/api/v1/users/*/reports/**",
+                        "/api/v1/users/*/receipts/**"
+                );
+    }
+}
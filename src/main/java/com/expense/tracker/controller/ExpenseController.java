@@ -1,9 +1,19 @@
 package com.expense.tracker.controller;
 
+import com.expense.tracker.dto.CursorPage;
+import com.expense.tracker.dto.DateRangeTotalDto;
+import com.expense.tracker.dto.ExpenseBatchResultDto;
+import com.expense.tracker.dto.ExpenseBulkResultDto;
+import com.expense.tracker.dto.ExpenseBulkUpdateDto;
 import com.expense.tracker.dto.ExpenseCreateDto;
+import com.expense.tracker.dto.ExpenseFilter;
+import com.expense.tracker.dto.ExpenseImportResultDto;
 import com.expense.tracker.dto.ExpenseResponseDto;
 import com.expense.tracker.dto.ExpenseUpdateDto;
+import com.expense.tracker.repository.specification.ExpenseSearchMode;
+import com.expense.tracker.service.ExpenseImportService;
 import com.expense.tracker.service.ExpenseService;
+import com.expense.tracker.service.export.ExportCompression;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,8 +22,8 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -21,28 +31,41 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.OutputStreamWriter;
-import java.io.Writer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * REST controller for expense management
  */
 @RestController
-@RequestMapping("/api/v1/users/{userId}/expenses")
+@RequestMapping("/api/v1/users/{userId}")
 @RequiredArgsConstructor
 @Slf4j
 @Tag(name = "Expense Management", description = "APIs for managing user expenses")
 public class ExpenseController {
 
+    private static final String CSV_FORMAT = "csv";
+    private static final String ZSTD_FORMAT = "csv.zst";
+    private static final String ZSTD_MEDIA_TYPE = "application/zstd";
+    private static final String NDJSON_FORMAT = "ndjson";
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    private static final String ARROW_FORMAT = "arrows";
+    private static final String ARROW_MEDIA_TYPE = "application/vnd.apache.arrow.stream";
+
     private final ExpenseService expenseService;
+    private final ExpenseImportService expenseImportService;
 
     /**
      * Create a new expense
@@ -51,7 +74,7 @@ public class ExpenseController {
      * @param expenseCreateDto the expense data
      * @return the created expense
      */
-    @PostMapping
+    @PostMapping("/expenses")
     @Operation(summary = "Create a new expense", description = "Creates a new expense for the specified user")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Expense created successfully"),
@@ -75,6 +98,59 @@ public class ExpenseController {
         return new ResponseEntity<>(createdExpense, HttpStatus.CREATED);
     }
 
+    /**
+     * Create many expenses in one request
+     *
+     * @param userId the user ID
+     * @param expenseCreateDtos the expense data
+     * @return IDs of the created expenses and errors of the rejected items
+     */
+    @PostMapping("/expenses:batch")
+    @Operation(summary = "Create expenses in bulk",
+            description = "Creates up to 5000 expenses in one transaction. Invalid items are skipped and reported "
+                    + "by index; the IDs list lines up with the request and holds null for rejected items")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed; see errors for rejected items"),
+            @ApiResponse(responseCode = "400", description = "Empty or oversized batch"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    public ResponseEntity<ExpenseBatchResultDto> createExpenses(
+            @Parameter(description = "User ID", required = true)
+            @PathVariable Long userId,
+            @Parameter(description = "Expense data", required = true)
+            @RequestBody List<ExpenseCreateDto> expenseCreateDtos) {
+
+        log.info("POST /api/v1/users/{}/expenses:batch - Creating {} expenses", userId, expenseCreateDtos.size());
+        return ResponseEntity.ok(expenseService.createExpenses(userId, expenseCreateDtos));
+    }
+
+    /**
+     * Import expenses from CSV
+     *
+     * @param userId the user ID
+     * @param csv the CSV request body
+     * @return number of imported and rejected rows
+     * @throws IOException if reading the request body fails
+     */
+    @PostMapping(value = "/expenses/import/csv", consumes = "text/csv")
+    @Operation(summary = "Import expenses from CSV",
+            description = "Imports a UTF-8 CSV in the layout written by the CSV export. The ID and Created At columns "
+                    + "are ignored and categories are matched by name. Invalid rows are skipped and reported by line")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import processed; see errors for rejected rows"),
+            @ApiResponse(responseCode = "400", description = "Unexpected header or malformed CSV"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    public ResponseEntity<ExpenseImportResultDto> importExpensesFromCsv(
+            @Parameter(description = "User ID", required = true)
+            @PathVariable Long userId,
+            @Parameter(description = "CSV content", required = true)
+            InputStream csv) throws IOException {
+
+        log.info("POST /api/v1/users/{}/expenses/import/csv - Importing expenses", userId);
+        return ResponseEntity.ok(expenseImportService.importCsv(userId, new InputStreamReader(csv, StandardCharsets.UTF_8)));
+    }
+
     /**
      * Update an existing expense
      *
@@ -83,7 +159,7 @@ public class ExpenseController {
      * @param expenseUpdateDto the updated expense data
      * @return the updated expense
      */
-    @PutMapping("/{expenseId}")
+    @PutMapping("/expenses/{expenseId}")
     @Operation(summary = "Update an expense", description = "Updates an existing expense")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Expense updated successfully"),
@@ -100,13 +176,7 @@ public class ExpenseController {
         
         log.info("PUT /api/v1/users/{}/expenses/{} - Updating expense", userId, expenseId);
         
-        // Verify expense belongs to the user
-        ExpenseResponseDto existingExpense = expenseService.getExpenseById(expenseId);
-        if (!existingExpense.getUserId().equals(userId)) {
-            throw new IllegalArgumentException("Expense does not belong to the specified user");
-        }
-        
-        ExpenseResponseDto updatedExpense = expenseService.updateExpense(expenseId, expenseUpdateDto);
+        ExpenseResponseDto updatedExpense = expenseService.updateExpense(userId, expenseId, expenseUpdateDto);
         return ResponseEntity.ok(updatedExpense);
     }
 
@@ -117,7 +187,7 @@ public class ExpenseController {
      * @param expenseId the expense ID
      * @return no content
      */
-    @DeleteMapping("/{expenseId}")
+    @DeleteMapping("/expenses/{expenseId}")
     @Operation(summary = "Delete an expense", description = "Deletes an existing expense")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Expense deleted successfully"),
@@ -131,16 +201,147 @@ public class ExpenseController {
         
         log.info("DELETE /api/v1/users/{}/expenses/{} - Deleting expense", userId, expenseId);
         
-        // Verify expense belongs to the user
-        ExpenseResponseDto existingExpense = expenseService.getExpenseById(expenseId);
-        if (!existingExpense.getUserId().equals(userId)) {
-            throw new IllegalArgumentException("Expense does not belong to the specified user");
-        }
-        
-        expenseService.deleteExpense(expenseId);
+        expenseService.deleteExpense(userId, expenseId);
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Update all expenses matching a filter
+     *
+     * @param userId the user ID
+     * @param fromDate optional start date filter (format: yyyy-MM-dd)
+     * @param toDate optional end date filter (format: yyyy-MM-dd)
+     * @param categoryId optional category filter
+     * @param minAmount optional minimum amount filter
+     * @param maxAmount optional maximum amount filter
+     * @param q optional full-text search (searches description, tags, category name)
+     * @param currency optional currency filter
+     * @param tag optional tag filter
+     * @param match how q is matched: fulltext (default) or fuzzy (substring and typo tolerant)
+     * @param similarity optional word similarity threshold (0-1) for fuzzy matches
+     * @param expenseBulkUpdateDto the fields to set
+     * @return number of updated expenses
+     */
+    @PatchMapping("/expenses")
+    @Operation(summary = "Update expenses by filter",
+               description = "Sets the category and/or currency of every expense matching the filters, which are the " +
+                           "same as for listing. At least one filter is required and at most 5000 expenses may match.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Expenses updated successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid or missing filters or update data, or too many matches"),
+            @ApiResponse(responseCode = "404", description = "User or category not found")
+    })
+    public ResponseEntity<ExpenseBulkResultDto> updateExpenses(
+            @Parameter(description = "User ID", required = true)
+            @PathVariable Long userId,
+            
+            @Parameter(description = "Start date (yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            
+            @Parameter(description = "End date (yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            
+            @Parameter(description = "Category ID")
+            @RequestParam(required = false) Long categoryId,
+            
+            @Parameter(description = "Minimum amount")
+            @RequestParam(required = false) BigDecimal minAmount,
+            
+            @Parameter(description = "Maximum amount")
+            @RequestParam(required = false) BigDecimal maxAmount,
+            
+            @Parameter(description = "Full-text search over description, tags and category name " +
+                    "(web search syntax: \"exact phrase\", or, -exclude)")
+            @RequestParam(required = false) String q,
+            
+            @Parameter(description = "Currency code (e.g., USD, EUR)")
+            @RequestParam(required = false) String currency,
+            
+            @Parameter(description = "Filter by specific tag")
+            @RequestParam(required = false) String tag,
+            
+            @Parameter(description = "Search match strategy: fulltext (default) or fuzzy")
+            @RequestParam(required = false) String match,
+            
+            @Parameter(description = "Word similarity threshold (0-1) for fuzzy matches, lower is more tolerant")
+            @RequestParam(required = false) Double similarity,
+            
+            @Parameter(description = "Fields to set", required = true)
+            @Valid @RequestBody ExpenseBulkUpdateDto expenseBulkUpdateDto) {
+        
+        log.info("PATCH /api/v1/users/{}/expenses - Bulk updating expenses", userId);
+        
+        ExpenseFilter filter = toFilter(fromDate, toDate, categoryId, minAmount, maxAmount, q, currency, tag, match, similarity);
+        return ResponseEntity.ok(expenseService.updateExpenses(userId, filter, expenseBulkUpdateDto));
+    }
+
+    /**
+     * Delete all expenses matching a filter
+     *
+     * @param userId the user ID
+     * @param fromDate optional start date filter (format: yyyy-MM-dd)
+     * @param toDate optional end date filter (format: yyyy-MM-dd)
+     * @param categoryId optional category filter
+     * @param minAmount optional minimum amount filter
+     * @param maxAmount optional maximum amount filter
+     * @param q optional full-text search (searches description, tags, category name)
+     * @param currency optional currency filter
+     * @param tag optional tag filter
+     * @param match how q is matched: fulltext (default) or fuzzy (substring and typo tolerant)
+     * @param similarity optional word similarity threshold (0-1) for fuzzy matches
+     * @return number of deleted expenses
+     */
+    @DeleteMapping("/expenses")
+    @Operation(summary = "Delete expenses by filter",
+               description = "Deletes every expense matching the filters, which are the same as for listing. At least " +
+                           "one filter is required and at most 5000 expenses may match. Linked receipts are kept " +
+                           "and become unassigned.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Expenses deleted successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid or missing filters, or too many matches"),
+            @ApiResponse(responseCode = "404", description = "User or category not found")
+    })
+    public ResponseEntity<ExpenseBulkResultDto> deleteExpenses(
+            @Parameter(description = "User ID", required = true)
+            @PathVariable Long userId,
+            
+            @Parameter(description = "Start date (yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            
+            @Parameter(description = "End date (yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            
+            @Parameter(description = "Category ID")
+            @RequestParam(required = false) Long categoryId,
+            
+            @Parameter(description = "Minimum amount")
+            @RequestParam(required = false) BigDecimal minAmount,
+            
+            @Parameter(description = "Maximum amount")
+            @RequestParam(required = false) BigDecimal maxAmount,
+            
+            @Parameter(description = "Full-text search over description, tags and category name " +
+                    "(web search syntax: \"exact phrase\", or, -exclude)")
+            @RequestParam(required = false) String q,
+            
+            @Parameter(description = "Currency code (e.g., USD, EUR)")
+            @RequestParam(required = false) String currency,
+            
+            @Parameter(description = "Filter by specific tag")
+            @RequestParam(required = false) String tag,
+            
+            @Parameter(description = "Search match strategy: fulltext (default) or fuzzy")
+            @RequestParam(required = false) String match,
+            
+            @Parameter(description = "Word similarity threshold (0-1) for fuzzy matches, lower is more tolerant")
+            @RequestParam(required = false) Double similarity) {
+        
+        log.info("DELETE /api/v1/users/{}/expenses - Bulk deleting expenses", userId);
+        
+        ExpenseFilter filter = toFilter(fromDate, toDate, categoryId, minAmount, maxAmount, q, currency, tag, match, similarity);
+        return ResponseEntity.ok(expenseService.deleteExpenses(userId, filter));
+    }
+
     /**
      * Get an expense by ID
      *
@@ -148,7 +349,7 @@ public class ExpenseController {
      * @param expenseId the expense ID
      * @return the expense
      */
-    @GetMapping("/{expenseId}")
+    @GetMapping("/expenses/{expenseId}")
     @Operation(summary = "Get expense by ID", description = "Retrieves a specific expense by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Expense retrieved successfully"),
@@ -162,13 +363,7 @@ public class ExpenseController {
         
         log.info("GET /api/v1/users/{}/expenses/{} - Fetching expense", userId, expenseId);
         
-        ExpenseResponseDto expense = expenseService.getExpenseById(expenseId);
-        
-        // Verify expense belongs to the user
-        if (!expense.getUserId().equals(userId)) {
-            throw new IllegalArgumentException("Expense does not belong to the specified user");
-        }
-        
+        ExpenseResponseDto expense = expenseService.getExpenseById(userId, expenseId);
         return ResponseEntity.ok(expense);
     }
 
@@ -181,20 +376,25 @@ public class ExpenseController {
      * @param categoryId optional category filter
      * @param minAmount optional minimum amount filter
      * @param maxAmount optional maximum amount filter
-     * @param q optional search text (searches description, tags, category name)
+     * @param q optional full-text search (searches description, tags, category name)
      * @param currency optional currency filter
      * @param tag optional tag filter
+     * @param match how q is matched: fulltext (default) or fuzzy (substring and typo tolerant)
+     * @param similarity optional word similarity threshold (0-1) for fuzzy matches
+     * @param withTotal whether to count total elements and pages (costs an extra COUNT query)
      * @param pageable pagination parameters
-     * @return page of expenses
+     * @return slice of expenses, or a full page with totals when withTotal is true
      */
-    @GetMapping
-    @Operation(summary = "List expenses", description = "Retrieves expenses with pagination and optional filters")
+    @GetMapping("/expenses")
+    @Operation(summary = "List expenses", 
+               description = "Retrieves expenses with pagination and optional filters. Totals are only computed " +
+                           "when withTotal=true; otherwise the response only reports whether a next page exists.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Expenses retrieved successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid filter parameters"),
             @ApiResponse(responseCode = "404", description = "User not found")
     })
-    public ResponseEntity<Page<ExpenseResponseDto>> listExpenses(
+    public ResponseEntity<Slice<ExpenseResponseDto>> listExpenses(
             @Parameter(description = "User ID", required = true)
             @PathVariable Long userId,
             
@@ -213,7 +413,8 @@ public class ExpenseController {
             @Parameter(description = "Maximum amount")
             @RequestParam(required = false) BigDecimal maxAmount,
             
-            @Parameter(description = "Search text (searches description, tags, category name)")
+            @Parameter(description = "Full-text search over description, tags and category name " +
+                    "(web search syntax: \"exact phrase\", or, -exclude)")
             @RequestParam(required = false) String q,
             
             @Parameter(description = "Currency code (e.g., USD, EUR)")
@@ -222,28 +423,113 @@ public class ExpenseController {
             @Parameter(description = "Filter by specific tag")
             @RequestParam(required = false) String tag,
             
-            @Parameter(description = "Pagination parameters (page, size, sort)")
+            @Parameter(description = "Search match strategy: fulltext (stemmed words over description, tags and " +
+                    "category name) or fuzzy (substrings and typos in description and category name)")
+            @RequestParam(required = false) String match,
+            
+            @Parameter(description = "Word similarity threshold (0-1) for fuzzy matches, lower is more tolerant")
+            @RequestParam(required = false) Double similarity,
+            
+            @Parameter(description = "Include total element and page counts")
+            @RequestParam(defaultValue = "false") boolean withTotal,
+            
+            @Parameter(description = "Pagination parameters (page, size, sort); sort=relevance ranks matches by " +
+                    "full-text rank or, with match=fuzzy, by similarity")
             @PageableDefault(size = 20, sort = "date", direction = Sort.Direction.DESC) Pageable pageable) {
         
         log.info("GET /api/v1/users/{}/expenses - Listing expenses with filters", userId);
         log.debug("Filters - fromDate: {}, toDate: {}, categoryId: {}, minAmount: {}, maxAmount: {}, q: {}, " +
-                "currency: {}, tag: {}, page: {}, size: {}, sort: {}",
-                fromDate, toDate, categoryId, minAmount, maxAmount, q, currency, tag, 
+                "currency: {}, tag: {}, match: {}, similarity: {}, withTotal: {}, page: {}, size: {}, sort: {}",
+                fromDate, toDate, categoryId, minAmount, maxAmount, q, currency, tag, match, similarity, withTotal,
                 pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
         
-        Page<ExpenseResponseDto> expenses = expenseService.searchExpenses(
-                userId,
-                Optional.ofNullable(fromDate),
-                Optional.ofNullable(toDate),
-                Optional.ofNullable(categoryId),
-                Optional.ofNullable(minAmount),
-                Optional.ofNullable(maxAmount),
-                Optional.ofNullable(q),
-                Optional.ofNullable(currency),
-                Optional.ofNullable(tag),
-                pageable
-        );
+        ExpenseFilter filter = toFilter(fromDate, toDate, categoryId, minAmount, maxAmount, q, currency, tag, match, similarity);
+        
+        Slice<ExpenseResponseDto> expenses = withTotal
+                ? expenseService.searchExpenses(userId, filter, pageable)
+                : expenseService.searchExpensesSlice(userId, filter, pageable);
+        
+        return ResponseEntity.ok(expenses);
+    }
+
+    /**
+     * List expenses with keyset (cursor) pagination and filters
+     * Selected instead of offset pagination when the cursor parameter is present (empty for the first page)
+     *
+     * @param userId the user ID
+     * @param cursor continuation token from the previous page's nextCursor, empty for the first page
+     * @param size page size
+     * @param fromDate optional start date filter (format: yyyy-MM-dd)
+     * @param toDate optional end date filter (format: yyyy-MM-dd)
+     * @param categoryId optional category filter
+     * @param minAmount optional minimum amount filter
+     * @param maxAmount optional maximum amount filter
+     * @param q optional full-text search (searches description, tags, category name)
+     * @param currency optional currency filter
+     * @param tag optional tag filter
+     * @param match how q is matched: fulltext (default) or fuzzy (substring and typo tolerant)
+     * @param similarity optional word similarity threshold (0-1) for fuzzy matches
+     * @return page of expenses ordered by date and ID descending, with the next cursor
+     */
+    @GetMapping(value = "/expenses", params = "cursor")
+    @Operation(summary = "List expenses by cursor", 
+               description = "Retrieves expenses newest first using keyset pagination. Pass an empty cursor for the " +
+                           "first page and the returned nextCursor for the following ones. Sort parameters are ignored.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Expenses retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, size or filter parameters"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    public ResponseEntity<CursorPage<ExpenseResponseDto>> listExpensesByCursor(
+            @Parameter(description = "User ID", required = true)
+            @PathVariable Long userId,
+            
+            @Parameter(description = "Continuation token from the previous page (empty for the first page)")
+            @RequestParam String cursor,
+            
+            @Parameter(description = "Page size (1-100)")
+            @RequestParam(defaultValue = "20") int size,
+            
+            @Parameter(description = "Start date (yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            
+            @Parameter(description = "End date (yyyy-MM-dd)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            
+            @Parameter(description = "Category ID")
+            @RequestParam(required = false) Long categoryId,
+            
+            @Parameter(description = "Minimum amount")
+            @RequestParam(required = false) BigDecimal minAmount,
+            
+            @Parameter(description = "Maximum amount")
+            @RequestParam(required = false) BigDecimal maxAmount,
+            
+            @Parameter(description = "Full-text search over description, tags and category name " +
+                    "(web search syntax: \"exact phrase\", or, -exclude)")
+            @RequestParam(required = false) String q,
+            
+            @Parameter(description = "Currency code (e.g., USD, EUR)")
+            @RequestParam(required = false) String currency,
+            
+            @Parameter(description = "Filter by specific tag")
+            @RequestParam(required = false) String tag,
+            
+            @Parameter(description = "Search match strategy: fulltext (stemmed words over description, tags and " +
+                    "category name) or fuzzy (substrings and typos in description and category name)")
+            @RequestParam(required = false) String match,
+            
+            @Parameter(description = "Word similarity threshold (0-1) for fuzzy matches, lower is more tolerant")
+            @RequestParam(required = false) Double similarity) {
+        
+        log.info("GET /api/v1/users/{}/expenses - Listing expenses by cursor", userId);
+        log.debug("Filters - fromDate: {}, toDate: {}, categoryId: {}, minAmount: {}, maxAmount: {}, q: {}, " +
+                "currency: {}, tag: {}, match: {}, similarity: {}, cursor: {}, size: {}",
+                fromDate, toDate, categoryId, minAmount, maxAmount, q, currency, tag, match, similarity, cursor, size);
+        
+        ExpenseFilter filter = toFilter(fromDate, toDate, categoryId, minAmount, maxAmount, q, currency, tag, match, similarity);
         
+        CursorPage<ExpenseResponseDto> expenses = expenseService.searchExpensesByCursor(userId, filter, cursor, size);
         return ResponseEntity.ok(expenses);
     }
 
@@ -253,7 +539,7 @@ public class ExpenseController {
      * @param userId the user ID
      * @return total amount
      */
-    @GetMapping("/total")
+    @GetMapping("/expenses/total")
     @Operation(summary = "Get total expenses", description = "Calculates the total amount of all expenses for a user")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Total calculated successfully"),
@@ -277,7 +563,7 @@ public class ExpenseController {
      * @param toDate end date
      * @return total amount
      */
-    @GetMapping("/total/date-range")
+    @GetMapping("/expenses/total/date-range")
     @Operation(summary = "Get total expenses by date range", 
                description = "Calculates the total amount of expenses within a date range")
     @ApiResponses(value = {
@@ -302,6 +588,36 @@ public class ExpenseController {
         return ResponseEntity.ok(total);
     }
 
+    /**
+     * Get total expenses for several date ranges in one request
+     *
+     * @param userId the user ID
+     * @param ranges date windows formatted as yyyy-MM-dd..yyyy-MM-dd
+     * @return one total per window, in request order
+     */
+    @GetMapping("/expenses/total/date-ranges")
+    @Operation(summary = "Get total expenses for several date ranges",
+               description = "Calculates the total amount of expenses in each of up to 50 date windows, " +
+                       "e.g. ?range=2024-06-01..2024-06-30&range=2024-04-01..2024-06-30")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Totals calculated successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid or too many date ranges"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    public ResponseEntity<List<DateRangeTotalDto>> getTotalExpensesByDateRanges(
+            @Parameter(description = "User ID", required = true)
+            @PathVariable Long userId,
+            
+            @Parameter(description = "Date window (yyyy-MM-dd..yyyy-MM-dd, inclusive); repeat for each window", required = true)
+            @RequestParam("range") List<String> ranges) {
+        
+        log.info("GET /api/v1/users/{}/expenses/total/date-ranges - Calculating totals for {} ranges", 
+                userId, ranges.size());
+        
+        List<DateRangeTotalDto> totals = expenseService.getTotalExpensesByUserIdAndDateRanges(userId, ranges);
+        return ResponseEntity.ok(totals);
+    }
+
     /**
      * Get total expenses by category
      *
@@ -309,7 +625,7 @@ public class ExpenseController {
      * @param categoryId the category ID
      * @return total amount
      */
-    @GetMapping("/total/category/{categoryId}")
+    @GetMapping("/expenses/total/category/{categoryId}")
     @Operation(summary = "Get total expenses by category", 
                description = "Calculates the total amount of expenses for a specific category")
     @ApiResponses(value = {
@@ -343,12 +659,15 @@ public class ExpenseController {
      * @param q optional search text
      * @param currency optional currency filter
      * @param tag optional tag filter
+     * @param format csv (gzip-compressed when the client accepts it) or csv.zst for a Zstandard file
+     * @param acceptEncoding the request's Accept-Encoding header
      * @return CSV file as streaming response
      */
-    @GetMapping(value = "/export/csv", produces = "text/csv")
+    @GetMapping(value = "/expenses/export/csv", produces = {"text/csv", ZSTD_MEDIA_TYPE})
     @Operation(summary = "Export expenses to CSV", 
                description = "Exports filtered expenses to CSV file with streaming for memory efficiency. " +
-                           "Supports all the same filters as the search endpoint.")
+                           "Supports all the same filters as the search endpoint. The CSV is sent gzip-encoded " +
+                           "to clients that accept it, or as a .csv.zst file with format=csv.zst.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "CSV file generated successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid filter parameters"),
@@ -380,18 +699,33 @@ public class ExpenseController {
             @RequestParam(required = false) String currency,
             
             @Parameter(description = "Tag to filter by")
-            @RequestParam(required = false) String tag) {
+            @RequestParam(required = false) String tag,
+            
+            @Parameter(description = "File format: csv or csv.zst (Zstandard-compressed)")
+            @RequestParam(defaultValue = CSV_FORMAT) String format,
+            
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         
         log.info("GET /api/v1/users/{}/expenses/export/csv - Exporting expenses", userId);
         log.debug("Export filters - fromDate: {}, toDate: {}, categoryId: {}, minAmount: {}, maxAmount: {}, " +
                 "q: {}, currency: {}, tag: {}",
                 fromDate, toDate, categoryId, minAmount, maxAmount, q, currency, tag);
         
-        // Create streaming response body
-        StreamingResponseBody stream = outputStream -> {
-            try (Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)) {
+        ExportCompression compression;
+        if (ZSTD_FORMAT.equals(format)) {
+            compression = ExportCompression.ZSTD;
+        } else if (CSV_FORMAT.equals(format)) {
+            compression = ExportCompression.negotiate(acceptEncoding);
+        } else {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+        MediaType contentType = compression == ExportCompression.ZSTD ?
+                MediaType.parseMediaType(ZSTD_MEDIA_TYPE) : MediaType.parseMediaType("text/csv");
+        
+        return exportResponse(userId, format, contentType, compression, body ->
                 expenseService.exportExpensesToCsv(
-                        writer,
+                        body,
                         userId,
                         Optional.ofNullable(fromDate),
                         Optional.ofNullable(toDate),
@@ -401,17 +735,165 @@ public class ExpenseController {
                         Optional.ofNullable(q),
                         Optional.ofNullable(currency),
                         Optional.ofNullable(tag)
-                );
+                ));
+    }
+
+    /**
+     * Export expenses as newline-delimited JSON with optional filters
+     *
+     * @param userId the user ID
+     * @param fromDate optional start date filter
+     * @param toDate optional end date filter
+     * @param categoryId optional category ID filter
+     * @param minAmount optional minimum amount filter
+     * @param maxAmount optional maximum amount filter
+     * @param q optional search text
+     * @param currency optional currency filter
+     * @param tag optional tag filter
+     * @param acceptEncoding the request's Accept-Encoding header
+     * @return NDJSON file as streaming response
+     */
+    @GetMapping(value = "/expenses/export/ndjson", produces = NDJSON_MEDIA_TYPE)
+    @Operation(summary = "Export expenses to NDJSON",
+               description = "Exports filtered expenses as newline-delimited JSON, one expense object per line " +
+                           "in the same shape as the other endpoints. Takes the same filters as the CSV export " +
+                           "and is sent gzip-encoded to clients that accept it.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "NDJSON file generated successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter parameters"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    public ResponseEntity<StreamingResponseBody> exportExpensesToNdjson(
+            @Parameter(description = "User ID", required = true)
+            @PathVariable Long userId,
+            
+            @Parameter(description = "Start date (inclusive)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            
+            @Parameter(description = "End date (inclusive)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            
+            @Parameter(description = "Category ID")
+            @RequestParam(required = false) Long categoryId,
+            
+            @Parameter(description = "Minimum amount")
+            @RequestParam(required = false) BigDecimal minAmount,
+            
+            @Parameter(description = "Maximum amount")
+            @RequestParam(required = false) BigDecimal maxAmount,
+            
+            @Parameter(description = "Search text (searches description, category name, tags)")
+            @RequestParam(required = false) String q,
+            
+            @Parameter(description = "Currency code (e.g., USD, EUR)")
+            @RequestParam(required = false) String currency,
+            
+            @Parameter(description = "Tag to filter by")
+            @RequestParam(required = false) String tag,
+            
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        
+        log.info("GET /api/v1/users/{}/expenses/export/ndjson - Exporting expenses", userId);
+        
+        ExpenseFilter filter = toFilter(fromDate, toDate, categoryId, minAmount, maxAmount, q, currency, tag, null, null);
+        return exportResponse(userId, NDJSON_FORMAT, MediaType.parseMediaType(NDJSON_MEDIA_TYPE),
+                ExportCompression.negotiate(acceptEncoding),
+                body -> expenseService.exportExpensesToNdjson(body, userId, filter));
+    }
+
+    /**
+     * Export expenses as an Apache Arrow IPC stream with optional filters
+     *
+     * @param userId the user ID
+     * @param fromDate optional start date filter
+     * @param toDate optional end date filter
+     * @param categoryId optional category ID filter
+     * @param minAmount optional minimum amount filter
+     * @param maxAmount optional maximum amount filter
+     * @param q optional search text
+     * @param currency optional currency filter
+     * @param tag optional tag filter
+     * @param acceptEncoding the request's Accept-Encoding header
+     * @return Arrow stream file as streaming response
+     */
+    @GetMapping(value = "/expenses/export/arrow", produces = ARROW_MEDIA_TYPE)
+    @Operation(summary = "Export expenses to Apache Arrow",
+               description = "Exports filtered expenses in the Arrow IPC streaming format, in record batches of " +
+                           "8192 rows, for loading into pyarrow, pandas, polars or DuckDB without parsing. Takes " +
+                           "the same filters as the CSV export and is sent gzip-encoded to clients that accept it.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Arrow stream generated successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter parameters"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    public ResponseEntity<StreamingResponseBody> exportExpensesToArrow(
+            @Parameter(description = "User ID", required = true)
+            @PathVariable Long userId,
+            
+            @Parameter(description = "Start date (inclusive)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            
+            @Parameter(description = "End date (inclusive)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            
+            @Parameter(description = "Category ID")
+            @RequestParam(required = false) Long categoryId,
+            
+            @Parameter(description = "Minimum amount")
+            @RequestParam(required = false) BigDecimal minAmount,
+            
+            @Parameter(description = "Maximum amount")
+            @RequestParam(required = false) BigDecimal maxAmount,
+            
+            @Parameter(description = "Search text (searches description, category name, tags)")
+            @RequestParam(required = false) String q,
+            
+            @Parameter(description = "Currency code (e.g., USD, EUR)")
+            @RequestParam(required = false) String currency,
+            
+            @Parameter(description = "Tag to filter by")
+            @RequestParam(required = false) String tag,
+            
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        
+        log.info("GET /api/v1/users/{}/expenses/export/arrow - Exporting expenses", userId);
+        
+        ExpenseFilter filter = toFilter(fromDate, toDate, categoryId, minAmount, maxAmount, q, currency, tag, null, null);
+        return exportResponse(userId, ARROW_FORMAT, MediaType.parseMediaType(ARROW_MEDIA_TYPE),
+                ExportCompression.negotiate(acceptEncoding),
+                body -> expenseService.exportExpensesToArrow(body, userId, filter));
+    }
+
+    /**
+     * Build a file download response that streams an export through the given compression
+     * Zstandard is part of the file format; gzip is negotiated as a Content-Encoding
+     */
+    private static ResponseEntity<StreamingResponseBody> exportResponse(Long userId, String extension,
+                                                                        MediaType contentType,
+                                                                        ExportCompression compression,
+                                                                        StreamingResponseBody export) {
+        // The compressed stream is closed to write its trailer; the response stream stays open for Spring
+        StreamingResponseBody stream = outputStream -> {
+            try (OutputStream body = compression.wrap(StreamUtils.nonClosing(outputStream))) {
+                export.writeTo(body);
             }
         };
         
         // Generate filename with timestamp
         String timestamp = LocalDate.now().toString();
-        String filename = String.format("expenses_%s_%s.csv", userId, timestamp);
+        String filename = String.format("expenses_%s_%s.%s", userId, timestamp, extension);
         
-        // Set headers for CSV download
+        // Set headers for the download
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        headers.setContentType(contentType);
+        if (compression != ExportCompression.ZSTD) {
+            headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+            if (compression == ExportCompression.GZIP) {
+                headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+        }
         headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
         headers.setCacheControl("no-cache, no-store, must-revalidate");
         headers.setPragma("no-cache");
@@ -421,4 +903,24 @@ public class ExpenseController {
                 .headers(headers)
                 .body(stream);
     }
+
+    /**
+     * Build a search filter from the listing query parameters
+     */
+    private ExpenseFilter toFilter(LocalDate fromDate, LocalDate toDate, Long categoryId, BigDecimal minAmount,
+                                   BigDecimal maxAmount, String q, String currency, String tag, String match,
+                                   Double similarity) {
+        return ExpenseFilter.builder()
+                .fromDate(fromDate)
+                .toDate(toDate)
+                .categoryId(categoryId)
+                .minAmount(minAmount)
+                .maxAmount(maxAmount)
+                .searchText(q)
+                .currency(currency)
+                .tag(tag)
+                .searchMode(ExpenseSearchMode.fromParameter(match))
+                .similarityThreshold(similarity)
+                .build();
+    }
 }
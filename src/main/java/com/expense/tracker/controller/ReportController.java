@@ -1,7 +1,12 @@
 package com.expense.tracker.controller;
 
+import com.expense.tracker.dto.CategoryQuantileDto;
 import com.expense.tracker.dto.CategoryReportDto;
+import com.expense.tracker.dto.DashboardDto;
 import com.expense.tracker.dto.MonthlyReportDto;
+import com.expense.tracker.dto.TimeSeriesDto;
+import com.expense.tracker.dto.TimeSeriesGranularity;
+import com.expense.tracker.service.DashboardService;
 import com.expense.tracker.service.ExpenseService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -21,13 +26,14 @@ import java.util.List;
  * REST controller for expense reports and analytics
  */
 @RestController
-@RequestMapping("/api/v1/users/{userId}/reports")
+@RequestMapping("/api/v1/users/{userId}")
 @RequiredArgsConstructor
 @Slf4j
 @Tag(name = "Expense Reports", description = "APIs for expense reports and analytics")
 public class ReportController {
 
     private final ExpenseService expenseService;
+    private final DashboardService dashboardService;
 
     /**
      * Get monthly expense report for a specific year
@@ -36,7 +42,7 @@ public class ReportController {
      * @param year the year (e.g., 2026)
      * @return list of monthly totals
      */
-    @GetMapping("/monthly")
+    @GetMapping("/reports/monthly")
     @Operation(
         summary = "Get monthly expense report",
         description = "Returns total expenses per month for the specified year, grouped by currency"
@@ -68,7 +74,7 @@ public class ReportController {
      * @param to end date (inclusive)
      * @return list of category totals with percentages
      */
-    @GetMapping("/category")
+    @GetMapping("/reports/category")
     @Operation(
         summary = "Get category expense report",
         description = "Returns expense totals by category within the specified date range, including percentages"
@@ -94,4 +100,129 @@ public class ReportController {
         
         return ResponseEntity.ok(report);
     }
+
+    /**
+     * Get median, p90 and p99 expense amounts per category, month and currency
+     *
+     * @param userId the user ID
+     * @param year the year
+     * @param month optional month (1-12)
+     * @return estimated quantiles per category, month and currency
+     */
+    @GetMapping("/reports/category-quantiles")
+    @Operation(
+        summary = "Get category amount quantiles",
+        description = "Returns the estimated median, p90 and p99 expense amount per category, month and currency of a " +
+                "year, or of a single month when given. Estimates come from per-month t-digest sketches"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Report generated successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid year or month provided"),
+        @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    public ResponseEntity<List<CategoryQuantileDto>> getCategoryQuantileReport(
+            @Parameter(description = "User ID", required = true)
+            @PathVariable Long userId,
+            
+            @Parameter(description = "Year for the report", required = true, example = "2026")
+            @RequestParam Integer year,
+            
+            @Parameter(description = "Month for the report (1-12); all months when omitted", example = "3")
+            @RequestParam(required = false) Integer month) {
+        
+        log.info("Generating category quantile report for user ID: {}, year: {}, month: {}", userId, year, month);
+        
+        List<CategoryQuantileDto> report = expenseService.getCategoryQuantileReport(userId, year, month);
+        
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * Get spending over time per day, week or month
+     *
+     * @param userId the user ID
+     * @param from start date (inclusive)
+     * @param to end date (inclusive)
+     * @param granularity bucket width: day, week or month
+     * @return dense arrays of bucket totals in cents per currency with the first bucket's start date
+     */
+    @GetMapping("/reports/time-series")
+    @Operation(
+        summary = "Get time-series expense report",
+        description = "Returns spending per day, week (starting Monday) or month as a dense array of totals in cents " +
+                "for each currency, starting at the bucket that contains the start date. At most 1000 buckets per request"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Report generated successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid date range, granularity or too many buckets"),
+        @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    public ResponseEntity<TimeSeriesDto> getTimeSeriesReport(
+            @Parameter(description = "User ID", required = true)
+            @PathVariable Long userId,
+            
+            @Parameter(description = "Start date (YYYY-MM-DD)", required = true, example = "2026-01-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            
+            @Parameter(description = "End date (YYYY-MM-DD)", required = true, example = "2026-12-31")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            
+            @Parameter(description = "Bucket width: day, week or month", example = "day")
+            @RequestParam(required = false) String granularity) {
+        
+        log.info("Generating time series for user ID: {} from {} to {} by {}", userId, from, to, granularity);
+        
+        TimeSeriesDto report = expenseService.getTimeSeriesReport(userId, from, to, TimeSeriesGranularity.fromParameter(granularity));
+        
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * Get the dashboard in one request
+     *
+     * @param userId the user ID
+     * @param year the year of the monthly report (defaults to the current year)
+     * @param from start date of the category report (defaults to the first day of the current month)
+     * @param to end date of the category report (defaults to today)
+     * @param recent number of newest expenses to include
+     * @return total, monthly report, category report and newest expenses
+     */
+    @GetMapping("/dashboard")
+    @Operation(
+        summary = "Get dashboard",
+        description = "Returns the overall total, monthly report, category report and newest expenses in one " +
+                "payload; the parts are queried in parallel"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Dashboard generated successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid year, date range or expense count"),
+        @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    public ResponseEntity<DashboardDto> getDashboard(
+            @Parameter(description = "User ID", required = true)
+            @PathVariable Long userId,
+            
+            @Parameter(description = "Year of the monthly report (defaults to the current year)", example = "2026")
+            @RequestParam(required = false) Integer year,
+            
+            @Parameter(description = "Start date of the category report (defaults to the first day of the current month)", example = "2026-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            
+            @Parameter(description = "End date of the category report (defaults to today)", example = "2026-01-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            
+            @Parameter(description = "Number of newest expenses to include (1-100)", example = "10")
+            @RequestParam(defaultValue = "10") int recent) {
+        
+        LocalDate today = LocalDate.now();
+        int reportYear = year != null ? year : today.getYear();
+        LocalDate reportFrom = from != null ? from : today.withDayOfMonth(1);
+        LocalDate reportTo = to != null ? to : today;
+        
+        log.info("Generating dashboard for user ID: {} (year {}, categories {} to {})", userId, reportYear, reportFrom, reportTo);
+        
+        DashboardDto dashboard = dashboardService.getDashboard(userId, reportYear, reportFrom, reportTo, recent);
+        
+        return ResponseEntity.ok(dashboard);
+    }
 }
@@ -0,0 +1,25 @@
+package com.expense.tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for the estimated amount distribution of one category in one month and currency
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryQuantileDto {
+    private Long categoryId;
+    private String categoryName;
+    private Integer year;
+    private Integer month;
+    private String currency;
+    private Long expenseCount;
+    private BigDecimal median;
+    private BigDecimal p90;
+    private BigDecimal p99;
+}
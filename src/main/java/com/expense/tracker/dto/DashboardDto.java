@@ -0,0 +1,24 @@
+package com.expense.tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * DTO for the dashboard: overall total, monthly and category reports and the newest expenses
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardDto {
+    private BigDecimal total;
+    private List<MonthlyReportDto> monthlyReport;
+    private List<CategoryReportDto> categoryReport;
+    private List<ExpenseResponseDto> recentExpenses;
+    private boolean hasMoreExpenses;
+}
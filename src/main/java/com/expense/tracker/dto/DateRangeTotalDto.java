@@ -0,0 +1,20 @@
+package com.expense.tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO for the expense total of one date window
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DateRangeTotalDto {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private BigDecimal total;
+}
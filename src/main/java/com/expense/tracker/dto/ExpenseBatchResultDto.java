@@ -0,0 +1,34 @@
+package com.expense.tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the outcome of a batch expense creation
+ * ids lines up with the submitted items and holds null where an item was rejected
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseBatchResultDto {
+    private int created;
+    private int rejected;
+    private List<Long> ids;
+    private List<ItemError> errors;
+
+    /**
+     * Validation errors of the rejected item at index
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemError {
+        private int index;
+        private List<ErrorResponse.ValidationError> validationErrors;
+    }
+}
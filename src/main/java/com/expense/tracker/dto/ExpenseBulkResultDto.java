@@ -0,0 +1,15 @@
+package com.expense.tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the outcome of a bulk update or delete by filter
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseBulkResultDto {
+    private int affected;
+}
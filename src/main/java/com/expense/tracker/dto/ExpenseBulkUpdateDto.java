@@ -0,0 +1,23 @@
+package com.expense.tracker.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the fields set on every expense matched by a bulk update
+ * Null fields are left unchanged; at least one must be set
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseBulkUpdateDto {
+
+    private Long categoryId;
+
+    @Size(min = 3, max = 3, message = "Currency must be 3 characters (ISO 4217)")
+    private String currency;
+}
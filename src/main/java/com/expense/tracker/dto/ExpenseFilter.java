@@ -0,0 +1,59 @@
+package com.expense.tracker.dto;
+
+import com.expense.tracker.repository.specification.ExpenseSearchMode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Optional filters shared by the expense search, listing and export paths
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExpenseFilter {
+
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private Long categoryId;
+    private BigDecimal minAmount;
+    private BigDecimal maxAmount;
+    private String searchText;
+    private String currency;
+    private String tag;
+
+    /**
+     * How searchText is matched, full-text when null
+     */
+    private ExpenseSearchMode searchMode;
+
+    /**
+     * Word similarity threshold (0-1) for fuzzy matches, the database default when null
+     */
+    private Double similarityThreshold;
+
+    /**
+     * Whether no filter is set, so the filter matches all of a user's expenses
+     */
+    public boolean isEmpty() {
+        return fromDate == null && toDate == null && categoryId == null && minAmount == null && maxAmount == null
+                && isBlank(searchText) && isBlank(currency) && isBlank(tag);
+    }
+
+    /**
+     * Whether the filter restricts nothing but the date range
+     */
+    public boolean isDateRangeOnly() {
+        return categoryId == null && minAmount == null && maxAmount == null
+                && isBlank(searchText) && isBlank(currency) && isBlank(tag);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,33 @@
+package com.expense.tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for the outcome of a CSV expense import
+ * errors lists the first rejected rows only; rejected counts all of them
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseImportResultDto {
+    private long imported;
+    private long rejected;
+    private List<LineError> errors;
+
+    /**
+     * Validation errors of the rejected row starting at line (1-based, the header is line 1)
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineError {
+        private long line;
+        private List<ErrorResponse.ValidationError> validationErrors;
+    }
+}
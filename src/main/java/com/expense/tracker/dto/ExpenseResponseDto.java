@@ -8,6 +8,8 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Set;
 
 @Data
@@ -29,4 +31,15 @@ public class ExpenseResponseDto {
     private Set<String> tags;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+
+    /**
+     * Projection constructor for criteria queries that select tags as an array_agg column
+     * A null array (expense without tags) becomes an empty set
+     */
+    public ExpenseResponseDto(Long id, Long userId, String userName, Long categoryId, String categoryName,
+                              BigDecimal amount, String currency, LocalDate date, String description,
+                              String receiptMongoId, String[] tags, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, userId, userName, categoryId, categoryName, amount, currency, date, description, receiptMongoId,
+                tags == null ? new HashSet<>() : new HashSet<>(Arrays.asList(tags)), createdAt, updatedAt);
+    }
 }
@@ -0,0 +1,23 @@
+package com.expense.tracker.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * DTO for a time-series report as a dense array of bucket totals per currency
+ * Bucket i starts i days, weeks or months after startDate; empty buckets hold 0. Amounts in different
+ * currencies are never added together, so each currency the user spent in gets its own array
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeSeriesDto {
+    private TimeSeriesGranularity granularity;
+    private LocalDate startDate;
+    // Totals in cents per currency code in alphabetical order, one per bucket
+    private Map<String, long[]> totals;
+}
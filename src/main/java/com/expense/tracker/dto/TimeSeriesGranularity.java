@@ -0,0 +1,66 @@
+package com.expense.tracker.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+
+/**
+ * Bucket width of a time-series report
+ * The parameter doubles as the PostgreSQL date_trunc unit, so buckets computed here line up with the
+ * database's: days, ISO weeks starting on Monday, and calendar months
+ */
+public enum TimeSeriesGranularity {
+
+    DAY("day", ChronoUnit.DAYS),
+
+    WEEK("week", ChronoUnit.WEEKS),
+
+    MONTH("month", ChronoUnit.MONTHS);
+
+    private final String parameter;
+    private final ChronoUnit unit;
+
+    TimeSeriesGranularity(String parameter, ChronoUnit unit) {
+        this.parameter = parameter;
+        this.unit = unit;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    /**
+     * First day of the bucket containing a date
+     */
+    public LocalDate truncate(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * Index of the bucket containing a date, counted from the bucket starting at start
+     */
+    public int bucketIndex(LocalDate start, LocalDate date) {
+        return Math.toIntExact(unit.between(start, truncate(date)));
+    }
+
+    /**
+     * Resolve a request parameter value, defaulting to daily buckets when absent
+     *
+     * @throws IllegalArgumentException if the value names no known granularity
+     */
+    public static TimeSeriesGranularity fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return DAY;
+        }
+        return Arrays.stream(values())
+                .filter(granularity -> granularity.parameter.equalsIgnoreCase(value.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown granularity: " + value));
+    }
+}
@@ -8,6 +8,7 @@ import org.mapstruct.*;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.Locale;
 
 /**
  * MapStruct mapper for converting between entities and DTOs
@@ -74,6 +75,7 @@ public interface EntityMapper {
      */
     @Mapping(source = "userId", target = "user.id")
     @Mapping(source = "categoryId", target = "category.id")
+    @Mapping(target = "currency", qualifiedByName = "currencyCode")
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
@@ -84,6 +86,7 @@ public interface EntityMapper {
      * Only updates non-null fields from the DTO
      */
     @Mapping(source = "categoryId", target = "category.id")
+    @Mapping(target = "currency", qualifiedByName = "currencyCode")
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "user", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
@@ -95,10 +98,20 @@ public interface EntityMapper {
      * Partial update for Expense - only updates provided fields
      */
     @Mapping(source = "categoryId", target = "category.id")
+    @Mapping(target = "currency", qualifiedByName = "currencyCode")
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "user", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     Expense partialUpdate(ExpenseUpdateDto expenseUpdateDto, @MappingTarget Expense expense);
+
+    /**
+     * Normalize a currency code to upper case, the form expenses are stored and aggregated in
+     * Every write path goes through it: the mappings above, bulk updates and CSV imports
+     */
+    @Named("currencyCode")
+    static String toCurrencyCode(String currency) {
+        return currency == null ? null : currency.trim().toUpperCase(Locale.ROOT);
+    }
 }
@@ -3,6 +3,7 @@ package com.expense.tracker.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -13,6 +14,10 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@NamedEntityGraph(name = Expense.DETAILS_GRAPH, attributeNodes = {
+    @NamedAttributeNode("user"),
+    @NamedAttributeNode("category")
+})
 @Table(name = "expenses", indexes = {
     @Index(name = "idx_expense_user", columnList = "user_id"),
     @Index(name = "idx_expense_category", columnList = "category_id"),
@@ -26,8 +31,17 @@ import java.util.Set;
 @ToString
 public class Expense {
 
+    /**
+     * Fetch graph joining the associations read when mapping to ExpenseResponseDto
+     * Tags are left out (a collection fetch join would break SQL pagination) and batch fetched instead
+     */
+    public static final String DETAILS_GRAPH = "Expense.details";
+
+    // Pooled sequence IDs are assigned on persist without a round trip per row, which keeps
+    // inserts eligible for JDBC batching (IDENTITY forces one INSERT per statement)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_id_generator")
+    @SequenceGenerator(name = "expense_id_generator", sequenceName = "expenses_id_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message = "User is required")
@@ -64,6 +78,7 @@ public class Expense {
     private String receiptMongoId;
 
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(
         name = "expense_tags",
         joinColumns = @JoinColumn(name = "expense_id", foreignKey = @ForeignKey(name = "fk_expense_tags"))
@@ -0,0 +1,54 @@
+package com.expense.tracker.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Serialized t-digest of one user's expense amounts in one category, month and currency
+ * Rows are maintained by AmountSketchService
+ */
+@Entity
+@Table(name = "expense_amount_sketches")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(exclude = "sketch")
+public class ExpenseAmountSketch {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false)
+    private byte[] sketch;
+
+    @Column(nullable = false)
+    private Long count;
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    @ToString
+    public static class Key implements Serializable {
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        @Column(name = "category_id", nullable = false)
+        private Long categoryId;
+
+        @Column(nullable = false)
+        private Integer year;
+
+        @Column(nullable = false)
+        private Integer month;
+
+        @Column(nullable = false, length = 3)
+        private String currency;
+    }
+}
@@ -0,0 +1,52 @@
+package com.expense.tracker.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Total and count of one user's expenses in one month and currency
+ * Rows are maintained by MonthlyRollupService rather than written through this entity
+ */
+@Entity
+@Table(name = "expense_monthly_rollups")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class ExpenseMonthlyRollup {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal total;
+
+    @Column(nullable = false)
+    private Long count;
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    @ToString
+    public static class Key implements Serializable {
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        @Column(nullable = false)
+        private Integer year;
+
+        @Column(nullable = false)
+        private Integer month;
+
+        @Column(nullable = false, length = 3)
+        private String currency;
+    }
+}
@@ -0,0 +1,49 @@
+package com.expense.tracker.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Running total and count of one user's expenses in one category and currency
+ * Rows are maintained by ExpenseTotalService rather than written through this entity
+ */
+@Entity
+@Table(name = "expense_totals")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class ExpenseTotal {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal total;
+
+    @Column(nullable = false)
+    private Long count;
+
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    @ToString
+    public static class Key implements Serializable {
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        @Column(name = "category_id", nullable = false)
+        private Long categoryId;
+
+        @Column(nullable = false, length = 3)
+        private String currency;
+    }
+}
@@ -0,0 +1,25 @@
+package com.expense.tracker.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Monotonically increasing version of one user's data
+ * Rows are maintained by UserDataVersionService rather than written through this entity
+ */
+@Entity
+@Table(name = "user_data_versions")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class UserDataVersion {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Long version;
+}
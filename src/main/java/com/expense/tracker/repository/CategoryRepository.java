@@ -9,8 +9,10 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
@@ -37,6 +39,15 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
      */
     Page<Category> findByUserId(Long userId, Pageable pageable);
 
+    /**
+     * Find a user's category by ID
+     * @param id the category ID
+     * @param userId the user ID
+     * @return Optional containing the category if it exists and belongs to the user
+     */
+    @Query("SELECT c FROM Category c WHERE c.id = :id AND c.user.id = :userId")
+    Optional<Category> findByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
     /**
      * Find a category by name for a specific user
      * @param name the category name
@@ -53,6 +64,26 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
      */
     List<Category> findByNameContainingIgnoreCaseAndUserId(String name, Long userId);
 
+    /**
+     * Find IDs of a user's categories whose name contains or is word-similar to a search term
+     * Uses the trigram_matches helper, served by the categories name trigram index
+     * @param userId the user ID
+     * @param query the search term
+     * @return list of matching category IDs
+     */
+    @Query(value = "SELECT c.id FROM categories c WHERE c.user_id = :userId AND trigram_matches(c.name, :query)",
+           nativeQuery = true)
+    List<Long> findIdsByUserIdAndNameTrigramMatch(@Param("userId") Long userId, @Param("query") String query);
+
+    /**
+     * Find which of the given category IDs belong to a user
+     * @param userId the user ID
+     * @param ids candidate category IDs
+     * @return the IDs among them owned by the user
+     */
+    @Query("SELECT c.id FROM Category c WHERE c.user.id = :userId AND c.id IN :ids")
+    Set<Long> findIdsByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
     /**
      * Check if a category exists with the given name for a user
      * @param name the category name
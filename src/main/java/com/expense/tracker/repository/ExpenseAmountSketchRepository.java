@@ -0,0 +1,81 @@
+package com.expense.tracker.repository;
+
+import com.expense.tracker.model.ExpenseAmountSketch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ExpenseAmountSketchRepository extends JpaRepository<ExpenseAmountSketch, ExpenseAmountSketch.Key> {
+
+    /**
+     * Find a user's amount sketches for a year
+     * @param userId the user ID
+     * @param year the year
+     * @return sketches ordered by month, category, then currency
+     */
+    @Query("SELECT s FROM ExpenseAmountSketch s " +
+           "WHERE s.id.userId = :userId AND s.id.year = :year " +
+           "ORDER BY s.id.month, s.id.categoryId, s.id.currency")
+    List<ExpenseAmountSketch> findByUserIdAndYear(@Param("userId") Long userId, @Param("year") Integer year);
+
+    /**
+     * Find a user's amount sketches for one month
+     * @param userId the user ID
+     * @param year the year
+     * @param month the month (1-12)
+     * @return sketches ordered by category, then currency
+     */
+    @Query("SELECT s FROM ExpenseAmountSketch s " +
+           "WHERE s.id.userId = :userId AND s.id.year = :year AND s.id.month = :month " +
+           "ORDER BY s.id.categoryId, s.id.currency")
+    List<ExpenseAmountSketch> findByUserIdAndYearAndMonth(
+        @Param("userId") Long userId, @Param("year") Integer year, @Param("month") Integer month);
+
+    /**
+     * Find a sketch and lock its row until the current transaction ends
+     * Serializes the read-modify-write of concurrent expense writes to the same category, month and currency
+     * @param id the sketch key
+     * @return Optional containing the locked sketch if it exists
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ExpenseAmountSketch s WHERE s.id = :id")
+    Optional<ExpenseAmountSketch> findByIdForUpdate(@Param("id") ExpenseAmountSketch.Key id);
+
+    /**
+     * Insert a sketch row unless one already exists for the key
+     * @param userId the user ID
+     * @param categoryId the category ID
+     * @param year the year
+     * @param month the month (1-12)
+     * @param currency the upper-case currency code
+     * @param sketch the serialized t-digest
+     * @param count the number of amounts in the sketch
+     */
+    @Modifying
+    @Query(value = "INSERT INTO expense_amount_sketches (user_id, category_id, year, month, currency, sketch, count) " +
+                   "VALUES (:userId, :categoryId, :year, :month, :currency, :sketch, :count) " +
+                   "ON CONFLICT (user_id, category_id, year, month, currency) DO NOTHING",
+           nativeQuery = true)
+    void insertIfAbsent(@Param("userId") Long userId,
+                        @Param("categoryId") Long categoryId,
+                        @Param("year") Integer year,
+                        @Param("month") Integer month,
+                        @Param("currency") String currency,
+                        @Param("sketch") byte[] sketch,
+                        @Param("count") Long count);
+
+    /**
+     * Block sketch writes from other transactions until the current one ends
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE expense_amount_sketches IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+}
@@ -0,0 +1,83 @@
+package com.expense.tracker.repository;
+
+import com.expense.tracker.service.csv.ExpenseCsvFormat;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.stream.Collectors;
+
+/**
+ * Exports expenses as CSV with PostgreSQL's COPY TO STDOUT, bypassing JDBC result sets and Hibernate
+ * The server formats every row in the ExpenseCsvFormat layout, with the values written exactly as the
+ * JPA export writes them, and the driver copies the bytes straight to the output stream
+ */
+@Repository
+@RequiredArgsConstructor
+public class ExpenseCsvExportRepository {
+
+    // COPY takes no bind parameters; only longs and dates are ever inlined into the statement
+    private static final String SELECT =
+            "SELECT e.id, " +
+            "to_char(e.date, 'YYYY-MM-DD'), " +
+            "e.amount, " +
+            "e.currency, " +
+            "NULLIF(c.name, ''), " +
+            "NULLIF(e.description, ''), " +
+            "(SELECT NULLIF(string_agg(t.tag, '" + ExpenseCsvFormat.TAG_SEPARATOR + "'), '') " +
+            "FROM expense_tags t WHERE t.expense_id = e.id), " +
+            "NULLIF(e.receipt_mongo_id, ''), " +
+            // LocalDateTime.toString: seconds only when non-zero, then milli- or microseconds as needed
+            "to_char(e.created_at, 'YYYY-MM-DD\"T\"HH24:MI') || CASE " +
+            "WHEN date_part('second', e.created_at) = 0 THEN '' " +
+            "WHEN CAST(date_part('microseconds', e.created_at) AS BIGINT) % 1000000 = 0 THEN to_char(e.created_at, ':SS') " +
+            "WHEN CAST(date_part('microseconds', e.created_at) AS BIGINT) % 1000 = 0 THEN to_char(e.created_at, ':SS.MS') " +
+            "ELSE to_char(e.created_at, ':SS.US') END " +
+            "FROM expenses e JOIN categories c ON c.id = e.category_id " +
+            "WHERE e.user_id = ";
+
+    private final DataSource dataSource;
+
+    /**
+     * Write a user's expenses, newest first, as CSV with a header row
+     * Runs on the current transaction's connection. Empty text is written as an empty field, like null,
+     * because COPY would otherwise quote it
+     * @param userId the user ID
+     * @param fromDate optional start date (inclusive)
+     * @param toDate optional end date (inclusive)
+     * @param out stream receiving the UTF-8 CSV bytes; left open
+     * @return number of rows written, excluding the header
+     */
+    public long copyCsv(Long userId, LocalDate fromDate, LocalDate toDate, OutputStream out)
+            throws SQLException, IOException {
+        StringBuilder select = new StringBuilder(SELECT).append(userId.longValue());
+        if (fromDate != null) {
+            select.append(" AND e.date >= DATE '").append(fromDate).append('\'');
+        }
+        if (toDate != null) {
+            select.append(" AND e.date <= DATE '").append(toDate).append('\'');
+        }
+        select.append(" ORDER BY e.date DESC, e.id DESC");
+
+        // The header is the column list itself, so the SELECT's columns go under the format's names
+        String columns = ExpenseCsvFormat.HEADER.stream()
+                .map(name -> '"' + name + '"')
+                .collect(Collectors.joining(", "));
+        String copy = "COPY (SELECT * FROM (" + select + ") AS export (" + columns + ")) " +
+                "TO STDOUT WITH (FORMAT csv, HEADER)";
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(copy, out);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+}
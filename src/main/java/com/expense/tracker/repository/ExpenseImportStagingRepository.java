@@ -0,0 +1,182 @@
+package com.expense.tracker.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JDBC access to the staging table that CSV imports COPY rows into before merging them into expenses
+ * The table is temporary and dropped on commit, so every method must run in the importing transaction
+ */
+@Repository
+@RequiredArgsConstructor
+public class ExpenseImportStagingRepository {
+
+    /**
+     * Columns of each CSV row written to the stream returned by openCopy, in order
+     */
+    public static final List<String> COPY_COLUMNS = List.of(
+            "line_number", "category_id", "amount", "currency", "date", "description", "tags", "receipt_mongo_id");
+
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Create the staging table for the current transaction
+     */
+    public void createStagingTable() {
+        jdbcTemplate.execute("CREATE TEMPORARY TABLE expense_import_staging (" +
+                "line_number BIGINT NOT NULL, " +
+                "id BIGINT, " +
+                "category_id BIGINT NOT NULL, " +
+                "amount NUMERIC(19, 2) NOT NULL, " +
+                "currency VARCHAR(3) NOT NULL, " +
+                "date DATE NOT NULL, " +
+                "description TEXT, " +
+                "tags TEXT[], " +
+                "receipt_mongo_id VARCHAR(255)" +
+                ") ON COMMIT DROP");
+    }
+
+    /**
+     * Start a COPY FROM STDIN into the staging table on the transaction's connection
+     * Write CSV rows with the COPY_COLUMNS in order (an unquoted empty field is NULL), then close the
+     * stream to finish the copy, or cancel it on failure. No other statement may run until then
+     */
+    public PGCopyOutputStream openCopy() throws SQLException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            return new PGCopyOutputStream(connection.unwrap(PGConnection.class),
+                    "COPY expense_import_staging (" + String.join(", ", COPY_COLUMNS) + ") FROM STDIN WITH (FORMAT csv)",
+                    COPY_BUFFER_BYTES);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Give every staged row an expense ID in line order
+     * IDs are reserved from expenses_id_seq in whole blocks, one nextval per blockSize rows, the way
+     * Hibernate's pooled optimizer uses the sequence, so they never collide with IDs it hands out.
+     * A nextval below blockSize, which a fresh sequence returns first, ends a block reaching below
+     * its start value: like the optimizer, it is passed over for another one
+     * @param blockSize the sequence increment
+     * @return number of staged rows
+     */
+    public int assignExpenseIds(int blockSize) {
+        Integer staged = jdbcTemplate.queryForObject("SELECT count(*) FROM expense_import_staging", Integer.class);
+        if (staged == null || staged == 0) {
+            return 0;
+        }
+
+        int blocks = (staged + blockSize - 1) / blockSize;
+        List<Long> lastIds = new ArrayList<>(nextExpenseIds(blocks));
+        lastIds.removeIf(lastId -> lastId < blockSize);
+        if (lastIds.size() < blocks) {
+            lastIds.addAll(nextExpenseIds(blocks - lastIds.size()));
+        }
+
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "WITH numbered AS (" +
+                    "    SELECT line_number, row_number() OVER (ORDER BY line_number) - 1 AS position" +
+                    "    FROM expense_import_staging" +
+                    "), blocks AS (" +
+                    "    SELECT block - 1 AS block, last_id FROM unnest(?) WITH ORDINALITY AS b(last_id, block)" +
+                    ") " +
+                    "UPDATE expense_import_staging s " +
+                    "SET id = b.last_id - ? + 1 + n.position % ? " +
+                    "FROM numbered n JOIN blocks b ON b.block = n.position / ? " +
+                    "WHERE s.line_number = n.line_number");
+            statement.setArray(1, connection.createArrayOf("bigint", lastIds.toArray()));
+            statement.setInt(2, blockSize);
+            statement.setInt(3, blockSize);
+            statement.setInt(4, blockSize);
+            return statement;
+        });
+    }
+
+    /**
+     * Insert the staged rows and their tags into expenses and expense_tags for a user
+     * Each expense is written once with its complete search document: the search triggers are
+     * switched off for the two statements (see V9__expense_search_bulk_load.sql)
+     * @return number of expenses inserted
+     */
+    public int insertExpenses(Long userId) {
+        setBulkLoad(true);
+        int inserted = jdbcTemplate.update(
+                "INSERT INTO expenses (id, user_id, category_id, amount, currency, date, description, receipt_mongo_id, " +
+                "search_vector) " +
+                "SELECT id, ?, category_id, amount, currency, date, description, receipt_mongo_id, " +
+                "expense_search_document_of(description, category_id, array_to_string(tags, ' ')) " +
+                "FROM expense_import_staging ORDER BY id",
+                userId);
+        jdbcTemplate.update(
+                "INSERT INTO expense_tags (expense_id, tag) " +
+                "SELECT s.id, t.tag FROM expense_import_staging s CROSS JOIN LATERAL unnest(s.tags) AS t(tag)");
+        setBulkLoad(false);
+        return inserted;
+    }
+
+    /**
+     * Staged totals per month and currency
+     * @return rows of [year, month, upper-case currency, total, count] ordered by year, month and currency
+     */
+    public List<Object[]> sumByMonthAndCurrency() {
+        return jdbcTemplate.query(
+                "SELECT CAST(EXTRACT(YEAR FROM date) AS INT), CAST(EXTRACT(MONTH FROM date) AS INT), " +
+                "UPPER(currency), SUM(amount), COUNT(*) " +
+                "FROM expense_import_staging GROUP BY 1, 2, 3 ORDER BY 1, 2, 3",
+                (rs, rowNum) -> new Object[]{rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getBigDecimal(4), rs.getLong(5)});
+    }
+
+    /**
+     * Staged totals per category and currency
+     * @return rows of [category ID, upper-case currency, total, count] ordered by category and currency
+     */
+    public List<Object[]> sumByCategoryAndCurrency() {
+        return jdbcTemplate.query(
+                "SELECT category_id, UPPER(currency), SUM(amount), COUNT(*) " +
+                "FROM expense_import_staging GROUP BY 1, 2 ORDER BY 1, 2",
+                (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getBigDecimal(3), rs.getLong(4)});
+    }
+
+    /**
+     * Stream the staged amounts ordered by category, currency and date, fetching rows in chunks
+     * The handler receives rows of category_id, upper-case currency, date and amount
+     */
+    public void forEachAmountByCategoryCurrencyAndDate(RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT category_id, UPPER(currency), date, amount FROM expense_import_staging " +
+                    "ORDER BY category_id, UPPER(currency), date");
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            return statement;
+        }, handler);
+    }
+
+    private List<Long> nextExpenseIds(int count) {
+        return jdbcTemplate.queryForList(
+                "SELECT nextval('expenses_id_seq') FROM generate_series(1, ?) ORDER BY 1", Long.class, count);
+    }
+
+    private void setBulkLoad(boolean enabled) {
+        // is_local = true scopes the setting to the transaction, so pooled connections don't keep it
+        jdbcTemplate.queryForObject("SELECT set_config('expense_tracker.bulk_load', ?, true)",
+                String.class, enabled ? "on" : "off");
+    }
+}
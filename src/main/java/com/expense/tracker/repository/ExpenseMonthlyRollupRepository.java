@@ -0,0 +1,80 @@
+package com.expense.tracker.repository;
+
+import com.expense.tracker.model.ExpenseMonthlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface ExpenseMonthlyRollupRepository extends JpaRepository<ExpenseMonthlyRollup, ExpenseMonthlyRollup.Key> {
+
+    /**
+     * Find a user's monthly rollups for a year
+     * @param userId the user ID
+     * @param year the year
+     * @return rollups ordered by month, then currency
+     */
+    @Query("SELECT r FROM ExpenseMonthlyRollup r " +
+           "WHERE r.id.userId = :userId AND r.id.year = :year " +
+           "ORDER BY r.id.month, r.id.currency")
+    List<ExpenseMonthlyRollup> findByUserIdAndYear(@Param("userId") Long userId, @Param("year") Integer year);
+
+    /**
+     * Add a delta to a rollup row, creating it if missing
+     * Runs as a single atomic upsert, so concurrent writers to the same month never lose updates
+     * @param userId the user ID
+     * @param year the year
+     * @param month the month (1-12)
+     * @param currency the upper-cased currency code
+     * @param total the amount to add (negative to subtract)
+     * @param count the number of expenses to add (negative to subtract)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO expense_monthly_rollups AS r (user_id, year, month, currency, total, count) " +
+                   "VALUES (:userId, :year, :month, :currency, :total, :count) " +
+                   "ON CONFLICT (user_id, year, month, currency) " +
+                   "DO UPDATE SET total = r.total + EXCLUDED.total, count = r.count + EXCLUDED.count",
+           nativeQuery = true)
+    void addToRollup(@Param("userId") Long userId,
+                     @Param("year") Integer year,
+                     @Param("month") Integer month,
+                     @Param("currency") String currency,
+                     @Param("total") BigDecimal total,
+                     @Param("count") Long count);
+
+    /**
+     * Delete a rollup row once no expenses remain in it
+     */
+    @Modifying
+    @Query(value = "DELETE FROM expense_monthly_rollups " +
+                   "WHERE user_id = :userId AND year = :year AND month = :month AND currency = :currency AND count = 0",
+           nativeQuery = true)
+    void deleteIfEmpty(@Param("userId") Long userId,
+                       @Param("year") Integer year,
+                       @Param("month") Integer month,
+                       @Param("currency") String currency);
+
+    /**
+     * Block rollup writes from other transactions until the current one ends
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE expense_monthly_rollups IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    /**
+     * Recompute every rollup row from the expenses table
+     * @return number of rollup rows inserted
+     */
+    @Modifying
+    @Query(value = "INSERT INTO expense_monthly_rollups (user_id, year, month, currency, total, count) " +
+                   "SELECT user_id, CAST(EXTRACT(YEAR FROM date) AS INTEGER), CAST(EXTRACT(MONTH FROM date) AS INTEGER), " +
+                   "UPPER(currency), SUM(amount), COUNT(*) " +
+                   "FROM expenses GROUP BY 1, 2, 3, 4",
+           nativeQuery = true)
+    int insertFromExpenses();
+}
@@ -1,20 +1,38 @@
 package com.expense.tracker.repository;
 
 import com.expense.tracker.model.Expense;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpecificationExecutor<Expense> {
+public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpecificationExecutor<Expense>,
+        ExpenseRepositoryCustom {
+
+    /**
+     * Find a user's expense by ID with its user, category and tags loaded in one query
+     * The tags are fetched too because an update publishes them in its before snapshot
+     * @param id the expense ID
+     * @param userId the owner's user ID
+     * @return Optional containing the expense if it exists and belongs to the user
+     */
+    @EntityGraph(attributePaths = {"user", "category", "tags"})
+    Optional<Expense> findByIdAndUserId(Long id, Long userId);
 
     /**
      * Find all expenses for a specific user
@@ -24,11 +42,12 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpec
     List<Expense> findByUserId(Long userId);
 
     /**
-     * Find all expenses for a specific user with pagination
+     * Find all expenses for a specific user with pagination, with their users and categories loaded
      * @param userId the user ID
      * @param pageable pagination information
      * @return page of expenses
      */
+    @EntityGraph(Expense.DETAILS_GRAPH)
     Page<Expense> findByUserId(Long userId, Pageable pageable);
 
     /**
@@ -117,6 +136,30 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpec
     @Query("SELECT e FROM Expense e JOIN e.tags t WHERE e.user.id = :userId AND t = :tag")
     Page<Expense> findByUserIdAndTag(@Param("userId") Long userId, @Param("tag") String tag, Pageable pageable);
 
+    /**
+     * Get the scalar columns of all expenses for a user, for the in-memory expense index
+     * @param userId the user ID
+     * @return list of rows with expense ID, category ID, date, amount and currency
+     */
+    @Query("SELECT e.id, e.category.id, e.date, e.amount, e.currency FROM Expense e WHERE e.user.id = :userId")
+    List<Object[]> findColumnValuesByUserId(@Param("userId") Long userId);
+
+    /**
+     * Get the tags of all expenses for a user, for the in-memory expense index
+     * @param userId the user ID
+     * @return list of rows with expense ID and tag
+     */
+    @Query("SELECT e.id, t FROM Expense e JOIN e.tags t WHERE e.user.id = :userId")
+    List<Object[]> findTagsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Get the tags of a set of expenses
+     * @param ids the expense IDs
+     * @return list of rows with expense ID and tag
+     */
+    @Query("SELECT e.id, t FROM Expense e JOIN e.tags t WHERE e.id IN :ids")
+    List<Object[]> findTagsByIdIn(@Param("ids") Collection<Long> ids);
+
     /**
      * Calculate total expenses for a user
      * @param userId the user ID
@@ -145,6 +188,53 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpec
     BigDecimal sumAmountByUserIdAndDateBetween(
         @Param("userId") Long userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 
+    /**
+     * Calculate a user's total expenses per day
+     * @param userId the user ID
+     * @return list of [date, total] rows, one per day with expenses
+     */
+    @Query("SELECT e.date, SUM(e.amount) FROM Expense e WHERE e.user.id = :userId GROUP BY e.date")
+    List<Object[]> sumAmountByUserIdGroupByDate(@Param("userId") Long userId);
+
+    /**
+     * Calculate a user's total expenses per day within date range
+     * @param userId the user ID
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @return list of [date, total] rows, one per day with expenses
+     */
+    @Query("SELECT e.date, SUM(e.amount) FROM Expense e " +
+           "WHERE e.user.id = :userId AND e.date BETWEEN :startDate AND :endDate GROUP BY e.date")
+    List<Object[]> sumAmountByUserIdAndDateBetweenGroupByDate(
+        @Param("userId") Long userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Find the amounts of a user's expenses in one category and currency within date range
+     * @param userId the user ID
+     * @param categoryId the category ID
+     * @param currency the currency code, matched case-insensitively
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @return list of amounts
+     */
+    @Query("SELECT e.amount FROM Expense e " +
+           "WHERE e.user.id = :userId AND e.category.id = :categoryId AND UPPER(e.currency) = UPPER(:currency) " +
+           "AND e.date BETWEEN :startDate AND :endDate")
+    List<BigDecimal> findAmountsByUserIdAndCategoryIdAndCurrencyAndDateBetween(
+        @Param("userId") Long userId, @Param("categoryId") Long categoryId, @Param("currency") String currency,
+        @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Stream every expense's amount with its user, category, currency and date, grouped for sketch rebuilds
+     * Must be consumed inside a transaction and closed afterwards
+     * @return stream of [user ID, category ID, upper-case currency, date, amount] ordered by user,
+     *         category, currency, then date
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT e.user.id, e.category.id, UPPER(e.currency), e.date, e.amount FROM Expense e " +
+           "ORDER BY e.user.id, e.category.id, UPPER(e.currency), e.date")
+    Stream<Object[]> streamAmountsOrderedByUserCategoryCurrencyAndDate();
+
     /**
      * Calculate total expenses for a user by category
      * @param userId the user ID
@@ -194,12 +284,12 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpec
      * @param userId the user ID
      * @param startDate the start date (inclusive)
      * @param endDate the end date (inclusive)
-     * @return list of category totals with category details, total, and count
+     * @return list of category totals with category ID, name, total, and count
      */
-    @Query("SELECT e.category.id, e.category.name, e.category.color, e.category.icon, SUM(e.amount) as total, COUNT(e) as count " +
+    @Query("SELECT e.category.id, e.category.name, SUM(e.amount) as total, COUNT(e) as count " +
            "FROM Expense e " +
            "WHERE e.user.id = :userId AND e.date BETWEEN :startDate AND :endDate " +
-           "GROUP BY e.category.id, e.category.name, e.category.color, e.category.icon " +
+           "GROUP BY e.category.id, e.category.name " +
            "ORDER BY total DESC")
     List<Object[]> getCategoryTotals(@Param("userId") Long userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 }
@@ -0,0 +1,116 @@
+package com.expense.tracker.repository;
+
+import com.expense.tracker.dto.ExpenseResponseDto;
+import com.expense.tracker.model.Category;
+import com.expense.tracker.model.Expense;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Custom expense queries that Spring Data cannot derive
+ */
+public interface ExpenseRepositoryCustom {
+
+    /**
+     * Find one page of expenses matching a specification, selected straight into response DTOs
+     * Rows are never loaded as managed entities; tags are aggregated per expense with array_agg
+     * @param specification the filter specification
+     * @param pageable pagination information
+     * @return expenses on the requested page
+     */
+    List<ExpenseResponseDto> findResponses(Specification<Expense> specification, Pageable pageable);
+
+    /**
+     * Find a slice of expenses matching a specification, selected straight into response DTOs
+     * Fetches one row beyond the page size to determine whether a next slice exists
+     * @param specification the filter specification
+     * @param pageable pagination information
+     * @return slice of expenses
+     */
+    Slice<ExpenseResponseDto> findResponseSlice(Specification<Expense> specification, Pageable pageable);
+
+    /**
+     * Stream all expenses matching a specification, selected straight into response DTOs
+     * Rows are read through a forward-only cursor in fetch-size chunks and never become managed
+     * entities, so memory stays flat however many rows match. Must be consumed inside a transaction
+     * and closed afterwards
+     * @param specification the filter specification
+     * @param sort the order to stream in
+     * @return stream of expenses
+     */
+    Stream<ExpenseResponseDto> streamResponses(Specification<Expense> specification, Sort sort);
+
+    /**
+     * Find a user's expense by ID, selected straight into a response DTO
+     * @param id the expense ID
+     * @param userId the owner's user ID
+     * @return Optional containing the expense if it exists and belongs to the user
+     */
+    Optional<ExpenseResponseDto> findResponseByIdAndUserId(Long id, Long userId);
+
+    /**
+     * Delete a user's expense by ID in one statement, returning the columns the derived read models use
+     * Its tags go with it through the foreign key cascade
+     * @param id the expense ID
+     * @param userId the owner's user ID
+     * @return Optional containing the expense ID (Long), category ID (Long), date (LocalDate), amount
+     *         (BigDecimal), currency (String) and tags (String[], possibly with duplicates) of the deleted
+     *         row, empty if the expense does not exist or belongs to another user
+     */
+    Optional<Object[]> deleteByIdAndUserId(Long id, Long userId);
+
+    /**
+     * Calculate a user's total expenses per date_trunc bucket and currency within date range
+     * Served by idx_expenses_user_date; buckets without expenses are omitted
+     * @param userId the user ID
+     * @param unit the date_trunc unit (day, week or month)
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @return list of [bucket start date (LocalDate), currency (String), total (BigDecimal)] in bucket
+     *         then currency order
+     */
+    List<Object[]> sumAmountByUserIdAndDateBetweenGroupByBucketAndCurrency(
+            Long userId, String unit, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Set the pg_trgm word similarity threshold for the rest of the current transaction
+     * Applies to trigram (fuzzy) matches issued afterwards in the same transaction
+     * @param threshold similarity between 0 and 1
+     */
+    void setWordSimilarityThreshold(double threshold);
+
+    /**
+     * Insert new expenses in JDBC batches
+     * Flushes and clears the persistence context every few batches so dirty checking and memory
+     * stay bounded; entities loaded earlier in the transaction are detached as a result
+     * @param expenses new expenses without IDs; IDs are assigned in place
+     */
+    void insertAll(List<Expense> expenses);
+
+    /**
+     * Lock the expenses matching a specification and read the columns the derived read models use
+     * Rows are locked in ID order and stay locked until the transaction ends; an expense matching
+     * through several joined rows, e.g. case variants of a tag, is returned once
+     * @param specification the filter specification
+     * @param limit maximum number of expenses to lock
+     * @return list of rows with expense ID, category ID, date, amount and currency
+     */
+    List<Object[]> lockColumnValues(Specification<Expense> specification, int limit);
+
+    /**
+     * Set the category and/or currency of the expenses matching a specification in one UPDATE statement
+     * The specification is applied to the statement itself, so it must not join or use the query
+     * @param specification the filter specification
+     * @param category the new category, or null to keep it
+     * @param currency the new currency, or null to keep it
+     * @return number of updated rows
+     */
+    int updateCategoryAndCurrency(Specification<Expense> specification, Category category, String currency);
+}
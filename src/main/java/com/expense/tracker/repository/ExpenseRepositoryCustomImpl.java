@@ -0,0 +1,260 @@
+package com.expense.tracker.repository;
+
+import com.expense.tracker.dto.ExpenseResponseDto;
+import com.expense.tracker.model.Category;
+import com.expense.tracker.model.Expense;
+import com.expense.tracker.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Criteria API implementation of {@link ExpenseRepositoryCustom}
+ */
+public class ExpenseRepositoryCustomImpl implements ExpenseRepositoryCustom {
+
+    // Rows persisted between flushes: a multiple of hibernate.jdbc.batch_size
+    private static final int INSERT_FLUSH_INTERVAL = 1000;
+
+    // Rows the JDBC driver fetches per round trip when streaming
+    private static final int STREAM_FETCH_SIZE = 1000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ExpenseResponseDto> findResponses(Specification<Expense> specification, Pageable pageable) {
+        TypedQuery<ExpenseResponseDto> typedQuery = createResponseQuery(specification, pageable.getSort());
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    public Slice<ExpenseResponseDto> findResponseSlice(Specification<Expense> specification, Pageable pageable) {
+        return toSlice(createResponseQuery(specification, pageable.getSort()), pageable);
+    }
+
+    @Override
+    public Stream<ExpenseResponseDto> streamResponses(Specification<Expense> specification, Sort sort) {
+        // PostgreSQL only honours the fetch size inside a transaction; without it the driver reads every row
+        return createResponseQuery(specification, sort)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    @Override
+    public Optional<ExpenseResponseDto> findResponseByIdAndUserId(Long id, Long userId) {
+        Specification<Expense> byIdAndUser = (root, query, criteriaBuilder) -> criteriaBuilder.and(
+                criteriaBuilder.equal(root.get("id"), id),
+                criteriaBuilder.equal(root.get("user").get("id"), userId));
+        return createResponseQuery(byIdAndUser, Sort.unsorted()).getResultStream().findFirst();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<Object[]> deleteByIdAndUserId(Long id, Long userId) {
+        // RETURNING reads the statement's snapshot, so the tags are collected before the cascade removes them
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(
+                        "DELETE FROM expenses e WHERE e.id = :id AND e.user_id = :userId " +
+                        "RETURNING e.id, e.category_id, e.date, e.amount, e.currency, " +
+                        "ARRAY(SELECT t.tag FROM expense_tags t WHERE t.expense_id = e.id) AS tags")
+                .unwrap(NativeQuery.class);
+        List<Object[]> rows = query
+                .addScalar("id", StandardBasicTypes.LONG)
+                .addScalar("category_id", StandardBasicTypes.LONG)
+                .addScalar("date", StandardBasicTypes.LOCAL_DATE)
+                .addScalar("amount", StandardBasicTypes.BIG_DECIMAL)
+                .addScalar("currency", StandardBasicTypes.STRING)
+                .addScalar("tags", String[].class)
+                .setParameter("id", id)
+                .setParameter("userId", userId)
+                .getResultList();
+        return rows.stream().findFirst();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object[]> sumAmountByUserIdAndDateBetweenGroupByBucketAndCurrency(
+            Long userId, String unit, LocalDate startDate, LocalDate endDate) {
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(
+                        "SELECT CAST(date_trunc(:unit, CAST(e.date AS TIMESTAMP)) AS DATE) AS bucket, e.currency, " +
+                        "SUM(e.amount) AS total " +
+                        "FROM expenses e " +
+                        "WHERE e.user_id = :userId AND e.date BETWEEN :startDate AND :endDate " +
+                        "GROUP BY bucket, e.currency " +
+                        "ORDER BY bucket, e.currency")
+                .unwrap(NativeQuery.class);
+        return query
+                .addScalar("bucket", StandardBasicTypes.LOCAL_DATE)
+                .addScalar("currency", StandardBasicTypes.STRING)
+                .addScalar("total", StandardBasicTypes.BIG_DECIMAL)
+                .setParameter("unit", unit)
+                .setParameter("userId", userId)
+                .setParameter("startDate", startDate)
+                .setParameter("endDate", endDate)
+                .getResultList();
+    }
+
+    @Override
+    public void setWordSimilarityThreshold(double threshold) {
+        // is_local = true scopes the setting to the transaction, so pooled connections don't keep it
+        entityManager.createNativeQuery("SELECT set_config('pg_trgm.word_similarity_threshold', :threshold, true)")
+                .setParameter("threshold", Double.toString(threshold))
+                .getSingleResult();
+    }
+
+    @Override
+    public void insertAll(List<Expense> expenses) {
+        for (int i = 0; i < expenses.size(); i++) {
+            entityManager.persist(expenses.get(i));
+            if ((i + 1) % INSERT_FLUSH_INTERVAL == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public List<Object[]> lockColumnValues(Specification<Expense> specification, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = criteriaBuilder.createQuery(Object[].class);
+        Root<Expense> root = query.from(Expense.class);
+
+        // The filter goes into an ID subquery: its joins (one row per matching tag) then never
+        // return, lock or count an expense twice. The specification sees an ID query, so
+        // ordering specifications leave it alone as they do count queries
+        Subquery<Long> matches = query.subquery(Long.class);
+        Root<Expense> match = matches.from(Expense.class);
+        matches.select(match.get("id"));
+        Predicate predicate = specification.toPredicate(match, criteriaBuilder.createQuery(Long.class), criteriaBuilder);
+        if (predicate != null) {
+            matches.where(predicate);
+        }
+        query.where(root.get("id").in(matches));
+        query.multiselect(
+                root.get("id"),
+                root.get("category").get("id"),
+                root.get("date"),
+                root.get("amount"),
+                root.get("currency")
+        );
+        // A fixed order keeps concurrent bulk changes from locking the same rows in opposite orders
+        query.orderBy(criteriaBuilder.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public int updateCategoryAndCurrency(Specification<Expense> specification, Category category, String currency) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Expense> update = criteriaBuilder.createCriteriaUpdate(Expense.class);
+        Root<Expense> root = update.from(Expense.class);
+
+        if (category != null) {
+            update.set(root.<Category>get("category"), category);
+        }
+        if (currency != null) {
+            update.set(root.<String>get("currency"), currency);
+        }
+        // Bulk statements bypass @UpdateTimestamp
+        update.set(root.<LocalDateTime>get("updatedAt"), LocalDateTime.now());
+
+        Predicate predicate = specification.toPredicate(root, null, criteriaBuilder);
+        if (predicate != null) {
+            update.where(predicate);
+        }
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    /**
+     * Build a query selecting matching expenses into ExpenseResponseDto via its projection constructor
+     * Tags come from a correlated array_agg subquery rather than a join, so filter joins in the
+     * specification (e.g. on tags) neither multiply rows nor truncate the aggregated tag list
+     */
+    private TypedQuery<ExpenseResponseDto> createResponseQuery(Specification<Expense> specification, Sort sort) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ExpenseResponseDto> query = criteriaBuilder.createQuery(ExpenseResponseDto.class);
+        Root<Expense> root = query.from(Expense.class);
+        Join<Expense, User> user = root.join("user");
+        Join<Expense, Category> category = root.join("category");
+
+        Subquery<String[]> tags = query.subquery(String[].class);
+        Join<Expense, String> tag = tags.correlate(root).join("tags");
+        tags.select(criteriaBuilder.function("array_agg", String[].class, tag));
+
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(criteriaBuilder.construct(
+                ExpenseResponseDto.class,
+                root.get("id"),
+                user.get("id"),
+                user.get("name"),
+                category.get("id"),
+                category.get("name"),
+                root.get("amount"),
+                root.get("currency"),
+                root.get("date"),
+                root.get("description"),
+                root.get("receiptMongoId"),
+                tags,
+                root.get("createdAt"),
+                root.get("updatedAt")
+        ));
+
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        }
+
+        return entityManager.createQuery(query);
+    }
+
+    /**
+     * Read one slice of a query, fetching one row beyond the page size to detect a next slice
+     */
+    private <T> Slice<T> toSlice(TypedQuery<T> typedQuery, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(typedQuery.getResultList(), pageable, false);
+        }
+
+        typedQuery.setFirstResult((int) pageable.getOffset());
+        typedQuery.setMaxResults(pageable.getPageSize() + 1);
+
+        List<T> content = typedQuery.getResultList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+}
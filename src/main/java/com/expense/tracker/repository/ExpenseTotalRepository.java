@@ -0,0 +1,82 @@
+package com.expense.tracker.repository;
+
+import com.expense.tracker.model.ExpenseTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface ExpenseTotalRepository extends JpaRepository<ExpenseTotal, ExpenseTotal.Key> {
+
+    /**
+     * Sum a user's running totals across categories and currencies
+     * Reads one primary key range of at most categories x currencies rows
+     * @param userId the user ID
+     * @return total amount, or null if the user has no expenses
+     */
+    @Query("SELECT SUM(t.total) FROM ExpenseTotal t WHERE t.id.userId = :userId")
+    BigDecimal sumTotalByUserId(@Param("userId") Long userId);
+
+    /**
+     * Sum a user's running totals for one category across currencies
+     * @param userId the user ID
+     * @param categoryId the category ID
+     * @return total amount, or null if the category has no expenses
+     */
+    @Query("SELECT SUM(t.total) FROM ExpenseTotal t WHERE t.id.userId = :userId AND t.id.categoryId = :categoryId")
+    BigDecimal sumTotalByUserIdAndCategoryId(@Param("userId") Long userId, @Param("categoryId") Long categoryId);
+
+    /**
+     * Add a delta to a running total row, creating it if missing
+     * Runs as a single atomic upsert, so concurrent writers to the same category never lose updates
+     * @param userId the user ID
+     * @param categoryId the category ID
+     * @param currency the upper-cased currency code
+     * @param total the amount to add (negative to subtract)
+     * @param count the number of expenses to add (negative to subtract)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO expense_totals AS t (user_id, category_id, currency, total, count) " +
+                   "VALUES (:userId, :categoryId, :currency, :total, :count) " +
+                   "ON CONFLICT (user_id, category_id, currency) " +
+                   "DO UPDATE SET total = t.total + EXCLUDED.total, count = t.count + EXCLUDED.count",
+           nativeQuery = true)
+    void addToTotal(@Param("userId") Long userId,
+                    @Param("categoryId") Long categoryId,
+                    @Param("currency") String currency,
+                    @Param("total") BigDecimal total,
+                    @Param("count") Long count);
+
+    /**
+     * Delete a running total row once no expenses remain in it
+     */
+    @Modifying
+    @Query(value = "DELETE FROM expense_totals " +
+                   "WHERE user_id = :userId AND category_id = :categoryId AND currency = :currency AND count = 0",
+           nativeQuery = true)
+    void deleteIfEmpty(@Param("userId") Long userId,
+                       @Param("categoryId") Long categoryId,
+                       @Param("currency") String currency);
+
+    /**
+     * Block running total writes from other transactions until the current one ends
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE expense_totals IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockForRebuild();
+
+    /**
+     * Recompute every running total row from the expenses table
+     * @return number of rows inserted
+     */
+    @Modifying
+    @Query(value = "INSERT INTO expense_totals (user_id, category_id, currency, total, count) " +
+                   "SELECT user_id, category_id, UPPER(currency), SUM(amount), COUNT(*) " +
+                   "FROM expenses WHERE category_id IS NOT NULL GROUP BY 1, 2, 3",
+           nativeQuery = true)
+    int insertFromExpenses();
+}
@@ -4,8 +4,12 @@ import com.expense.tracker.model.ReceiptDocument;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -55,6 +59,14 @@ public interface ReceiptRepository extends MongoRepository<ReceiptDocument, Stri
      */
     void deleteByExpenseId(Long expenseId);
 
+    /**
+     * Unlink all receipts of the given expenses, leaving them unassigned
+     * @return number of receipts unlinked
+     */
+    @Query("{ 'expenseId' : { '$in' : ?0 } }")
+    @Update("{ '$set' : { 'expenseId' : null, 'updatedAt' : ?1 } }")
+    long unlinkFromExpenses(Collection<Long> expenseIds, LocalDateTime updatedAt);
+
     /**
      * Count receipts for a user
      */
@@ -0,0 +1,35 @@
+package com.expense.tracker.repository;
+
+import com.expense.tracker.model.UserDataVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface UserDataVersionRepository extends JpaRepository<UserDataVersion, Long> {
+
+    /**
+     * Find an existing user's data version
+     * @param userId the user ID
+     * @return Optional containing the version, 0 if the user's data was never written, or empty if the user does not exist
+     */
+    @Query(value = "SELECT COALESCE(v.version, 0) FROM users u " +
+                   "LEFT JOIN user_data_versions v ON v.user_id = u.id WHERE u.id = :userId",
+           nativeQuery = true)
+    Optional<Long> findVersionByExistingUserId(@Param("userId") Long userId);
+
+    /**
+     * Increment a user's data version, creating it at 1 if missing
+     * Runs as a single atomic upsert; the row stays locked until the writing transaction ends
+     * @param userId the user ID
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_data_versions AS v (user_id, version) VALUES (:userId, 1) " +
+                   "ON CONFLICT (user_id) DO UPDATE SET version = v.version + 1",
+           nativeQuery = true)
+    void incrementVersion(@Param("userId") Long userId);
+}
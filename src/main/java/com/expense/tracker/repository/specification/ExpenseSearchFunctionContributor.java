@@ -0,0 +1,72 @@
+package com.expense.tracker.repository.specification;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.query.ReturnableType;
+import org.hibernate.query.sqm.function.AbstractSqmSelfRenderingFunctionDescriptor;
+import org.hibernate.query.sqm.produce.function.StandardArgumentsValidators;
+import org.hibernate.query.sqm.produce.function.StandardFunctionReturnTypeResolvers;
+import org.hibernate.sql.ast.SqlAstTranslator;
+import org.hibernate.sql.ast.spi.SqlAppender;
+import org.hibernate.sql.ast.tree.SqlAstNode;
+import org.hibernate.sql.ast.tree.expression.ColumnReference;
+import org.hibernate.sql.ast.tree.expression.Expression;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.util.List;
+
+/**
+ * Registers the full-text search functions used by ExpenseSpecification
+ * Both take an expense's id path and the search text, and are rendered against the row's
+ * trigger-maintained search_vector column, e.g. expense_search_matches(e1_0.search_vector, ?).
+ * The column is referenced only here, so entity loads never select the tsvector. Registered
+ * through META-INF/services
+ */
+public class ExpenseSearchFunctionContributor implements FunctionContributor {
+
+    public static final String MATCHES = "expense_search_matches";
+    public static final String RANK = "expense_search_rank";
+
+    private static final String SEARCH_VECTOR_COLUMN = "search_vector";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        functionContributions.getFunctionRegistry()
+                .register(MATCHES, new SearchVectorFunction(MATCHES, types.resolve(StandardBasicTypes.BOOLEAN)));
+        functionContributions.getFunctionRegistry()
+                .register(RANK, new SearchVectorFunction(RANK, types.resolve(StandardBasicTypes.FLOAT)));
+    }
+
+    /**
+     * A database function whose first argument is the search_vector column of the row an id path points at
+     */
+    private static class SearchVectorFunction extends AbstractSqmSelfRenderingFunctionDescriptor {
+
+        SearchVectorFunction(String name, BasicType<?> returnType) {
+            super(name, StandardArgumentsValidators.exactly(2),
+                    StandardFunctionReturnTypeResolvers.invariant(returnType), null);
+        }
+
+        @Override
+        public void render(SqlAppender sqlAppender, List<? extends SqlAstNode> arguments,
+                           ReturnableType<?> returnType, SqlAstTranslator<?> walker) {
+            ColumnReference id = ((Expression) arguments.get(0)).getColumnReference();
+            if (id == null) {
+                throw new IllegalArgumentException(getName() + " expects an expense id path as its first argument");
+            }
+            sqlAppender.appendSql(getName());
+            sqlAppender.appendSql('(');
+            if (id.getQualifier() != null) {
+                sqlAppender.appendSql(id.getQualifier());
+                sqlAppender.appendSql('.');
+            }
+            sqlAppender.appendSql(SEARCH_VECTOR_COLUMN);
+            sqlAppender.appendSql(", ");
+            arguments.get(1).accept(walker);
+            sqlAppender.appendSql(')');
+        }
+    }
+}
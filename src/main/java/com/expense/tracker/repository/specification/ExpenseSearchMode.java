@@ -0,0 +1,44 @@
+package com.expense.tracker.repository.specification;
+
+import java.util.Arrays;
+
+/**
+ * Match strategy applied to the q search text
+ */
+public enum ExpenseSearchMode {
+
+    /**
+     * Stemmed word search over description, category name and tags (search_vector)
+     */
+    FULL_TEXT("fulltext"),
+
+    /**
+     * Substring and typo-tolerant trigram search over description and category name
+     */
+    FUZZY("fuzzy");
+
+    private final String parameter;
+
+    ExpenseSearchMode(String parameter) {
+        this.parameter = parameter;
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    /**
+     * Resolve a request parameter value, defaulting to full-text search when absent
+     *
+     * @throws IllegalArgumentException if the value names no known mode
+     */
+    public static ExpenseSearchMode fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return FULL_TEXT;
+        }
+        return Arrays.stream(values())
+                .filter(mode -> mode.parameter.equalsIgnoreCase(value.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown search mode: " + value));
+    }
+}
@@ -1,5 +1,6 @@
 package com.expense.tracker.repository.specification;
 
+import com.expense.tracker.dto.ExpenseFilter;
 import com.expense.tracker.model.Category;
 import com.expense.tracker.model.Expense;
 import com.expense.tracker.model.User;
@@ -9,6 +10,7 @@ import org.springframework.data.jpa.domain.Specification;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -28,6 +30,13 @@ public class ExpenseSpecification {
         };
     }
 
+    /**
+     * Create specification for fetching a known set of expenses by ID
+     */
+    public static Specification<Expense> hasIdIn(Collection<Long> ids) {
+        return (root, query, criteriaBuilder) -> root.get("id").in(ids);
+    }
+
     /**
      * Create specification for filtering by date range
      */
@@ -79,40 +88,118 @@ public class ExpenseSpecification {
     }
 
     /**
-     * Create specification for text search across description and tags
+     * Create specification for full-text search across description, category name and tags
+     * Uses websearch_to_tsquery syntax ("quoted phrases", OR, -excluded) against the
+     * trigger-maintained search_vector column, which is served by a GIN index. The column is not
+     * mapped; ExpenseSearchFunctionContributor renders it from the id path
      */
-    public static Specification<Expense> hasSearchText(String searchText) {
+    public static Specification<Expense> matchesFullText(String searchText) {
         return (root, query, criteriaBuilder) -> {
             if (searchText == null || searchText.trim().isEmpty()) {
                 return criteriaBuilder.conjunction();
             }
             
-            String likePattern = "%" + searchText.toLowerCase() + "%";
+            return criteriaBuilder.isTrue(criteriaBuilder.function(
+                    ExpenseSearchFunctionContributor.MATCHES,
+                    Boolean.class,
+                    root.get("id"),
+                    criteriaBuilder.literal(searchText.trim())
+            ));
+        };
+    }
+
+    /**
+     * Create specification that orders full-text matches by relevance, best first
+     * Adds no predicate and leaves count queries untouched
+     */
+    public static Specification<Expense> orderByRelevance(String searchText) {
+        return (root, query, criteriaBuilder) -> {
+            if (searchText == null || searchText.trim().isEmpty() || Long.class.equals(query.getResultType())) {
+                return null;
+            }
             
-            // Search in description
-            Predicate descriptionPredicate = criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get("description")), 
-                    likePattern
+            Expression<Float> rank = criteriaBuilder.function(
+                    ExpenseSearchFunctionContributor.RANK,
+                    Float.class,
+                    root.get("id"),
+                    criteriaBuilder.literal(searchText.trim())
             );
+            query.orderBy(criteriaBuilder.desc(rank), criteriaBuilder.desc(root.get("id")));
+            return null;
+        };
+    }
+
+    /**
+     * Create specification for substring and typo-tolerant search across description and category name
+     * Description matches go through the trigram_matches helper (ILIKE or word similarity), which the
+     * GIN trigram index serves. Category names are matched up front and passed in as IDs, so the
+     * predicate stays an index-friendly OR on the expenses table instead of a correlated subquery
+     */
+    public static Specification<Expense> matchesTrigram(String searchText, Collection<Long> matchingCategoryIds) {
+        return (root, query, criteriaBuilder) -> {
+            if (searchText == null || searchText.trim().isEmpty()) {
+                return criteriaBuilder.conjunction();
+            }
             
-            // Search in tags (ElementCollection)
-            Join<Expense, String> tagsJoin = root.join("tags", JoinType.LEFT);
-            Predicate tagsPredicate = criteriaBuilder.like(
-                    criteriaBuilder.lower(tagsJoin), 
-                    likePattern
-            );
+            Predicate descriptionPredicate = criteriaBuilder.isTrue(criteriaBuilder.function(
+                    "trigram_matches",
+                    Boolean.class,
+                    root.get("description"),
+                    criteriaBuilder.literal(searchText.trim())
+            ));
             
-            // Search in category name
-            Predicate categoryPredicate = criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get("category").get("name")), 
-                    likePattern
-            );
+            if (matchingCategoryIds == null || matchingCategoryIds.isEmpty()) {
+                return descriptionPredicate;
+            }
+            return criteriaBuilder.or(descriptionPredicate, root.get("category").get("id").in(matchingCategoryIds));
+        };
+    }
+
+    /**
+     * Create specification that orders trigram matches by word similarity, best first
+     * Scores each expense by the closer of its description and category name; adds no predicate
+     * and leaves count queries untouched
+     */
+    public static Specification<Expense> orderBySimilarity(String searchText) {
+        return (root, query, criteriaBuilder) -> {
+            if (searchText == null || searchText.trim().isEmpty() || Long.class.equals(query.getResultType())) {
+                return null;
+            }
             
-            // Combine with OR
-            return criteriaBuilder.or(descriptionPredicate, tagsPredicate, categoryPredicate);
+            Expression<String> text = criteriaBuilder.literal(searchText.trim());
+            Expression<Float> similarity = criteriaBuilder.function(
+                    "greatest",
+                    Float.class,
+                    criteriaBuilder.function("word_similarity", Float.class, text, root.get("description")),
+                    criteriaBuilder.function("word_similarity", Float.class, text, root.get("category").get("name"))
+            );
+            query.orderBy(criteriaBuilder.desc(similarity), criteriaBuilder.desc(root.get("id")));
+            return null;
         };
     }
 
+    /**
+     * Create specification for the search text using the requested match strategy
+     */
+    public static Specification<Expense> matchesSearchText(
+            String searchText,
+            ExpenseSearchMode searchMode,
+            Collection<Long> matchingCategoryIds) {
+        
+        return searchMode == ExpenseSearchMode.FUZZY
+                ? matchesTrigram(searchText, matchingCategoryIds)
+                : matchesFullText(searchText);
+    }
+
+    /**
+     * Create specification that orders search matches by relevance under the requested match strategy
+     */
+    public static Specification<Expense> orderByRelevance(String searchText, ExpenseSearchMode searchMode) {
+        return searchMode == ExpenseSearchMode.FUZZY
+                ? orderBySimilarity(searchText)
+                : orderByRelevance(searchText);
+    }
+
     /**
      * Create specification for filtering by currency
      */
@@ -145,6 +232,53 @@ public class ExpenseSpecification {
         };
     }
 
+    /**
+     * Create specification for seeking past a keyset cursor in (date DESC, id DESC) order
+     * The redundant date upper bound keeps the predicate a range scan on idx_expenses_user_date
+     */
+    public static Specification<Expense> isAfterCursor(ExpenseCursor cursor) {
+        return (root, query, criteriaBuilder) -> {
+            if (cursor == null) {
+                return criteriaBuilder.conjunction();
+            }
+            
+            Path<LocalDate> date = root.get("date");
+            Path<Long> id = root.get("id");
+            return criteriaBuilder.and(
+                    criteriaBuilder.lessThanOrEqualTo(date, cursor.date()),
+                    criteriaBuilder.or(
+                            criteriaBuilder.lessThan(date, cursor.date()),
+                            criteriaBuilder.lessThan(id, cursor.id())
+                    )
+            );
+        };
+    }
+
+    /**
+     * Combine all filter specifications with AND
+     */
+    public static Specification<Expense> buildSpecification(Long userId, ExpenseFilter filter) {
+        return buildSpecification(userId, filter, List.of());
+    }
+
+    /**
+     * Combine all filter specifications with AND
+     * matchingCategoryIds are the user's categories whose names match the search text in fuzzy mode
+     */
+    public static Specification<Expense> buildSpecification(
+            Long userId,
+            ExpenseFilter filter,
+            Collection<Long> matchingCategoryIds) {
+        
+        return Specification.where(hasUserId(userId))
+                .and(hasDateBetween(filter.getFromDate(), filter.getToDate()))
+                .and(hasCategoryId(filter.getCategoryId()))
+                .and(hasAmountBetween(filter.getMinAmount(), filter.getMaxAmount()))
+                .and(matchesSearchText(filter.getSearchText(), filter.getSearchMode(), matchingCategoryIds))
+                .and(hasCurrency(filter.getCurrency()))
+                .and(hasTag(filter.getTag()));
+    }
+
     /**
      * Combine multiple specifications with AND
      */
@@ -163,7 +297,7 @@ public class ExpenseSpecification {
                 .and(hasDateBetween(fromDate, toDate))
                 .and(hasCategoryId(categoryId))
                 .and(hasAmountBetween(minAmount, maxAmount))
-                .and(hasSearchText(searchText))
+                .and(matchesFullText(searchText))
                 .and(hasCurrency(currency))
                 .and(hasTag(tag));
     }
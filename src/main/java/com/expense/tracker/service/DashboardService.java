@@ -0,0 +1,108 @@
+package com.expense.tracker.service;
+
+import com.expense.tracker.dto.CategoryReportDto;
+import com.expense.tracker.dto.DashboardDto;
+import com.expense.tracker.dto.ExpenseResponseDto;
+import com.expense.tracker.dto.MonthlyReportDto;
+import com.expense.tracker.exception.ResourceNotFoundException;
+import com.expense.tracker.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Service assembling the dashboard in one call
+ * Validates the request once, then runs the independent queries concurrently on virtual threads,
+ * each in its own read-only transaction. Deliberately not @Transactional itself, so the request
+ * thread does not hold a connection while it waits
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardService {
+
+    private static final int MAX_RECENT_EXPENSES = 100;
+
+    private final ExpenseService expenseService;
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Get the dashboard for a user
+     *
+     * @param userId the user ID
+     * @param year the year of the monthly report
+     * @param startDate the start date of the category report
+     * @param endDate the end date of the category report
+     * @param recentSize the number of newest expenses to include
+     * @return dashboard data
+     */
+    public DashboardDto getDashboard(Long userId, Integer year, LocalDate startDate, LocalDate endDate, int recentSize) {
+        log.debug("Loading dashboard for user ID: {}", userId);
+        
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+        
+        expenseService.validateReportYear(year);
+        expenseService.validateReportDateRange(startDate, endDate);
+        if (recentSize < 1 || recentSize > MAX_RECENT_EXPENSES) {
+            throw new IllegalArgumentException("Recent expense count must be between 1 and " + MAX_RECENT_EXPENSES);
+        }
+        
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<BigDecimal> total = submit(executor, readOnly, () -> expenseService.runningTotal(userId));
+            Future<List<MonthlyReportDto>> monthlyReport = submit(executor, readOnly,
+                    () -> expenseService.monthlyReport(userId, year));
+            Future<List<CategoryReportDto>> categoryReport = submit(executor, readOnly,
+                    () -> expenseService.categoryReport(userId, startDate, endDate));
+            Future<Slice<ExpenseResponseDto>> recentExpenses = submit(executor, readOnly,
+                    () -> expenseService.recentExpenses(userId, recentSize));
+            
+            Slice<ExpenseResponseDto> recent = await(recentExpenses);
+            return DashboardDto.builder()
+                    .total(await(total))
+                    .monthlyReport(await(monthlyReport))
+                    .categoryReport(await(categoryReport))
+                    .recentExpenses(recent.getContent())
+                    .hasMoreExpenses(recent.hasNext())
+                    .build();
+        }
+    }
+
+    private static <T> Future<T> submit(ExecutorService executor, TransactionTemplate transaction, Supplier<T> query) {
+        return executor.submit(() -> transaction.execute(status -> query.get()));
+    }
+
+    /**
+     * Wait for a sub-query, rethrowing its failure unwrapped so the usual error mapping applies
+     */
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Dashboard query failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading dashboard", e);
+        }
+    }
+}
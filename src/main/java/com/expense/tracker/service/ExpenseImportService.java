@@ -0,0 +1,335 @@
+package com.expense.tracker.service;
+
+import com.expense.tracker.dto.ErrorResponse;
+import com.expense.tracker.dto.ExpenseCreateDto;
+import com.expense.tracker.dto.ExpenseImportResultDto;
+import com.expense.tracker.exception.ResourceNotFoundException;
+import com.expense.tracker.mapper.EntityMapper;
+import com.expense.tracker.model.Category;
+import com.expense.tracker.repository.CategoryRepository;
+import com.expense.tracker.repository.ExpenseImportStagingRepository;
+import com.expense.tracker.repository.ExpenseMonthlyRollupRepository;
+import com.expense.tracker.repository.ExpenseTotalRepository;
+import com.expense.tracker.repository.UserRepository;
+import com.expense.tracker.service.csv.CsvReader;
+import com.expense.tracker.service.csv.ExpenseCsvFormat;
+import com.expense.tracker.service.event.ExpensesImportedEvent;
+import com.expense.tracker.service.rollup.AmountSketchService;
+import com.expense.tracker.service.sketch.TDigest;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Service for importing expenses from CSV files in the layout written by the CSV export
+ * The upload is parsed as a stream and valid rows are loaded with COPY into a staging table, then
+ * merged into expenses and expense_tags with set-based statements. Memory use does not grow with the
+ * file: only the user's category names and the first few row errors are kept
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExpenseImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+    private static final int MAX_TAG_LENGTH = 50;
+    // Increment of expenses_id_seq, matching the allocation size of Expense's ID generator
+    private static final int EXPENSE_ID_BLOCK_SIZE = 50;
+
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final ExpenseImportStagingRepository stagingRepository;
+    private final ExpenseMonthlyRollupRepository monthlyRollupRepository;
+    private final ExpenseTotalRepository expenseTotalRepository;
+    private final AmountSketchService amountSketchService;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Import a user's expenses from CSV in one transaction
+     * The ID and Created At columns are ignored; categories are matched by name. Rows that fail
+     * validation are skipped and reported by line, the rest are imported
+     *
+     * @param userId the ID of the user owning the imported expenses
+     * @param csv the CSV content, starting with the export header
+     * @return number of imported and rejected rows, with the first rejected rows' errors
+     * @throws ResourceNotFoundException if user not found
+     * @throws IllegalArgumentException if the header does not match or the CSV is malformed
+     * @throws IOException if reading the CSV fails
+     */
+    @Transactional
+    public ExpenseImportResultDto importCsv(Long userId, Reader csv) throws IOException {
+        log.info("Importing expenses from CSV for user ID: {}", userId);
+
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+
+        CsvReader reader = new CsvReader(csv);
+        validateHeader(reader.readRecord());
+
+        stagingRepository.createStagingTable();
+        ImportProgress progress = copyToStaging(userId, reader);
+
+        if (progress.staged > 0) {
+            stagingRepository.assignExpenseIds(EXPENSE_ID_BLOCK_SIZE);
+            stagingRepository.insertExpenses(userId);
+            updateDerivedTables(userId);
+            eventPublisher.publishEvent(new ExpensesImportedEvent(userId, progress.staged));
+        }
+        log.info("Imported {} expenses for user ID: {} ({} rows rejected)", progress.staged, userId, progress.rejected);
+
+        return ExpenseImportResultDto.builder()
+                .imported(progress.staged)
+                .rejected(progress.rejected)
+                .errors(progress.errors)
+                .build();
+    }
+
+    private void validateHeader(List<String> header) {
+        if (header != null && !header.isEmpty()) {
+            // Spreadsheet tools often prepend a byte order mark
+            header.set(0, header.get(0).replace("\uFEFF", ""));
+        }
+        if (header == null || !header.stream().map(String::trim).toList().equals(ExpenseCsvFormat.HEADER)) {
+            throw new IllegalArgumentException("CSV header must be: " + String.join(",", ExpenseCsvFormat.HEADER));
+        }
+    }
+
+    /**
+     * Stream the remaining records into the staging table, keeping valid rows and counting rejected ones
+     */
+    private ImportProgress copyToStaging(Long userId, CsvReader reader) throws IOException {
+        ImportProgress progress = new ImportProgress();
+        // Loaded up front: no other statement can run on the connection while the COPY is open
+        Map<String, Long> categoryIdsByName = categoryRepository.findByUserId(userId).stream()
+                .collect(Collectors.toMap(Category::getName, Category::getId, (first, second) -> first));
+
+        PGCopyOutputStream copy;
+        try {
+            copy = stagingRepository.openCopy();
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not start COPY into the import staging table", e);
+        }
+        try {
+            Writer writer = new OutputStreamWriter(copy, StandardCharsets.UTF_8);
+            for (List<String> record = reader.readRecord(); record != null; record = reader.readRecord()) {
+                List<ErrorResponse.ValidationError> errors = new ArrayList<>();
+                ExpenseCreateDto expense = parseRecord(userId, record, categoryIdsByName, errors);
+                if (errors.isEmpty()) {
+                    writer.write(toStagingRow(reader.recordLine(), expense));
+                    progress.staged++;
+                } else {
+                    progress.reject(reader.recordLine(), errors);
+                }
+            }
+            writer.close();
+        } catch (IOException | RuntimeException e) {
+            if (copy.isActive()) {
+                try {
+                    copy.cancelCopy();
+                } catch (SQLException cancelFailure) {
+                    e.addSuppressed(cancelFailure);
+                }
+            }
+            throw e;
+        }
+        return progress;
+    }
+
+    /**
+     * Parse and validate one record with the same rules as ExpenseCreateDto, collecting errors
+     */
+    private ExpenseCreateDto parseRecord(Long userId, List<String> record, Map<String, Long> categoryIdsByName,
+                                         List<ErrorResponse.ValidationError> errors) {
+        if (record.size() != ExpenseCsvFormat.HEADER.size()) {
+            errors.add(validationError(null, "Expected " + ExpenseCsvFormat.HEADER.size() + " columns but found "
+                    + record.size(), null));
+            return null;
+        }
+
+        ExpenseCreateDto expense = new ExpenseCreateDto();
+        expense.setUserId(userId);
+        expense.setCurrency(EntityMapper.toCurrencyCode(record.get(ExpenseCsvFormat.CURRENCY)));
+        expense.setDescription(emptyToNull(record.get(ExpenseCsvFormat.DESCRIPTION)));
+        expense.setReceiptMongoId(emptyToNull(record.get(ExpenseCsvFormat.RECEIPT_ID)));
+
+        String date = record.get(ExpenseCsvFormat.DATE).trim();
+        try {
+            expense.setDate(LocalDate.parse(date));
+        } catch (DateTimeParseException e) {
+            errors.add(validationError("date", "Date must be in ISO format (yyyy-MM-dd)", date));
+        }
+
+        String amount = record.get(ExpenseCsvFormat.AMOUNT).trim();
+        try {
+            expense.setAmount(new BigDecimal(amount));
+        } catch (NumberFormatException e) {
+            errors.add(validationError("amount", "Amount must be a number", amount));
+        }
+
+        String category = record.get(ExpenseCsvFormat.CATEGORY).trim();
+        if (!category.isEmpty()) {
+            Long categoryId = categoryIdsByName.get(category);
+            if (categoryId != null) {
+                expense.setCategoryId(categoryId);
+            } else {
+                errors.add(validationError("categoryId", "Category not found", category));
+            }
+        }
+
+        Set<String> tags = Arrays.stream(record.get(ExpenseCsvFormat.TAGS).split(Pattern.quote(ExpenseCsvFormat.TAG_SEPARATOR)))
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        tags.stream()
+                .filter(tag -> tag.length() > MAX_TAG_LENGTH)
+                .findFirst()
+                .ifPresent(tag -> errors.add(validationError(
+                        "tags", "Tags cannot exceed " + MAX_TAG_LENGTH + " characters", tag)));
+        expense.setTags(tags);
+
+        // Fields that failed to parse are already reported and would only add a "required" error
+        Set<String> reported = errors.stream().map(ErrorResponse.ValidationError::getField).collect(Collectors.toSet());
+        validator.validate(expense).stream()
+                .filter(violation -> !reported.contains(violation.getPropertyPath().toString()))
+                .map(violation -> validationError(
+                        violation.getPropertyPath().toString(), violation.getMessage(), violation.getInvalidValue()))
+                .forEach(errors::add);
+        return expense;
+    }
+
+    /**
+     * Apply the staged rows to the monthly rollups, running totals and amount sketches
+     * One delta per bucket, in the same lock order as the per-expense listeners
+     */
+    private void updateDerivedTables(Long userId) {
+        for (Object[] row : stagingRepository.sumByMonthAndCurrency()) {
+            monthlyRollupRepository.addToRollup(
+                    userId, (Integer) row[0], (Integer) row[1], (String) row[2], (BigDecimal) row[3], (Long) row[4]);
+        }
+        for (Object[] row : stagingRepository.sumByCategoryAndCurrency()) {
+            expenseTotalRepository.addToTotal(userId, (Long) row[0], (String) row[1], (BigDecimal) row[2], (Long) row[3]);
+        }
+
+        // One digest in memory at a time: rows arrive grouped by category, currency and month
+        SketchAccumulator sketches = new SketchAccumulator(userId);
+        stagingRepository.forEachAmountByCategoryCurrencyAndDate(rs -> sketches.add(
+                rs.getLong(1), rs.getString(2), rs.getObject(3, LocalDate.class), rs.getBigDecimal(4)));
+        sketches.flush();
+    }
+
+    /**
+     * One staging CSV row in ExpenseImportStagingRepository.COPY_COLUMNS order
+     */
+    private static String toStagingRow(long line, ExpenseCreateDto expense) {
+        return String.join(",",
+                Long.toString(line),
+                expense.getCategoryId().toString(),
+                expense.getAmount().toPlainString(),
+                quote(expense.getCurrency()),
+                expense.getDate().toString(),
+                quote(expense.getDescription()),
+                expense.getTags().isEmpty() ? "" : quote(toArrayLiteral(expense.getTags())),
+                quote(expense.getReceiptMongoId())) + "\n";
+    }
+
+    /**
+     * Quoted CSV field, or an unquoted empty field (NULL to COPY) for null
+     */
+    private static String quote(String value) {
+        return value == null ? "" : "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * PostgreSQL array literal with every element quoted
+     */
+    private static String toArrayLiteral(Set<String> values) {
+        return values.stream()
+                .map(value -> "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"")
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static ErrorResponse.ValidationError validationError(String field, String message, Object rejectedValue) {
+        return ErrorResponse.ValidationError.builder()
+                .field(field)
+                .message(message)
+                .rejectedValue(rejectedValue)
+                .build();
+    }
+
+    private static class ImportProgress {
+        private long staged;
+        private long rejected;
+        private final List<ExpenseImportResultDto.LineError> errors = new ArrayList<>();
+
+        void reject(long line, List<ErrorResponse.ValidationError> validationErrors) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ExpenseImportResultDto.LineError(line, validationErrors));
+            }
+        }
+    }
+
+    /**
+     * Builds the digest of one category, currency and month at a time and merges it once the rows move on
+     */
+    private class SketchAccumulator {
+        private final Long userId;
+        private Long categoryId;
+        private String currency;
+        private int year;
+        private int month;
+        private TDigest digest;
+
+        SketchAccumulator(Long userId) {
+            this.userId = userId;
+        }
+
+        void add(Long rowCategoryId, String rowCurrency, LocalDate date, BigDecimal amount) {
+            if (digest == null || !rowCategoryId.equals(categoryId) || !rowCurrency.equals(currency)
+                    || date.getYear() != year || date.getMonthValue() != month) {
+                flush();
+                categoryId = rowCategoryId;
+                currency = rowCurrency;
+                year = date.getYear();
+                month = date.getMonthValue();
+                digest = new TDigest();
+            }
+            digest.add(amount.doubleValue());
+        }
+
+        void flush() {
+            if (digest != null) {
+                amountSketchService.mergeInserted(userId, categoryId, currency, year, month, digest);
+                digest = null;
+            }
+        }
+    }
+}
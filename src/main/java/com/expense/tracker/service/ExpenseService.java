@@ -1,36 +1,94 @@
 package com.expense.tracker.service;
 
+import com.expense.tracker.dto.CategoryQuantileDto;
 import com.expense.tracker.dto.CategoryReportDto;
+import com.expense.tracker.dto.CursorPage;
+import com.expense.tracker.dto.DateRangeTotalDto;
+import com.expense.tracker.dto.ErrorResponse;
+import com.expense.tracker.dto.ExpenseBatchResultDto;
+import com.expense.tracker.dto.ExpenseBulkResultDto;
+import com.expense.tracker.dto.ExpenseBulkUpdateDto;
 import com.expense.tracker.dto.ExpenseCreateDto;
 import com.expense.tracker.dto.ExpenseResponseDto;
+import com.expense.tracker.dto.ExpenseFilter;
 import com.expense.tracker.dto.ExpenseUpdateDto;
 import com.expense.tracker.dto.MonthlyReportDto;
+import com.expense.tracker.dto.TimeSeriesDto;
+import com.expense.tracker.dto.TimeSeriesGranularity;
 import com.expense.tracker.exception.ResourceNotFoundException;
 import com.expense.tracker.mapper.EntityMapper;
 import com.expense.tracker.model.Category;
 import com.expense.tracker.model.Expense;
+import com.expense.tracker.model.ExpenseAmountSketch;
 import com.expense.tracker.model.User;
 import com.expense.tracker.repository.CategoryRepository;
+import com.expense.tracker.repository.ExpenseAmountSketchRepository;
+import com.expense.tracker.repository.ExpenseCsvExportRepository;
+import com.expense.tracker.repository.ExpenseMonthlyRollupRepository;
 import com.expense.tracker.repository.ExpenseRepository;
+import com.expense.tracker.repository.ExpenseTotalRepository;
 import com.expense.tracker.repository.UserRepository;
+import com.expense.tracker.repository.specification.ExpenseCursor;
+import com.expense.tracker.repository.specification.ExpenseSearchMode;
 import com.expense.tracker.repository.specification.ExpenseSpecification;
+import com.expense.tracker.service.cache.ReportCache;
+import com.expense.tracker.service.cache.ReportCacheKey;
+import com.expense.tracker.service.csv.CsvRowEncoder;
+import com.expense.tracker.service.csv.ExpenseCsvFormat;
+import com.expense.tracker.service.event.ExpenseChangedEvent;
+import com.expense.tracker.service.event.ExpenseSnapshot;
+import com.expense.tracker.service.event.ExpensesChangedEvent;
+import com.expense.tracker.service.export.ExpenseArrowWriter;
+import com.expense.tracker.service.export.ExpenseExportWriter;
+import com.expense.tracker.service.export.ExpenseNdjsonWriter;
+import com.expense.tracker.service.index.DailyTotals;
+import com.expense.tracker.service.index.ExpenseAggregate;
+import com.expense.tracker.service.index.ExpenseColumnStore;
+import com.expense.tracker.service.index.ExpenseIdPage;
+import com.expense.tracker.service.index.ExpenseRangeTotals;
+import com.expense.tracker.service.sketch.TDigest;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.annotation.Validated;
 
 import java.io.IOException;
-import java.io.Writer;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -47,7 +105,31 @@ public class ExpenseService {
     private final ExpenseRepository expenseRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
+    private final ExpenseMonthlyRollupRepository monthlyRollupRepository;
+    private final ExpenseTotalRepository expenseTotalRepository;
+    private final ExpenseAmountSketchRepository amountSketchRepository;
+    private final ExpenseCsvExportRepository expenseCsvExportRepository;
     private final EntityMapper entityMapper;
+    private final ExpenseColumnStore expenseColumnStore;
+    private final ExpenseRangeTotals expenseRangeTotals;
+    private final ReportCache reportCache;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id"));
+    // Newest first like the listings; idx_expenses_user_date already returns a user's rows in date order
+    private static final Sort EXPORT_SORT = KEYSET_SORT;
+    private static final Sort DEFAULT_SORT = Sort.by(Sort.Direction.DESC, "date");
+    private static final String RELEVANCE_SORT = "relevance";
+    private static final int MAX_DATE_RANGES = 50;
+    private static final String DATE_RANGE_SEPARATOR = "..";
+    private static final int MAX_TIME_SERIES_BUCKETS = 1000;
+    private static final int MAX_BATCH_SIZE = 5000;
+    private static final String MONTHLY_REPORT = "monthly";
+    private static final String CATEGORY_REPORT = "category";
+    private static final String CATEGORY_QUANTILE_REPORT = "category-quantiles";
 
     /**
      * Create a new expense
@@ -86,34 +168,124 @@ public class ExpenseService {
         // Save expense
         Expense savedExpense = expenseRepository.save(expense);
         log.info("Expense created with ID: {}", savedExpense.getId());
+        eventPublisher.publishEvent(ExpenseChangedEvent.created(ExpenseSnapshot.of(savedExpense)));
         
         return entityMapper.toExpenseResponseDto(savedExpense);
     }
 
     /**
-     * Update an existing expense
+     * Create many expenses for a user in one transaction
+     * Items that fail validation or reference a category the user doesn't own are reported by index
+     * and skipped; the rest are inserted in JDBC batches, with category ownership checked in one query
      *
+     * @param userId the ID of the user creating the expenses
+     * @param expenseCreateDtos the expense data, at most MAX_BATCH_SIZE items
+     * @return IDs of the created expenses and errors of the rejected items
+     * @throws ResourceNotFoundException if user not found
+     */
+    @Transactional
+    public ExpenseBatchResultDto createExpenses(Long userId, List<ExpenseCreateDto> expenseCreateDtos) {
+        if (expenseCreateDtos == null || expenseCreateDtos.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one expense");
+        }
+        if (expenseCreateDtos.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch cannot contain more than " + MAX_BATCH_SIZE + " expenses");
+        }
+        log.info("Creating {} expenses for user ID: {}", expenseCreateDtos.size(), userId);
+
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+
+        List<ExpenseBatchResultDto.ItemError> errors = new ArrayList<>();
+        List<Integer> validIndexes = new ArrayList<>();
+        for (int index = 0; index < expenseCreateDtos.size(); index++) {
+            List<ErrorResponse.ValidationError> itemErrors = validateBatchItem(userId, expenseCreateDtos.get(index));
+            if (itemErrors.isEmpty()) {
+                validIndexes.add(index);
+            } else {
+                errors.add(new ExpenseBatchResultDto.ItemError(index, itemErrors));
+            }
+        }
+
+        // Validate category ownership for the whole batch at once
+        Set<Long> categoryIds = validIndexes.stream()
+                .map(index -> expenseCreateDtos.get(index).getCategoryId())
+                .collect(Collectors.toSet());
+        Set<Long> ownedCategoryIds = categoryIds.isEmpty()
+                ? Set.of()
+                : categoryRepository.findIdsByUserIdAndIdIn(userId, categoryIds);
+
+        // References only: the user and categories are known to exist, so no row is loaded
+        User user = userRepository.getReferenceById(userId);
+        List<Integer> createdIndexes = new ArrayList<>();
+        List<Expense> expenses = new ArrayList<>();
+        for (int index : validIndexes) {
+            ExpenseCreateDto expenseCreateDto = expenseCreateDtos.get(index);
+            if (!ownedCategoryIds.contains(expenseCreateDto.getCategoryId())) {
+                errors.add(new ExpenseBatchResultDto.ItemError(index, List.of(validationError(
+                        "categoryId", "Category not found or does not belong to the user", expenseCreateDto.getCategoryId()))));
+                continue;
+            }
+            Expense expense = entityMapper.toExpense(expenseCreateDto);
+            expense.setUser(user);
+            expense.setCategory(categoryRepository.getReferenceById(expenseCreateDto.getCategoryId()));
+            if (expense.getTags() == null) {
+                expense.setTags(Collections.emptySet());
+            }
+            createdIndexes.add(index);
+            expenses.add(expense);
+        }
+        errors.sort(Comparator.comparingInt(ExpenseBatchResultDto.ItemError::getIndex));
+
+        List<Long> ids = new ArrayList<>(Collections.nCopies(expenseCreateDtos.size(), (Long) null));
+        if (!expenses.isEmpty()) {
+            expenseRepository.insertAll(expenses);
+            List<ExpenseChangedEvent> changes = new ArrayList<>(expenses.size());
+            for (int i = 0; i < expenses.size(); i++) {
+                ids.set(createdIndexes.get(i), expenses.get(i).getId());
+                changes.add(ExpenseChangedEvent.created(ExpenseSnapshot.of(expenses.get(i))));
+            }
+            eventPublisher.publishEvent(new ExpensesChangedEvent(userId, changes));
+        }
+        log.info("Created {} of {} expenses for user ID: {}", expenses.size(), expenseCreateDtos.size(), userId);
+
+        return ExpenseBatchResultDto.builder()
+                .created(expenses.size())
+                .rejected(errors.size())
+                .ids(ids)
+                .errors(errors)
+                .build();
+    }
+
+    /**
+     * Update an existing expense of a user
+     * Loads the expense with its associations and tags in one owner-scoped query and writes it back
+     * with one UPDATE; a changed category costs one more owner-scoped lookup
+     *
+     * @param userId the ID of the user owning the expense
      * @param expenseId the ID of the expense to update
      * @param expenseUpdateDto the updated expense data
      * @return the updated expense
-     * @throws ResourceNotFoundException if expense not found
+     * @throws ResourceNotFoundException if expense or category not found
+     * @throws IllegalArgumentException if the expense or category belongs to another user
      */
     @Transactional
-    public ExpenseResponseDto updateExpense(Long expenseId, @Valid ExpenseUpdateDto expenseUpdateDto) {
+    public ExpenseResponseDto updateExpense(Long userId, Long expenseId, @Valid ExpenseUpdateDto expenseUpdateDto) {
         log.info("Updating expense ID: {}", expenseId);
         
         // Find existing expense
-        Expense expense = expenseRepository.findById(expenseId)
-                .orElseThrow(() -> new ResourceNotFoundException("Expense", "id", expenseId));
+        Expense expense = expenseRepository.findByIdAndUserId(expenseId, userId)
+                .orElseThrow(() -> expenseNotOwned(expenseId));
+        ExpenseSnapshot before = ExpenseSnapshot.of(expense);
         
-        // If category is being updated, validate it belongs to the same user
-        if (expenseUpdateDto.getCategoryId() != null) {
-            Category newCategory = categoryRepository.findById(expenseUpdateDto.getCategoryId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Category", "id", expenseUpdateDto.getCategoryId()));
-            
-            if (!newCategory.getUser().getId().equals(expense.getUser().getId())) {
-                throw new IllegalArgumentException("Category does not belong to the expense owner");
-            }
+        // If category is being changed, validate it belongs to the same user
+        Long categoryId = expenseUpdateDto.getCategoryId();
+        if (categoryId != null && !categoryId.equals(expense.getCategory().getId())) {
+            Category newCategory = categoryRepository.findByIdAndUserId(categoryId, userId).orElseThrow(() ->
+                    categoryRepository.existsById(categoryId)
+                            ? new IllegalArgumentException("Category does not belong to the expense owner")
+                            : new ResourceNotFoundException("Category", "id", categoryId));
             
             expense.setCategory(newCategory);
         }
@@ -124,42 +296,137 @@ public class ExpenseService {
         // Save updated expense
         Expense updatedExpense = expenseRepository.save(expense);
         log.info("Expense updated with ID: {}", updatedExpense.getId());
+        eventPublisher.publishEvent(ExpenseChangedEvent.updated(before, ExpenseSnapshot.of(updatedExpense)));
         
         return entityMapper.toExpenseResponseDto(updatedExpense);
     }
 
     /**
-     * Delete an expense
+     * Delete an expense of a user with a single owner-scoped DELETE
      *
+     * @param userId the ID of the user owning the expense
      * @param expenseId the ID of the expense to delete
      * @throws ResourceNotFoundException if expense not found
+     * @throws IllegalArgumentException if the expense belongs to another user
      */
     @Transactional
-    public void deleteExpense(Long expenseId) {
+    public void deleteExpense(Long userId, Long expenseId) {
         log.info("Deleting expense ID: {}", expenseId);
         
-        if (!expenseRepository.existsById(expenseId)) {
-            throw new ResourceNotFoundException("Expense", "id", expenseId);
-        }
+        // The deleted row is returned by the statement itself, so nothing is loaded first
+        Object[] row = expenseRepository.deleteByIdAndUserId(expenseId, userId)
+                .orElseThrow(() -> expenseNotOwned(expenseId));
         
-        expenseRepository.deleteById(expenseId);
         log.info("Expense deleted with ID: {}", expenseId);
+        eventPublisher.publishEvent(ExpenseChangedEvent.deleted(new ExpenseSnapshot(
+                (Long) row[0],
+                userId,
+                (Long) row[1],
+                (LocalDate) row[2],
+                (BigDecimal) row[3],
+                (String) row[4],
+                // expense_tags has no unique constraint, so the same tag may come back twice
+                new HashSet<>(Arrays.asList((String[]) row[5]))
+        )));
     }
 
     /**
-     * Get an expense by ID
+     * Set the category and/or currency of every expense matching a filter
+     * The matches are locked and snapshotted by one query, then changed by a single UPDATE restricted
+     * to them, so the published changes describe exactly the rows written
      *
+     * @param userId the ID of the user owning the expenses
+     * @param filter the search filters; at least one must be set
+     * @param expenseBulkUpdateDto the fields to set
+     * @return number of updated expenses
+     * @throws ResourceNotFoundException if user or category not found
+     * @throws IllegalArgumentException if no filter or field is set, or more than MAX_BATCH_SIZE expenses match
+     */
+    @Transactional
+    public ExpenseBulkResultDto updateExpenses(Long userId, ExpenseFilter filter, @Valid ExpenseBulkUpdateDto expenseBulkUpdateDto) {
+        log.info("Bulk updating expenses for user ID: {} with filter: {}", userId, filter);
+
+        if (expenseBulkUpdateDto.getCategoryId() == null && expenseBulkUpdateDto.getCurrency() == null) {
+            throw new IllegalArgumentException("At least one of categoryId and currency must be set");
+        }
+
+        Category category = null;
+        if (expenseBulkUpdateDto.getCategoryId() != null) {
+            category = categoryRepository.findById(expenseBulkUpdateDto.getCategoryId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Category", "id", expenseBulkUpdateDto.getCategoryId()));
+            if (!category.getUser().getId().equals(userId)) {
+                throw new IllegalArgumentException("Category does not belong to the user");
+            }
+        }
+
+        List<ExpenseSnapshot> matches = lockMatchingExpenses(userId, filter);
+        if (matches.isEmpty()) {
+            return new ExpenseBulkResultDto(0);
+        }
+
+        String currency = EntityMapper.toCurrencyCode(expenseBulkUpdateDto.getCurrency());
+        int updated = expenseRepository.updateCategoryAndCurrency(byIds(userId, matches), category, currency);
+
+        Long categoryId = category != null ? category.getId() : null;
+        List<ExpenseChangedEvent> changes = matches.stream()
+                .map(before -> ExpenseChangedEvent.updated(before, new ExpenseSnapshot(
+                        before.id(),
+                        before.userId(),
+                        categoryId != null ? categoryId : before.categoryId(),
+                        before.date(),
+                        before.amount(),
+                        currency != null ? currency : before.currency(),
+                        before.tags())))
+                .toList();
+        eventPublisher.publishEvent(new ExpensesChangedEvent(userId, changes));
+        log.info("Bulk updated {} expenses for user ID: {}", updated, userId);
+
+        return new ExpenseBulkResultDto(updated);
+    }
+
+    /**
+     * Delete every expense matching a filter
+     * The matches are locked and snapshotted by one query, then removed by a single DELETE restricted
+     * to them; their tags go with them through the foreign key cascade
+     *
+     * @param userId the ID of the user owning the expenses
+     * @param filter the search filters; at least one must be set
+     * @return number of deleted expenses
+     * @throws ResourceNotFoundException if user or filtered category not found
+     * @throws IllegalArgumentException if no filter is set or more than MAX_BATCH_SIZE expenses match
+     */
+    @Transactional
+    public ExpenseBulkResultDto deleteExpenses(Long userId, ExpenseFilter filter) {
+        log.info("Bulk deleting expenses for user ID: {} with filter: {}", userId, filter);
+
+        List<ExpenseSnapshot> matches = lockMatchingExpenses(userId, filter);
+        if (matches.isEmpty()) {
+            return new ExpenseBulkResultDto(0);
+        }
+
+        int deleted = Math.toIntExact(expenseRepository.delete(byIds(userId, matches)));
+
+        eventPublisher.publishEvent(new ExpensesChangedEvent(userId,
+                matches.stream().map(ExpenseChangedEvent::deleted).toList()));
+        log.info("Bulk deleted {} expenses for user ID: {}", deleted, userId);
+
+        return new ExpenseBulkResultDto(deleted);
+    }
+
+    /**
+     * Get an expense of a user by ID
+     *
+     * @param userId the ID of the user owning the expense
      * @param expenseId the ID of the expense
      * @return the expense
      * @throws ResourceNotFoundException if expense not found
+     * @throws IllegalArgumentException if the expense belongs to another user
      */
-    public ExpenseResponseDto getExpenseById(Long expenseId) {
+    public ExpenseResponseDto getExpenseById(Long userId, Long expenseId) {
         log.debug("Fetching expense ID: {}", expenseId);
         
-        Expense expense = expenseRepository.findById(expenseId)
-                .orElseThrow(() -> new ResourceNotFoundException("Expense", "id", expenseId));
-        
-        return entityMapper.toExpenseResponseDto(expense);
+        return expenseRepository.findResponseByIdAndUserId(expenseId, userId)
+                .orElseThrow(() -> expenseNotOwned(expenseId));
     }
 
     /**
@@ -171,7 +438,7 @@ public class ExpenseService {
      * @param categoryId optional category filter
      * @param minAmount optional minimum amount filter
      * @param maxAmount optional maximum amount filter
-     * @param searchText optional text search (searches description, tags, category name)
+     * @param searchText optional full-text search (searches description, tags, category name)
      * @param currency optional currency filter
      * @param tag optional tag filter
      * @param pageable pagination information
@@ -189,52 +456,122 @@ public class ExpenseService {
             Optional<String> tag,
             Pageable pageable) {
         
-        log.debug("Searching expenses for user ID: {} with filters - fromDate: {}, toDate: {}, categoryId: {}, " +
-                "minAmount: {}, maxAmount: {}, searchText: {}, currency: {}, tag: {}",
-                userId, fromDate, toDate, categoryId, minAmount, maxAmount, searchText, currency, tag);
+        return searchExpenses(userId, ExpenseFilter.builder()
+                .fromDate(fromDate.orElse(null))
+                .toDate(toDate.orElse(null))
+                .categoryId(categoryId.orElse(null))
+                .minAmount(minAmount.orElse(null))
+                .maxAmount(maxAmount.orElse(null))
+                .searchText(searchText.orElse(null))
+                .currency(currency.orElse(null))
+                .tag(tag.orElse(null))
+                .build(), pageable);
+    }
+
+    /**
+     * Search expenses with filters and pagination, including total element and page counts
+     *
+     * @param userId the ID of the user
+     * @param filter the search filters
+     * @param pageable pagination information
+     * @return page of matching expenses
+     */
+    public Page<ExpenseResponseDto> searchExpenses(Long userId, ExpenseFilter filter, Pageable pageable) {
+        log.debug("Searching expenses for user ID: {} with filter: {}", userId, filter);
         
-        // Validate user exists
-        if (!userRepository.existsById(userId)) {
-            throw new ResourceNotFoundException("User", "id", userId);
+        Specification<Expense> filterSpecification = buildFilterSpecification(userId, filter);
+        
+        Optional<ExpenseIdPage> indexed = findIndexedIds(userId, filter, pageable);
+        if (indexed.isPresent()) {
+            return new PageImpl<>(findResponsesByIds(indexed.get().ids()), pageable, indexed.get().totalMatches());
         }
         
-        // Validate category belongs to user if specified
-        if (categoryId.isPresent()) {
-            Category category = categoryRepository.findById(categoryId.get())
-                    .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId.get()));
-            
-            if (!category.getUser().getId().equals(userId)) {
-                throw new IllegalArgumentException("Category does not belong to the user");
-            }
+        Specification<Expense> specification = filterSpecification;
+        if (isSortedByRelevance(pageable)) {
+            specification = specification.and(
+                    ExpenseSpecification.orderByRelevance(filter.getSearchText(), filter.getSearchMode()));
+            pageable = withoutRelevanceSort(pageable, filter);
         }
         
-        // Validate date range
-        if (fromDate.isPresent() && toDate.isPresent() && fromDate.get().isAfter(toDate.get())) {
-            throw new IllegalArgumentException("From date cannot be after to date");
+        return PageableExecutionUtils.getPage(
+                expenseRepository.findResponses(specification, pageable),
+                pageable,
+                () -> expenseRepository.count(filterSpecification));
+    }
+
+    /**
+     * Search expenses with filters and pagination without counting the total matches
+     * Only reports whether a next page exists, which saves the COUNT query over the same joins
+     *
+     * @param userId the ID of the user
+     * @param filter the search filters
+     * @param pageable pagination information
+     * @return slice of matching expenses
+     */
+    public Slice<ExpenseResponseDto> searchExpensesSlice(Long userId, ExpenseFilter filter, Pageable pageable) {
+        log.debug("Searching expense slice for user ID: {} with filter: {}", userId, filter);
+        
+        Specification<Expense> specification = buildFilterSpecification(userId, filter);
+        
+        Optional<ExpenseIdPage> indexed = findIndexedIds(userId, filter, pageable);
+        if (indexed.isPresent()) {
+            boolean hasNext = pageable.getOffset() + pageable.getPageSize() < indexed.get().totalMatches();
+            return new SliceImpl<>(findResponsesByIds(indexed.get().ids()), pageable, hasNext);
         }
         
-        // Validate amount range
-        if (minAmount.isPresent() && maxAmount.isPresent() && minAmount.get().compareTo(maxAmount.get()) > 0) {
-            throw new IllegalArgumentException("Minimum amount cannot be greater than maximum amount");
+        if (isSortedByRelevance(pageable)) {
+            specification = specification.and(
+                    ExpenseSpecification.orderByRelevance(filter.getSearchText(), filter.getSearchMode()));
+            pageable = withoutRelevanceSort(pageable, filter);
         }
         
-        // Build dynamic specification
-        Specification<Expense> specification = ExpenseSpecification.buildSpecification(
-                userId,
-                fromDate.orElse(null),
-                toDate.orElse(null),
-                categoryId.orElse(null),
-                minAmount.orElse(null),
-                maxAmount.orElse(null),
-                searchText.orElse(null),
-                currency.orElse(null),
-                tag.orElse(null)
-        );
+        return expenseRepository.findResponseSlice(specification, pageable);
+    }
+
+    /**
+     * Search expenses using keyset (seek) pagination in (date DESC, id DESC) order
+     * Avoids OFFSET scans and COUNT queries, so deep pages cost the same as the first one
+     *
+     * @param userId the ID of the user
+     * @param filter the search filters
+     * @param cursor opaque continuation token from a previous page, or null/blank for the first page
+     * @param size the page size
+     * @return page of matching expenses with the cursor for the next page
+     */
+    public CursorPage<ExpenseResponseDto> searchExpensesByCursor(
+            Long userId,
+            ExpenseFilter filter,
+            String cursor,
+            int size) {
+        
+        log.debug("Searching expenses by cursor for user ID: {} with filter: {}, cursor: {}, size: {}",
+                userId, filter, cursor, size);
         
-        // Apply specification and fetch expenses
-        Page<Expense> expenses = expenseRepository.findAll(specification, pageable);
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        
+        ExpenseCursor position = cursor == null || cursor.isBlank() ? null : ExpenseCursor.decode(cursor);
+        
+        Specification<Expense> specification = buildFilterSpecification(userId, filter)
+                .and(ExpenseSpecification.isAfterCursor(position));
+        
+        // The cursor predicate replaces the offset, so always read the first slice
+        Slice<ExpenseResponseDto> expenses = expenseRepository.findResponseSlice(
+                specification, PageRequest.of(0, size, KEYSET_SORT));
+        
+        String nextCursor = null;
+        if (expenses.hasNext()) {
+            ExpenseResponseDto last = expenses.getContent().get(expenses.getNumberOfElements() - 1);
+            nextCursor = new ExpenseCursor(last.getDate(), last.getId()).encode();
+        }
         
-        return expenses.map(entityMapper::toExpenseResponseDto);
+        return new CursorPage<>(
+                expenses.getContent(),
+                size,
+                expenses.hasNext(),
+                nextCursor
+        );
     }
 
     /**
@@ -303,8 +640,10 @@ public class ExpenseService {
             throw new ResourceNotFoundException("User", "id", userId);
         }
         
-        Page<Expense> expenses = expenseRepository.findByUserId(userId, pageable);
-        return expenses.map(entityMapper::toExpenseResponseDto);
+        return PageableExecutionUtils.getPage(
+                expenseRepository.findResponses(ExpenseSpecification.hasUserId(userId), pageable),
+                pageable,
+                () -> expenseRepository.countByUserId(userId));
     }
 
     /**
@@ -316,11 +655,24 @@ public class ExpenseService {
     public BigDecimal getTotalExpensesByUserId(Long userId) {
         log.debug("Calculating total expenses for user ID: {}", userId);
         
+        // Running totals are kept per category and currency by ExpenseTotalService
+        BigDecimal total = expenseTotalRepository.sumTotalByUserId(userId);
+        if (total != null) {
+            return total;
+        }
+        
+        // No running totals: either the user has no expenses or does not exist
         if (!userRepository.existsById(userId)) {
             throw new ResourceNotFoundException("User", "id", userId);
         }
-        
-        BigDecimal total = expenseRepository.sumAmountByUserId(userId);
+        return BigDecimal.ZERO;
+    }
+
+    /**
+     * Total of an already validated user's expenses, from the running totals
+     */
+    BigDecimal runningTotal(Long userId) {
+        BigDecimal total = expenseTotalRepository.sumTotalByUserId(userId);
         return total != null ? total : BigDecimal.ZERO;
     }
 
@@ -343,32 +695,70 @@ public class ExpenseService {
             throw new IllegalArgumentException("Start date cannot be after end date");
         }
         
-        BigDecimal total = expenseRepository.sumAmountByUserIdAndDateBetween(userId, startDate, endDate);
+        Optional<BigDecimal> prefixSumTotal = expenseRangeTotals.total(userId, startDate, endDate);
+        if (prefixSumTotal.isPresent()) {
+            return prefixSumTotal.get();
+        }
+        
+        ExpenseFilter filter = ExpenseFilter.builder().fromDate(startDate).toDate(endDate).build();
+        BigDecimal total = expenseColumnStore.aggregate(userId, filter)
+                .map(ExpenseAggregate::total)
+                .orElseGet(() -> expenseRepository.sumAmountByUserIdAndDateBetween(userId, startDate, endDate));
         return total != null ? total : BigDecimal.ZERO;
     }
 
     /**
-     * Calculate total expenses for a user by category
+     * Calculate total expenses for a user in each of several date windows
+     * All windows are answered from one set of daily totals: the in-memory prefix sums when enabled,
+     * otherwise a single per-day query spanning every window
      *
      * @param userId the user ID
-     * @param categoryId the category ID
-     * @return total amount
+     * @param ranges windows formatted as yyyy-MM-dd..yyyy-MM-dd, both ends inclusive
+     * @return one total per window, in request order
      */
-    public BigDecimal getTotalExpensesByUserIdAndCategory(Long userId, Long categoryId) {
-        log.debug("Calculating total expenses for user ID: {} and category ID: {}", userId, categoryId);
+    public List<DateRangeTotalDto> getTotalExpensesByUserIdAndDateRanges(Long userId, List<String> ranges) {
+        log.debug("Calculating total expenses for user ID: {} over {} date ranges", userId, ranges.size());
         
         if (!userRepository.existsById(userId)) {
             throw new ResourceNotFoundException("User", "id", userId);
         }
         
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
+        if (ranges.isEmpty() || ranges.size() > MAX_DATE_RANGES) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_DATE_RANGES + " date ranges must be provided");
+        }
         
-        if (!category.getUser().getId().equals(userId)) {
+        List<DateRangeTotalDto> windows = ranges.stream().map(this::parseDateRange).toList();
+        LocalDate from = windows.stream().map(DateRangeTotalDto::getStartDate).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate to = windows.stream().map(DateRangeTotalDto::getEndDate).max(Comparator.naturalOrder()).orElseThrow();
+        
+        DailyTotals dailyTotals = expenseRangeTotals.dailyTotals(userId, from, to);
+        windows.forEach(window -> window.setTotal(dailyTotals.total(window.getStartDate(), window.getEndDate())));
+        return windows;
+    }
+
+    /**
+     * Calculate total expenses for a user by category
+     *
+     * @param userId the user ID
+     * @param categoryId the category ID
+     * @return total amount
+     */
+    public BigDecimal getTotalExpensesByUserIdAndCategory(Long userId, Long categoryId) {
+        log.debug("Calculating total expenses for user ID: {} and category ID: {}", userId, categoryId);
+        
+        // A category owned by the user implies the user exists, so only check the user on failure
+        Category category = categoryRepository.findById(categoryId).orElse(null);
+        if (category == null || !category.getUser().getId().equals(userId)) {
+            if (!userRepository.existsById(userId)) {
+                throw new ResourceNotFoundException("User", "id", userId);
+            }
+            if (category == null) {
+                throw new ResourceNotFoundException("Category", "id", categoryId);
+            }
             throw new IllegalArgumentException("Category does not belong to the user");
         }
         
-        BigDecimal total = expenseRepository.sumAmountByUserIdAndCategoryId(userId, categoryId);
+        BigDecimal total = expenseTotalRepository.sumTotalByUserIdAndCategoryId(userId, categoryId);
         return total != null ? total : BigDecimal.ZERO;
     }
 
@@ -386,19 +776,32 @@ public class ExpenseService {
             throw new ResourceNotFoundException("User", "id", userId);
         }
         
-        if (year == null || year < 1900 || year > 2100) {
-            throw new IllegalArgumentException("Invalid year provided");
-        }
+        validateReportYear(year);
         
-        List<Object[]> results = expenseRepository.getMonthlyTotals(userId, year);
+        return monthlyReport(userId, year);
+    }
+
+    /**
+     * Monthly report of an already validated user and year, served from the report cache when present
+     */
+    List<MonthlyReportDto> monthlyReport(Long userId, Integer year) {
+        return reportCache.get(ReportCacheKey.of(userId, MONTHLY_REPORT, year), () -> loadMonthlyReport(userId, year));
+    }
+
+    private List<MonthlyReportDto> loadMonthlyReport(Long userId, Integer year) {
+        Optional<List<MonthlyReportDto>> indexed = expenseColumnStore.monthlyTotals(userId, year);
+        if (indexed.isPresent()) {
+            return indexed.get();
+        }
         
-        return results.stream()
-                .map(row -> new MonthlyReportDto(
-                        (Integer) row[0],  // year
-                        (Integer) row[1],  // month
-                        (BigDecimal) row[2], // total
-                        (Long) row[3],     // count
-                        (String) row[4]    // currency
+        // At most 12 x currencies rows, kept current by MonthlyRollupService on every write
+        return monthlyRollupRepository.findByUserIdAndYear(userId, year).stream()
+                .map(rollup -> new MonthlyReportDto(
+                        rollup.getId().getYear(),
+                        rollup.getId().getMonth(),
+                        rollup.getTotal(),
+                        rollup.getCount(),
+                        rollup.getId().getCurrency()
                 ))
                 .collect(Collectors.toList());
     }
@@ -418,25 +821,36 @@ public class ExpenseService {
             throw new ResourceNotFoundException("User", "id", userId);
         }
         
-        if (startDate.isAfter(endDate)) {
-            throw new IllegalArgumentException("Start date cannot be after end date");
-        }
+        validateReportDateRange(startDate, endDate);
         
-        List<Object[]> results = expenseRepository.getCategoryTotals(userId, startDate, endDate);
+        return categoryReport(userId, startDate, endDate);
+    }
+
+    /**
+     * Category report of an already validated user and date range, served from the report cache when present
+     */
+    List<CategoryReportDto> categoryReport(Long userId, LocalDate startDate, LocalDate endDate) {
+        return reportCache.get(ReportCacheKey.of(userId, CATEGORY_REPORT, startDate, endDate),
+                () -> loadCategoryReport(userId, startDate, endDate));
+    }
+
+    private List<CategoryReportDto> loadCategoryReport(Long userId, LocalDate startDate, LocalDate endDate) {
+        List<Object[]> results = expenseColumnStore
+                .aggregateByCategory(userId, ExpenseFilter.builder().fromDate(startDate).toDate(endDate).build())
+                .map(this::toCategoryTotalRows)
+                .orElseGet(() -> expenseRepository.getCategoryTotals(userId, startDate, endDate));
         
         // Calculate grand total for percentage calculations
         BigDecimal grandTotal = results.stream()
-                .map(row -> (BigDecimal) row[4])
+                .map(row -> (BigDecimal) row[2])
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
         
         return results.stream()
                 .map(row -> {
                     Long categoryId = (Long) row[0];
                     String categoryName = (String) row[1];
-                    String categoryColor = (String) row[2];
-                    String categoryIcon = (String) row[3];
-                    BigDecimal total = (BigDecimal) row[4];
-                    Long count = (Long) row[5];
+                    BigDecimal total = (BigDecimal) row[2];
+                    Long count = (Long) row[3];
                     
                     // Calculate percentage
                     Double percentage = grandTotal.compareTo(BigDecimal.ZERO) > 0
@@ -448,8 +862,8 @@ public class ExpenseService {
                     return new CategoryReportDto(
                             categoryId,
                             categoryName,
-                            categoryColor,
-                            categoryIcon,
+                            null,
+                            null,
                             total,
                             count,
                             percentage
@@ -458,11 +872,127 @@ public class ExpenseService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Generate a report of median, p90 and p99 expense amounts per category and month
+     * Estimated from the t-digest sketches kept by AmountSketchService, so no individual amounts are read
+     *
+     * @param userId the user ID
+     * @param year the year
+     * @param month optional month (1-12); all months of the year when absent
+     * @return quantiles ordered by month, then category
+     */
+    public List<CategoryQuantileDto> getCategoryQuantileReport(Long userId, Integer year, Integer month) {
+        log.debug("Generating category quantile report for user ID: {}, year: {}, month: {}", userId, year, month);
+        
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+        
+        validateReportYear(year);
+        if (month != null && (month < 1 || month > 12)) {
+            throw new IllegalArgumentException("Invalid month provided");
+        }
+        
+        return reportCache.get(ReportCacheKey.of(userId, CATEGORY_QUANTILE_REPORT, year, month),
+                () -> loadCategoryQuantileReport(userId, year, month));
+    }
+
+    private List<CategoryQuantileDto> loadCategoryQuantileReport(Long userId, Integer year, Integer month) {
+        List<ExpenseAmountSketch> sketches = month != null
+                ? amountSketchRepository.findByUserIdAndYearAndMonth(userId, year, month)
+                : amountSketchRepository.findByUserIdAndYear(userId, year);
+        
+        Map<Long, String> categoryNames = categoryRepository
+                .findAllById(sketches.stream().map(sketch -> sketch.getId().getCategoryId()).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Category::getId, Category::getName));
+        
+        return sketches.stream()
+                .filter(sketch -> sketch.getCount() > 0)
+                .map(sketch -> {
+                    TDigest digest = TDigest.fromBytes(sketch.getSketch());
+                    return new CategoryQuantileDto(
+                            sketch.getId().getCategoryId(),
+                            categoryNames.get(sketch.getId().getCategoryId()),
+                            sketch.getId().getYear(),
+                            sketch.getId().getMonth(),
+                            sketch.getId().getCurrency(),
+                            sketch.getCount(),
+                            toAmount(digest.quantile(0.5)),
+                            toAmount(digest.quantile(0.9)),
+                            toAmount(digest.quantile(0.99))
+                    );
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static BigDecimal toAmount(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Generate a time-series report of spending per day, week or month
+     * One date_trunc-grouped query fills a dense array of totals in cents per currency, so the payload
+     * stays a flat number array per currency however many buckets are requested
+     *
+     * @param userId the user ID
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @param granularity the bucket width
+     * @return bucket totals per currency starting at the bucket containing startDate
+     */
+    public TimeSeriesDto getTimeSeriesReport(Long userId, LocalDate startDate, LocalDate endDate,
+                                             TimeSeriesGranularity granularity) {
+        log.debug("Generating {} time series for user ID: {} from {} to {}", granularity.getParameter(), userId, startDate, endDate);
+        
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+        
+        validateReportDateRange(startDate, endDate);
+        
+        LocalDate firstBucket = granularity.truncate(startDate);
+        long bucketCount = granularity.bucketIndex(firstBucket, endDate) + 1L;
+        if (bucketCount > MAX_TIME_SERIES_BUCKETS) {
+            throw new IllegalArgumentException("A time series cannot have more than " + MAX_TIME_SERIES_BUCKETS + " buckets");
+        }
+        
+        Map<String, long[]> totals = new TreeMap<>();
+        for (Object[] row : expenseRepository.sumAmountByUserIdAndDateBetweenGroupByBucketAndCurrency(
+                userId, granularity.getParameter(), startDate, endDate)) {
+            LocalDate bucket = (LocalDate) row[0];
+            long[] currencyTotals = totals.computeIfAbsent((String) row[1], currency -> new long[(int) bucketCount]);
+            currencyTotals[granularity.bucketIndex(firstBucket, bucket)] = ((BigDecimal) row[2]).movePointRight(2).longValueExact();
+        }
+        
+        return new TimeSeriesDto(granularity, firstBucket, totals);
+    }
+
+    /**
+     * Newest expenses of an already validated user, as a count-free slice
+     */
+    Slice<ExpenseResponseDto> recentExpenses(Long userId, int size) {
+        return expenseRepository.findResponseSlice(ExpenseSpecification.hasUserId(userId), PageRequest.of(0, size, KEYSET_SORT));
+    }
+
+    void validateReportYear(Integer year) {
+        if (year == null || year < 1900 || year > 2100) {
+            throw new IllegalArgumentException("Invalid year provided");
+        }
+    }
+
+    void validateReportDateRange(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date cannot be after end date");
+        }
+    }
+
     /**
      * Export expenses to CSV with streaming for memory efficiency
-     * Uses the same filtering logic as searchExpenses
+     * Uses the same filtering logic as searchExpenses. Exports filtered by date at most are produced by
+     * PostgreSQL COPY and streamed through unchanged; other filters go through the JPA path
      *
-     * @param writer the Writer to write CSV data to
+     * @param out the stream to write the UTF-8 CSV bytes to; left open
      * @param userId the ID of the user
      * @param fromDate optional start date filter
      * @param toDate optional end date filter
@@ -475,7 +1005,7 @@ public class ExpenseService {
      * @throws IOException if writing fails
      */
     public void exportExpensesToCsv(
-            Writer writer,
+            OutputStream out,
             Long userId,
             Optional<LocalDate> fromDate,
             Optional<LocalDate> toDate,
@@ -488,86 +1018,329 @@ public class ExpenseService {
         
         log.info("Exporting expenses to CSV for user ID: {}", userId);
         
+        ExpenseFilter filter = ExpenseFilter.builder()
+                .fromDate(fromDate.orElse(null))
+                .toDate(toDate.orElse(null))
+                .categoryId(categoryId.orElse(null))
+                .minAmount(minAmount.orElse(null))
+                .maxAmount(maxAmount.orElse(null))
+                .searchText(searchText.orElse(null))
+                .currency(currency.orElse(null))
+                .tag(tag.orElse(null))
+                .build();
+        
+        // Build specification with same filters and validation as search
+        Specification<Expense> spec = buildFilterSpecification(userId, filter);
+        
+        if (isCopyExportable(filter)) {
+            try {
+                long rows = expenseCsvExportRepository.copyCsv(userId, filter.getFromDate(), filter.getToDate(), out);
+                log.info("CSV export completed for user ID: {} ({} rows copied)", userId, rows);
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not COPY the CSV export", e);
+            }
+            return;
+        }
+        
+        // Rows are encoded field by field into one reusable buffer that is handed to the writer in chunks
+        CsvRowEncoder csv = new CsvRowEncoder(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        csv.row(ExpenseCsvFormat.HEADER);
+        
+        // Rows come from a server-side cursor as DTOs with their category and tags already selected,
+        // so nothing is loaded lazily and no entities pile up in the persistence context
+        try (Stream<ExpenseResponseDto> expenseStream = expenseRepository.streamResponses(spec, EXPORT_SORT)) {
+            for (Iterator<ExpenseResponseDto> iterator = expenseStream.iterator(); iterator.hasNext(); ) {
+                ExpenseResponseDto expense = iterator.next();
+                csv.number(expense.getId())
+                        .date(expense.getDate())
+                        .decimal(expense.getAmount())
+                        .text(expense.getCurrency())
+                        .text(expense.getCategoryName())
+                        .text(expense.getDescription())
+                        .joined(expense.getTags(), ExpenseCsvFormat.TAG_SEPARATOR)
+                        .text(expense.getReceiptMongoId())
+                        .dateTime(expense.getCreatedAt())
+                        .endRow();
+            }
+        }
+        
+        csv.flush();
+        log.info("CSV export completed for user ID: {}", userId);
+    }
+
+    /**
+     * Export expenses as newline-delimited JSON, one expense per line in the shape the API returns
+     * Uses the same filters and order as the CSV export
+     *
+     * @param out the stream to write the UTF-8 lines to; left open
+     * @param userId the user ID
+     * @param filter the export filters
+     */
+    public void exportExpensesToNdjson(OutputStream out, Long userId, ExpenseFilter filter) throws IOException {
+        log.info("Exporting expenses to NDJSON for user ID: {}", userId);
+        long rows = exportExpenses(userId, filter, new ExpenseNdjsonWriter(objectMapper, out));
+        log.info("NDJSON export completed for user ID: {} ({} rows)", userId, rows);
+    }
+
+    /**
+     * Export expenses as an Arrow IPC stream, written in record batches of a bounded number of rows
+     * Uses the same filters and order as the CSV export
+     *
+     * @param out the stream to write the Arrow stream to; left open
+     * @param userId the user ID
+     * @param filter the export filters
+     */
+    public void exportExpensesToArrow(OutputStream out, Long userId, ExpenseFilter filter) throws IOException {
+        log.info("Exporting expenses to Arrow for user ID: {}", userId);
+        long rows = exportExpenses(userId, filter, new ExpenseArrowWriter(out));
+        log.info("Arrow export completed for user ID: {} ({} rows)", userId, rows);
+    }
+
+    /**
+     * Stream the filtered expenses from a server-side cursor through an export writer
+     * @return number of expenses written
+     */
+    private long exportExpenses(Long userId, ExpenseFilter filter, ExpenseExportWriter writer) throws IOException {
+        Specification<Expense> spec = buildFilterSpecification(userId, filter);
+        long rows = 0;
+        try (Stream<ExpenseResponseDto> expenseStream = expenseRepository.streamResponses(spec, EXPORT_SORT)) {
+            for (Iterator<ExpenseResponseDto> iterator = expenseStream.iterator(); iterator.hasNext(); ) {
+                writer.write(iterator.next());
+                rows++;
+            }
+        }
+        writer.finish();
+        return rows;
+    }
+
+    /**
+     * Whether COPY can produce the export: it only filters by user and date, and the dates must be
+     * four-digit years that inline as SQL date literals
+     */
+    private static boolean isCopyExportable(ExpenseFilter filter) {
+        return filter.isDateRangeOnly() && isCopyDate(filter.getFromDate()) && isCopyDate(filter.getToDate());
+    }
+
+    private static boolean isCopyDate(LocalDate date) {
+        return date == null || (date.getYear() >= 1 && date.getYear() <= 9999);
+    }
+    
+    /**
+     * Validate search filters for a user and build the matching specification
+     *
+     * @throws ResourceNotFoundException if the user or filtered category does not exist
+     * @throws IllegalArgumentException if the category belongs to another user, a range is inverted
+     *         or the similarity threshold is outside 0-1
+     */
+    private Specification<Expense> buildFilterSpecification(Long userId, ExpenseFilter filter) {
         // Validate user exists
         if (!userRepository.existsById(userId)) {
             throw new ResourceNotFoundException("User", "id", userId);
         }
         
         // Validate category belongs to user if specified
-        if (categoryId.isPresent()) {
-            Category category = categoryRepository.findById(categoryId.get())
-                    .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId.get()));
+        if (filter.getCategoryId() != null) {
+            Category category = categoryRepository.findById(filter.getCategoryId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Category", "id", filter.getCategoryId()));
+            
             if (!category.getUser().getId().equals(userId)) {
                 throw new IllegalArgumentException("Category does not belong to the user");
             }
         }
         
-        // Build specification with same filters as search
-        Specification<Expense> spec = ExpenseSpecification.buildSpecification(
-                userId,
-                fromDate.orElse(null),
-                toDate.orElse(null),
-                categoryId.orElse(null),
-                minAmount.orElse(null),
-                maxAmount.orElse(null),
-                searchText.orElse(null),
-                currency.orElse(null),
-                tag.orElse(null)
-        );
+        // Validate date range
+        if (filter.getFromDate() != null && filter.getToDate() != null
+                && filter.getFromDate().isAfter(filter.getToDate())) {
+            throw new IllegalArgumentException("From date cannot be after to date");
+        }
         
-        // Write CSV header
-        writer.write("ID,Date,Amount,Currency,Category,Description,Tags,Receipt ID,Created At\n");
-        
-        // Stream expenses to avoid loading all into memory
-        try (Stream<Expense> expenseStream = expenseRepository.findAll(spec).stream()) {
-            expenseStream.forEach(expense -> {
-                try {
-                    // Escape CSV values (handle commas, quotes, newlines)
-                    String id = String.valueOf(expense.getId());
-                    String date = expense.getDate().toString();
-                    String amount = expense.getAmount().toString();
-                    String currencyValue = escapeCsv(expense.getCurrency());
-                    String category = expense.getCategory() != null ? 
-                            escapeCsv(expense.getCategory().getName()) : "";
-                    String description = expense.getDescription() != null ? 
-                            escapeCsv(expense.getDescription()) : "";
-                    String tags = expense.getTags() != null && !expense.getTags().isEmpty() ? 
-                            escapeCsv(String.join("|", expense.getTags())) : "";
-                    String receiptId = expense.getReceiptMongoId() != null ? 
-                            escapeCsv(expense.getReceiptMongoId()) : "";
-                    String createdAt = expense.getCreatedAt().toString();
-                    
-                    writer.write(String.format("%s,%s,%s,%s,%s,%s,%s,%s,%s\n",
-                            id, date, amount, currencyValue, category, description, tags, receiptId, createdAt));
-                    
-                } catch (IOException e) {
-                    throw new RuntimeException("Error writing CSV row", e);
-                }
-            });
+        // Validate amount range
+        if (filter.getMinAmount() != null && filter.getMaxAmount() != null
+                && filter.getMinAmount().compareTo(filter.getMaxAmount()) > 0) {
+            throw new IllegalArgumentException("Minimum amount cannot be greater than maximum amount");
         }
         
-        writer.flush();
-        log.info("CSV export completed for user ID: {}", userId);
+        boolean fuzzySearch = filter.getSearchMode() == ExpenseSearchMode.FUZZY
+                && filter.getSearchText() != null && !filter.getSearchText().isBlank();
+        if (!fuzzySearch) {
+            return ExpenseSpecification.buildSpecification(userId, filter);
+        }
+        
+        // Validate similarity threshold and apply it before any trigram match in this transaction
+        if (filter.getSimilarityThreshold() != null) {
+            double threshold = filter.getSimilarityThreshold();
+            if (threshold < 0 || threshold > 1) {
+                throw new IllegalArgumentException("Similarity threshold must be between 0 and 1");
+            }
+            expenseRepository.setWordSimilarityThreshold(threshold);
+        }
+        
+        List<Long> matchingCategoryIds = categoryRepository.findIdsByUserIdAndNameTrigramMatch(
+                userId, filter.getSearchText().trim());
+        
+        return ExpenseSpecification.buildSpecification(userId, filter, matchingCategoryIds);
     }
     
     /**
-     * Escape CSV field value according to RFC 4180
-     * Wraps in quotes if contains comma, quote, or newline
-     * Escapes quotes by doubling them
+     * Error for an expense that an owner-scoped lookup did not find
+     * Only runs on the failure path, where it tells a missing expense from another user's
      */
-    private String escapeCsv(String value) {
-        if (value == null) {
-            return "";
+    private RuntimeException expenseNotOwned(Long expenseId) {
+        if (expenseRepository.existsById(expenseId)) {
+            return new IllegalArgumentException("Expense does not belong to the specified user");
         }
-        
-        // Check if value needs escaping
-        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
-            // Escape quotes by doubling them
-            String escaped = value.replace("\"", "\"\"");
-            // Wrap in quotes
-            return "\"" + escaped + "\"";
+        return new ResourceNotFoundException("Expense", "id", expenseId);
+    }
+
+    /**
+     * Lock a user's expenses matching a filter and snapshot them for the change events
+     * At most MAX_BATCH_SIZE expenses may match, which bounds the snapshots and the ID list of the statement
+     */
+    private List<ExpenseSnapshot> lockMatchingExpenses(Long userId, ExpenseFilter filter) {
+        if (filter.isEmpty()) {
+            throw new IllegalArgumentException("At least one filter is required for a bulk change");
         }
-        
-        return value;
+
+        List<Object[]> rows = expenseRepository.lockColumnValues(
+                buildFilterSpecification(userId, filter), MAX_BATCH_SIZE + 1);
+        if (rows.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Filter matches more than " + MAX_BATCH_SIZE + " expenses");
+        }
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Set<String>> tagsById = new HashMap<>();
+        for (Object[] row : expenseRepository.findTagsByIdIn(rows.stream().map(row -> (Long) row[0]).toList())) {
+            tagsById.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((String) row[1]);
+        }
+        return rows.stream()
+                .map(row -> new ExpenseSnapshot(
+                        (Long) row[0],
+                        userId,
+                        (Long) row[1],
+                        (LocalDate) row[2],
+                        (BigDecimal) row[3],
+                        (String) row[4],
+                        tagsById.getOrDefault((Long) row[0], Set.of())))
+                .toList();
+    }
+
+    /**
+     * Specification for a bulk statement over already locked expenses
+     * The user predicate is redundant with the lock query but keeps the statement scoped on its own
+     */
+    private static Specification<Expense> byIds(Long userId, List<ExpenseSnapshot> expenses) {
+        return ExpenseSpecification.hasUserId(userId)
+                .and(ExpenseSpecification.hasIdIn(expenses.stream().map(ExpenseSnapshot::id).toList()));
+    }
+
+    /**
+     * Serve a date-ordered page of IDs from the in-memory expense index when it can answer the filter
+     * Only the default newest-first order is indexed; other sorts and full-text search go to the database
+     */
+    private Optional<ExpenseIdPage> findIndexedIds(Long userId, ExpenseFilter filter, Pageable pageable) {
+        Sort sort = pageable.getSort();
+        if (pageable.isUnpaged() || !(sort.equals(DEFAULT_SORT) || sort.equals(KEYSET_SORT))) {
+            return Optional.empty();
+        }
+        return expenseColumnStore.findIds(userId, filter, pageable.getOffset(), pageable.getPageSize());
+    }
+
+    /**
+     * Fetch response DTOs for a page of IDs, preserving the order of the IDs
+     */
+    private List<ExpenseResponseDto> findResponsesByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ExpenseResponseDto> byId = expenseRepository
+                .findResponses(ExpenseSpecification.hasIdIn(ids), Pageable.unpaged())
+                .stream()
+                .collect(Collectors.toMap(ExpenseResponseDto::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Convert indexed category totals into getCategoryTotals rows (ID, name, total, count), largest first
+     */
+    private List<Object[]> toCategoryTotalRows(Map<Long, ExpenseAggregate> totals) {
+        Map<Long, String> names = categoryRepository.findAllById(totals.keySet()).stream()
+                .collect(Collectors.toMap(Category::getId, Category::getName));
+        return totals.entrySet().stream()
+                .sorted(Map.Entry.<Long, ExpenseAggregate>comparingByValue(
+                        Comparator.comparingLong(ExpenseAggregate::totalCents)).reversed())
+                .map(entry -> new Object[] {
+                        entry.getKey(),
+                        names.get(entry.getKey()),
+                        entry.getValue().total(),
+                        entry.getValue().count()
+                })
+                .toList();
+    }
+
+    /**
+     * Check whether the client asked for search relevance ordering (sort=relevance)
+     */
+    private boolean isSortedByRelevance(Pageable pageable) {
+        return pageable.getSort().getOrderFor(RELEVANCE_SORT) != null;
+    }
+
+    /**
+     * Strip the relevance order, which is not an entity property and is applied by the specification instead
+     * Without search text there is nothing to rank, so results fall back to newest first
+     */
+    private Pageable withoutRelevanceSort(Pageable pageable, ExpenseFilter filter) {
+        boolean hasSearchText = filter.getSearchText() != null && !filter.getSearchText().isBlank();
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                hasSearchText ? Sort.unsorted() : DEFAULT_SORT);
+    }
+    
+    /**
+     * Parse a yyyy-MM-dd..yyyy-MM-dd window into a DateRangeTotalDto without a total
+     */
+    private DateRangeTotalDto parseDateRange(String range) {
+        int separator = range.indexOf(DATE_RANGE_SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid date range: " + range);
+        }
+        LocalDate startDate;
+        LocalDate endDate;
+        try {
+            startDate = LocalDate.parse(range.substring(0, separator).trim());
+            endDate = LocalDate.parse(range.substring(separator + DATE_RANGE_SEPARATOR.length()).trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date range: " + range);
+        }
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date cannot be after end date: " + range);
+        }
+        return new DateRangeTotalDto(startDate, endDate, null);
+    }
+
+    /**
+     * Bean validation errors of one batch item, plus a mismatched owner
+     */
+    private List<ErrorResponse.ValidationError> validateBatchItem(Long userId, ExpenseCreateDto expenseCreateDto) {
+        if (expenseCreateDto == null) {
+            return List.of(validationError(null, "Expense is required", null));
+        }
+        List<ErrorResponse.ValidationError> errors = validator.validate(expenseCreateDto).stream()
+                .map(violation -> validationError(
+                        violation.getPropertyPath().toString(), violation.getMessage(), violation.getInvalidValue()))
+                .sorted(Comparator.comparing(ErrorResponse.ValidationError::getField))
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (expenseCreateDto.getUserId() != null && !userId.equals(expenseCreateDto.getUserId())) {
+            errors.add(validationError("userId", "User ID must match the user ID in the path", expenseCreateDto.getUserId()));
+        }
+        return errors;
+    }
+
+    private static ErrorResponse.ValidationError validationError(String field, String message, Object rejectedValue) {
+        return ErrorResponse.ValidationError.builder()
+                .field(field)
+                .message(message)
+                .rejectedValue(rejectedValue)
+                .build();
     }
 }
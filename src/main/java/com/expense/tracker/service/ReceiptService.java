@@ -4,6 +4,8 @@ import com.expense.tracker.dto.ReceiptDto;
 import com.expense.tracker.exception.ResourceNotFoundException;
 import com.expense.tracker.model.ReceiptDocument;
 import com.expense.tracker.repository.ReceiptRepository;
+import com.expense.tracker.service.event.ExpenseChangedEvent;
+import com.expense.tracker.service.event.ExpensesChangedEvent;
 import com.mongodb.client.gridfs.model.GridFSFile;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,7 +17,10 @@ import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.gridfs.GridFsOperations;
 import org.springframework.data.mongodb.gridfs.GridFsTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -35,6 +40,7 @@ public class ReceiptService {
     private final ReceiptRepository receiptRepository;
     private final GridFsTemplate gridFsTemplate;
     private final GridFsOperations gridFsOperations;
+    private final UserDataVersionService userDataVersionService;
 
     /**
      * Upload a receipt file
@@ -79,6 +85,7 @@ public class ReceiptService {
             
             ReceiptDocument savedReceipt = receiptRepository.save(receiptDocument);
             log.info("Receipt saved with ID: {}", savedReceipt.getId());
+            userDataVersionService.bump(userId);
             
             return toDto(savedReceipt);
             
@@ -176,6 +183,7 @@ public class ReceiptService {
         
         ReceiptDocument updatedReceipt = receiptRepository.save(receipt);
         log.info("Receipt metadata updated for ID: {}", receiptId);
+        userDataVersionService.bump(userId);
         
         return toDto(updatedReceipt);
     }
@@ -205,6 +213,7 @@ public class ReceiptService {
         // Delete receipt document
         receiptRepository.delete(receipt);
         log.info("Receipt deleted: {}", receiptId);
+        userDataVersionService.bump(userId);
     }
 
     /**
@@ -333,6 +342,7 @@ public class ReceiptService {
         receipt.setUpdatedAt(LocalDateTime.now());
         
         ReceiptDocument updatedReceipt = receiptRepository.save(receipt);
+        userDataVersionService.bump(userId);
         return toDto(updatedReceipt);
     }
 
@@ -365,6 +375,44 @@ public class ReceiptService {
         return gridFsFile;
     }
 
+    /**
+     * Unlink the receipts of a deleted expense once the deletion has committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        if (event.after() == null) {
+            unlinkFromDeletedExpenses(event.userId(), List.of(event.expenseId()));
+        }
+    }
+
+    /**
+     * Unlink the receipts of expenses deleted in a batch once the deletion has committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onExpensesChanged(ExpensesChangedEvent event) {
+        List<Long> deletedIds = event.changes().stream()
+                .filter(change -> change.after() == null)
+                .map(ExpenseChangedEvent::expenseId)
+                .toList();
+        if (!deletedIds.isEmpty()) {
+            unlinkFromDeletedExpenses(event.userId(), deletedIds);
+        }
+    }
+
+    /**
+     * Receipts live outside the expense transaction, so they are kept as unassigned receipts rather
+     * than deleted along with their expenses
+     */
+    private void unlinkFromDeletedExpenses(Long userId, List<Long> expenseIds) {
+        long unlinked = receiptRepository.unlinkFromExpenses(expenseIds, LocalDateTime.now());
+        if (unlinked > 0) {
+            log.info("Unlinked {} receipts from deleted expenses of user ID: {}", unlinked, userId);
+            userDataVersionService.bump(userId);
+        }
+    }
+
     /**
      * Convert entity to DTO
      */
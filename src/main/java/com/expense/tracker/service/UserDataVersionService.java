@@ -0,0 +1,70 @@
+package com.expense.tracker.service;
+
+import com.expense.tracker.repository.UserDataVersionRepository;
+import com.expense.tracker.service.event.ExpenseChangedEvent;
+import com.expense.tracker.service.event.ExpensesChangedEvent;
+import com.expense.tracker.service.event.ExpensesImportedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Maintains each user's data version, the basis of the ETags on the user's read endpoints
+ * The version is bumped inside the writing transaction, so it becomes visible together with the
+ * change it describes
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserDataVersionService {
+
+    private final UserDataVersionRepository versionRepository;
+
+    /**
+     * Current data version of a user, 0 if the user's data was never written, empty if the user does not exist
+     */
+    public Optional<Long> currentVersion(Long userId) {
+        return versionRepository.findVersionByExistingUserId(userId);
+    }
+
+    /**
+     * Increment a user's data version, joining the caller's transaction if there is one
+     */
+    @Transactional
+    public void bump(Long userId) {
+        versionRepository.incrementVersion(userId);
+        log.debug("Bumped data version for user ID: {}", userId);
+    }
+
+    /**
+     * Bump the owner's version for every expense change
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        bump(event.userId());
+    }
+
+    /**
+     * Bump the owner's version once for a batch of expense changes
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onExpensesChanged(ExpensesChangedEvent event) {
+        bump(event.userId());
+    }
+
+    /**
+     * Bump the owner's version once for an import
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onExpensesImported(ExpensesImportedEvent event) {
+        bump(event.userId());
+    }
+}
@@ -0,0 +1,107 @@
+package com.expense.tracker.service.cache;
+
+import com.expense.tracker.service.event.ExpenseChangedEvent;
+import com.expense.tracker.service.event.ExpensesChangedEvent;
+import com.expense.tracker.service.event.ExpensesImportedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Cache of report results, keyed by ReportCacheKey
+ * Backed by the "reports" cache of the application CacheManager (a bounded Caffeine cache with a TTL,
+ * or a no-op cache when spring.cache.type=none). Entries are stored under the owner's current
+ * generation, and every committed expense write bumps that generation, so invalidation costs O(1)
+ * whatever the cache size; the orphaned entries are never read again and age out through the size
+ * bound and TTL. A result computed while a write to the same user committed is returned but not
+ * cached, so a stale report never outlives the request that computed it. Cached values must not be
+ * modified
+ */
+@Component
+@Slf4j
+public class ReportCache {
+
+    public static final String CACHE_NAME = "reports";
+
+    private final Cache cache;
+
+    // Users absent from the map are at generation 0
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+
+    public ReportCache(CacheManager cacheManager) {
+        Cache reports = cacheManager.getCache(CACHE_NAME);
+        if (reports == null) {
+            throw new IllegalStateException("Cache '" + CACHE_NAME + "' is not configured (spring.cache.cache-names)");
+        }
+        this.cache = reports;
+    }
+
+    /**
+     * The cached report for a key, computing and caching it if absent
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ReportCacheKey key, Supplier<T> loader) {
+        long generation = generation(key.userId());
+        GenerationKey cacheKey = new GenerationKey(key, generation);
+        Cache.ValueWrapper cached = cache.get(cacheKey);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+
+        T value = loader.get();
+        // A write that commits after this check leaves the entry under an already-stale generation
+        if (generation(key.userId()) == generation) {
+            cache.put(cacheKey, value);
+        }
+        return value;
+    }
+
+    /**
+     * Drop every cached report of a user
+     */
+    public void invalidate(Long userId) {
+        generations.merge(userId, 1L, Long::sum);
+        log.debug("Invalidated cached reports for user ID: {}", userId);
+    }
+
+    /**
+     * Invalidate the owner's reports once an expense change has committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    /**
+     * Invalidate the owner's reports once a batch of expense changes has committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onExpensesChanged(ExpensesChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    /**
+     * Invalidate the owner's reports once an import has committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onExpensesImported(ExpensesImportedEvent event) {
+        invalidate(event.userId());
+    }
+
+    private long generation(Long userId) {
+        return generations.getOrDefault(userId, 0L);
+    }
+
+    /**
+     * A report key qualified by the owner's generation at the time it was cached
+     */
+    private record GenerationKey(ReportCacheKey key, long generation) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.expense.tracker.service.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Cache key of one report result: the owning user, the report name and its parameters
+ * The user ID is kept separate so a user's entries can be invalidated without touching anyone else's
+ */
+public record ReportCacheKey(Long userId, String report, List<Object> params) {
+
+    public static ReportCacheKey of(Long userId, String report, Object... params) {
+        // Arrays.asList rather than List.of: optional parameters may be null, and a lone null
+        // argument arrives as a null array
+        List<Object> values = params == null ? Collections.singletonList(null) : Arrays.asList(params.clone());
+        return new ReportCacheKey(userId, report, Collections.unmodifiableList(values));
+    }
+}
@@ -0,0 +1,303 @@
+package com.expense.tracker.service.csv;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+
+/**
+ * Streaming RFC 4180 writer that encodes fields straight into a reusable char buffer
+ * Numbers and dates are written digit by digit in their ISO (toString) form, and text is scanned once
+ * to decide whether it needs quoting, so a row costs no intermediate strings. Separators are inserted
+ * automatically; null fields are written empty. Not thread-safe
+ */
+public class CsvRowEncoder implements Flushable {
+
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+
+    private final Writer writer;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private boolean rowStart = true;
+
+    public CsvRowEncoder(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Write a whole row of text fields
+     */
+    public CsvRowEncoder row(Collection<String> fields) throws IOException {
+        for (String field : fields) {
+            text(field);
+        }
+        return endRow();
+    }
+
+    /**
+     * Write a text field, quoting it only if it contains a separator, quote or line break
+     */
+    public CsvRowEncoder text(String value) throws IOException {
+        separate();
+        if (value == null) {
+            return this;
+        }
+        if (needsQuoting(value)) {
+            append(QUOTE);
+            appendEscaped(value);
+            append(QUOTE);
+        } else {
+            append(value);
+        }
+        return this;
+    }
+
+    /**
+     * Write values joined by a delimiter as one text field
+     */
+    public CsvRowEncoder joined(Collection<String> values, String delimiter) throws IOException {
+        separate();
+        if (values == null || values.isEmpty()) {
+            return this;
+        }
+        boolean quoted = needsQuoting(delimiter);
+        for (String value : values) {
+            quoted = quoted || needsQuoting(value);
+        }
+        if (quoted) {
+            append(QUOTE);
+        }
+        boolean first = true;
+        for (String value : values) {
+            if (!first) {
+                appendMaybeEscaped(delimiter, quoted);
+            }
+            appendMaybeEscaped(value, quoted);
+            first = false;
+        }
+        if (quoted) {
+            append(QUOTE);
+        }
+        return this;
+    }
+
+    public CsvRowEncoder number(Long value) throws IOException {
+        separate();
+        if (value != null) {
+            appendLong(value);
+        }
+        return this;
+    }
+
+    /**
+     * Write a decimal as BigDecimal.toString would
+     */
+    public CsvRowEncoder decimal(BigDecimal value) throws IOException {
+        separate();
+        if (value != null) {
+            // Amounts have a small non-negative scale, so the plain digits can be written without a string
+            if (value.scale() >= 0 && value.scale() <= 18 && value.precision() <= 18) {
+                appendUnscaled(value.unscaledValue().longValue(), value.scale());
+            } else {
+                append(value.toString());
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Write a date as yyyy-MM-dd
+     */
+    public CsvRowEncoder date(LocalDate value) throws IOException {
+        separate();
+        if (value != null) {
+            appendDate(value);
+        }
+        return this;
+    }
+
+    /**
+     * Write a timestamp as LocalDateTime.toString would, omitting zero seconds and fractions
+     */
+    public CsvRowEncoder dateTime(LocalDateTime value) throws IOException {
+        separate();
+        if (value != null) {
+            appendDate(value.toLocalDate());
+            append('T');
+            appendTime(value.toLocalTime());
+        }
+        return this;
+    }
+
+    /**
+     * Terminate the current row with a line feed
+     */
+    public CsvRowEncoder endRow() throws IOException {
+        append('\n');
+        rowStart = true;
+        return this;
+    }
+
+    /**
+     * Write the buffered characters to the underlying writer and flush it
+     */
+    @Override
+    public void flush() throws IOException {
+        drain();
+        writer.flush();
+    }
+
+    private void separate() throws IOException {
+        if (rowStart) {
+            rowStart = false;
+        } else {
+            append(SEPARATOR);
+        }
+    }
+
+    private static boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == SEPARATOR || c == QUOTE || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void appendMaybeEscaped(String value, boolean quoted) throws IOException {
+        if (quoted) {
+            appendEscaped(value);
+        } else {
+            append(value);
+        }
+    }
+
+    private void appendEscaped(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == QUOTE) {
+                append(QUOTE);
+            }
+            append(c);
+        }
+    }
+
+    private void appendDate(LocalDate date) throws IOException {
+        int year = date.getYear();
+        if (year < 1000 || year > 9999) {
+            // Rare signed or padded years keep the JDK's formatting
+            append(date.toString());
+            return;
+        }
+        appendDigits(year, 4);
+        append('-');
+        appendDigits(date.getMonthValue(), 2);
+        append('-');
+        appendDigits(date.getDayOfMonth(), 2);
+    }
+
+    private void appendTime(LocalTime time) throws IOException {
+        appendDigits(time.getHour(), 2);
+        append(':');
+        appendDigits(time.getMinute(), 2);
+        int second = time.getSecond();
+        int nano = time.getNano();
+        if (second == 0 && nano == 0) {
+            return;
+        }
+        append(':');
+        appendDigits(second, 2);
+        if (nano == 0) {
+            return;
+        }
+        append('.');
+        if (nano % 1_000_000 == 0) {
+            appendDigits(nano / 1_000_000, 3);
+        } else if (nano % 1_000 == 0) {
+            appendDigits(nano / 1_000, 6);
+        } else {
+            appendDigits(nano, 9);
+        }
+    }
+
+    private void appendUnscaled(long unscaled, int scale) throws IOException {
+        if (scale == 0) {
+            appendLong(unscaled);
+            return;
+        }
+        if (unscaled < 0) {
+            append('-');
+            unscaled = -unscaled;
+        }
+        long divisor = 1;
+        for (int i = 0; i < scale; i++) {
+            divisor *= 10;
+        }
+        appendLong(unscaled / divisor);
+        append('.');
+        appendDigits(unscaled % divisor, scale);
+    }
+
+    private void appendLong(long value) throws IOException {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                append(Long.toString(value));
+                return;
+            }
+            append('-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10) {
+            digits++;
+        }
+        appendDigits(value, digits);
+    }
+
+    /**
+     * Append a non-negative value as exactly the given number of digits, zero-padded on the left
+     */
+    private void appendDigits(long value, int digits) throws IOException {
+        reserve(digits);
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        position += digits;
+    }
+
+    private void append(char c) throws IOException {
+        reserve(1);
+        buffer[position++] = c;
+    }
+
+    private void append(String value) throws IOException {
+        int offset = 0;
+        while (offset < value.length()) {
+            if (position == buffer.length) {
+                drain();
+            }
+            int count = Math.min(value.length() - offset, buffer.length - position);
+            value.getChars(offset, offset + count, buffer, position);
+            position += count;
+            offset += count;
+        }
+    }
+
+    private void reserve(int chars) throws IOException {
+        if (buffer.length - position < chars) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        writer.write(buffer, 0, position);
+        position = 0;
+    }
+}
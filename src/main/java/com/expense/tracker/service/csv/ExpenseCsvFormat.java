@@ -0,0 +1,28 @@
+package com.expense.tracker.service.csv;
+
+import java.util.List;
+
+/**
+ * Column layout shared by the expense CSV export and import
+ */
+public final class ExpenseCsvFormat {
+
+    public static final List<String> HEADER = List.of(
+            "ID", "Date", "Amount", "Currency", "Category", "Description", "Tags", "Receipt ID", "Created At");
+
+    public static final int DATE = 1;
+    public static final int AMOUNT = 2;
+    public static final int CURRENCY = 3;
+    public static final int CATEGORY = 4;
+    public static final int DESCRIPTION = 5;
+    public static final int TAGS = 6;
+    public static final int RECEIPT_ID = 7;
+
+    /**
+     * Separator between the tags of one expense within the Tags column
+     */
+    public static final String TAG_SEPARATOR = "|";
+
+    private ExpenseCsvFormat() {
+    }
+}
@@ -0,0 +1,34 @@
+package com.expense.tracker.service.event;
+
+/**
+ * Published by ExpenseService whenever a single expense is created, updated or deleted
+ * before is null for a creation and after is null for a deletion
+ */
+public record ExpenseChangedEvent(ExpenseSnapshot before, ExpenseSnapshot after) {
+
+    public static ExpenseChangedEvent created(ExpenseSnapshot after) {
+        return new ExpenseChangedEvent(null, after);
+    }
+
+    public static ExpenseChangedEvent updated(ExpenseSnapshot before, ExpenseSnapshot after) {
+        return new ExpenseChangedEvent(before, after);
+    }
+
+    public static ExpenseChangedEvent deleted(ExpenseSnapshot before) {
+        return new ExpenseChangedEvent(before, null);
+    }
+
+    /**
+     * Owner of the changed expense
+     */
+    public Long userId() {
+        return after != null ? after.userId() : before.userId();
+    }
+
+    /**
+     * ID of the changed expense
+     */
+    public Long expenseId() {
+        return after != null ? after.id() : before.id();
+    }
+}
@@ -0,0 +1,40 @@
+package com.expense.tracker.service.event;
+
+import com.expense.tracker.model.Expense;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Immutable copy of the expense fields that derived read models (indexes, aggregates) depend on
+ * Taken inside the writing transaction so listeners never touch a managed entity
+ */
+public record ExpenseSnapshot(
+        Long id,
+        Long userId,
+        Long categoryId,
+        LocalDate date,
+        BigDecimal amount,
+        String currency,
+        Set<String> tags) {
+
+    public ExpenseSnapshot {
+        tags = tags == null ? Set.of() : Set.copyOf(tags);
+    }
+
+    /**
+     * Snapshot the current state of an expense
+     */
+    public static ExpenseSnapshot of(Expense expense) {
+        return new ExpenseSnapshot(
+                expense.getId(),
+                expense.getUser().getId(),
+                expense.getCategory().getId(),
+                expense.getDate(),
+                expense.getAmount(),
+                expense.getCurrency(),
+                expense.getTags()
+        );
+    }
+}
@@ -0,0 +1,14 @@
+package com.expense.tracker.service.event;
+
+import java.util.List;
+
+/**
+ * Published by ExpenseService when many expenses of one user change in a single transaction
+ * Listeners apply the changes together instead of handling one ExpenseChangedEvent per expense
+ */
+public record ExpensesChangedEvent(Long userId, List<ExpenseChangedEvent> changes) {
+
+    public ExpensesChangedEvent {
+        changes = List.copyOf(changes);
+    }
+}
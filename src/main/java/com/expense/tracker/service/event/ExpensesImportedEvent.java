@@ -0,0 +1,8 @@
+package com.expense.tracker.service.event;
+
+/**
+ * Published by the CSV import after inserting a user's expenses with set-based SQL
+ * Carries no per-expense snapshots: listeners holding copies of the user's data drop or bump them
+ */
+public record ExpensesImportedEvent(Long userId, long count) {
+}
@@ -0,0 +1,544 @@
+package com.expense.tracker.service.export;
+
+import com.expense.tracker.dto.ExpenseResponseDto;
+import com.google.flatbuffers.FlatBufferBuilder;
+import org.apache.arrow.flatbuf.Buffer;
+import org.apache.arrow.flatbuf.Date;
+import org.apache.arrow.flatbuf.DateUnit;
+import org.apache.arrow.flatbuf.Decimal;
+import org.apache.arrow.flatbuf.Endianness;
+import org.apache.arrow.flatbuf.Field;
+import org.apache.arrow.flatbuf.FieldNode;
+import org.apache.arrow.flatbuf.Int;
+import org.apache.arrow.flatbuf.Message;
+import org.apache.arrow.flatbuf.MessageHeader;
+import org.apache.arrow.flatbuf.MetadataVersion;
+import org.apache.arrow.flatbuf.RecordBatch;
+import org.apache.arrow.flatbuf.Schema;
+import org.apache.arrow.flatbuf.TimeUnit;
+import org.apache.arrow.flatbuf.Timestamp;
+import org.apache.arrow.flatbuf.Type;
+import org.apache.arrow.flatbuf.Utf8;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes expenses in the Apache Arrow IPC streaming format, readable by pyarrow, pandas, polars, DuckDB
+ * and Spark without any text parsing
+ * A schema message is followed by one record batch per batchRows expenses. Each batch is encoded column
+ * by column into buffers that are reused for the next one, so memory stays bounded by a single batch
+ * whatever the size of the export. Timestamps are microseconds without a time zone, like the database
+ * columns, and amounts are decimal(12, 2)
+ */
+public class ExpenseArrowWriter implements ExpenseExportWriter {
+
+    public static final int DEFAULT_BATCH_ROWS = 8192;
+
+    // Marks the start of every message; a zero metadata length after it ends the stream
+    private static final int CONTINUATION = 0xFFFFFFFF;
+    private static final int ALIGNMENT = 8;
+    private static final byte[] PADDING = new byte[ALIGNMENT];
+    private static final int AMOUNT_PRECISION = 12;
+    private static final int AMOUNT_SCALE = 2;
+
+    private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final OutputStream out;
+    private final int batchRows;
+    private final byte[] scratch = new byte[Integer.BYTES];
+
+    private final Int64Column id = new Int64Column("id");
+    private final Int64Column categoryId = new Int64Column("categoryId");
+    private final Utf8Column categoryName = new Utf8Column("categoryName");
+    private final DecimalColumn amount = new DecimalColumn("amount");
+    private final Utf8Column currency = new Utf8Column("currency");
+    private final DateColumn date = new DateColumn("date");
+    private final Utf8Column description = new Utf8Column("description");
+    private final Utf8Column receiptMongoId = new Utf8Column("receiptMongoId");
+    private final Utf8ListColumn tags = new Utf8ListColumn("tags");
+    private final TimestampColumn createdAt = new TimestampColumn("createdAt");
+    private final TimestampColumn updatedAt = new TimestampColumn("updatedAt");
+    private final List<Column> columns = List.of(
+            id, categoryId, categoryName, amount, currency, date, description, receiptMongoId, tags,
+            createdAt, updatedAt);
+
+    private int rows;
+    private boolean schemaWritten;
+
+    public ExpenseArrowWriter(OutputStream out) {
+        this(out, DEFAULT_BATCH_ROWS);
+    }
+
+    public ExpenseArrowWriter(OutputStream out, int batchRows) {
+        if (batchRows < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.out = out;
+        this.batchRows = batchRows;
+    }
+
+    @Override
+    public void write(ExpenseResponseDto expense) throws IOException {
+        writeSchemaOnce();
+        id.append(expense.getId());
+        categoryId.append(expense.getCategoryId());
+        categoryName.append(expense.getCategoryName());
+        amount.append(expense.getAmount());
+        currency.append(expense.getCurrency());
+        date.append(expense.getDate());
+        description.append(expense.getDescription());
+        receiptMongoId.append(expense.getReceiptMongoId());
+        tags.append(expense.getTags());
+        createdAt.append(expense.getCreatedAt());
+        updatedAt.append(expense.getUpdatedAt());
+        if (++rows == batchRows) {
+            writeBatch();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writeSchemaOnce();
+        if (rows > 0) {
+            writeBatch();
+        }
+        writeInt(CONTINUATION);
+        writeInt(0);
+        out.flush();
+    }
+
+    private void writeSchemaOnce() throws IOException {
+        if (schemaWritten) {
+            return;
+        }
+        FlatBufferBuilder builder = new FlatBufferBuilder(1024);
+        int[] fields = new int[columns.size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = columns.get(i).field(builder);
+        }
+        int schema = Schema.createSchema(builder, Endianness.Little, Schema.createFieldsVector(builder, fields), 0, 0);
+        writeMessage(builder, MessageHeader.Schema, schema, 0);
+        schemaWritten = true;
+    }
+
+    private void writeBatch() throws IOException {
+        // Field nodes and buffers are listed depth first, in schema order
+        List<Node> nodes = new ArrayList<>();
+        List<Bytes> buffers = new ArrayList<>();
+        for (Column column : columns) {
+            column.collect(nodes, buffers);
+        }
+
+        FlatBufferBuilder builder = new FlatBufferBuilder(1024);
+        // Flatbuffers builds vectors of structs back to front
+        RecordBatch.startNodesVector(builder, nodes.size());
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            FieldNode.createFieldNode(builder, nodes.get(i).length(), nodes.get(i).nullCount());
+        }
+        int nodesVector = builder.endVector();
+
+        long[] offsets = new long[buffers.size()];
+        long bodyLength = 0;
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = bodyLength;
+            bodyLength += align(buffers.get(i).size);
+        }
+        RecordBatch.startBuffersVector(builder, buffers.size());
+        for (int i = buffers.size() - 1; i >= 0; i--) {
+            Buffer.createBuffer(builder, offsets[i], buffers.get(i).size);
+        }
+        int buffersVector = builder.endVector();
+
+        int batch = RecordBatch.createRecordBatch(builder, rows, nodesVector, buffersVector, 0, 0);
+        writeMessage(builder, MessageHeader.RecordBatch, batch, bodyLength);
+        for (Bytes buffer : buffers) {
+            out.write(buffer.bytes, 0, buffer.size);
+            pad(buffer.size);
+        }
+
+        for (Column column : columns) {
+            column.reset();
+        }
+        rows = 0;
+    }
+
+    /**
+     * Write an encapsulated message: continuation marker, metadata length, the flatbuffer padded so the
+     * body that follows starts on an 8-byte boundary
+     */
+    private void writeMessage(FlatBufferBuilder builder, byte headerType, int header, long bodyLength)
+            throws IOException {
+        builder.finish(Message.createMessage(builder, MetadataVersion.V5, headerType, header, bodyLength, 0));
+        byte[] metadata = builder.sizedByteArray();
+        writeInt(CONTINUATION);
+        writeInt(align(metadata.length));
+        out.write(metadata);
+        pad(metadata.length);
+    }
+
+    private void writeInt(int value) throws IOException {
+        INT.set(scratch, 0, value);
+        out.write(scratch, 0, Integer.BYTES);
+    }
+
+    private void pad(int size) throws IOException {
+        out.write(PADDING, 0, align(size) - size);
+    }
+
+    private static int align(int size) {
+        return (size + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+
+    private record Node(int length, int nullCount) {
+    }
+
+    /**
+     * Growable little-endian byte buffer, cleared but not shrunk between batches
+     */
+    private static final class Bytes {
+
+        private static final Bytes EMPTY = new Bytes(0);
+
+        private byte[] bytes;
+        private int size;
+
+        Bytes(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        void putByte(int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void putInt(int value) {
+            ensure(Integer.BYTES);
+            INT.set(bytes, size, value);
+            size += Integer.BYTES;
+        }
+
+        void putLong(long value) {
+            ensure(Long.BYTES);
+            LONG.set(bytes, size, value);
+            size += Long.BYTES;
+        }
+
+        void put(byte[] values) {
+            ensure(values.length);
+            System.arraycopy(values, 0, bytes, size, values.length);
+            size += values.length;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        private void ensure(int count) {
+            if (size + count > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + count));
+            }
+        }
+    }
+
+    /**
+     * A nullable column: its validity bitmap plus the type-specific buffers of the current batch
+     */
+    private abstract static class Column {
+
+        final String name;
+        final Bytes validity = new Bytes(DEFAULT_BATCH_ROWS / Byte.SIZE);
+        int length;
+        int nullCount;
+
+        Column(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Record the next value's validity bit
+         * @return whether the value is present
+         */
+        boolean present(Object value) {
+            int bit = length++;
+            if (bit % Byte.SIZE == 0) {
+                validity.putByte(0);
+            }
+            if (value == null) {
+                nullCount++;
+                return false;
+            }
+            validity.bytes[bit / Byte.SIZE] |= (byte) (1 << (bit % Byte.SIZE));
+            return true;
+        }
+
+        int field(FlatBufferBuilder builder) {
+            int nameOffset = builder.createString(name);
+            int typeOffset = type(builder);
+            int childrenOffset = Field.createChildrenVector(builder, children(builder));
+            return Field.createField(builder, nameOffset, true, typeType(), typeOffset, 0, childrenOffset, 0);
+        }
+
+        abstract byte typeType();
+
+        abstract int type(FlatBufferBuilder builder);
+
+        int[] children(FlatBufferBuilder builder) {
+            return new int[0];
+        }
+
+        void collect(List<Node> nodes, List<Bytes> buffers) {
+            nodes.add(new Node(length, nullCount));
+            // A column without nulls may omit its bitmap
+            buffers.add(nullCount == 0 ? Bytes.EMPTY : validity);
+        }
+
+        void reset() {
+            validity.clear();
+            length = 0;
+            nullCount = 0;
+        }
+    }
+
+    /**
+     * A column of fixed-width values; null slots are zero-filled
+     */
+    private abstract static class FixedWidthColumn extends Column {
+
+        final Bytes values = new Bytes(DEFAULT_BATCH_ROWS * Long.BYTES);
+
+        FixedWidthColumn(String name) {
+            super(name);
+        }
+
+        @Override
+        void collect(List<Node> nodes, List<Bytes> buffers) {
+            super.collect(nodes, buffers);
+            buffers.add(values);
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+            values.clear();
+        }
+    }
+
+    private static final class Int64Column extends FixedWidthColumn {
+
+        Int64Column(String name) {
+            super(name);
+        }
+
+        void append(Long value) {
+            values.putLong(present(value) ? value : 0);
+        }
+
+        @Override
+        byte typeType() {
+            return Type.Int;
+        }
+
+        @Override
+        int type(FlatBufferBuilder builder) {
+            return Int.createInt(builder, Long.SIZE, true);
+        }
+    }
+
+    /**
+     * Days since the epoch as a 32-bit int
+     */
+    private static final class DateColumn extends FixedWidthColumn {
+
+        DateColumn(String name) {
+            super(name);
+        }
+
+        void append(LocalDate value) {
+            values.putInt(present(value) ? Math.toIntExact(value.toEpochDay()) : 0);
+        }
+
+        @Override
+        byte typeType() {
+            return Type.Date;
+        }
+
+        @Override
+        int type(FlatBufferBuilder builder) {
+            return Date.createDate(builder, DateUnit.DAY);
+        }
+    }
+
+    /**
+     * Microseconds since the epoch of a local date-time, read as if it were UTC
+     */
+    private static final class TimestampColumn extends FixedWidthColumn {
+
+        TimestampColumn(String name) {
+            super(name);
+        }
+
+        void append(LocalDateTime value) {
+            long micros = 0;
+            if (present(value)) {
+                micros = value.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + value.getNano() / 1_000;
+            }
+            values.putLong(micros);
+        }
+
+        @Override
+        byte typeType() {
+            return Type.Timestamp;
+        }
+
+        @Override
+        int type(FlatBufferBuilder builder) {
+            // No time zone: the values are wall-clock times, not instants
+            return Timestamp.createTimestamp(builder, TimeUnit.MICROSECOND, 0);
+        }
+    }
+
+    /**
+     * 128-bit two's complement unscaled values; amounts always fit in the low 64 bits
+     */
+    private static final class DecimalColumn extends FixedWidthColumn {
+
+        DecimalColumn(String name) {
+            super(name);
+        }
+
+        void append(BigDecimal value) {
+            long unscaled = 0;
+            if (present(value)) {
+                unscaled = value.setScale(AMOUNT_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+            }
+            values.putLong(unscaled);
+            values.putLong(unscaled < 0 ? -1 : 0);
+        }
+
+        @Override
+        byte typeType() {
+            return Type.Decimal;
+        }
+
+        @Override
+        int type(FlatBufferBuilder builder) {
+            return Decimal.createDecimal(builder, AMOUNT_PRECISION, AMOUNT_SCALE, 128);
+        }
+    }
+
+    /**
+     * UTF-8 strings: 32-bit end offsets into one data buffer
+     */
+    private static final class Utf8Column extends Column {
+
+        final Bytes offsets = new Bytes((DEFAULT_BATCH_ROWS + 1) * Integer.BYTES);
+        final Bytes data = new Bytes(DEFAULT_BATCH_ROWS * 16);
+
+        Utf8Column(String name) {
+            super(name);
+            offsets.putInt(0);
+        }
+
+        void append(String value) {
+            if (present(value)) {
+                data.put(value.getBytes(StandardCharsets.UTF_8));
+            }
+            offsets.putInt(data.size);
+        }
+
+        @Override
+        byte typeType() {
+            return Type.Utf8;
+        }
+
+        @Override
+        int type(FlatBufferBuilder builder) {
+            Utf8.startUtf8(builder);
+            return Utf8.endUtf8(builder);
+        }
+
+        @Override
+        void collect(List<Node> nodes, List<Bytes> buffers) {
+            super.collect(nodes, buffers);
+            buffers.add(offsets);
+            buffers.add(data);
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+            offsets.clear();
+            offsets.putInt(0);
+            data.clear();
+        }
+    }
+
+    /**
+     * A list of strings per row: 32-bit end offsets into a child string column
+     */
+    private static final class Utf8ListColumn extends Column {
+
+        final Bytes offsets = new Bytes((DEFAULT_BATCH_ROWS + 1) * Integer.BYTES);
+        final Utf8Column items = new Utf8Column("item");
+
+        Utf8ListColumn(String name) {
+            super(name);
+            offsets.putInt(0);
+        }
+
+        void append(Collection<String> values) {
+            if (present(values)) {
+                for (String value : values) {
+                    items.append(value);
+                }
+            }
+            offsets.putInt(items.length);
+        }
+
+        @Override
+        byte typeType() {
+            return Type.List;
+        }
+
+        @Override
+        int type(FlatBufferBuilder builder) {
+            org.apache.arrow.flatbuf.List.startList(builder);
+            return org.apache.arrow.flatbuf.List.endList(builder);
+        }
+
+        @Override
+        int[] children(FlatBufferBuilder builder) {
+            return new int[] {items.field(builder)};
+        }
+
+        @Override
+        void collect(List<Node> nodes, List<Bytes> buffers) {
+            super.collect(nodes, buffers);
+            buffers.add(offsets);
+            items.collect(nodes, buffers);
+        }
+
+        @Override
+        void reset() {
+            super.reset();
+            offsets.clear();
+            offsets.putInt(0);
+            items.reset();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.expense.tracker.service.export;
+
+import com.expense.tracker.dto.ExpenseResponseDto;
+
+import java.io.IOException;
+
+/**
+ * Encodes a stream of expenses into one export format
+ * Rows are written as they arrive; a writer holds at most a bounded batch of them before passing the
+ * bytes on. Not thread-safe
+ */
+public interface ExpenseExportWriter {
+
+    /**
+     * Append one expense to the export
+     */
+    void write(ExpenseResponseDto expense) throws IOException;
+
+    /**
+     * Write any buffered rows and the format's trailer, then flush; the underlying stream is left open
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,42 @@
+package com.expense.tracker.service.export;
+
+import com.expense.tracker.dto.ExpenseResponseDto;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes expenses as newline-delimited JSON: one object per line, in the same shape the API returns
+ * All rows go through a single streaming JsonGenerator, which encodes straight into its own buffer
+ */
+public class ExpenseNdjsonWriter implements ExpenseExportWriter {
+
+    private final JsonGenerator generator;
+    private final ObjectWriter writer;
+
+    public ExpenseNdjsonWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Lines are separated by the writer itself rather than the generator's default space
+        this.generator.setRootValueSeparator(null);
+        // Flushing after every row would push each line through the response (and compressor) on its own
+        this.writer = objectMapper.writerFor(ExpenseResponseDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    public void write(ExpenseResponseDto expense) throws IOException {
+        writer.writeValue(generator, expense);
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void finish() throws IOException {
+        generator.flush();
+    }
+}
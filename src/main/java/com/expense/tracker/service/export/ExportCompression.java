@@ -0,0 +1,137 @@
+package com.expense.tracker.service.export;
+
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * On-the-fly compression of an export stream
+ * Compressed streams are flushed every CHUNK_BYTES of input, so a client receives and can decompress
+ * the first rows while the rest of a large export is still being produced
+ */
+public enum ExportCompression {
+
+    NONE {
+        @Override
+        OutputStream compress(OutputStream out) {
+            return out;
+        }
+    },
+
+    GZIP {
+        @Override
+        OutputStream compress(OutputStream out) throws IOException {
+            // syncFlush makes each chunk's flush emit everything compressed so far
+            return new GZIPOutputStream(out, CHUNK_BYTES, true);
+        }
+    },
+
+    ZSTD {
+        @Override
+        OutputStream compress(OutputStream out) throws IOException {
+            return new ZstdOutputStream(out);
+        }
+    };
+
+    // Large enough that a sync flush costs well under 1% of the compression ratio
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    /**
+     * The compression to use for a request's Accept-Encoding header: gzip when accepted, otherwise none
+     * @param acceptEncoding the header value, may be null
+     */
+    public static ExportCompression negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return NONE;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if ((name.equals("gzip") || name.equals("x-gzip")) && !isRefused(parts)) {
+                return GZIP;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Wrap a stream so that bytes written to the result are compressed into it
+     * Closing the result finishes the compressed stream and closes the underlying one
+     */
+    public OutputStream wrap(OutputStream out) throws IOException {
+        if (this == NONE) {
+            return out;
+        }
+        return new ChunkedFlushOutputStream(compress(out));
+    }
+
+    abstract OutputStream compress(OutputStream out) throws IOException;
+
+    /**
+     * Whether a coding's parameters give it q=0
+     */
+    private static boolean isRefused(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Buffers small writes (COPY hands over one row at a time) and passes them to the compressor in
+     * chunks, flushing it after each one
+     */
+    private static class ChunkedFlushOutputStream extends FilterOutputStream {
+
+        private final byte[] buffer = new byte[CHUNK_BYTES];
+        private int count;
+
+        ChunkedFlushOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                flushChunk();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (count == buffer.length) {
+                    flushChunk();
+                }
+                int copied = Math.min(length, buffer.length - count);
+                System.arraycopy(bytes, offset, buffer, count, copied);
+                count += copied;
+                offset += copied;
+                length -= copied;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushChunk();
+        }
+
+        private void flushChunk() throws IOException {
+            out.write(buffer, 0, count);
+            count = 0;
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.expense.tracker.service.index;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Fenwick tree (binary indexed tree) over one user's daily expense totals in cents
+ * Covers a window of consecutive days that grows on demand. Point updates and [from, to] range sums
+ * both take O(log days). Reads share a read lock; writes take the write lock
+ */
+public class DailyTotals {
+
+    // Room left past the covered days so new expenses rarely force the window to grow
+    private static final int GROWTH_SLACK_DAYS = 366;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int firstDay;
+    // Per-day totals, kept to rebuild the tree when the window grows
+    private long[] daily = new long[0];
+    // 1-based Fenwick tree over daily
+    private long[] tree = new long[1];
+
+    /**
+     * Total of the days in [from, to], both inclusive
+     */
+    public BigDecimal total(LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            long low = Math.max(from.toEpochDay(), firstDay);
+            long high = Math.min(to.toEpochDay(), (long) firstDay + daily.length - 1);
+            if (low > high) {
+                return BigDecimal.ZERO.setScale(2);
+            }
+            long cents = prefixSum((int) (high - firstDay)) - prefixSum((int) (low - firstDay) - 1);
+            return BigDecimal.valueOf(cents, 2);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add an amount to a day's total (negative to subtract)
+     */
+    void add(LocalDate date, BigDecimal amount) {
+        lock.writeLock().lock();
+        try {
+            int day = (int) date.toEpochDay();
+            if (daily.length == 0 || day < firstDay || day >= firstDay + daily.length) {
+                grow(day);
+            }
+            long cents = amount.movePointRight(2).longValueExact();
+            int index = day - firstDay;
+            daily[index] += cents;
+            for (int node = index + 1; node < tree.length; node += node & -node) {
+                tree[node] += cents;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replace the contents with per-day totals, building the tree in one linear pass
+     * Intended for the initial load of an empty instance
+     */
+    void load(LocalDate[] dates, BigDecimal[] amounts) {
+        lock.writeLock().lock();
+        try {
+            if (dates.length == 0) {
+                return;
+            }
+            int minDay = Integer.MAX_VALUE;
+            int maxDay = Integer.MIN_VALUE;
+            for (LocalDate date : dates) {
+                minDay = Math.min(minDay, (int) date.toEpochDay());
+                maxDay = Math.max(maxDay, (int) date.toEpochDay());
+            }
+            firstDay = minDay;
+            daily = new long[maxDay - minDay + 1 + GROWTH_SLACK_DAYS];
+            for (int i = 0; i < dates.length; i++) {
+                daily[(int) dates[i].toEpochDay() - firstDay] += amounts[i].movePointRight(2).longValueExact();
+            }
+            rebuildTree();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap footprint, used for the range total memory budget
+     */
+    long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return 96L + (daily.length + tree.length) * 8L;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sum of daily[0..index], or 0 for index -1
+     */
+    private long prefixSum(int index) {
+        long sum = 0;
+        for (int node = index + 1; node > 0; node -= node & -node) {
+            sum += tree[node];
+        }
+        return sum;
+    }
+
+    /**
+     * Widen the window to cover a day, with slack on the side it grows towards
+     */
+    private void grow(int day) {
+        if (daily.length == 0) {
+            firstDay = day;
+            daily = new long[1 + GROWTH_SLACK_DAYS];
+        } else {
+            int endDay = firstDay + daily.length;
+            int newFirstDay = day < firstDay ? day - GROWTH_SLACK_DAYS : firstDay;
+            int newEndDay = day >= endDay ? day + 1 + GROWTH_SLACK_DAYS : endDay;
+            long[] widened = new long[newEndDay - newFirstDay];
+            System.arraycopy(daily, 0, widened, firstDay - newFirstDay, daily.length);
+            firstDay = newFirstDay;
+            daily = widened;
+        }
+        rebuildTree();
+    }
+
+    private void rebuildTree() {
+        tree = new long[daily.length + 1];
+        for (int node = 1; node < tree.length; node++) {
+            tree[node] += daily[node - 1];
+            int parent = node + (node & -node);
+            if (parent < tree.length) {
+                tree[parent] += tree[node];
+            }
+        }
+    }
+}
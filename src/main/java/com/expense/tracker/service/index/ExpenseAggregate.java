@@ -0,0 +1,16 @@
+package com.expense.tracker.service.index;
+
+import java.math.BigDecimal;
+
+/**
+ * SUM and COUNT over a set of expenses, with the sum kept in cents
+ */
+public record ExpenseAggregate(long totalCents, long count) {
+
+    /**
+     * Total amount with two decimal places, matching the expenses.amount column scale
+     */
+    public BigDecimal total() {
+        return BigDecimal.valueOf(totalCents, 2);
+    }
+}
@@ -0,0 +1,148 @@
+package com.expense.tracker.service.index;
+
+import com.expense.tracker.dto.ExpenseFilter;
+import com.expense.tracker.dto.MonthlyReportDto;
+import com.expense.tracker.repository.ExpenseRepository;
+import com.expense.tracker.service.event.ExpenseChangedEvent;
+import com.expense.tracker.service.event.ExpenseSnapshot;
+import com.expense.tracker.service.event.ExpensesChangedEvent;
+import com.expense.tracker.service.event.ExpensesImportedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Optional in-process columnar copy of active users' expenses
+ * Answers filter, SUM/COUNT and GROUP BY queries for users whose columns are loaded (loading them on
+ * first use), is kept current from committed expense changes, and evicts the least recently used
+ * users once the estimated footprint exceeds the memory budget. Every query returns empty when the
+ * store is disabled or cannot answer the filter (full-text search), and callers fall back to the database
+ */
+@Component
+@RequiredArgsConstructor
+public class ExpenseColumnStore {
+
+    private final ExpenseRepository expenseRepository;
+
+    @Value("${expense.index.enabled:false}")
+    private boolean enabled;
+
+    @Value("${expense.index.memory-budget:64MB}")
+    private DataSize memoryBudget;
+
+    private final UserCache<UserExpenseColumns> columnsByUser =
+            new UserCache<>("expense columns", UserExpenseColumns::estimatedBytes, () -> memoryBudget.toBytes());
+
+    /**
+     * SUM and COUNT over a user's expenses matching a filter
+     */
+    public Optional<ExpenseAggregate> aggregate(Long userId, ExpenseFilter filter) {
+        return supports(filter) ? columns(userId).map(columns -> columns.aggregate(filter)) : Optional.empty();
+    }
+
+    /**
+     * SUM and COUNT per category over a user's expenses matching a filter
+     */
+    public Optional<Map<Long, ExpenseAggregate>> aggregateByCategory(Long userId, ExpenseFilter filter) {
+        return supports(filter) ? columns(userId).map(columns -> columns.aggregateByCategory(filter)) : Optional.empty();
+    }
+
+    /**
+     * SUM and COUNT per month and currency of a user's expenses within a year
+     */
+    public Optional<List<MonthlyReportDto>> monthlyTotals(Long userId, int year) {
+        return columns(userId).map(columns -> columns.monthlyTotals(year));
+    }
+
+    /**
+     * One page of a user's matching expense IDs in (date DESC, id DESC) order with the total match count
+     */
+    public Optional<ExpenseIdPage> findIds(Long userId, ExpenseFilter filter, long offset, int limit) {
+        return supports(filter) ? columns(userId).map(columns -> columns.findIds(filter, offset, limit)) : Optional.empty();
+    }
+
+    /**
+     * Apply a committed expense change to the owner's columns, if they are loaded
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        columnsByUser.update(event.userId(), columns -> apply(columns, event));
+    }
+
+    /**
+     * Apply a committed batch of expense changes to the owner's columns, if they are loaded
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onExpensesChanged(ExpensesChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        columnsByUser.update(event.userId(), columns -> event.changes().forEach(change -> apply(columns, change)));
+    }
+
+    /**
+     * Drop the owner's columns once an import has committed; they reload with the imported rows on next use
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onExpensesImported(ExpensesImportedEvent event) {
+        columnsByUser.invalidate(event.userId());
+    }
+
+    private static void apply(UserExpenseColumns columns, ExpenseChangedEvent change) {
+        if (change.after() != null) {
+            columns.upsert(change.after());
+        } else {
+            columns.remove(change.expenseId());
+        }
+    }
+
+    private boolean supports(ExpenseFilter filter) {
+        return enabled && (filter.getSearchText() == null || filter.getSearchText().isBlank());
+    }
+
+    private Optional<UserExpenseColumns> columns(Long userId) {
+        return enabled ? Optional.of(columnsByUser.get(userId, this::load)) : Optional.empty();
+    }
+
+    private UserExpenseColumns load(Long userId) {
+        Map<Long, Set<String>> tagsById = new LinkedHashMap<>();
+        for (Object[] row : expenseRepository.findTagsByUserId(userId)) {
+            tagsById.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((String) row[1]);
+        }
+
+        List<Object[]> rows = expenseRepository.findColumnValuesByUserId(userId);
+        List<ExpenseSnapshot> expenses = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            expenses.add(new ExpenseSnapshot(
+                    id,
+                    userId,
+                    (Long) row[1],
+                    (LocalDate) row[2],
+                    (BigDecimal) row[3],
+                    (String) row[4],
+                    tagsById.getOrDefault(id, Set.of())
+            ));
+        }
+
+        UserExpenseColumns columns = new UserExpenseColumns();
+        columns.load(expenses);
+        return columns;
+    }
+}
@@ -0,0 +1,9 @@
+package com.expense.tracker.service.index;
+
+import java.util.List;
+
+/**
+ * One page of matching expense IDs in (date DESC, id DESC) order, with the total number of matches
+ */
+public record ExpenseIdPage(List<Long> ids, long totalMatches) {
+}
@@ -0,0 +1,111 @@
+package com.expense.tracker.service.index;
+
+import com.expense.tracker.repository.ExpenseRepository;
+import com.expense.tracker.service.event.ExpenseChangedEvent;
+import com.expense.tracker.service.event.ExpensesChangedEvent;
+import com.expense.tracker.service.event.ExpensesImportedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Per-user prefix sums of daily expense totals, answering any date window total in O(log days)
+ * When enabled, a user's daily totals are loaded on first use, kept current from committed expense
+ * changes, and evicted least recently used beyond the memory budget
+ */
+@Component
+@RequiredArgsConstructor
+public class ExpenseRangeTotals {
+
+    private final ExpenseRepository expenseRepository;
+
+    @Value("${expense.range-totals.enabled:false}")
+    private boolean enabled;
+
+    @Value("${expense.range-totals.memory-budget:16MB}")
+    private DataSize memoryBudget;
+
+    private final UserCache<DailyTotals> totalsByUser =
+            new UserCache<>("daily expense totals", DailyTotals::estimatedBytes, () -> memoryBudget.toBytes());
+
+    /**
+     * Total of a user's expenses dated within [from, to], or empty when disabled
+     */
+    public Optional<BigDecimal> total(Long userId, LocalDate from, LocalDate to) {
+        return enabled ? Optional.of(totalsByUser.get(userId, this::load).total(from, to)) : Optional.empty();
+    }
+
+    /**
+     * Daily totals able to answer any window of a user's expenses within [from, to]
+     * Served from memory when enabled, otherwise read with a single GROUP BY date query over the span
+     */
+    public DailyTotals dailyTotals(Long userId, LocalDate from, LocalDate to) {
+        if (enabled) {
+            return totalsByUser.get(userId, this::load);
+        }
+        return toDailyTotals(expenseRepository.sumAmountByUserIdAndDateBetweenGroupByDate(userId, from, to));
+    }
+
+    /**
+     * Move a committed expense change between the affected days, if the owner's totals are loaded
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        totalsByUser.update(event.userId(), totals -> apply(totals, event));
+    }
+
+    /**
+     * Move a committed batch of expense changes between the affected days, if the owner's totals are loaded
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onExpensesChanged(ExpensesChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        totalsByUser.update(event.userId(), totals -> event.changes().forEach(change -> apply(totals, change)));
+    }
+
+    /**
+     * Drop the owner's totals once an import has committed; they reload with the imported rows on next use
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onExpensesImported(ExpensesImportedEvent event) {
+        totalsByUser.invalidate(event.userId());
+    }
+
+    private static void apply(DailyTotals totals, ExpenseChangedEvent change) {
+        if (change.before() != null) {
+            totals.add(change.before().date(), change.before().amount().negate());
+        }
+        if (change.after() != null) {
+            totals.add(change.after().date(), change.after().amount());
+        }
+    }
+
+    private DailyTotals load(Long userId) {
+        return toDailyTotals(expenseRepository.sumAmountByUserIdGroupByDate(userId));
+    }
+
+    private static DailyTotals toDailyTotals(List<Object[]> rows) {
+        LocalDate[] dates = new LocalDate[rows.size()];
+        BigDecimal[] amounts = new BigDecimal[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            dates[i] = (LocalDate) rows.get(i)[0];
+            amounts[i] = (BigDecimal) rows.get(i)[1];
+        }
+        DailyTotals totals = new DailyTotals();
+        totals.load(dates, amounts);
+        return totals;
+    }
+}
@@ -0,0 +1,321 @@
+package com.expense.tracker.service.index;
+
+import java.util.Arrays;
+
+/**
+ * Roaring-style compressed bitmap of non-negative int ordinals
+ * Ordinals are split on their high 16 bits into chunks of 65536. A chunk is kept as a sorted char
+ * array while it holds at most 4096 values and as a 1024-word bitset beyond that, so both sparse and
+ * dense sets stay compact and intersections run chunk by chunk. Not thread-safe
+ */
+class OrdinalBitmap {
+
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITSET_WORDS = 1024;
+    private static final int INITIAL_CONTAINERS = 4;
+
+    // Chunk keys (high 16 bits) in ascending order, parallel to containers
+    private char[] keys = new char[INITIAL_CONTAINERS];
+    private Container[] containers = new Container[INITIAL_CONTAINERS];
+    private int containerCount;
+    private int cardinality;
+
+    /**
+     * Add an ordinal, ignoring it if already present
+     */
+    void add(int ordinal) {
+        char key = (char) (ordinal >>> 16);
+        char value = (char) ordinal;
+        int index = containerIndex(key);
+        if (index < 0) {
+            index = -index - 1;
+            insertContainer(index, key, new ArrayContainer());
+        }
+        if (!containers[index].contains(value)) {
+            containers[index] = containers[index].add(value);
+            cardinality++;
+        }
+    }
+
+    /**
+     * Remove an ordinal if present
+     */
+    void remove(int ordinal) {
+        char value = (char) ordinal;
+        int index = containerIndex((char) (ordinal >>> 16));
+        if (index < 0 || !containers[index].contains(value)) {
+            return;
+        }
+        Container container = containers[index].remove(value);
+        cardinality--;
+        if (container.cardinality() == 0) {
+            System.arraycopy(keys, index + 1, keys, index, containerCount - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, containerCount - index - 1);
+            containers[--containerCount] = null;
+        } else {
+            containers[index] = container;
+        }
+    }
+
+    boolean contains(int ordinal) {
+        int index = containerIndex((char) (ordinal >>> 16));
+        return index >= 0 && containers[index].contains((char) ordinal);
+    }
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    /**
+     * Ordinals present in both bitmaps, as a new bitmap
+     */
+    static OrdinalBitmap and(OrdinalBitmap left, OrdinalBitmap right) {
+        OrdinalBitmap result = new OrdinalBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < left.containerCount && j < right.containerCount) {
+            if (left.keys[i] < right.keys[j]) {
+                i++;
+            } else if (left.keys[i] > right.keys[j]) {
+                j++;
+            } else {
+                Container container = left.containers[i].and(right.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.insertContainer(result.containerCount, left.keys[i], container);
+                    result.cardinality += container.cardinality();
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * All ordinals in ascending order
+     */
+    int[] toArray() {
+        int[] result = new int[cardinality];
+        int length = 0;
+        for (int i = 0; i < containerCount; i++) {
+            length = containers[i].copyTo(keys[i] << 16, result, length);
+        }
+        return result;
+    }
+
+    /**
+     * Approximate heap footprint, used for the store's memory budget
+     */
+    long estimatedBytes() {
+        long bytes = 32L + keys.length * 2L + containers.length * 8L;
+        for (int i = 0; i < containerCount; i++) {
+            bytes += containers[i].estimatedBytes();
+        }
+        return bytes;
+    }
+
+    private int containerIndex(char key) {
+        return Arrays.binarySearch(keys, 0, containerCount, key);
+    }
+
+    private void insertContainer(int index, char key, Container container) {
+        if (containerCount == keys.length) {
+            keys = Arrays.copyOf(keys, containerCount * 2);
+            containers = Arrays.copyOf(containers, containerCount * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, containerCount - index);
+        System.arraycopy(containers, index, containers, index + 1, containerCount - index);
+        keys[index] = key;
+        containers[index] = container;
+        containerCount++;
+    }
+
+    /**
+     * The low 16 bits of the ordinals within one chunk
+     * add and remove are only called for absent and present values respectively, and return the
+     * container to keep, which switches representation when the cardinality crosses ARRAY_LIMIT
+     */
+    private abstract static class Container {
+        abstract int cardinality();
+
+        abstract boolean contains(char value);
+
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract Container and(Container other);
+
+        abstract int copyTo(int high, int[] target, int offset);
+
+        abstract long estimatedBytes();
+    }
+
+    private static class ArrayContainer extends Container {
+        private char[] values = new char[INITIAL_CONTAINERS];
+        private int size;
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        @Override
+        Container add(char value) {
+            if (size == ARRAY_LIMIT) {
+                BitsetContainer bitset = new BitsetContainer();
+                for (int i = 0; i < size; i++) {
+                    bitset.add(values[i]);
+                }
+                return bitset.add(value);
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(size * 2, ARRAY_LIMIT));
+            }
+            int index = -Arrays.binarySearch(values, 0, size, value) - 1;
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = value;
+            size++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            System.arraycopy(values, index + 1, values, index, size - index - 1);
+            size--;
+            return this;
+        }
+
+        @Override
+        Container and(Container other) {
+            ArrayContainer result = new ArrayContainer();
+            result.values = new char[Math.max(1, Math.min(size, other.cardinality()))];
+            if (other instanceof ArrayContainer array) {
+                int i = 0;
+                int j = 0;
+                while (i < size && j < array.size) {
+                    if (values[i] < array.values[j]) {
+                        i++;
+                    } else if (values[i] > array.values[j]) {
+                        j++;
+                    } else {
+                        result.values[result.size++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    if (other.contains(values[i])) {
+                        result.values[result.size++] = values[i];
+                    }
+                }
+            }
+            return result;
+        }
+
+        @Override
+        int copyTo(int high, int[] target, int offset) {
+            for (int i = 0; i < size; i++) {
+                target[offset++] = high | values[i];
+            }
+            return offset;
+        }
+
+        @Override
+        long estimatedBytes() {
+            return 32L + values.length * 2L;
+        }
+    }
+
+    private static class BitsetContainer extends Container {
+        private final long[] words = new long[BITSET_WORDS];
+        private int cardinality;
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container add(char value) {
+            words[value >>> 6] |= 1L << value;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            words[value >>> 6] &= ~(1L << value);
+            if (--cardinality > ARRAY_LIMIT) {
+                return this;
+            }
+            ArrayContainer array = new ArrayContainer();
+            array.values = new char[cardinality];
+            copyValues(array);
+            return array;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            BitsetContainer bitset = (BitsetContainer) other;
+            BitsetContainer result = new BitsetContainer();
+            for (int i = 0; i < BITSET_WORDS; i++) {
+                result.words[i] = words[i] & bitset.words[i];
+                result.cardinality += Long.bitCount(result.words[i]);
+            }
+            if (result.cardinality > ARRAY_LIMIT) {
+                return result;
+            }
+            ArrayContainer array = new ArrayContainer();
+            array.values = new char[Math.max(1, result.cardinality)];
+            result.copyValues(array);
+            return array;
+        }
+
+        @Override
+        int copyTo(int high, int[] target, int offset) {
+            for (int i = 0; i < BITSET_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    target[offset++] = high | (i << 6) | Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            return offset;
+        }
+
+        @Override
+        long estimatedBytes() {
+            return 32L + BITSET_WORDS * 8L;
+        }
+
+        private void copyValues(ArrayContainer array) {
+            for (int i = 0; i < BITSET_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    array.values[array.size++] = (char) ((i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+    }
+}
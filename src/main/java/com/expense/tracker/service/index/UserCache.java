@@ -0,0 +1,130 @@
+package com.expense.tracker.service.index;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Per-user values held in memory under a byte budget, evicting the least recently used user first
+ * Values are loaded on first use and kept current by applying committed changes to them. A load that
+ * races a write for the same user is returned to its caller but not cached, so a stale value never
+ * outlives the request that loaded it. Cached values must be safe for concurrent use
+ */
+@Slf4j
+class UserCache<V> {
+
+    private static final int WRITE_STAMP_STRIPES = 64;
+
+    private final String name;
+    private final ToLongFunction<V> sizer;
+    private final LongSupplier budgetBytes;
+
+    // Access ordered, so iteration starts at the least recently used user; guarded by this
+    private final LinkedHashMap<Long, V> valuesByUser = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Long> bytesByUser = new HashMap<>();
+    private long usedBytes;
+
+    // Bumped before each committed write is applied, striped by user ID
+    private final long[] writeStamps = new long[WRITE_STAMP_STRIPES];
+
+    /**
+     * @param name label used in log messages
+     * @param sizer approximate heap footprint of a value in bytes
+     * @param budgetBytes total footprint allowed across users, read on every check
+     */
+    UserCache(String name, ToLongFunction<V> sizer, LongSupplier budgetBytes) {
+        this.name = name;
+        this.sizer = sizer;
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * The user's cached value, loading it if absent
+     */
+    V get(Long userId, Function<Long, V> loader) {
+        long stamp;
+        synchronized (this) {
+            V value = valuesByUser.get(userId);
+            if (value != null) {
+                return value;
+            }
+            stamp = writeStamps[stripe(userId)];
+        }
+
+        V value = loader.apply(userId);
+        long bytes = sizer.applyAsLong(value);
+
+        synchronized (this) {
+            V existing = valuesByUser.get(userId);
+            if (existing != null) {
+                return existing;
+            }
+            if (writeStamps[stripe(userId)] != stamp || bytes > budgetBytes.getAsLong()) {
+                // A write raced the load, or the user alone exceeds the budget: answer without caching
+                return value;
+            }
+            valuesByUser.put(userId, value);
+            bytesByUser.put(userId, bytes);
+            usedBytes += bytes;
+            evictOverBudget();
+        }
+        log.debug("Loaded {} for user ID: {} ({} bytes)", name, userId, bytes);
+        return value;
+    }
+
+    /**
+     * Apply a committed change to the user's value, if cached
+     */
+    void update(Long userId, Consumer<V> change) {
+        V value;
+        synchronized (this) {
+            writeStamps[stripe(userId)]++;
+            value = valuesByUser.get(userId);
+        }
+        if (value == null) {
+            return;
+        }
+
+        change.accept(value);
+        long bytes = sizer.applyAsLong(value);
+        synchronized (this) {
+            if (valuesByUser.get(userId) != value) {
+                return;
+            }
+            usedBytes += bytes - bytesByUser.put(userId, bytes);
+            evictOverBudget();
+        }
+    }
+
+    /**
+     * Drop the user's value so the next read reloads it
+     */
+    synchronized void invalidate(Long userId) {
+        writeStamps[stripe(userId)]++;
+        if (valuesByUser.remove(userId) != null) {
+            usedBytes -= bytesByUser.remove(userId);
+        }
+    }
+
+    // Caller holds the monitor
+    private void evictOverBudget() {
+        Iterator<Map.Entry<Long, V>> eldest = valuesByUser.entrySet().iterator();
+        while (usedBytes > budgetBytes.getAsLong() && eldest.hasNext()) {
+            Long userId = eldest.next().getKey();
+            eldest.remove();
+            usedBytes -= bytesByUser.remove(userId);
+            log.debug("Evicted {} for user ID: {}", name, userId);
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return (int) Math.floorMod(userId, (long) WRITE_STAMP_STRIPES);
+    }
+}
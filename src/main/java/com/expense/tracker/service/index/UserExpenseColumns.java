@@ -0,0 +1,500 @@
+package com.expense.tracker.service.index;
+
+import com.expense.tracker.dto.ExpenseFilter;
+import com.expense.tracker.dto.MonthlyReportDto;
+import com.expense.tracker.service.event.ExpenseSnapshot;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntConsumer;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-oriented copy of one user's expenses
+ * Each expense occupies one row ordinal across parallel primitive arrays. Deletes move the last row
+ * into the freed slot so the arrays stay dense, and a separate permutation keeps the rows in
+ * (date DESC, id DESC) order for paging. Compressed bitmaps map each category, currency and tag
+ * to the ordinals of its rows, so equality filters intersect bitmaps and only the surviving rows
+ * are checked against date and amount ranges. Reads share a read lock; writes take the write lock
+ */
+class UserExpenseColumns {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Rough per-row heap cost of the column arrays, the order permutation and the ID map entry
+    private static final int ROW_BYTES = 8 + 4 + 8 + 8 + 4 + 8 + 4 + 64;
+    private static final int TAG_ARRAY_BYTES = 16;
+
+    // Below size / ratio candidate rows, sorting the candidates beats walking the whole date order
+    private static final int SORTED_CANDIDATES_RATIO = 16;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] epochDays = new int[INITIAL_CAPACITY];
+    private long[] amountCents = new long[INITIAL_CAPACITY];
+    private long[] categoryIds = new long[INITIAL_CAPACITY];
+    private int[] currencyCodes = new int[INITIAL_CAPACITY];
+    private int[][] tagOrdinals = new int[INITIAL_CAPACITY][];
+    private int size;
+    private long tagOrdinalCount;
+
+    // Row ordinals sorted by (date DESC, id DESC)
+    private int[] dateOrder = new int[INITIAL_CAPACITY];
+
+    private final Map<Long, Integer> rowsById = new HashMap<>();
+    private final Dictionary currencies = new Dictionary();
+    private final Dictionary tags = new Dictionary();
+
+    // Row ordinals per category ID, currency code and tag ordinal
+    private final Map<Long, OrdinalBitmap> rowsByCategory = new HashMap<>();
+    private final List<OrdinalBitmap> rowsByCurrency = new ArrayList<>();
+    private final List<OrdinalBitmap> rowsByTag = new ArrayList<>();
+
+    private final Comparator<Integer> dateOrderComparator = Comparator.comparingInt((Integer row) -> -epochDays[row])
+            .thenComparing(row -> -ids[row]);
+
+    /**
+     * Insert an expense, or replace the row already holding its ID
+     */
+    void upsert(ExpenseSnapshot expense) {
+        lock.writeLock().lock();
+        try {
+            removeRow(expense.id());
+            appendRow(expense);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Insert a batch of expenses, sorting the date order once at the end
+     * Intended for the initial load of an empty column set
+     */
+    void load(Collection<ExpenseSnapshot> expenses) {
+        lock.writeLock().lock();
+        try {
+            for (ExpenseSnapshot expense : expenses) {
+                int row = size;
+                ensureCapacity(size + 1);
+                writeRow(row, expense);
+                dateOrder[row] = row;
+                size++;
+            }
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = dateOrder[i];
+            }
+            Arrays.sort(order, dateOrderComparator);
+            for (int i = 0; i < size; i++) {
+                dateOrder[i] = order[i];
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove an expense if present
+     */
+    void remove(Long expenseId) {
+        lock.writeLock().lock();
+        try {
+            removeRow(expenseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * SUM and COUNT over the rows matching a filter
+     */
+    ExpenseAggregate aggregate(ExpenseFilter filter) {
+        lock.readLock().lock();
+        try {
+            long[] total = new long[2];
+            forEachMatch(compile(filter), row -> {
+                total[0] += amountCents[row];
+                total[1]++;
+            });
+            return new ExpenseAggregate(total[0], total[1]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * SUM and COUNT per category over the rows matching a filter
+     */
+    Map<Long, ExpenseAggregate> aggregateByCategory(ExpenseFilter filter) {
+        lock.readLock().lock();
+        try {
+            Map<Long, long[]> totals = new HashMap<>();
+            forEachMatch(compile(filter), row -> {
+                long[] total = totals.computeIfAbsent(categoryIds[row], id -> new long[2]);
+                total[0] += amountCents[row];
+                total[1]++;
+            });
+            Map<Long, ExpenseAggregate> result = new HashMap<>();
+            totals.forEach((categoryId, total) -> result.put(categoryId, new ExpenseAggregate(total[0], total[1])));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * SUM and COUNT per month and currency within a year, ordered by month then currency
+     */
+    List<MonthlyReportDto> monthlyTotals(int year) {
+        lock.readLock().lock();
+        try {
+            int firstDay = (int) LocalDate.of(year, 1, 1).toEpochDay();
+            int[] monthStarts = new int[13];
+            for (int month = 1; month <= 12; month++) {
+                monthStarts[month - 1] = (int) LocalDate.of(year, month, 1).toEpochDay();
+            }
+            monthStarts[12] = (int) LocalDate.of(year + 1, 1, 1).toEpochDay();
+
+            // [month][currency code] -> {total cents, count}
+            long[][][] totals = new long[12][currencies.size()][];
+            for (int row = 0; row < size; row++) {
+                int day = epochDays[row];
+                if (day < firstDay || day >= monthStarts[12]) {
+                    continue;
+                }
+                int month = Arrays.binarySearch(monthStarts, day);
+                month = month >= 0 ? month : -month - 2;
+                long[] total = totals[month][currencyCodes[row]];
+                if (total == null) {
+                    total = totals[month][currencyCodes[row]] = new long[2];
+                }
+                total[0] += amountCents[row];
+                total[1]++;
+            }
+
+            List<MonthlyReportDto> result = new ArrayList<>();
+            for (int month = 0; month < 12; month++) {
+                Map<String, long[]> byCurrency = new TreeMap<>();
+                for (int code = 0; code < currencies.size(); code++) {
+                    if (totals[month][code] != null) {
+                        byCurrency.put(currencies.value(code), totals[month][code]);
+                    }
+                }
+                int reportMonth = month + 1;
+                byCurrency.forEach((currency, total) -> result.add(new MonthlyReportDto(
+                        year, reportMonth, BigDecimal.valueOf(total[0], 2), total[1], currency)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * One page of matching expense IDs in (date DESC, id DESC) order plus the total match count
+     */
+    ExpenseIdPage findIds(ExpenseFilter filter, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            RowFilter rowFilter = compile(filter);
+            if (rowFilter.candidates != null && rowFilter.candidates.cardinality() < size / SORTED_CANDIDATES_RATIO) {
+                return findSortedCandidateIds(rowFilter, offset, limit);
+            }
+
+            List<Long> page = new ArrayList<>(limit);
+            long matches = 0;
+            for (int i = 0; i < size; i++) {
+                int row = dateOrder[i];
+                if (rowFilter.matches(row)) {
+                    if (matches >= offset && page.size() < limit) {
+                        page.add(ids[row]);
+                    }
+                    matches++;
+                }
+            }
+            return new ExpenseIdPage(page, matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private ExpenseIdPage findSortedCandidateIds(RowFilter rowFilter, long offset, int limit) {
+        List<Integer> matches = new ArrayList<>(rowFilter.candidates.cardinality());
+        forEachMatch(rowFilter, matches::add);
+        matches.sort(dateOrderComparator);
+
+        List<Long> page = new ArrayList<>(limit);
+        for (long i = offset; i < matches.size() && page.size() < limit; i++) {
+            page.add(ids[matches.get((int) i)]);
+        }
+        return new ExpenseIdPage(page, matches.size());
+    }
+
+    /**
+     * Visit every row matching a filter, in no particular order
+     * Walks only the candidate rows when equality filters narrowed them down, otherwise all rows
+     */
+    private void forEachMatch(RowFilter rowFilter, IntConsumer action) {
+        if (rowFilter.candidates == null) {
+            for (int row = 0; row < size; row++) {
+                if (rowFilter.inRange(row)) {
+                    action.accept(row);
+                }
+            }
+            return;
+        }
+        for (int row : rowFilter.candidates.toArray()) {
+            if (rowFilter.inRange(row)) {
+                action.accept(row);
+            }
+        }
+    }
+
+    /**
+     * Approximate heap footprint, used for the store's memory budget
+     */
+    long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            return (long) ids.length * ROW_BYTES
+                    + (long) size * TAG_ARRAY_BYTES
+                    + tagOrdinalCount * Integer.BYTES
+                    + currencies.estimatedBytes()
+                    + tags.estimatedBytes()
+                    + rowsByCategory.values().stream().mapToLong(OrdinalBitmap::estimatedBytes).sum()
+                    + rowsByCurrency.stream().mapToLong(OrdinalBitmap::estimatedBytes).sum()
+                    + rowsByTag.stream().mapToLong(OrdinalBitmap::estimatedBytes).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void appendRow(ExpenseSnapshot expense) {
+        ensureCapacity(size + 1);
+        int row = size++;
+        writeRow(row, expense);
+
+        int position = orderPosition(epochDays[row], ids[row], size - 1);
+        System.arraycopy(dateOrder, position, dateOrder, position + 1, size - 1 - position);
+        dateOrder[position] = row;
+    }
+
+    private void writeRow(int row, ExpenseSnapshot expense) {
+        ids[row] = expense.id();
+        epochDays[row] = (int) expense.date().toEpochDay();
+        amountCents[row] = expense.amount().movePointRight(2).longValueExact();
+        categoryIds[row] = expense.categoryId();
+        currencyCodes[row] = currencies.intern(expense.currency().toUpperCase(Locale.ROOT));
+        tagOrdinals[row] = expense.tags().stream()
+                .mapToInt(tag -> tags.intern(tag.toLowerCase(Locale.ROOT)))
+                .distinct()
+                .toArray();
+        tagOrdinalCount += tagOrdinals[row].length;
+        rowsById.put(expense.id(), row);
+        indexRow(row);
+    }
+
+    private void removeRow(Long expenseId) {
+        Integer row = rowsById.remove(expenseId);
+        if (row == null) {
+            return;
+        }
+
+        int position = orderPosition(epochDays[row], ids[row], size);
+        System.arraycopy(dateOrder, position + 1, dateOrder, position, size - 1 - position);
+        tagOrdinalCount -= tagOrdinals[row].length;
+        unindexRow(row);
+
+        int last = --size;
+        if (row != last) {
+            unindexRow(last);
+            // Move the last row into the freed slot and repoint its order entry
+            int lastPosition = orderPosition(epochDays[last], ids[last], size);
+            dateOrder[lastPosition] = row;
+            ids[row] = ids[last];
+            epochDays[row] = epochDays[last];
+            amountCents[row] = amountCents[last];
+            categoryIds[row] = categoryIds[last];
+            currencyCodes[row] = currencyCodes[last];
+            tagOrdinals[row] = tagOrdinals[last];
+            rowsById.put(ids[row], row);
+            indexRow(row);
+        }
+        tagOrdinals[last] = null;
+    }
+
+    /**
+     * Add a row's ordinal to the bitmaps of its category, currency and tags
+     */
+    private void indexRow(int row) {
+        rowsByCategory.computeIfAbsent(categoryIds[row], id -> new OrdinalBitmap()).add(row);
+        bitmap(rowsByCurrency, currencyCodes[row]).add(row);
+        for (int ordinal : tagOrdinals[row]) {
+            bitmap(rowsByTag, ordinal).add(row);
+        }
+    }
+
+    /**
+     * Remove a row's ordinal from the bitmaps of its category, currency and tags
+     */
+    private void unindexRow(int row) {
+        OrdinalBitmap categoryRows = rowsByCategory.get(categoryIds[row]);
+        categoryRows.remove(row);
+        if (categoryRows.isEmpty()) {
+            rowsByCategory.remove(categoryIds[row]);
+        }
+        rowsByCurrency.get(currencyCodes[row]).remove(row);
+        for (int ordinal : tagOrdinals[row]) {
+            rowsByTag.get(ordinal).remove(row);
+        }
+    }
+
+    private static OrdinalBitmap bitmap(List<OrdinalBitmap> bitmapsByCode, int code) {
+        while (bitmapsByCode.size() <= code) {
+            bitmapsByCode.add(new OrdinalBitmap());
+        }
+        return bitmapsByCode.get(code);
+    }
+
+    /**
+     * Binary search the first of the first count order entries that sorts at or after (day, id)
+     */
+    private int orderPosition(int day, long id, int count) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int row = dateOrder[mid];
+            boolean before = epochDays[row] > day || (epochDays[row] == day && ids[row] > id);
+            if (before) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, newCapacity);
+        epochDays = Arrays.copyOf(epochDays, newCapacity);
+        amountCents = Arrays.copyOf(amountCents, newCapacity);
+        categoryIds = Arrays.copyOf(categoryIds, newCapacity);
+        currencyCodes = Arrays.copyOf(currencyCodes, newCapacity);
+        tagOrdinals = Arrays.copyOf(tagOrdinals, newCapacity);
+        dateOrder = Arrays.copyOf(dateOrder, newCapacity);
+    }
+
+    /**
+     * Translate an ExpenseFilter into primitive bounds, mirroring ExpenseSpecification semantics
+     * (inclusive date and amount ranges, case-insensitive currency and tag)
+     */
+    private RowFilter compile(ExpenseFilter filter) {
+        RowFilter rowFilter = new RowFilter();
+        if (filter.getFromDate() != null) {
+            rowFilter.fromDay = (int) filter.getFromDate().toEpochDay();
+        }
+        if (filter.getToDate() != null) {
+            rowFilter.toDay = (int) filter.getToDate().toEpochDay();
+        }
+        if (filter.getMinAmount() != null) {
+            rowFilter.minCents = filter.getMinAmount().setScale(2, RoundingMode.CEILING).movePointRight(2).longValue();
+        }
+        if (filter.getMaxAmount() != null) {
+            rowFilter.maxCents = filter.getMaxAmount().setScale(2, RoundingMode.FLOOR).movePointRight(2).longValue();
+        }
+        if (filter.getCategoryId() != null) {
+            rowFilter.restrictTo(rowsByCategory.get(filter.getCategoryId()));
+        }
+        if (filter.getCurrency() != null && !filter.getCurrency().isBlank()) {
+            int code = currencies.find(filter.getCurrency().toUpperCase(Locale.ROOT));
+            rowFilter.restrictTo(code < 0 ? null : rowsByCurrency.get(code));
+        }
+        if (filter.getTag() != null && !filter.getTag().isBlank()) {
+            int ordinal = tags.find(filter.getTag().toLowerCase(Locale.ROOT));
+            rowFilter.restrictTo(ordinal < 0 ? null : rowsByTag.get(ordinal));
+        }
+        return rowFilter;
+    }
+
+    /**
+     * Filter bounds resolved against this column set's dictionaries and bitmaps
+     */
+    private class RowFilter {
+        int fromDay = Integer.MIN_VALUE;
+        int toDay = Integer.MAX_VALUE;
+        long minCents = Long.MIN_VALUE;
+        long maxCents = Long.MAX_VALUE;
+
+        // Intersection of the equality filters' bitmaps; null when there are none
+        OrdinalBitmap candidates;
+
+        /**
+         * AND a bitmap into the candidates, where null stands for a value with no rows
+         */
+        void restrictTo(OrdinalBitmap rows) {
+            if (rows == null) {
+                candidates = new OrdinalBitmap();
+            } else {
+                candidates = candidates == null ? rows : OrdinalBitmap.and(candidates, rows);
+            }
+        }
+
+        boolean matches(int row) {
+            return (candidates == null || candidates.contains(row)) && inRange(row);
+        }
+
+        boolean inRange(int row) {
+            int day = epochDays[row];
+            long amount = amountCents[row];
+            return day >= fromDay && day <= toDay && amount >= minCents && amount <= maxCents;
+        }
+    }
+
+    /**
+     * Bidirectional string to dense int code mapping
+     */
+    private static class Dictionary {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        int intern(String value) {
+            return codes.computeIfAbsent(value, key -> {
+                values.add(key);
+                return values.size() - 1;
+            });
+        }
+
+        int find(String value) {
+            return codes.getOrDefault(value, -1);
+        }
+
+        String value(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        long estimatedBytes() {
+            return values.stream().mapToLong(value -> 48L + 2L * value.length() + 64).sum();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.expense.tracker.service.rollup;
+
+import com.expense.tracker.model.ExpenseAmountSketch;
+import com.expense.tracker.repository.ExpenseAmountSketchRepository;
+import com.expense.tracker.repository.ExpenseRepository;
+import com.expense.tracker.service.event.ExpenseSnapshot;
+import com.expense.tracker.service.sketch.TDigest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the expense_amount_sketches table
+ * New amounts are merged into their month and currency's sketch inside the writing transaction. A
+ * t-digest cannot forget a value, so a bucket that loses an expense (update or delete) is recomputed
+ * from the amounts that remain in it
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AmountSketchService extends ExpenseBucketListener<AmountSketchService.Bucket> {
+
+    private final ExpenseAmountSketchRepository sketchRepository;
+    private final ExpenseRepository expenseRepository;
+
+    @Override
+    protected Bucket bucketOf(ExpenseSnapshot expense) {
+        return Bucket.of(expense);
+    }
+
+    /**
+     * Merge the amounts that entered a bucket, or recompute it if any left
+     * A recompute already covers the new amounts of every expense that ends up in the bucket
+     */
+    @Override
+    protected void apply(Bucket bucket, BucketChange change) {
+        if (change.removed()) {
+            recompute(bucket);
+        } else {
+            merge(bucket, change.added());
+        }
+    }
+
+    /**
+     * Merge a digest of newly inserted amounts into a category, month and currency's sketch
+     * For bulk inserts that publish no per-expense events; callers merging several buckets lock them
+     * in (category, currency, year, month) order
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void mergeInserted(Long userId, Long categoryId, String currency, int year, int month, TDigest inserted) {
+        ExpenseAmountSketch sketch = lock(new Bucket(userId, categoryId, currency.toUpperCase(Locale.ROOT), year, month));
+        TDigest digest = TDigest.fromBytes(sketch.getSketch());
+        digest.add(inserted);
+        sketch.setSketch(digest.toBytes());
+        sketch.setCount(digest.count());
+    }
+
+    /**
+     * Recompute all sketches from the expenses table in one ordered pass
+     * Holds an exclusive lock on the sketches while running, so concurrent expense writes wait and
+     * then apply their changes on top of the rebuilt rows
+     * @return number of sketch rows written
+     */
+    @Transactional
+    public int rebuild() {
+        log.info("Rebuilding expense amount sketches");
+        sketchRepository.lockForRebuild();
+        sketchRepository.deleteAllInBatch();
+
+        int rows = 0;
+        try (Stream<Object[]> amounts = expenseRepository.streamAmountsOrderedByUserCategoryCurrencyAndDate()) {
+            Bucket current = null;
+            TDigest digest = null;
+            for (Iterator<Object[]> iterator = amounts.iterator(); iterator.hasNext(); ) {
+                Object[] row = iterator.next();
+                LocalDate date = (LocalDate) row[3];
+                Bucket bucket = new Bucket(
+                        (Long) row[0], (Long) row[1], (String) row[2], date.getYear(), date.getMonthValue());
+                if (!bucket.equals(current)) {
+                    if (current != null) {
+                        insert(current, digest);
+                        rows++;
+                    }
+                    current = bucket;
+                    digest = new TDigest();
+                }
+                digest.add(((BigDecimal) row[4]).doubleValue());
+            }
+            if (current != null) {
+                insert(current, digest);
+                rows++;
+            }
+        }
+        log.info("Rebuilt {} expense amount sketch rows", rows);
+        return rows;
+    }
+
+    private void merge(Bucket bucket, List<BigDecimal> amounts) {
+        ExpenseAmountSketch sketch = lock(bucket);
+        TDigest digest = TDigest.fromBytes(sketch.getSketch());
+        amounts.forEach(amount -> digest.add(amount.doubleValue()));
+        sketch.setSketch(digest.toBytes());
+        sketch.setCount(digest.count());
+    }
+
+    private void recompute(Bucket bucket) {
+        ExpenseAmountSketch sketch = lock(bucket);
+        // Flushes this transaction's pending expense change first, so the query sees the new state
+        List<BigDecimal> amounts = expenseRepository.findAmountsByUserIdAndCategoryIdAndCurrencyAndDateBetween(
+                bucket.userId(), bucket.categoryId(), bucket.currency(), bucket.firstDay(), bucket.lastDay());
+        if (amounts.isEmpty()) {
+            sketchRepository.delete(sketch);
+            return;
+        }
+        TDigest digest = new TDigest();
+        amounts.forEach(amount -> digest.add(amount.doubleValue()));
+        sketch.setSketch(digest.toBytes());
+        sketch.setCount(digest.count());
+    }
+
+    /**
+     * The bucket's sketch row, created empty if missing and locked until the transaction ends
+     */
+    private ExpenseAmountSketch lock(Bucket bucket) {
+        ExpenseAmountSketch.Key key = bucket.key();
+        return sketchRepository.findByIdForUpdate(key).orElseGet(() -> {
+            insert(bucket, new TDigest());
+            return sketchRepository.findByIdForUpdate(key)
+                    .orElseThrow(() -> new IllegalStateException("Amount sketch row missing after insert: " + key));
+        });
+    }
+
+    private void insert(Bucket bucket, TDigest digest) {
+        sketchRepository.insertIfAbsent(bucket.userId(), bucket.categoryId(), bucket.year(), bucket.month(),
+                bucket.currency(), digest.toBytes(), digest.count());
+    }
+
+    record Bucket(Long userId, Long categoryId, String currency, Integer year, Integer month)
+            implements Comparable<Bucket> {
+
+        private static final Comparator<Bucket> ORDER = Comparator.comparing(Bucket::userId)
+                .thenComparing(Bucket::categoryId)
+                .thenComparing(Bucket::currency)
+                .thenComparing(Bucket::year)
+                .thenComparing(Bucket::month);
+
+        static Bucket of(ExpenseSnapshot expense) {
+            return new Bucket(
+                    expense.userId(),
+                    expense.categoryId(),
+                    expense.currency().toUpperCase(Locale.ROOT),
+                    expense.date().getYear(),
+                    expense.date().getMonthValue()
+            );
+        }
+
+        ExpenseAmountSketch.Key key() {
+            return new ExpenseAmountSketch.Key(userId, categoryId, year, month, currency);
+        }
+
+        LocalDate firstDay() {
+            return LocalDate.of(year, month, 1);
+        }
+
+        LocalDate lastDay() {
+            return YearMonth.of(year, month).atEndOfMonth();
+        }
+
+        @Override
+        public int compareTo(Bucket other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.expense.tracker.service.rollup;
+
+import com.expense.tracker.service.event.ExpenseChangedEvent;
+import com.expense.tracker.service.event.ExpenseSnapshot;
+import com.expense.tracker.service.event.ExpensesChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Base of the services keeping a table of per-bucket aggregates in step with expense writes
+ * Changes are applied inside the writing transaction, so the aggregates commit or roll back together
+ * with the expense itself. A batch is folded into one net change per bucket and handed over in the
+ * buckets' natural order, which is the fixed lock order across transactions: an update moving an
+ * expense between buckets touches two rows
+ * @param <B> the bucket an expense is aggregated into, ordered by its lock order
+ */
+public abstract class ExpenseBucketListener<B extends Comparable<B>> {
+
+    /**
+     * Apply a single expense change
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onExpenseChanged(ExpenseChangedEvent event) {
+        apply(List.of(event));
+    }
+
+    /**
+     * Apply a batch of changes, writing each affected bucket once
+     */
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onExpensesChanged(ExpensesChangedEvent event) {
+        apply(event.changes());
+    }
+
+    /**
+     * The bucket an expense state belongs to
+     */
+    protected abstract B bucketOf(ExpenseSnapshot expense);
+
+    /**
+     * Write one bucket's net change; called in lock order
+     */
+    protected abstract void apply(B bucket, BucketChange change);
+
+    private void apply(List<ExpenseChangedEvent> events) {
+        Map<B, BucketChange> changes = new TreeMap<>();
+        for (ExpenseChangedEvent event : events) {
+            ExpenseSnapshot before = event.before();
+            ExpenseSnapshot after = event.after();
+            B beforeBucket = before != null ? bucketOf(before) : null;
+            B afterBucket = after != null ? bucketOf(after) : null;
+            // An update that keeps the bucket and amount changes no aggregate
+            if (beforeBucket != null && Objects.equals(beforeBucket, afterBucket)
+                    && before.amount().compareTo(after.amount()) == 0) {
+                continue;
+            }
+            if (beforeBucket != null) {
+                changes.computeIfAbsent(beforeBucket, bucket -> new BucketChange()).remove(before.amount());
+            }
+            if (afterBucket != null) {
+                changes.computeIfAbsent(afterBucket, bucket -> new BucketChange()).add(after.amount());
+            }
+        }
+        changes.forEach(this::apply);
+    }
+
+    /**
+     * Net effect of a batch of expense changes on one bucket
+     */
+    protected static final class BucketChange {
+
+        private BigDecimal total = BigDecimal.ZERO;
+        private long count;
+        private final List<BigDecimal> added = new ArrayList<>();
+        private boolean removed;
+
+        private void add(BigDecimal amount) {
+            total = total.add(amount);
+            count++;
+            added.add(amount);
+        }
+
+        private void remove(BigDecimal amount) {
+            total = total.subtract(amount);
+            count--;
+            removed = true;
+        }
+
+        /**
+         * Net change of the bucket's amount total
+         */
+        public BigDecimal total() {
+            return total;
+        }
+
+        /**
+         * Net change of the bucket's expense count
+         */
+        public long count() {
+            return count;
+        }
+
+        /**
+         * Amounts of the expenses that entered the bucket
+         */
+        public List<BigDecimal> added() {
+            return added;
+        }
+
+        /**
+         * Whether any expense left the bucket or changed its amount in it
+         */
+        public boolean removed() {
+            return removed;
+        }
+
+        /**
+         * Whether the changes cancel out in the bucket's total and count
+         */
+        public boolean isNetZero() {
+            return count == 0 && total.signum() == 0;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.expense.tracker.service.rollup;
+
+import com.expense.tracker.repository.ExpenseTotalRepository;
+import com.expense.tracker.service.event.ExpenseSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Maintains the expense_totals running totals table
+ * Expense changes are applied as deltas per user, category and currency
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExpenseTotalService extends ExpenseBucketListener<ExpenseTotalService.Bucket> {
+
+    private final ExpenseTotalRepository totalRepository;
+
+    @Override
+    protected Bucket bucketOf(ExpenseSnapshot expense) {
+        return Bucket.of(expense);
+    }
+
+    /**
+     * Subtract the expenses that left a category and add those that entered it
+     */
+    @Override
+    protected void apply(Bucket bucket, BucketChange change) {
+        if (change.isNetZero()) {
+            return;
+        }
+        totalRepository.addToTotal(bucket.userId(), bucket.categoryId(), bucket.currency(), change.total(), change.count());
+        if (change.count() < 0) {
+            totalRepository.deleteIfEmpty(bucket.userId(), bucket.categoryId(), bucket.currency());
+        }
+    }
+
+    /**
+     * Recompute all running totals from the expenses table
+     * Holds an exclusive lock on the totals while running, so concurrent expense writes wait and
+     * then apply their deltas on top of the rebuilt rows
+     * @return number of running total rows written
+     */
+    @Transactional
+    public int rebuild() {
+        log.info("Rebuilding expense running totals");
+        totalRepository.lockForRebuild();
+        totalRepository.deleteAllInBatch();
+        int rows = totalRepository.insertFromExpenses();
+        log.info("Rebuilt {} expense running total rows", rows);
+        return rows;
+    }
+
+    record Bucket(Long userId, Long categoryId, String currency) implements Comparable<Bucket> {
+
+        private static final Comparator<Bucket> ORDER = Comparator.comparing(Bucket::userId)
+                .thenComparing(Bucket::categoryId)
+                .thenComparing(Bucket::currency);
+
+        static Bucket of(ExpenseSnapshot expense) {
+            return new Bucket(expense.userId(), expense.categoryId(), expense.currency().toUpperCase(Locale.ROOT));
+        }
+
+        @Override
+        public int compareTo(Bucket other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.expense.tracker.service.rollup;
+
+import com.expense.tracker.repository.ExpenseMonthlyRollupRepository;
+import com.expense.tracker.service.event.ExpenseSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Maintains the expense_monthly_rollups table
+ * Expense changes are applied as deltas per user, month and currency
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MonthlyRollupService extends ExpenseBucketListener<MonthlyRollupService.Bucket> {
+
+    private final ExpenseMonthlyRollupRepository rollupRepository;
+
+    @Override
+    protected Bucket bucketOf(ExpenseSnapshot expense) {
+        return Bucket.of(expense);
+    }
+
+    /**
+     * Subtract the expenses that left a month and add those that entered it
+     */
+    @Override
+    protected void apply(Bucket bucket, BucketChange change) {
+        if (change.isNetZero()) {
+            return;
+        }
+        rollupRepository.addToRollup(
+                bucket.userId(), bucket.year(), bucket.month(), bucket.currency(), change.total(), change.count());
+        if (change.count() < 0) {
+            rollupRepository.deleteIfEmpty(bucket.userId(), bucket.year(), bucket.month(), bucket.currency());
+        }
+    }
+
+    /**
+     * Recompute all rollups from the expenses table
+     * Holds an exclusive lock on the rollups while running, so concurrent expense writes wait and
+     * then apply their deltas on top of the rebuilt rows
+     * @return number of rollup rows written
+     */
+    @Transactional
+    public int rebuild() {
+        log.info("Rebuilding monthly expense rollups");
+        rollupRepository.lockForRebuild();
+        rollupRepository.deleteAllInBatch();
+        int rows = rollupRepository.insertFromExpenses();
+        log.info("Rebuilt {} monthly expense rollup rows", rows);
+        return rows;
+    }
+
+    record Bucket(Long userId, Integer year, Integer month, String currency) implements Comparable<Bucket> {
+
+        private static final Comparator<Bucket> ORDER = Comparator.comparing(Bucket::userId)
+                .thenComparing(Bucket::year)
+                .thenComparing(Bucket::month)
+                .thenComparing(Bucket::currency);
+
+        static Bucket of(ExpenseSnapshot expense) {
+            return new Bucket(
+                    expense.userId(),
+                    expense.date().getYear(),
+                    expense.date().getMonthValue(),
+                    expense.currency().toUpperCase(Locale.ROOT)
+            );
+        }
+
+        @Override
+        public int compareTo(Bucket other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.expense.tracker.service.sketch;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Merging t-digest for estimating quantiles of a stream of values in bounded memory
+ * Values are buffered and periodically merged into weighted centroids sized by the k1 scale function,
+ * which keeps centroids near the tails small: small digests stay exact and extreme quantiles stay
+ * accurate as they grow. Digests can be combined and serialized compactly. Not thread-safe
+ */
+public class TDigest {
+
+    public static final int DEFAULT_COMPRESSION = 100;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private final int compression;
+
+    // Merged centroids in ascending mean order
+    private double[] means = new double[0];
+    private long[] weights = new long[0];
+    private int centroidCount;
+
+    // Values and digests added since the last merge
+    private final double[] bufferMeans;
+    private final long[] bufferWeights;
+    private int buffered;
+
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param compression accuracy parameter; the digest keeps roughly this many centroids or fewer
+     */
+    public TDigest(int compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("Compression must be at least 10");
+        }
+        this.compression = compression;
+        this.bufferMeans = new double[5 * compression];
+        this.bufferWeights = new long[5 * compression];
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    /**
+     * Add every value summarized by another digest
+     */
+    public void add(TDigest other) {
+        other.compress();
+        for (int i = 0; i < other.centroidCount; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Estimated value at quantile q (0 to 1), interpolating between centroid centers
+     * Returns NaN for an empty digest
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        compress();
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (q == 0) {
+            return min;
+        }
+        if (q == 1) {
+            return max;
+        }
+        if (count == 1) {
+            return means[0];
+        }
+
+        double rank = q * count;
+        double firstCenter = weights[0] / 2.0;
+        if (rank < firstCenter) {
+            return min + (means[0] - min) * rank / firstCenter;
+        }
+        double center = firstCenter;
+        for (int i = 0; i < centroidCount - 1; i++) {
+            double nextCenter = center + (weights[i] + weights[i + 1]) / 2.0;
+            if (rank <= nextCenter) {
+                return means[i] + (means[i + 1] - means[i]) * (rank - center) / (nextCenter - center);
+            }
+            center = nextCenter;
+        }
+        double lastHalfWeight = weights[centroidCount - 1] / 2.0;
+        double last = means[centroidCount - 1];
+        return Math.min(max, last + (max - last) * (rank - center) / lastHalfWeight);
+    }
+
+    /**
+     * Serialize as: version, compression, min, max, centroid count, then each centroid's mean and weight
+     * Weights are varint encoded, so digests of a handful of values take a few dozen bytes
+     */
+    public byte[] toBytes() {
+        compress();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 4 + 8 + 8 + 5 + centroidCount * (8 + 10));
+        buffer.put(FORMAT_VERSION);
+        buffer.putInt(compression);
+        buffer.putDouble(min);
+        buffer.putDouble(max);
+        putVarLong(buffer, centroidCount);
+        for (int i = 0; i < centroidCount; i++) {
+            buffer.putDouble(means[i]);
+            putVarLong(buffer, weights[i]);
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Restore a digest written by toBytes
+     *
+     * @throws IllegalArgumentException if the bytes are not a serialized digest
+     */
+    public static TDigest fromBytes(byte[] bytes) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            byte version = buffer.get();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported t-digest format version: " + version);
+            }
+            TDigest digest = new TDigest(buffer.getInt());
+            double min = buffer.getDouble();
+            double max = buffer.getDouble();
+            int centroids = Math.toIntExact(getVarLong(buffer));
+            digest.means = new double[centroids];
+            digest.weights = new long[centroids];
+            for (int i = 0; i < centroids; i++) {
+                digest.means[i] = buffer.getDouble();
+                digest.weights[i] = getVarLong(buffer);
+                digest.count += digest.weights[i];
+            }
+            digest.centroidCount = centroids;
+            digest.min = min;
+            digest.max = max;
+            return digest;
+        } catch (BufferUnderflowException | ArithmeticException e) {
+            throw new IllegalArgumentException("Malformed t-digest", e);
+        }
+    }
+
+    private void add(double mean, long weight) {
+        if (Double.isNaN(mean)) {
+            throw new IllegalArgumentException("Cannot add NaN to a t-digest");
+        }
+        if (buffered == bufferMeans.length) {
+            compress();
+        }
+        bufferMeans[buffered] = mean;
+        bufferWeights[buffered] = weight;
+        buffered++;
+        count += weight;
+        min = Math.min(min, mean);
+        max = Math.max(max, mean);
+    }
+
+    /**
+     * Merge the buffer into the centroids in one sorted pass, growing each centroid while its weight
+     * stays within one unit of the scale function
+     */
+    private void compress() {
+        if (buffered == 0) {
+            return;
+        }
+        int total = centroidCount + buffered;
+        double[] allMeans = Arrays.copyOf(means, total);
+        long[] allWeights = Arrays.copyOf(weights, total);
+        System.arraycopy(bufferMeans, 0, allMeans, centroidCount, buffered);
+        System.arraycopy(bufferWeights, 0, allWeights, centroidCount, buffered);
+        buffered = 0;
+
+        Integer[] order = new Integer[total];
+        for (int i = 0; i < total; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (left, right) -> Double.compare(allMeans[left], allMeans[right]));
+
+        double[] mergedMeans = new double[total];
+        long[] mergedWeights = new long[total];
+        int last = 0;
+        mergedMeans[0] = allMeans[order[0]];
+        mergedWeights[0] = allWeights[order[0]];
+        long weightBefore = 0;
+        double weightLimit = count * maxQuantile(0);
+        for (int i = 1; i < total; i++) {
+            double mean = allMeans[order[i]];
+            long weight = allWeights[order[i]];
+            if (weightBefore + mergedWeights[last] + weight <= weightLimit) {
+                mergedWeights[last] += weight;
+                mergedMeans[last] += (mean - mergedMeans[last]) * weight / mergedWeights[last];
+            } else {
+                weightBefore += mergedWeights[last];
+                weightLimit = count * maxQuantile((double) weightBefore / count);
+                last++;
+                mergedMeans[last] = mean;
+                mergedWeights[last] = weight;
+            }
+        }
+        centroidCount = last + 1;
+        means = Arrays.copyOf(mergedMeans, centroidCount);
+        weights = Arrays.copyOf(mergedWeights, centroidCount);
+    }
+
+    /**
+     * Largest quantile a centroid starting at quantile q may reach: one unit further along
+     * k1(q) = compression / (2 pi) * asin(2q - 1)
+     */
+    private double maxQuantile(double q) {
+        double k = compression / (2 * Math.PI) * Math.asin(2 * q - 1) + 1;
+        if (k >= compression / 4.0) {
+            return 1;
+        }
+        return (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in t-digest");
+    }
+}
@@ -0,0 +1,25 @@
+-- Key amount sketches by currency as well, so percentiles never mix amounts in different currencies
+-- V10__expense_amount_sketch_currency.sql
+
+ALTER TABLE expense_amount_sketches ADD COLUMN currency VARCHAR(3);
+
+-- A sketch whose category and month hold a single currency is already correct for that currency
+UPDATE expense_amount_sketches s
+SET currency = c.currency
+FROM (
+    SELECT user_id, category_id, EXTRACT(YEAR FROM date)::INTEGER AS year, EXTRACT(MONTH FROM date)::INTEGER AS month,
+           MIN(UPPER(currency)) AS currency
+    FROM expenses
+    GROUP BY 1, 2, 3, 4
+    HAVING COUNT(DISTINCT UPPER(currency)) = 1
+) c
+WHERE s.user_id = c.user_id AND s.category_id = c.category_id AND s.year = c.year AND s.month = c.month;
+
+-- Mixed-currency sketches cannot be split; restore them by starting the application once with
+-- --rebuild-amount-sketches
+DELETE FROM expense_amount_sketches WHERE currency IS NULL;
+
+ALTER TABLE expense_amount_sketches ALTER COLUMN currency SET NOT NULL;
+ALTER TABLE expense_amount_sketches DROP CONSTRAINT pk_expense_amount_sketches;
+ALTER TABLE expense_amount_sketches
+    ADD CONSTRAINT pk_expense_amount_sketches PRIMARY KEY (user_id, category_id, year, month, currency);
@@ -0,0 +1,9 @@
+-- Store currency codes in upper case, the form every write path now normalizes them to
+-- V11__expense_currency_upper_case.sql
+
+-- The search document does not include the currency, so the refresh trigger can stand down
+SELECT set_config('expense_tracker.bulk_load', 'on', true);
+
+UPDATE expenses SET currency = UPPER(currency) WHERE currency <> UPPER(currency);
+
+SELECT set_config('expense_tracker.bulk_load', 'off', true);
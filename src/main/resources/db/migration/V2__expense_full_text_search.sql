@@ -0,0 +1,83 @@
+-- Full-text search over expenses
+-- V2__expense_full_text_search.sql
+
+-- Align the tag column with the Expense entity mapping (@Column(name = "tag"))
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'expense_tags' AND column_name = 'tags') THEN
+        ALTER TABLE expense_tags RENAME COLUMN tags TO tag;
+    END IF;
+END $$;
+
+-- Search document combining description (weight A), category name (B) and tags (C)
+ALTER TABLE expenses ADD COLUMN search_vector TSVECTOR;
+
+CREATE OR REPLACE FUNCTION expense_search_document(p_description TEXT, p_category_id BIGINT, p_expense_id BIGINT)
+RETURNS TSVECTOR AS $$
+    SELECT setweight(to_tsvector('english', coalesce(p_description, '')), 'A')
+        || setweight(to_tsvector('english', coalesce(
+               (SELECT name FROM categories WHERE id = p_category_id), '')), 'B')
+        || setweight(to_tsvector('english', coalesce(
+               (SELECT string_agg(tag, ' ') FROM expense_tags WHERE expense_id = p_expense_id), '')), 'C')
+$$ LANGUAGE sql STABLE;
+
+-- Keep the document current when the expense itself changes
+CREATE OR REPLACE FUNCTION expenses_search_vector_refresh() RETURNS TRIGGER AS $$
+BEGIN
+    NEW.search_vector := expense_search_document(NEW.description, NEW.category_id, NEW.id);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_expenses_search_vector
+    BEFORE INSERT OR UPDATE OF description, category_id ON expenses
+    FOR EACH ROW EXECUTE FUNCTION expenses_search_vector_refresh();
+
+-- ... when its tags change
+CREATE OR REPLACE FUNCTION expense_tags_search_vector_refresh() RETURNS TRIGGER AS $$
+DECLARE
+    v_expense_id BIGINT := CASE WHEN TG_OP = 'DELETE' THEN OLD.expense_id ELSE NEW.expense_id END;
+BEGIN
+    UPDATE expenses
+    SET search_vector = expense_search_document(description, category_id, id)
+    WHERE id = v_expense_id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_expense_tags_search_vector
+    AFTER INSERT OR UPDATE OR DELETE ON expense_tags
+    FOR EACH ROW EXECUTE FUNCTION expense_tags_search_vector_refresh();
+
+-- ... and when its category is renamed
+CREATE OR REPLACE FUNCTION categories_search_vector_refresh() RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE expenses
+    SET search_vector = expense_search_document(description, category_id, id)
+    WHERE category_id = NEW.id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_categories_search_vector
+    AFTER UPDATE OF name ON categories
+    FOR EACH ROW WHEN (OLD.name IS DISTINCT FROM NEW.name)
+    EXECUTE FUNCTION categories_search_vector_refresh();
+
+-- Backfill existing rows
+UPDATE expenses SET search_vector = expense_search_document(description, category_id, id);
+
+CREATE INDEX idx_expenses_search_vector ON expenses USING GIN (search_vector);
+
+-- Match and rank helpers callable from JPA criteria queries
+-- Plain SQL bodies so the planner inlines them and can use idx_expenses_search_vector
+CREATE OR REPLACE FUNCTION expense_search_matches(p_document TSVECTOR, p_query TEXT)
+RETURNS BOOLEAN AS $$
+    SELECT p_document @@ websearch_to_tsquery('english', p_query)
+$$ LANGUAGE sql STABLE;
+
+CREATE OR REPLACE FUNCTION expense_search_rank(p_document TSVECTOR, p_query TEXT)
+RETURNS REAL AS $$
+    SELECT ts_rank_cd(p_document, websearch_to_tsquery('english', p_query))
+$$ LANGUAGE sql STABLE;
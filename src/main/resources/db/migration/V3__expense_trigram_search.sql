@@ -0,0 +1,18 @@
+-- Trigram (substring and typo tolerant) search over expenses
+-- V3__expense_trigram_search.sql
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- GIN trigram indexes serve both ILIKE '%fragment%' and the word similarity operator (<%)
+CREATE INDEX idx_expenses_description_trgm ON expenses USING GIN (description gin_trgm_ops);
+CREATE INDEX idx_categories_name_trgm ON categories USING GIN (name gin_trgm_ops);
+
+-- Match helper callable from JPA criteria queries
+-- True when the text contains the query as a substring, or a word-similar extent of it
+-- (threshold: pg_trgm.word_similarity_threshold). Plain SQL body so the planner inlines it
+-- and can combine both branches with a BitmapOr over the trigram index
+CREATE OR REPLACE FUNCTION trigram_matches(p_text TEXT, p_query TEXT)
+RETURNS BOOLEAN AS $$
+    SELECT p_text ILIKE '%' || replace(replace(replace(p_query, '\', '\\'), '%', '\%'), '_', '\_') || '%'
+        OR p_query <% p_text
+$$ LANGUAGE sql STABLE;
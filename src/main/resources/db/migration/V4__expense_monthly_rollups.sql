@@ -0,0 +1,19 @@
+-- Per user, month and currency expense totals, maintained by the application on every expense write
+-- V4__expense_monthly_rollups.sql
+
+CREATE TABLE expense_monthly_rollups (
+    user_id BIGINT NOT NULL,
+    year INTEGER NOT NULL,
+    month INTEGER NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    total NUMERIC(19, 2) NOT NULL,
+    count BIGINT NOT NULL,
+    CONSTRAINT pk_expense_monthly_rollups PRIMARY KEY (user_id, year, month, currency),
+    CONSTRAINT fk_expense_monthly_rollup_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Backfill from existing expenses
+INSERT INTO expense_monthly_rollups (user_id, year, month, currency, total, count)
+SELECT user_id, EXTRACT(YEAR FROM date)::INTEGER, EXTRACT(MONTH FROM date)::INTEGER, UPPER(currency), SUM(amount), COUNT(*)
+FROM expenses
+GROUP BY 1, 2, 3, 4;
@@ -0,0 +1,20 @@
+-- Per user, category and currency running expense totals, maintained by the application on every expense write
+-- V5__expense_totals.sql
+
+-- Expenses always carry a category (Expense.category is mandatory), so rows are keyed by it
+CREATE TABLE expense_totals (
+    user_id BIGINT NOT NULL,
+    category_id BIGINT NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    total NUMERIC(19, 2) NOT NULL,
+    count BIGINT NOT NULL,
+    CONSTRAINT pk_expense_totals PRIMARY KEY (user_id, category_id, currency),
+    CONSTRAINT fk_expense_total_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Backfill from existing expenses
+INSERT INTO expense_totals (user_id, category_id, currency, total, count)
+SELECT user_id, category_id, UPPER(currency), SUM(amount), COUNT(*)
+FROM expenses
+WHERE category_id IS NOT NULL
+GROUP BY 1, 2, 3;
@@ -0,0 +1,18 @@
+-- Per user, category and month t-digest sketches of expense amounts, maintained by the application on every expense write
+-- V6__expense_amount_sketches.sql
+
+-- Sketches cannot be computed in SQL: existing expenses are backfilled by starting the application
+-- once with --rebuild-amount-sketches
+CREATE TABLE expense_amount_sketches (
+    user_id BIGINT NOT NULL,
+    category_id BIGINT NOT NULL,
+    year INTEGER NOT NULL,
+    month INTEGER NOT NULL,
+    sketch BYTEA NOT NULL,
+    count BIGINT NOT NULL,
+    CONSTRAINT pk_expense_amount_sketches PRIMARY KEY (user_id, category_id, year, month),
+    CONSTRAINT fk_expense_amount_sketch_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Report lookups filter by user and year across categories
+CREATE INDEX idx_expense_amount_sketches_user_year ON expense_amount_sketches(user_id, year, month);
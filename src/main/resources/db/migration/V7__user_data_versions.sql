@@ -0,0 +1,10 @@
+-- Per user data version, bumped by the application on every expense, category or receipt write
+-- V7__user_data_versions.sql
+
+-- Users without a row are at version 0
+CREATE TABLE user_data_versions (
+    user_id BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    CONSTRAINT pk_user_data_versions PRIMARY KEY (user_id),
+    CONSTRAINT fk_user_data_version_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
@@ -0,0 +1,7 @@
+-- Expense IDs allocated in blocks of 50 so Hibernate can batch expense inserts
+-- V8__expense_id_sequence.sql
+
+-- Hibernate's pooled optimizer hands out the 50 IDs ending at each nextval; the next block starts
+-- above the sequence's current value, so existing rows and plain INSERTs using the column default
+-- never collide with it
+ALTER SEQUENCE expenses_id_seq INCREMENT BY 50;
@@ -0,0 +1,37 @@
+-- Bulk loads supply the search document themselves instead of the per-row triggers
+-- V9__expense_search_bulk_load.sql
+
+-- Search document built from already known parts. The CSV import computes it while inserting;
+-- otherwise the tag trigger re-reads expense_tags and rewrites the expense once per inserted tag
+CREATE OR REPLACE FUNCTION expense_search_document_of(p_description TEXT, p_category_id BIGINT, p_tags TEXT)
+RETURNS TSVECTOR AS $$
+    SELECT setweight(to_tsvector('english', coalesce(p_description, '')), 'A')
+        || setweight(to_tsvector('english', coalesce(
+               (SELECT name FROM categories WHERE id = p_category_id), '')), 'B')
+        || setweight(to_tsvector('english', coalesce(p_tags, '')), 'C')
+$$ LANGUAGE sql STABLE;
+
+-- The refresh triggers stand down while the transaction-local expense_tracker.bulk_load setting is on
+CREATE OR REPLACE FUNCTION expenses_search_vector_refresh() RETURNS TRIGGER AS $$
+BEGIN
+    IF current_setting('expense_tracker.bulk_load', true) = 'on' THEN
+        RETURN NEW;
+    END IF;
+    NEW.search_vector := expense_search_document(NEW.description, NEW.category_id, NEW.id);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION expense_tags_search_vector_refresh() RETURNS TRIGGER AS $$
+DECLARE
+    v_expense_id BIGINT := CASE WHEN TG_OP = 'DELETE' THEN OLD.expense_id ELSE NEW.expense_id END;
+BEGIN
+    IF current_setting('expense_tracker.bulk_load', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    UPDATE expenses
+    SET search_vector = expense_search_document(description, category_id, id)
+    WHERE id = v_expense_id;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
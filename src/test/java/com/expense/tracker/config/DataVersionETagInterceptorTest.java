@@ -0,0 +1,168 @@
+package com.expense.tracker.config;
+
+import com.expense.tracker.controller.ExpenseController;
+import com.expense.tracker.exception.GlobalExceptionHandler;
+import com.expense.tracker.exception.ResourceNotFoundException;
+import com.expense.tracker.repository.UserDataVersionRepository;
+import com.expense.tracker.service.ExpenseImportService;
+import com.expense.tracker.service.ExpenseService;
+import com.expense.tracker.service.UserDataVersionService;
+import com.expense.tracker.service.event.ExpenseChangedEvent;
+import com.expense.tracker.service.event.ExpenseSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DataVersionETagInterceptor Unit Tests")
+class DataVersionETagInterceptorTest {
+
+    private static final String TOTAL_URL = "/api/v1/users/{userId}/expenses/total";
+
+    @Mock
+    private UserDataVersionRepository versionRepository;
+
+    @Mock
+    private ExpenseService expenseService;
+
+    @Mock
+    private ExpenseImportService expenseImportService;
+
+    private final Set<Long> users = Set.of(1L);
+
+    private final Map<Long, Long> versions = new HashMap<>();
+
+    private UserDataVersionService userDataVersionService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        // Back the repository mock with the users and versions, as the native queries would
+        lenient().when(versionRepository.findVersionByExistingUserId(anyLong())).thenAnswer(invocation -> {
+            Long userId = invocation.getArgument(0);
+            return users.contains(userId) ? Optional.of(versions.getOrDefault(userId, 0L)) : Optional.empty();
+        });
+        lenient().doAnswer(invocation -> versions.merge(invocation.getArgument(0), 1L, Long::sum))
+                .when(versionRepository).incrementVersion(anyLong());
+
+        userDataVersionService = new UserDataVersionService(versionRepository);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ExpenseController(expenseService, expenseImportService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .addMappedInterceptors(new String[]{"/api/v1/users/*/expenses/**"},
+                        new DataVersionETagInterceptor(userDataVersionService))
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should tag a read with the user's data version")
+    void shouldTagReadWithVersion() throws Exception {
+        // Arrange
+        versions.put(1L, 3L);
+        when(expenseService.getTotalExpensesByUserId(1L)).thenReturn(new BigDecimal("42.00"));
+
+        // Act & Assert
+        mockMvc.perform(get(TOTAL_URL, 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+                .andExpect(content().string("42.00"));
+    }
+
+    @Test
+    @DisplayName("Should tag a user whose data was never written with version 0")
+    void shouldTagUnwrittenUserWithZero() throws Exception {
+        // Arrange
+        when(expenseService.getTotalExpensesByUserId(1L)).thenReturn(BigDecimal.ZERO);
+
+        // Act & Assert
+        mockMvc.perform(get(TOTAL_URL, 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"0\""));
+    }
+
+    @Test
+    @DisplayName("Should answer a matching If-None-Match with 304 without calling the controller")
+    void shouldAnswerNotModified() throws Exception {
+        // Arrange
+        versions.put(1L, 3L);
+
+        // Act & Assert
+        mockMvc.perform(get(TOTAL_URL, 1L).header(HttpHeaders.IF_NONE_MATCH, "W/\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3\""))
+                .andExpect(content().string(""));
+        verifyNoInteractions(expenseService);
+    }
+
+    @Test
+    @DisplayName("Should invalidate the tag after a write")
+    void shouldInvalidateTagAfterWrite() throws Exception {
+        // Arrange
+        versions.put(1L, 3L);
+        when(expenseService.getTotalExpensesByUserId(1L)).thenReturn(new BigDecimal("30.00"));
+        // The service publishes the change inside its transaction, which the listener joins
+        doAnswer(invocation -> {
+            userDataVersionService.onExpenseChanged(ExpenseChangedEvent.deleted(new ExpenseSnapshot(
+                    invocation.getArgument(1), invocation.getArgument(0), 10L, LocalDate.of(2024, 6, 15),
+                    new BigDecimal("12.00"), "USD", Set.of())));
+            return null;
+        }).when(expenseService).deleteExpense(1L, 7L);
+
+        // Act
+        mockMvc.perform(delete("/api/v1/users/{userId}/expenses/{expenseId}", 1L, 7L))
+                .andExpect(status().isNoContent());
+
+        // Assert
+        mockMvc.perform(get(TOTAL_URL, 1L).header(HttpHeaders.IF_NONE_MATCH, "W/\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"4\""))
+                .andExpect(content().string("30.00"));
+        mockMvc.perform(get(TOTAL_URL, 1L).header(HttpHeaders.IF_NONE_MATCH, "W/\"4\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("Should leave a request for an unknown user untagged so it gets 404, not 304")
+    void shouldNotTagUnknownUser() throws Exception {
+        // Arrange
+        when(expenseService.getTotalExpensesByUserId(99L))
+                .thenThrow(new ResourceNotFoundException("User", "id", 99L));
+
+        // Act & Assert
+        mockMvc.perform(get(TOTAL_URL, 99L).header(HttpHeaders.IF_NONE_MATCH, "W/\"0\""))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(header().doesNotExist(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    @DisplayName("Should not tag writes")
+    void shouldNotTagWrites() throws Exception {
+        // Act & Assert
+        mockMvc.perform(delete("/api/v1/users/{userId}/expenses/{expenseId}", 1L, 7L)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"0\""))
+                .andExpect(status().isNoContent())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        verify(versionRepository, never()).findVersionByExistingUserId(anyLong());
+    }
+}
@@ -0,0 +1,90 @@
+package com.expense.tracker.controller;
+
+import com.expense.tracker.dto.CursorPage;
+import com.expense.tracker.dto.ExpenseFilter;
+import com.expense.tracker.exception.GlobalExceptionHandler;
+import com.expense.tracker.repository.specification.ExpenseSearchMode;
+import com.expense.tracker.service.ExpenseImportService;
+import com.expense.tracker.service.ExpenseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExpenseController Unit Tests")
+class ExpenseControllerTest {
+
+    private static final String EXPENSES_URL = "/api/v1/users/{userId}/expenses";
+
+    @Mock
+    private ExpenseService expenseService;
+
+    @Mock
+    private ExpenseImportService expenseImportService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new ExpenseController(expenseService, expenseImportService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Nested
+    @DisplayName("List Expenses By Cursor Tests")
+    class ListExpensesByCursorTests {
+
+        @Test
+        @DisplayName("Should pass the match strategy and similarity threshold to a cursor search")
+        void shouldPassMatchAndSimilarity() throws Exception {
+            // Arrange
+            when(expenseService.searchExpensesByCursor(eq(1L), any(ExpenseFilter.class), eq(""), eq(20)))
+                    .thenReturn(new CursorPage<>(List.of(), 20, false, null));
+
+            // Act
+            mockMvc.perform(get(EXPENSES_URL, 1L)
+                            .param("cursor", "")
+                            .param("q", "cofee")
+                            .param("match", "fuzzy")
+                            .param("similarity", "0.4"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.hasNext").value(false));
+
+            // Assert
+            ArgumentCaptor<ExpenseFilter> filter = ArgumentCaptor.forClass(ExpenseFilter.class);
+            verify(expenseService).searchExpensesByCursor(eq(1L), filter.capture(), eq(""), eq(20));
+            assertThat(filter.getValue().getSearchText()).isEqualTo("cofee");
+            assertThat(filter.getValue().getSearchMode()).isEqualTo(ExpenseSearchMode.FUZZY);
+            assertThat(filter.getValue().getSimilarityThreshold()).isEqualTo(0.4);
+        }
+
+        @Test
+        @DisplayName("Should reject an unknown match strategy")
+        void shouldRejectUnknownMatch() throws Exception {
+            // Act & Assert
+            mockMvc.perform(get(EXPENSES_URL, 1L)
+                            .param("cursor", "")
+                            .param("q", "coffee")
+                            .param("match", "regex"))
+                    .andExpect(status().isBadRequest());
+
+            verifyNoInteractions(expenseService);
+        }
+    }
+}
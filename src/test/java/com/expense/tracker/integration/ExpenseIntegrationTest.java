@@ -1,21 +1,35 @@
 package com.expense.tracker.integration;
 
+import com.expense.tracker.dto.ExpenseBulkResultDto;
 import com.expense.tracker.dto.ExpenseCreateDto;
+import com.expense.tracker.dto.ExpenseFilter;
 import com.expense.tracker.dto.ExpenseResponseDto;
+import com.expense.tracker.mapper.EntityMapper;
 import com.expense.tracker.model.Category;
+import com.expense.tracker.model.Expense;
 import com.expense.tracker.model.User;
 import com.expense.tracker.repository.CategoryRepository;
 import com.expense.tracker.repository.ExpenseRepository;
 import com.expense.tracker.repository.UserRepository;
 import com.expense.tracker.service.ExpenseService;
+import com.expense.tracker.service.event.ExpenseChangedEvent;
+import com.expense.tracker.service.event.ExpensesChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
 import org.springframework.transaction.annotation.Transactional;
 import org.testcontainers.containers.MongoDBContainer;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -25,6 +39,7 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -32,6 +47,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 @SpringBootTest
 @Testcontainers
 @Transactional
+@RecordApplicationEvents
 @DisplayName("Expense Integration Tests with Testcontainers")
 class ExpenseIntegrationTest {
 
@@ -63,6 +79,9 @@ class ExpenseIntegrationTest {
 
         // Flyway - disable for integration tests (using create-drop)
         registry.add("spring.flyway.enabled", () -> "false");
+
+        // Hibernate statistics - count the statements a page load issues
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
     }
 
     @Autowired
@@ -80,6 +99,15 @@ class ExpenseIntegrationTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private EntityMapper entityMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
     private User testUser;
     private Category testCategory;
 
@@ -136,7 +164,7 @@ class ExpenseIntegrationTest {
         assertThat(createdExpense.getTags()).containsExactlyInAnyOrder("restaurant", "lunch", "business");
 
         // When - Read expense back
-        ExpenseResponseDto retrievedExpense = expenseService.getExpenseById(createdExpense.getId());
+        ExpenseResponseDto retrievedExpense = expenseService.getExpenseById(testUser.getId(), createdExpense.getId());
 
         // Then - Verify read
         assertThat(retrievedExpense).isNotNull();
@@ -298,6 +326,98 @@ class ExpenseIntegrationTest {
         assertThat(expenseRepository.count()).isEqualTo(3);
     }
 
+    @Test
+    @DisplayName("Should load a page of expenses with users, categories and tags without N+1 queries")
+    void shouldLoadExpensePageWithoutNPlusOneQueries() {
+        // Given - 25 tagged expenses spread over three categories
+        Category transportCategory = new Category();
+        transportCategory.setName("Transport");
+        transportCategory.setUser(testUser);
+        transportCategory = categoryRepository.save(transportCategory);
+
+        Category rentCategory = new Category();
+        rentCategory.setName("Rent");
+        rentCategory.setUser(testUser);
+        rentCategory = categoryRepository.save(rentCategory);
+
+        List<Long> categoryIds = List.of(testCategory.getId(), transportCategory.getId(), rentCategory.getId());
+        for (int i = 0; i < 25; i++) {
+            ExpenseCreateDto expense = new ExpenseCreateDto();
+            expense.setUserId(testUser.getId());
+            expense.setAmount(new BigDecimal("10.00").add(BigDecimal.valueOf(i)));
+            expense.setDescription("Expense " + i);
+            expense.setDate(LocalDate.now().minusDays(i));
+            expense.setCurrency("USD");
+            expense.setCategoryId(categoryIds.get(i % categoryIds.size()));
+            expense.setTags(new HashSet<>(Set.of("tag-" + i, "shared")));
+            expenseService.createExpense(testUser.getId(), expense);
+        }
+
+        // Start from an empty persistence context, so every association has to come from the database
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When - Load a full page and map it the way the API does
+        Page<Expense> page = expenseRepository.findByUserId(
+                testUser.getId(), PageRequest.of(0, 20, Sort.by("date").descending()));
+        List<ExpenseResponseDto> expenses = page.map(entityMapper::toExpenseResponseDto).getContent();
+
+        // Then - The page query, its count query and a single tag batch, however many rows
+        assertThat(expenses).hasSize(20);
+        assertThat(expenses).allSatisfy(expense -> {
+            assertThat(expense.getUserName()).isEqualTo("Test User");
+            assertThat(expense.getCategoryName()).isIn("Food & Dining", "Transport", "Rent");
+            assertThat(expense.getTags()).hasSize(2).contains("shared");
+        });
+        assertThat(page.getTotalElements()).isEqualTo(25);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should bulk delete an expense tagged with case variants of the filter tag once")
+    void shouldBulkDeleteExpenseWithCaseVariantTagsOnce() {
+        // Given - An expense tagged twice under the filter tag and one without it
+        ExpenseCreateDto dinner = new ExpenseCreateDto();
+        dinner.setUserId(testUser.getId());
+        dinner.setAmount(new BigDecimal("30.00"));
+        dinner.setDescription("Dinner");
+        dinner.setDate(LocalDate.now());
+        dinner.setCurrency("USD");
+        dinner.setCategoryId(testCategory.getId());
+        dinner.setTags(new HashSet<>(Set.of("Food", "food")));
+        Long dinnerId = expenseService.createExpense(testUser.getId(), dinner).getId();
+
+        ExpenseCreateDto taxi = new ExpenseCreateDto();
+        taxi.setUserId(testUser.getId());
+        taxi.setAmount(new BigDecimal("15.00"));
+        taxi.setDescription("Taxi");
+        taxi.setDate(LocalDate.now());
+        taxi.setCurrency("USD");
+        taxi.setCategoryId(testCategory.getId());
+        taxi.setTags(new HashSet<>(Set.of("travel")));
+        expenseService.createExpense(testUser.getId(), taxi);
+        applicationEvents.clear();
+
+        // When
+        ExpenseBulkResultDto result = expenseService.deleteExpenses(
+                testUser.getId(), ExpenseFilter.builder().tag("food").build());
+
+        // Then - One change for the expense, and the running total drops by its amount once
+        assertThat(result.getAffected()).isEqualTo(1);
+        assertThat(applicationEvents.stream(ExpensesChangedEvent.class))
+                .singleElement()
+                .satisfies(event -> assertThat(event.changes())
+                        .extracting(change -> change.before().id())
+                        .containsExactly(dinnerId));
+        assertThat(applicationEvents.stream(ExpenseChangedEvent.class)).isEmpty();
+        assertThat(expenseService.getTotalExpensesByUserId(testUser.getId()))
+                .isEqualByComparingTo(new BigDecimal("15.00"));
+        assertThat(expenseService.getTotalExpensesByUserIdAndCategory(testUser.getId(), testCategory.getId()))
+                .isEqualByComparingTo(new BigDecimal("15.00"));
+    }
+
     @Test
     @DisplayName("Containers should be running")
     void containersAreRunning() {
@@ -0,0 +1,59 @@
+package com.expense.tracker.mapper;
+
+import com.expense.tracker.dto.ExpenseCreateDto;
+import com.expense.tracker.dto.ExpenseUpdateDto;
+import com.expense.tracker.model.Expense;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("EntityMapper Unit Tests")
+class EntityMapperTest {
+
+    private final EntityMapper entityMapper = Mappers.getMapper(EntityMapper.class);
+
+    @Nested
+    @DisplayName("Currency Tests")
+    class CurrencyTests {
+
+        @Test
+        @DisplayName("Should store a created expense's currency in upper case")
+        void shouldUpperCaseCreatedCurrency() {
+            // Arrange
+            ExpenseCreateDto createDto = ExpenseCreateDto.builder()
+                    .userId(1L)
+                    .categoryId(1L)
+                    .amount(new BigDecimal("12.50"))
+                    .currency("usd")
+                    .date(LocalDate.of(2024, 1, 15))
+                    .build();
+
+            // Act
+            Expense expense = entityMapper.toExpense(createDto);
+
+            // Assert
+            assertThat(expense.getCurrency()).isEqualTo("USD");
+        }
+
+        @Test
+        @DisplayName("Should store an updated currency in upper case and keep it when none is given")
+        void shouldUpperCaseUpdatedCurrency() {
+            // Arrange
+            Expense expense = new Expense();
+            expense.setCurrency("USD");
+
+            // Act & Assert
+            entityMapper.updateExpenseFromDto(ExpenseUpdateDto.builder().currency("eUr").build(), expense);
+            assertThat(expense.getCurrency()).isEqualTo("EUR");
+
+            entityMapper.updateExpenseFromDto(ExpenseUpdateDto.builder().description("Lunch").build(), expense);
+            assertThat(expense.getCurrency()).isEqualTo("EUR");
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.expense.tracker.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExpenseImportStagingRepository Unit Tests")
+class ExpenseImportStagingRepositoryTest {
+
+    private static final String NEXT_IDS = "SELECT nextval('expenses_id_seq') FROM generate_series(1, ?) ORDER BY 1";
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private ExpenseImportStagingRepository stagingRepository;
+
+    @Nested
+    @DisplayName("Assign Expense IDs Tests")
+    class AssignExpenseIdsTests {
+
+        @Test
+        @DisplayName("Should reserve one sequence block per started block of rows")
+        void shouldReserveOneBlockPerStartedBlockOfRows() throws Exception {
+            // Arrange
+            when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class))).thenReturn(120);
+            when(jdbcTemplate.queryForList(NEXT_IDS, Long.class, 3)).thenReturn(List.of(151L, 201L, 251L));
+            when(jdbcTemplate.update(any(PreparedStatementCreator.class))).thenReturn(120);
+
+            // Act
+            int assigned = stagingRepository.assignExpenseIds(50);
+
+            // Assert
+            assertThat(assigned).isEqualTo(120);
+            assertThat(blockEnds()).containsExactly(151L, 201L, 251L);
+            verify(jdbcTemplate).queryForList(anyString(), eq(Long.class), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should pass over the start value of a fresh sequence")
+        void shouldPassOverStartValueOfFreshSequence() throws Exception {
+            // Arrange - A fresh sequence hands out 1 first, whose block would be -48..1
+            when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class))).thenReturn(60);
+            when(jdbcTemplate.queryForList(NEXT_IDS, Long.class, 2)).thenReturn(List.of(1L, 51L));
+            when(jdbcTemplate.queryForList(NEXT_IDS, Long.class, 1)).thenReturn(List.of(101L));
+            when(jdbcTemplate.update(any(PreparedStatementCreator.class))).thenReturn(60);
+
+            // Act
+            int assigned = stagingRepository.assignExpenseIds(50);
+
+            // Assert - IDs 2..101
+            assertThat(assigned).isEqualTo(60);
+            assertThat(blockEnds()).containsExactly(51L, 101L);
+        }
+
+        @Test
+        @DisplayName("Should not touch the sequence when nothing is staged")
+        void shouldNotTouchSequenceWhenNothingIsStaged() {
+            // Arrange
+            when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class))).thenReturn(0);
+
+            // Act
+            int assigned = stagingRepository.assignExpenseIds(50);
+
+            // Assert
+            assertThat(assigned).isZero();
+            verify(jdbcTemplate, never()).queryForList(anyString(), eq(Long.class), any(Object[].class));
+            verify(jdbcTemplate, never()).update(any(PreparedStatementCreator.class));
+        }
+
+        /**
+         * The block end IDs the UPDATE statement was given
+         */
+        private List<Object> blockEnds() throws Exception {
+            ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+            verify(jdbcTemplate).update(creator.capture());
+
+            Connection connection = mock(Connection.class);
+            when(connection.prepareStatement(anyString())).thenReturn(mock(PreparedStatement.class));
+            when(connection.createArrayOf(eq("bigint"), any())).thenReturn(mock(Array.class));
+            creator.getValue().createPreparedStatement(connection);
+
+            ArgumentCaptor<Object[]> elements = ArgumentCaptor.forClass(Object[].class);
+            verify(connection).createArrayOf(eq("bigint"), elements.capture());
+            return List.of(elements.getValue());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.expense.tracker.service;
+
+import com.expense.tracker.dto.DashboardDto;
+import com.expense.tracker.dto.ExpenseResponseDto;
+import com.expense.tracker.dto.MonthlyReportDto;
+import com.expense.tracker.exception.ResourceNotFoundException;
+import com.expense.tracker.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DashboardService Unit Tests")
+class DashboardServiceTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+    private static final LocalDate END = LocalDate.of(2024, 12, 31);
+
+    @Mock
+    private ExpenseService expenseService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private DashboardService dashboardService;
+
+    // Transaction each thread began, and the thread each sub-query ran on
+    private final Map<Thread, TransactionDefinition> transactions = new ConcurrentHashMap<>();
+    private final Map<String, Thread> queryThreads = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(userRepository.existsById(1L)).thenReturn(true);
+        lenient().when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            transactions.put(Thread.currentThread(), invocation.getArgument(0));
+            return new SimpleTransactionStatus();
+        });
+    }
+
+    @Test
+    @DisplayName("Should run each sub-query on its own thread in its own read-only transaction")
+    void shouldRunEachQueryInOwnReadOnlyTransaction() {
+        // Arrange
+        ExpenseResponseDto expense = new ExpenseResponseDto();
+        when(expenseService.runningTotal(1L)).thenAnswer(invocation -> record("total", new BigDecimal("12.50")));
+        when(expenseService.monthlyReport(1L, 2024)).thenAnswer(invocation ->
+                record("monthly", List.of(new MonthlyReportDto())));
+        when(expenseService.categoryReport(1L, START, END)).thenAnswer(invocation -> record("category", List.of()));
+        when(expenseService.recentExpenses(1L, 10)).thenAnswer(invocation ->
+                record("recent", new SliceImpl<>(List.of(expense), PageRequest.of(0, 10), true)));
+
+        // Act
+        DashboardDto dashboard = dashboardService.getDashboard(1L, 2024, START, END, 10);
+
+        // Assert
+        assertThat(dashboard.getTotal()).isEqualTo(new BigDecimal("12.50"));
+        assertThat(dashboard.getMonthlyReport()).hasSize(1);
+        assertThat(dashboard.getCategoryReport()).isEmpty();
+        assertThat(dashboard.getRecentExpenses()).containsExactly(expense);
+        assertThat(dashboard.isHasMoreExpenses()).isTrue();
+
+        assertThat(queryThreads).containsOnlyKeys("total", "monthly", "category", "recent");
+        assertThat(Set.copyOf(queryThreads.values())).hasSize(4)
+                .allMatch(Thread::isVirtual)
+                .doesNotContain(Thread.currentThread());
+        for (Map.Entry<String, Thread> query : queryThreads.entrySet()) {
+            assertThat(transactions.get(query.getValue())).as(query.getKey())
+                    .isNotNull()
+                    .matches(TransactionDefinition::isReadOnly, "read-only");
+        }
+        verify(transactionManager, times(4)).getTransaction(any());
+        verify(transactionManager, times(4)).commit(any());
+        verify(transactionManager, never()).rollback(any());
+    }
+
+    @Test
+    @Timeout(10)
+    @DisplayName("Should rethrow a failing sub-query's exception after the others finish")
+    void shouldPropagateFailingQuery() throws InterruptedException {
+        // Arrange
+        CountDownLatch failed = new CountDownLatch(1);
+        IllegalArgumentException failure = new IllegalArgumentException("bad category report");
+        when(expenseService.runningTotal(1L)).thenReturn(BigDecimal.ZERO);
+        when(expenseService.monthlyReport(1L, 2024)).thenReturn(List.of());
+        when(expenseService.categoryReport(1L, START, END)).thenAnswer(invocation -> {
+            failed.countDown();
+            throw failure;
+        });
+        // The first awaited query is still running when the failure happens
+        when(expenseService.recentExpenses(1L, 10)).thenAnswer(invocation -> {
+            assertThat(failed.await(5, TimeUnit.SECONDS)).isTrue();
+            return new SliceImpl<>(List.of());
+        });
+
+        // Act & Assert
+        assertThatThrownBy(() -> dashboardService.getDashboard(1L, 2024, START, END, 10)).isSameAs(failure);
+        verify(transactionManager, times(3)).commit(any());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    @Timeout(10)
+    @DisplayName("Should wrap a sub-query error that is not a runtime exception")
+    void shouldWrapErrors() {
+        // Arrange
+        StackOverflowError error = new StackOverflowError();
+        when(expenseService.runningTotal(1L)).thenThrow(error);
+        when(expenseService.monthlyReport(1L, 2024)).thenReturn(List.of());
+        when(expenseService.categoryReport(1L, START, END)).thenReturn(List.of());
+        when(expenseService.recentExpenses(1L, 10)).thenReturn(new SliceImpl<>(List.of()));
+
+        // Act & Assert
+        assertThatThrownBy(() -> dashboardService.getDashboard(1L, 2024, START, END, 10))
+                .isInstanceOf(IllegalStateException.class)
+                .hasCause(error);
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown user before starting any sub-query")
+    void shouldRejectUnknownUser() {
+        // Arrange
+        when(userRepository.existsById(99L)).thenReturn(false);
+
+        // Act & Assert
+        assertThatThrownBy(() -> dashboardService.getDashboard(99L, 2024, START, END, 10))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(expenseService, transactionManager);
+    }
+
+    private <T> T record(String query, T result) {
+        queryThreads.put(query, Thread.currentThread());
+        return result;
+    }
+}
@@ -0,0 +1,295 @@
+package com.expense.tracker.service;
+
+import com.expense.tracker.dto.ErrorResponse;
+import com.expense.tracker.dto.ExpenseImportResultDto;
+import com.expense.tracker.exception.ResourceNotFoundException;
+import com.expense.tracker.model.Category;
+import com.expense.tracker.repository.CategoryRepository;
+import com.expense.tracker.repository.ExpenseImportStagingRepository;
+import com.expense.tracker.repository.ExpenseMonthlyRollupRepository;
+import com.expense.tracker.repository.ExpenseTotalRepository;
+import com.expense.tracker.repository.UserRepository;
+import com.expense.tracker.service.event.ExpensesImportedEvent;
+import com.expense.tracker.service.rollup.AmountSketchService;
+import com.expense.tracker.service.sketch.TDigest;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExpenseImportService Unit Tests")
+class ExpenseImportServiceTest {
+
+    private static final String HEADER = "ID,Date,Amount,Currency,Category,Description,Tags,Receipt ID,Created At\n";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private ExpenseImportStagingRepository stagingRepository;
+
+    @Mock
+    private ExpenseMonthlyRollupRepository monthlyRollupRepository;
+
+    @Mock
+    private ExpenseTotalRepository expenseTotalRepository;
+
+    @Mock
+    private AmountSketchService amountSketchService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PGCopyOutputStream copy;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @InjectMocks
+    private ExpenseImportService expenseImportService;
+
+    private final ByteArrayOutputStream staged = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Category food = new Category();
+        food.setId(10L);
+        food.setName("Food");
+        Category rent = new Category();
+        rent.setId(20L);
+        rent.setName("Rent, Utilities");
+
+        lenient().when(userRepository.existsById(1L)).thenReturn(true);
+        lenient().when(categoryRepository.findByUserId(1L)).thenReturn(List.of(food, rent));
+        lenient().when(stagingRepository.openCopy()).thenReturn(copy);
+        lenient().doAnswer(invocation -> {
+            staged.write(invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2));
+            return null;
+        }).when(copy).write(any(byte[].class), anyInt(), anyInt());
+    }
+
+    @Nested
+    @DisplayName("Row Validation Tests")
+    class RowValidationTests {
+
+        @Test
+        @DisplayName("Should stage valid rows in COPY column order with upper-case currencies")
+        void shouldStageValidRows() throws Exception {
+            // Arrange
+            String csv = HEADER +
+                    "99,2024-01-15,50.00,USD,Food,\"Lunch, with \"\"friends\"\"\",restaurant|lunch,,2024-01-15T08:30\n" +
+                    ",2024-02-01,1200,eur,\"Rent, Utilities\",,,65a1f0c2e4b0a1b2c3d4e5f6,\n";
+
+            // Act
+            ExpenseImportResultDto result = expenseImportService.importCsv(1L, new StringReader(csv));
+
+            // Assert
+            assertThat(result.getImported()).isEqualTo(2);
+            assertThat(result.getRejected()).isZero();
+            assertThat(result.getErrors()).isEmpty();
+            assertThat(staged.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+                    "2,10,50.00,\"USD\",2024-01-15,\"Lunch, with \"\"friends\"\"\",\"{\"\"restaurant\"\",\"\"lunch\"\"}\",",
+                    "3,20,1200,\"EUR\",2024-02-01,,,\"65a1f0c2e4b0a1b2c3d4e5f6\"");
+            verify(copy).close();
+            verify(stagingRepository).assignExpenseIds(50);
+            verify(stagingRepository).insertExpenses(1L);
+            verify(eventPublisher).publishEvent(new ExpensesImportedEvent(1L, 2));
+        }
+
+        @Test
+        @DisplayName("Should reject invalid rows by line and import the rest")
+        void shouldRejectInvalidRows() throws Exception {
+            // Arrange
+            String csv = HEADER +
+                    ",2024-01-15,50.00,USD,Food,Lunch,,,\n" +
+                    ",15/01/2024,abc,USD,Food,,,,\n" +
+                    ",2024-01-15,10.00,USD,Travel,,,,\n" +
+                    ",2024-01-15,-5.00,US,Food,,,,\n" +
+                    ",2024-01-15,5.00,USD,Food,,\"" + "x".repeat(51) + "\",,\n" +
+                    "only,three,columns\n";
+
+            // Act
+            ExpenseImportResultDto result = expenseImportService.importCsv(1L, new StringReader(csv));
+
+            // Assert
+            assertThat(result.getImported()).isEqualTo(1);
+            assertThat(result.getRejected()).isEqualTo(5);
+            assertThat(result.getErrors()).extracting(ExpenseImportResultDto.LineError::getLine)
+                    .containsExactly(3L, 4L, 5L, 6L, 7L);
+            assertThat(fields(result.getErrors().get(0))).containsExactlyInAnyOrder("date", "amount");
+            assertThat(fields(result.getErrors().get(1))).containsExactly("categoryId");
+            assertThat(result.getErrors().get(1).getValidationErrors().get(0).getRejectedValue()).isEqualTo("Travel");
+            assertThat(fields(result.getErrors().get(2))).containsExactlyInAnyOrder("amount", "currency");
+            assertThat(fields(result.getErrors().get(3))).containsExactly("tags");
+            assertThat(result.getErrors().get(4).getValidationErrors().get(0).getMessage())
+                    .isEqualTo("Expected 9 columns but found 3");
+            assertThat(staged.toString(StandardCharsets.UTF_8).split("\n")).hasSize(1);
+        }
+
+        @Test
+        @DisplayName("Should report only the first 100 rejected rows but count all of them")
+        void shouldCapRejectionReport() throws Exception {
+            // Arrange
+            StringBuilder csv = new StringBuilder(HEADER);
+            for (int i = 0; i < 150; i++) {
+                csv.append(",not-a-date,1.00,USD,Food,,,,\n");
+            }
+
+            // Act
+            ExpenseImportResultDto result = expenseImportService.importCsv(1L, new StringReader(csv.toString()));
+
+            // Assert
+            assertThat(result.getImported()).isZero();
+            assertThat(result.getRejected()).isEqualTo(150);
+            assertThat(result.getErrors()).hasSize(100);
+            assertThat(result.getErrors().get(99).getLine()).isEqualTo(101);
+            verify(stagingRepository, never()).assignExpenseIds(anyInt());
+            verify(stagingRepository, never()).insertExpenses(any());
+            verifyNoInteractions(monthlyRollupRepository, expenseTotalRepository, amountSketchService, eventPublisher);
+        }
+
+        @Test
+        @DisplayName("Should accept a header with a byte order mark")
+        void shouldAcceptByteOrderMark() throws Exception {
+            // Act
+            ExpenseImportResultDto result = expenseImportService.importCsv(1L, new StringReader("\uFEFF" + HEADER));
+
+            // Assert
+            assertThat(result.getImported()).isZero();
+            assertThat(result.getRejected()).isZero();
+        }
+
+        @Test
+        @DisplayName("Should reject a file whose header does not match the export layout")
+        void shouldRejectWrongHeader() {
+            // Act & Assert
+            assertThatThrownBy(() -> expenseImportService.importCsv(1L, new StringReader("Date,Amount\n2024-01-01,5\n")))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("CSV header must be");
+            verifyNoInteractions(stagingRepository);
+        }
+
+        @Test
+        @DisplayName("Should cancel the COPY when the CSV is malformed")
+        void shouldCancelCopyOnMalformedCsv() throws Exception {
+            // Arrange
+            when(copy.isActive()).thenReturn(true);
+            String csv = HEADER + ",2024-01-15,50.00,USD,Food,\"unterminated,,,\n";
+
+            // Act & Assert
+            assertThatThrownBy(() -> expenseImportService.importCsv(1L, new StringReader(csv)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Unterminated");
+            verify(copy).cancelCopy();
+            verify(stagingRepository, never()).insertExpenses(any());
+        }
+
+        @Test
+        @DisplayName("Should throw exception when user not found")
+        void shouldThrowExceptionWhenUserNotFound() {
+            // Arrange
+            when(userRepository.existsById(999L)).thenReturn(false);
+
+            // Act & Assert
+            assertThatThrownBy(() -> expenseImportService.importCsv(999L, new StringReader(HEADER)))
+                    .isInstanceOf(ResourceNotFoundException.class)
+                    .hasMessageContaining("999");
+            verifyNoInteractions(stagingRepository);
+        }
+
+        private List<String> fields(ExpenseImportResultDto.LineError error) {
+            return error.getValidationErrors().stream().map(ErrorResponse.ValidationError::getField).toList();
+        }
+    }
+
+    @Nested
+    @DisplayName("Derived Table Tests")
+    class DerivedTableTests {
+
+        @Test
+        @DisplayName("Should apply one rollup, total and sketch delta per staged bucket")
+        void shouldApplyDeltasPerBucket() throws Exception {
+            // Arrange
+            String csv = HEADER +
+                    ",2024-01-15,50.00,USD,Food,,,,\n" +
+                    ",2024-01-20,25.00,usd,Food,,,,\n" +
+                    ",2024-01-25,8.00,EUR,Food,,,,\n" +
+                    ",2024-02-01,1200.00,EUR,\"Rent, Utilities\",,,,\n";
+            when(stagingRepository.sumByMonthAndCurrency()).thenReturn(List.of(
+                    new Object[] {2024, 1, "EUR", new BigDecimal("8.00"), 1L},
+                    new Object[] {2024, 1, "USD", new BigDecimal("75.00"), 2L},
+                    new Object[] {2024, 2, "EUR", new BigDecimal("1200.00"), 1L}));
+            when(stagingRepository.sumByCategoryAndCurrency()).thenReturn(List.of(
+                    new Object[] {10L, "EUR", new BigDecimal("8.00"), 1L},
+                    new Object[] {10L, "USD", new BigDecimal("75.00"), 2L},
+                    new Object[] {20L, "EUR", new BigDecimal("1200.00"), 1L}));
+            // Staged amounts arrive ordered by category, currency, then date
+            ResultSet rows = mock(ResultSet.class);
+            when(rows.getLong(1)).thenReturn(10L, 10L, 10L, 20L);
+            when(rows.getString(2)).thenReturn("EUR", "USD", "USD", "EUR");
+            when(rows.getObject(3, LocalDate.class)).thenReturn(LocalDate.of(2024, 1, 25),
+                    LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 20), LocalDate.of(2024, 2, 1));
+            when(rows.getBigDecimal(4)).thenReturn(new BigDecimal("8.00"),
+                    new BigDecimal("50.00"), new BigDecimal("25.00"), new BigDecimal("1200.00"));
+            doAnswer(invocation -> {
+                RowCallbackHandler handler = invocation.getArgument(0);
+                for (int i = 0; i < 4; i++) {
+                    handler.processRow(rows);
+                }
+                return null;
+            }).when(stagingRepository).forEachAmountByCategoryCurrencyAndDate(any());
+
+            // Act
+            expenseImportService.importCsv(1L, new StringReader(csv));
+
+            // Assert
+            InOrder inOrder = inOrder(stagingRepository, monthlyRollupRepository, expenseTotalRepository, amountSketchService);
+            inOrder.verify(stagingRepository).insertExpenses(1L);
+            inOrder.verify(monthlyRollupRepository).addToRollup(1L, 2024, 1, "EUR", new BigDecimal("8.00"), 1L);
+            inOrder.verify(monthlyRollupRepository).addToRollup(1L, 2024, 1, "USD", new BigDecimal("75.00"), 2L);
+            inOrder.verify(monthlyRollupRepository).addToRollup(1L, 2024, 2, "EUR", new BigDecimal("1200.00"), 1L);
+            inOrder.verify(expenseTotalRepository).addToTotal(1L, 10L, "EUR", new BigDecimal("8.00"), 1L);
+            inOrder.verify(expenseTotalRepository).addToTotal(1L, 10L, "USD", new BigDecimal("75.00"), 2L);
+            inOrder.verify(expenseTotalRepository).addToTotal(1L, 20L, "EUR", new BigDecimal("1200.00"), 1L);
+
+            // Amounts in different currencies of the same category and month get separate sketches
+            ArgumentCaptor<TDigest> digests = ArgumentCaptor.forClass(TDigest.class);
+            inOrder.verify(amountSketchService).mergeInserted(eq(1L), eq(10L), eq("EUR"), eq(2024), eq(1), digests.capture());
+            inOrder.verify(amountSketchService).mergeInserted(eq(1L), eq(10L), eq("USD"), eq(2024), eq(1), digests.capture());
+            inOrder.verify(amountSketchService).mergeInserted(eq(1L), eq(20L), eq("EUR"), eq(2024), eq(2), digests.capture());
+            assertThat(digests.getAllValues()).extracting(TDigest::count).containsExactly(1L, 2L, 1L);
+            assertThat(digests.getAllValues().get(0).quantile(1.0)).isEqualTo(8.0);
+            assertThat(digests.getAllValues().get(1).quantile(1.0)).isEqualTo(50.0);
+            verifyNoMoreInteractions(monthlyRollupRepository, expenseTotalRepository, amountSketchService);
+        }
+    }
+}
@@ -1,33 +1,80 @@
 package com.expense.tracker.service;
 
+import com.expense.tracker.dto.CategoryQuantileDto;
+import com.expense.tracker.dto.CursorPage;
+import com.expense.tracker.dto.DateRangeTotalDto;
+import com.expense.tracker.dto.ErrorResponse;
+import com.expense.tracker.dto.ExpenseBatchResultDto;
+import com.expense.tracker.dto.ExpenseBulkResultDto;
+import com.expense.tracker.dto.ExpenseBulkUpdateDto;
 import com.expense.tracker.dto.ExpenseCreateDto;
+import com.expense.tracker.dto.ExpenseFilter;
 import com.expense.tracker.dto.ExpenseResponseDto;
 import com.expense.tracker.dto.ExpenseUpdateDto;
+import com.expense.tracker.dto.MonthlyReportDto;
+import com.expense.tracker.dto.TimeSeriesDto;
+import com.expense.tracker.dto.TimeSeriesGranularity;
 import com.expense.tracker.exception.ResourceNotFoundException;
 import com.expense.tracker.mapper.EntityMapper;
 import com.expense.tracker.model.Category;
 import com.expense.tracker.model.Expense;
+import com.expense.tracker.model.ExpenseAmountSketch;
+import com.expense.tracker.model.ExpenseMonthlyRollup;
 import com.expense.tracker.model.User;
 import com.expense.tracker.repository.CategoryRepository;
+import com.expense.tracker.repository.ExpenseAmountSketchRepository;
+import com.expense.tracker.repository.ExpenseCsvExportRepository;
+import com.expense.tracker.repository.ExpenseMonthlyRollupRepository;
 import com.expense.tracker.repository.ExpenseRepository;
+import com.expense.tracker.repository.ExpenseTotalRepository;
 import com.expense.tracker.repository.UserRepository;
+import com.expense.tracker.repository.specification.ExpenseCursor;
+import com.expense.tracker.repository.specification.ExpenseSearchMode;
+import com.expense.tracker.service.cache.ReportCache;
+import com.expense.tracker.service.event.ExpenseChangedEvent;
+import com.expense.tracker.service.event.ExpenseSnapshot;
+import com.expense.tracker.service.event.ExpensesChangedEvent;
+import com.expense.tracker.service.index.DailyTotals;
+import com.expense.tracker.service.index.ExpenseAggregate;
+import com.expense.tracker.service.index.ExpenseColumnStore;
+import com.expense.tracker.service.index.ExpenseIdPage;
+import com.expense.tracker.service.index.ExpenseRangeTotals;
+import com.expense.tracker.service.sketch.TDigest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.apache.arrow.flatbuf.Message;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -46,9 +93,40 @@ class ExpenseServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private ExpenseMonthlyRollupRepository monthlyRollupRepository;
+
+    @Mock
+    private ExpenseTotalRepository expenseTotalRepository;
+
+    @Mock
+    private ExpenseAmountSketchRepository amountSketchRepository;
+
+    @Mock
+    private ExpenseCsvExportRepository expenseCsvExportRepository;
+
     @Mock
     private EntityMapper entityMapper;
 
+    @Mock
+    private ExpenseColumnStore expenseColumnStore;
+
+    @Mock
+    private ExpenseRangeTotals expenseRangeTotals;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Spy
+    private ReportCache reportCache = new ReportCache(new ConcurrentMapCacheManager(ReportCache.CACHE_NAME));
+
     @InjectMocks
     private ExpenseService expenseService;
 
@@ -136,6 +214,7 @@ class ExpenseServiceTest {
             verify(userRepository).findById(1L);
             verify(categoryRepository).findById(1L);
             verify(expenseRepository).save(any(Expense.class));
+            verify(eventPublisher).publishEvent(ExpenseChangedEvent.created(ExpenseSnapshot.of(testExpense)));
         }
 
         @Test
@@ -203,6 +282,68 @@ class ExpenseServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("Create Expenses Batch Tests")
+    class CreateExpensesBatchTests {
+
+        @Test
+        @DisplayName("Should insert valid items and report rejected items by index")
+        void shouldInsertValidItemsAndReportRejectedOnes() {
+            // Arrange
+            createDto.setUserId(1L);
+            ExpenseCreateDto invalidAmount = ExpenseCreateDto.builder()
+                    .userId(1L).categoryId(1L).amount(BigDecimal.ZERO).currency("USD").date(LocalDate.now()).build();
+            ExpenseCreateDto foreignCategory = ExpenseCreateDto.builder()
+                    .userId(1L).categoryId(2L).amount(BigDecimal.TEN).currency("USD").date(LocalDate.now()).build();
+            Expense newExpense = new Expense();
+            newExpense.setAmount(createDto.getAmount());
+            newExpense.setCurrency("USD");
+            newExpense.setDate(createDto.getDate());
+
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+            when(categoryRepository.findIdsByUserIdAndIdIn(1L, Set.of(1L, 2L))).thenReturn(Set.of(1L));
+            when(categoryRepository.getReferenceById(1L)).thenReturn(testCategory);
+            when(entityMapper.toExpense(createDto)).thenReturn(newExpense);
+            doAnswer(invocation -> {
+                invocation.<List<Expense>>getArgument(0).get(0).setId(100L);
+                return null;
+            }).when(expenseRepository).insertAll(anyList());
+
+            // Act
+            ExpenseBatchResultDto result = expenseService.createExpenses(1L, List.of(createDto, invalidAmount, foreignCategory));
+
+            // Assert
+            assertThat(result.getCreated()).isEqualTo(1);
+            assertThat(result.getRejected()).isEqualTo(2);
+            assertThat(result.getIds()).containsExactly(100L, null, null);
+            assertThat(result.getErrors()).extracting(ExpenseBatchResultDto.ItemError::getIndex).containsExactly(1, 2);
+            assertThat(result.getErrors().get(0).getValidationErrors())
+                    .extracting(ErrorResponse.ValidationError::getField).containsExactly("amount");
+            assertThat(result.getErrors().get(1).getValidationErrors())
+                    .extracting(ErrorResponse.ValidationError::getField).containsExactly("categoryId");
+
+            verify(categoryRepository, never()).findById(anyLong());
+            verify(expenseRepository).insertAll(List.of(newExpense));
+            verify(eventPublisher).publishEvent(new ExpensesChangedEvent(1L,
+                    List.of(ExpenseChangedEvent.created(ExpenseSnapshot.of(newExpense)))));
+        }
+
+        @Test
+        @DisplayName("Should reject a batch over the size limit before touching the database")
+        void shouldRejectOversizedBatch() {
+            // Arrange
+            List<ExpenseCreateDto> batch = Collections.nCopies(5001, createDto);
+
+            // Act & Assert
+            assertThatThrownBy(() -> expenseService.createExpenses(1L, batch))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("5000");
+
+            verifyNoInteractions(userRepository, categoryRepository, expenseRepository, eventPublisher);
+        }
+    }
+
     @Nested
     @DisplayName("Update Expense Tests")
     class UpdateExpenseTests {
@@ -211,19 +352,18 @@ class ExpenseServiceTest {
         @DisplayName("Should update expense successfully")
         void shouldUpdateExpenseSuccessfully() {
             // Arrange
-            when(expenseRepository.findById(1L)).thenReturn(Optional.of(testExpense));
-            when(categoryRepository.findById(1L)).thenReturn(Optional.of(testCategory));
+            when(expenseRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(testExpense));
             when(expenseRepository.save(any(Expense.class))).thenReturn(testExpense);
             when(entityMapper.toExpenseResponseDto(testExpense)).thenReturn(responseDto);
             doNothing().when(entityMapper).updateExpenseFromDto(updateDto, testExpense);
 
             // Act
-            ExpenseResponseDto result = expenseService.updateExpense(1L, updateDto);
+            ExpenseResponseDto result = expenseService.updateExpense(1L, 1L, updateDto);
 
             // Assert
             assertThat(result).isNotNull();
-            verify(expenseRepository).findById(1L);
-            verify(categoryRepository).findById(1L);
+            verify(expenseRepository).findByIdAndUserId(1L, 1L);
+            verifyNoInteractions(categoryRepository);
             verify(entityMapper).updateExpenseFromDto(updateDto, testExpense);
             verify(expenseRepository).save(testExpense);
         }
@@ -232,40 +372,50 @@ class ExpenseServiceTest {
         @DisplayName("Should throw exception when expense not found")
         void shouldThrowExceptionWhenExpenseNotFound() {
             // Arrange
-            when(expenseRepository.findById(999L)).thenReturn(Optional.empty());
+            when(expenseRepository.findByIdAndUserId(999L, 1L)).thenReturn(Optional.empty());
+            when(expenseRepository.existsById(999L)).thenReturn(false);
 
             // Act & Assert
-            assertThatThrownBy(() -> expenseService.updateExpense(999L, updateDto))
+            assertThatThrownBy(() -> expenseService.updateExpense(1L, 999L, updateDto))
                     .isInstanceOf(ResourceNotFoundException.class)
                     .hasMessageContaining("Expense")
                     .hasMessageContaining("999");
 
-            verify(expenseRepository).findById(999L);
+            verify(expenseRepository).findByIdAndUserId(999L, 1L);
             verify(expenseRepository, never()).save(any());
         }
 
         @Test
-        @DisplayName("Should throw exception when updating with category from different user")
-        void shouldThrowExceptionWhenUpdatingWithCategoryFromDifferentUser() {
+        @DisplayName("Should throw exception when expense belongs to another user")
+        void shouldThrowExceptionWhenExpenseBelongsToAnotherUser() {
             // Arrange
-            User anotherUser = new User();
-            anotherUser.setId(2L);
+            when(expenseRepository.findByIdAndUserId(1L, 2L)).thenReturn(Optional.empty());
+            when(expenseRepository.existsById(1L)).thenReturn(true);
 
-            Category anotherCategory = new Category();
-            anotherCategory.setId(2L);
-            anotherCategory.setUser(anotherUser);
+            // Act & Assert
+            assertThatThrownBy(() -> expenseService.updateExpense(2L, 1L, updateDto))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Expense does not belong to the specified user");
 
-            when(expenseRepository.findById(1L)).thenReturn(Optional.of(testExpense));
-            when(categoryRepository.findById(2L)).thenReturn(Optional.of(anotherCategory));
+            verify(expenseRepository, never()).save(any());
+        }
+
+        @Test
+        @DisplayName("Should throw exception when updating with category from different user")
+        void shouldThrowExceptionWhenUpdatingWithCategoryFromDifferentUser() {
+            // Arrange
+            when(expenseRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(testExpense));
+            when(categoryRepository.findByIdAndUserId(2L, 1L)).thenReturn(Optional.empty());
+            when(categoryRepository.existsById(2L)).thenReturn(true);
             updateDto.setCategoryId(2L);
 
             // Act & Assert
-            assertThatThrownBy(() -> expenseService.updateExpense(1L, updateDto))
+            assertThatThrownBy(() -> expenseService.updateExpense(1L, 1L, updateDto))
                     .isInstanceOf(IllegalArgumentException.class)
                     .hasMessageContaining("Category does not belong to the expense owner");
 
-            verify(expenseRepository).findById(1L);
-            verify(categoryRepository).findById(2L);
+            verify(expenseRepository).findByIdAndUserId(1L, 1L);
+            verify(categoryRepository).findByIdAndUserId(2L, 1L);
             verify(expenseRepository, never()).save(any());
         }
     }
@@ -278,31 +428,122 @@ class ExpenseServiceTest {
         @DisplayName("Should delete expense successfully")
         void shouldDeleteExpenseSuccessfully() {
             // Arrange
-            when(expenseRepository.existsById(1L)).thenReturn(true);
-            doNothing().when(expenseRepository).deleteById(1L);
+            ExpenseSnapshot snapshot = ExpenseSnapshot.of(testExpense);
+            when(expenseRepository.deleteByIdAndUserId(1L, 1L)).thenReturn(Optional.of(new Object[] {
+                    1L, 1L, snapshot.date(), snapshot.amount(), snapshot.currency(),
+                    snapshot.tags().toArray(String[]::new)}));
 
             // Act
-            expenseService.deleteExpense(1L);
+            expenseService.deleteExpense(1L, 1L);
 
             // Assert
-            verify(expenseRepository).existsById(1L);
-            verify(expenseRepository).deleteById(1L);
+            verify(expenseRepository).deleteByIdAndUserId(1L, 1L);
+            verify(expenseRepository, never()).findById(anyLong());
+            verify(eventPublisher).publishEvent(ExpenseChangedEvent.deleted(ExpenseSnapshot.of(testExpense)));
+        }
+
+        @Test
+        @DisplayName("Should delete an expense whose tags repeat")
+        void shouldDeleteExpenseWithDuplicateTags() {
+            // Arrange
+            when(expenseRepository.deleteByIdAndUserId(1L, 1L)).thenReturn(Optional.of(new Object[] {
+                    1L, 1L, testExpense.getDate(), testExpense.getAmount(), "USD",
+                    new String[] {"lunch", "restaurant", "lunch"}}));
+
+            // Act
+            expenseService.deleteExpense(1L, 1L);
+
+            // Assert
+            verify(eventPublisher).publishEvent(ExpenseChangedEvent.deleted(new ExpenseSnapshot(
+                    1L, 1L, 1L, testExpense.getDate(), testExpense.getAmount(), "USD", Set.of("lunch", "restaurant"))));
         }
 
         @Test
         @DisplayName("Should throw exception when expense not found")
         void shouldThrowExceptionWhenExpenseNotFound() {
             // Arrange
+            when(expenseRepository.deleteByIdAndUserId(999L, 1L)).thenReturn(Optional.empty());
             when(expenseRepository.existsById(999L)).thenReturn(false);
 
             // Act & Assert
-            assertThatThrownBy(() -> expenseService.deleteExpense(999L))
+            assertThatThrownBy(() -> expenseService.deleteExpense(1L, 999L))
                     .isInstanceOf(ResourceNotFoundException.class)
                     .hasMessageContaining("Expense")
                     .hasMessageContaining("999");
 
-            verify(expenseRepository).existsById(999L);
-            verify(expenseRepository, never()).deleteById(anyLong());
+            verify(expenseRepository).deleteByIdAndUserId(999L, 1L);
+            verifyNoInteractions(eventPublisher);
+        }
+    }
+
+    @Nested
+    @DisplayName("Bulk Change Tests")
+    class BulkChangeTests {
+
+        @Test
+        @DisplayName("Should update locked matches in one statement and publish their changes")
+        void shouldUpdateMatchesAndPublishChanges() {
+            // Arrange
+            Category newCategory = new Category();
+            newCategory.setId(2L);
+            newCategory.setUser(testUser);
+            ExpenseFilter filter = ExpenseFilter.builder().tag("lunch").build();
+
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(categoryRepository.findById(2L)).thenReturn(Optional.of(newCategory));
+            when(expenseRepository.lockColumnValues(any(), eq(5001))).thenReturn(List.<Object[]>of(
+                    new Object[] {1L, 1L, testExpense.getDate(), testExpense.getAmount(), "USD"}));
+            when(expenseRepository.findTagsByIdIn(List.of(1L))).thenReturn(List.of(
+                    new Object[] {1L, "restaurant"}, new Object[] {1L, "lunch"}));
+            when(expenseRepository.updateCategoryAndCurrency(any(), eq(newCategory), isNull())).thenReturn(1);
+
+            // Act
+            ExpenseBulkResultDto result = expenseService.updateExpenses(
+                    1L, filter, ExpenseBulkUpdateDto.builder().categoryId(2L).build());
+
+            // Assert
+            assertThat(result.getAffected()).isEqualTo(1);
+            ExpenseSnapshot before = ExpenseSnapshot.of(testExpense);
+            ExpenseSnapshot after = new ExpenseSnapshot(1L, 1L, 2L, before.date(), before.amount(), "USD", before.tags());
+            verify(eventPublisher).publishEvent(new ExpensesChangedEvent(1L,
+                    List.of(ExpenseChangedEvent.updated(before, after))));
+        }
+
+        @Test
+        @DisplayName("Should store a bulk-updated currency in upper case")
+        void shouldUpperCaseBulkUpdatedCurrency() {
+            // Arrange
+            ExpenseFilter filter = ExpenseFilter.builder().tag("lunch").build();
+
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(expenseRepository.lockColumnValues(any(), eq(5001))).thenReturn(List.<Object[]>of(
+                    new Object[] {1L, 1L, testExpense.getDate(), testExpense.getAmount(), "USD"}));
+            when(expenseRepository.findTagsByIdIn(List.of(1L))).thenReturn(List.<Object[]>of(new Object[] {1L, "lunch"}));
+            when(expenseRepository.updateCategoryAndCurrency(any(), isNull(), eq("EUR"))).thenReturn(1);
+
+            // Act
+            ExpenseBulkResultDto result = expenseService.updateExpenses(
+                    1L, filter, ExpenseBulkUpdateDto.builder().currency("eur").build());
+
+            // Assert
+            assertThat(result.getAffected()).isEqualTo(1);
+            ExpenseSnapshot before = new ExpenseSnapshot(
+                    1L, 1L, 1L, testExpense.getDate(), testExpense.getAmount(), "USD", Set.of("lunch"));
+            ExpenseSnapshot after = new ExpenseSnapshot(
+                    1L, 1L, 1L, testExpense.getDate(), testExpense.getAmount(), "EUR", Set.of("lunch"));
+            verify(eventPublisher).publishEvent(new ExpensesChangedEvent(1L,
+                    List.of(ExpenseChangedEvent.updated(before, after))));
+        }
+
+        @Test
+        @DisplayName("Should refuse to delete without a filter")
+        void shouldRejectDeleteWithoutFilter() {
+            // Act & Assert
+            assertThatThrownBy(() -> expenseService.deleteExpenses(1L, new ExpenseFilter()))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("filter");
+
+            verifyNoInteractions(expenseRepository, eventPublisher);
         }
     }
 
@@ -314,32 +555,33 @@ class ExpenseServiceTest {
         @DisplayName("Should get expense by ID successfully")
         void shouldGetExpenseByIdSuccessfully() {
             // Arrange
-            when(expenseRepository.findById(1L)).thenReturn(Optional.of(testExpense));
-            when(entityMapper.toExpenseResponseDto(testExpense)).thenReturn(responseDto);
+            when(expenseRepository.findResponseByIdAndUserId(1L, 1L)).thenReturn(Optional.of(responseDto));
 
             // Act
-            ExpenseResponseDto result = expenseService.getExpenseById(1L);
+            ExpenseResponseDto result = expenseService.getExpenseById(1L, 1L);
 
             // Assert
             assertThat(result).isNotNull();
             assertThat(result.getId()).isEqualTo(1L);
-            verify(expenseRepository).findById(1L);
-            verify(entityMapper).toExpenseResponseDto(testExpense);
+            verify(expenseRepository).findResponseByIdAndUserId(1L, 1L);
+            verify(expenseRepository, never()).findById(anyLong());
+            verifyNoInteractions(entityMapper);
         }
 
         @Test
         @DisplayName("Should throw exception when expense not found")
         void shouldThrowExceptionWhenExpenseNotFound() {
             // Arrange
-            when(expenseRepository.findById(999L)).thenReturn(Optional.empty());
+            when(expenseRepository.findResponseByIdAndUserId(999L, 1L)).thenReturn(Optional.empty());
+            when(expenseRepository.existsById(999L)).thenReturn(false);
 
             // Act & Assert
-            assertThatThrownBy(() -> expenseService.getExpenseById(999L))
+            assertThatThrownBy(() -> expenseService.getExpenseById(1L, 999L))
                     .isInstanceOf(ResourceNotFoundException.class)
                     .hasMessageContaining("Expense")
                     .hasMessageContaining("999");
 
-            verify(expenseRepository).findById(999L);
+            verify(expenseRepository).findResponseByIdAndUserId(999L, 1L);
         }
     }
 
@@ -352,12 +594,10 @@ class ExpenseServiceTest {
         void shouldGetExpensesByUserIdWithPagination() {
             // Arrange
             Pageable pageable = PageRequest.of(0, 10);
-            List<Expense> expenses = Arrays.asList(testExpense);
-            Page<Expense> expensePage = new PageImpl<>(expenses, pageable, 1);
 
             when(userRepository.existsById(1L)).thenReturn(true);
-            when(expenseRepository.findByUserId(1L, pageable)).thenReturn(expensePage);
-            when(entityMapper.toExpenseResponseDto(testExpense)).thenReturn(responseDto);
+            when(expenseRepository.findResponses(any(Specification.class), eq(pageable)))
+                    .thenReturn(List.of(responseDto));
 
             // Act
             Page<ExpenseResponseDto> result = expenseService.getExpensesByUserId(1L, pageable);
@@ -367,7 +607,8 @@ class ExpenseServiceTest {
             assertThat(result.getContent()).hasSize(1);
             assertThat(result.getTotalElements()).isEqualTo(1);
             verify(userRepository).existsById(1L);
-            verify(expenseRepository).findByUserId(1L, pageable);
+            verify(expenseRepository).findResponses(any(Specification.class), eq(pageable));
+            verify(expenseRepository, never()).countByUserId(anyLong());
         }
 
         @Test
@@ -384,7 +625,7 @@ class ExpenseServiceTest {
                     .hasMessageContaining("999");
 
             verify(userRepository).existsById(999L);
-            verify(expenseRepository, never()).findByUserId(anyLong(), any());
+            verify(expenseRepository, never()).findResponses(any(Specification.class), any(Pageable.class));
         }
     }
 
@@ -393,35 +634,66 @@ class ExpenseServiceTest {
     class CalculateTotalExpensesTests {
 
         @Test
-        @DisplayName("Should calculate total expenses by user ID")
+        @DisplayName("Should calculate total expenses by user ID from running totals")
         void shouldCalculateTotalExpensesByUserId() {
             // Arrange
             BigDecimal expectedTotal = new BigDecimal("150.00");
-            when(userRepository.existsById(1L)).thenReturn(true);
-            when(expenseRepository.sumAmountByUserId(1L)).thenReturn(expectedTotal);
+            when(expenseTotalRepository.sumTotalByUserId(1L)).thenReturn(expectedTotal);
 
             // Act
             BigDecimal result = expenseService.getTotalExpensesByUserId(1L);
 
             // Assert
             assertThat(result).isEqualByComparingTo(expectedTotal);
-            verify(userRepository).existsById(1L);
-            verify(expenseRepository).sumAmountByUserId(1L);
+            verify(expenseTotalRepository).sumTotalByUserId(1L);
+            verify(userRepository, never()).existsById(anyLong());
+            verify(expenseRepository, never()).sumAmountByUserId(anyLong());
         }
 
         @Test
         @DisplayName("Should return zero when no expenses found")
         void shouldReturnZeroWhenNoExpensesFound() {
             // Arrange
+            when(expenseTotalRepository.sumTotalByUserId(1L)).thenReturn(null);
             when(userRepository.existsById(1L)).thenReturn(true);
-            when(expenseRepository.sumAmountByUserId(1L)).thenReturn(null);
 
             // Act
             BigDecimal result = expenseService.getTotalExpensesByUserId(1L);
 
             // Assert
             assertThat(result).isEqualByComparingTo(BigDecimal.ZERO);
-            verify(expenseRepository).sumAmountByUserId(1L);
+            verify(userRepository).existsById(1L);
+        }
+
+        @Test
+        @DisplayName("Should throw exception when user has no running totals and does not exist")
+        void shouldThrowExceptionWhenUserNotFoundForTotal() {
+            // Arrange
+            when(expenseTotalRepository.sumTotalByUserId(999L)).thenReturn(null);
+            when(userRepository.existsById(999L)).thenReturn(false);
+
+            // Act & Assert
+            assertThatThrownBy(() -> expenseService.getTotalExpensesByUserId(999L))
+                    .isInstanceOf(ResourceNotFoundException.class)
+                    .hasMessageContaining("User");
+        }
+
+        @Test
+        @DisplayName("Should calculate date range total from expense index when it can answer")
+        void shouldCalculateDateRangeTotalFromExpenseIndex() {
+            // Arrange
+            LocalDate startDate = LocalDate.now().minusDays(30);
+            LocalDate endDate = LocalDate.now();
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(expenseColumnStore.aggregate(eq(1L), any(ExpenseFilter.class)))
+                    .thenReturn(Optional.of(new ExpenseAggregate(15050, 3)));
+
+            // Act
+            BigDecimal result = expenseService.getTotalExpensesByUserIdAndDateRange(1L, startDate, endDate);
+
+            // Assert
+            assertThat(result).isEqualByComparingTo(new BigDecimal("150.50"));
+            verify(expenseRepository, never()).sumAmountByUserIdAndDateBetween(anyLong(), any(), any());
         }
 
         @Test
@@ -444,6 +716,61 @@ class ExpenseServiceTest {
             verify(expenseRepository).sumAmountByUserIdAndDateBetween(1L, startDate, endDate);
         }
 
+        @Test
+        @DisplayName("Should calculate date range total from prefix sums when enabled")
+        void shouldCalculateDateRangeTotalFromPrefixSums() {
+            // Arrange
+            LocalDate startDate = LocalDate.of(2024, 6, 1);
+            LocalDate endDate = LocalDate.of(2024, 6, 30);
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(expenseRangeTotals.total(1L, startDate, endDate)).thenReturn(Optional.of(new BigDecimal("42.10")));
+
+            // Act
+            BigDecimal result = expenseService.getTotalExpensesByUserIdAndDateRange(1L, startDate, endDate);
+
+            // Assert
+            assertThat(result).isEqualByComparingTo(new BigDecimal("42.10"));
+            verifyNoInteractions(expenseColumnStore);
+            verify(expenseRepository, never()).sumAmountByUserIdAndDateBetween(anyLong(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should calculate totals for several date ranges from one set of daily totals")
+        void shouldCalculateTotalsForSeveralDateRanges() {
+            // Arrange
+            DailyTotals dailyTotals = mock(DailyTotals.class);
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(expenseRangeTotals.dailyTotals(1L, LocalDate.of(2024, 4, 1), LocalDate.of(2024, 6, 30)))
+                    .thenReturn(dailyTotals);
+            when(dailyTotals.total(LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 30))).thenReturn(new BigDecimal("10.00"));
+            when(dailyTotals.total(LocalDate.of(2024, 4, 1), LocalDate.of(2024, 6, 30))).thenReturn(new BigDecimal("35.50"));
+
+            // Act
+            List<DateRangeTotalDto> result = expenseService.getTotalExpensesByUserIdAndDateRanges(
+                    1L, List.of("2024-06-01..2024-06-30", "2024-04-01..2024-06-30"));
+
+            // Assert
+            assertThat(result).containsExactly(
+                    new DateRangeTotalDto(LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 30), new BigDecimal("10.00")),
+                    new DateRangeTotalDto(LocalDate.of(2024, 4, 1), LocalDate.of(2024, 6, 30), new BigDecimal("35.50"))
+            );
+            verify(expenseRangeTotals).dailyTotals(anyLong(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should throw exception for malformed date range")
+        void shouldThrowExceptionForMalformedDateRange() {
+            // Arrange
+            when(userRepository.existsById(1L)).thenReturn(true);
+
+            // Act & Assert
+            assertThatThrownBy(() -> expenseService.getTotalExpensesByUserIdAndDateRanges(1L, List.of("2024-06-01")))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Invalid date range");
+
+            verifyNoInteractions(expenseRangeTotals);
+        }
+
         @Test
         @DisplayName("Should throw exception when start date is after end date")
         void shouldThrowExceptionWhenStartDateIsAfterEndDate() {
@@ -468,9 +795,8 @@ class ExpenseServiceTest {
             // Arrange
             BigDecimal expectedTotal = new BigDecimal("75.00");
 
-            when(userRepository.existsById(1L)).thenReturn(true);
             when(categoryRepository.findById(1L)).thenReturn(Optional.of(testCategory));
-            when(expenseRepository.sumAmountByUserIdAndCategoryId(1L, 1L)).thenReturn(expectedTotal);
+            when(expenseTotalRepository.sumTotalByUserIdAndCategoryId(1L, 1L)).thenReturn(expectedTotal);
 
             // Act
             BigDecimal result = expenseService.getTotalExpensesByUserIdAndCategory(1L, 1L);
@@ -478,7 +804,8 @@ class ExpenseServiceTest {
             // Assert
             assertThat(result).isEqualByComparingTo(expectedTotal);
             verify(categoryRepository).findById(1L);
-            verify(expenseRepository).sumAmountByUserIdAndCategoryId(1L, 1L);
+            verify(expenseTotalRepository).sumTotalByUserIdAndCategoryId(1L, 1L);
+            verify(expenseRepository, never()).sumAmountByUserIdAndCategoryId(anyLong(), anyLong());
         }
 
         @Test
@@ -501,7 +828,220 @@ class ExpenseServiceTest {
                     .hasMessageContaining("Category does not belong to the user");
 
             verify(categoryRepository).findById(2L);
-            verify(expenseRepository, never()).sumAmountByUserIdAndCategoryId(anyLong(), anyLong());
+            verify(expenseTotalRepository, never()).sumTotalByUserIdAndCategoryId(anyLong(), anyLong());
+        }
+    }
+
+    @Nested
+    @DisplayName("Monthly Report Tests")
+    class MonthlyReportTests {
+
+        @Test
+        @DisplayName("Should build monthly report from rollups")
+        void shouldBuildMonthlyReportFromRollups() {
+            // Arrange
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(monthlyRollupRepository.findByUserIdAndYear(1L, 2024)).thenReturn(List.of(
+                    new ExpenseMonthlyRollup(new ExpenseMonthlyRollup.Key(1L, 2024, 1, "EUR"), new BigDecimal("40.00"), 2L),
+                    new ExpenseMonthlyRollup(new ExpenseMonthlyRollup.Key(1L, 2024, 1, "USD"), new BigDecimal("99.99"), 3L)
+            ));
+
+            // Act
+            List<MonthlyReportDto> result = expenseService.getMonthlyReport(1L, 2024);
+
+            // Assert
+            assertThat(result).containsExactly(
+                    new MonthlyReportDto(2024, 1, new BigDecimal("40.00"), 2L, "EUR"),
+                    new MonthlyReportDto(2024, 1, new BigDecimal("99.99"), 3L, "USD")
+            );
+            verify(expenseRepository, never()).getMonthlyTotals(anyLong(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Should throw exception for invalid year")
+        void shouldThrowExceptionForInvalidYear() {
+            // Arrange
+            when(userRepository.existsById(1L)).thenReturn(true);
+
+            // Act & Assert
+            assertThatThrownBy(() -> expenseService.getMonthlyReport(1L, 1800))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Invalid year");
+
+            verifyNoInteractions(monthlyRollupRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Report Cache Tests")
+    class ReportCacheTests {
+
+        @Test
+        @DisplayName("Should serve repeated reports from cache until the user writes")
+        void shouldServeRepeatedReportsFromCacheUntilInvalidated() {
+            // Arrange
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(monthlyRollupRepository.findByUserIdAndYear(1L, 2024)).thenReturn(List.of(
+                    new ExpenseMonthlyRollup(new ExpenseMonthlyRollup.Key(1L, 2024, 1, "USD"), new BigDecimal("99.99"), 3L)
+            ));
+
+            // Act
+            List<MonthlyReportDto> first = expenseService.getMonthlyReport(1L, 2024);
+            List<MonthlyReportDto> second = expenseService.getMonthlyReport(1L, 2024);
+            reportCache.onExpenseChanged(ExpenseChangedEvent.created(new ExpenseSnapshot(
+                    2L, 1L, 1L, LocalDate.of(2024, 1, 5), new BigDecimal("1.00"), "USD", Set.of())));
+            expenseService.getMonthlyReport(1L, 2024);
+
+            // Assert
+            assertThat(second).isSameAs(first);
+            verify(monthlyRollupRepository, times(2)).findByUserIdAndYear(1L, 2024);
+        }
+
+        @Test
+        @DisplayName("Should keep other users' reports when invalidating a user")
+        void shouldKeepOtherUsersReportsWhenInvalidating() {
+            // Arrange
+            when(userRepository.existsById(anyLong())).thenReturn(true);
+            when(monthlyRollupRepository.findByUserIdAndYear(anyLong(), eq(2024))).thenReturn(List.of());
+
+            // Act
+            expenseService.getMonthlyReport(1L, 2024);
+            expenseService.getMonthlyReport(2L, 2024);
+            reportCache.invalidate(1L);
+            expenseService.getMonthlyReport(1L, 2024);
+            expenseService.getMonthlyReport(2L, 2024);
+
+            // Assert
+            verify(monthlyRollupRepository, times(2)).findByUserIdAndYear(1L, 2024);
+            verify(monthlyRollupRepository, times(1)).findByUserIdAndYear(2L, 2024);
+        }
+
+        @Test
+        @DisplayName("Should not cache a report computed while a write to the user committed")
+        void shouldNotCacheReportComputedDuringWrite() {
+            // Arrange
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(monthlyRollupRepository.findByUserIdAndYear(1L, 2024))
+                    .thenAnswer(invocation -> {
+                        reportCache.invalidate(1L);
+                        return List.of();
+                    })
+                    .thenReturn(List.of());
+
+            // Act
+            expenseService.getMonthlyReport(1L, 2024);
+            expenseService.getMonthlyReport(1L, 2024);
+            expenseService.getMonthlyReport(1L, 2024);
+
+            // Assert
+            verify(monthlyRollupRepository, times(2)).findByUserIdAndYear(1L, 2024);
+        }
+    }
+
+    @Nested
+    @DisplayName("Category Quantile Report Tests")
+    class CategoryQuantileReportTests {
+
+        @Test
+        @DisplayName("Should report quantiles from stored sketches")
+        void shouldReportQuantilesFromSketches() {
+            // Arrange
+            TDigest digest = new TDigest();
+            for (int amount = 1; amount <= 10; amount++) {
+                digest.add(amount * 10.0);
+            }
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(amountSketchRepository.findByUserIdAndYearAndMonth(1L, 2024, 3)).thenReturn(List.of(
+                    new ExpenseAmountSketch(new ExpenseAmountSketch.Key(1L, 1L, 2024, 3, "USD"), digest.toBytes(), 10L)
+            ));
+            when(categoryRepository.findAllById(List.of(1L))).thenReturn(List.of(testCategory));
+
+            // Act
+            List<CategoryQuantileDto> result = expenseService.getCategoryQuantileReport(1L, 2024, 3);
+
+            // Assert
+            assertThat(result).containsExactly(new CategoryQuantileDto(
+                    1L, "Food", 2024, 3, "USD", 10L, new BigDecimal("55.00"), new BigDecimal("95.00"), new BigDecimal("100.00")));
+            verify(expenseRepository, never()).findAmountsByUserIdAndCategoryIdAndCurrencyAndDateBetween(anyLong(), anyLong(), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should throw exception for invalid month")
+        void shouldThrowExceptionForInvalidMonth() {
+            // Arrange
+            when(userRepository.existsById(1L)).thenReturn(true);
+
+            // Act & Assert
+            assertThatThrownBy(() -> expenseService.getCategoryQuantileReport(1L, 2024, 13))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Invalid month");
+
+            verifyNoInteractions(amountSketchRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Time Series Report Tests")
+    class TimeSeriesReportTests {
+
+        @Test
+        @DisplayName("Should fill dense weekly buckets starting on Monday")
+        void shouldFillDenseWeeklyBuckets() {
+            // Arrange
+            LocalDate startDate = LocalDate.of(2026, 1, 7);
+            LocalDate endDate = LocalDate.of(2026, 1, 31);
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(expenseRepository.sumAmountByUserIdAndDateBetweenGroupByBucketAndCurrency(1L, "week", startDate, endDate))
+                    .thenReturn(List.of(
+                            new Object[]{LocalDate.of(2026, 1, 5), "USD", new BigDecimal("12.50")},
+                            new Object[]{LocalDate.of(2026, 1, 19), "USD", new BigDecimal("100.01")}
+                    ));
+
+            // Act
+            TimeSeriesDto result = expenseService.getTimeSeriesReport(1L, startDate, endDate, TimeSeriesGranularity.WEEK);
+
+            // Assert
+            assertThat(result.getStartDate()).isEqualTo(LocalDate.of(2026, 1, 5));
+            assertThat(result.getTotals()).containsOnlyKeys("USD");
+            assertThat(result.getTotals().get("USD")).containsExactly(1250L, 0L, 10001L, 0L);
+        }
+
+        @Test
+        @DisplayName("Should keep each currency in its own buckets")
+        void shouldSeparateCurrencies() {
+            // Arrange
+            LocalDate startDate = LocalDate.of(2026, 1, 1);
+            LocalDate endDate = LocalDate.of(2026, 3, 31);
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(expenseRepository.sumAmountByUserIdAndDateBetweenGroupByBucketAndCurrency(1L, "month", startDate, endDate))
+                    .thenReturn(List.of(
+                            new Object[]{LocalDate.of(2026, 1, 1), "EUR", new BigDecimal("20.00")},
+                            new Object[]{LocalDate.of(2026, 1, 1), "USD", new BigDecimal("12.50")},
+                            new Object[]{LocalDate.of(2026, 3, 1), "USD", new BigDecimal("7.25")}
+                    ));
+
+            // Act
+            TimeSeriesDto result = expenseService.getTimeSeriesReport(1L, startDate, endDate, TimeSeriesGranularity.MONTH);
+
+            // Assert
+            assertThat(result.getTotals()).containsOnlyKeys("EUR", "USD");
+            assertThat(result.getTotals().get("EUR")).containsExactly(2000L, 0L, 0L);
+            assertThat(result.getTotals().get("USD")).containsExactly(1250L, 0L, 725L);
+        }
+
+        @Test
+        @DisplayName("Should reject a time series with too many buckets")
+        void shouldRejectTooManyBuckets() {
+            // Arrange
+            when(userRepository.existsById(1L)).thenReturn(true);
+
+            // Act & Assert
+            assertThatThrownBy(() -> expenseService.getTimeSeriesReport(
+                    1L, LocalDate.of(2020, 1, 1), LocalDate.of(2026, 1, 1), TimeSeriesGranularity.DAY))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("buckets");
+
+            verify(expenseRepository, never()).sumAmountByUserIdAndDateBetweenGroupByBucketAndCurrency(anyLong(), anyString(), any(), any());
         }
     }
 
@@ -514,13 +1054,11 @@ class ExpenseServiceTest {
         void shouldSearchExpensesWithFilters() {
             // Arrange
             Pageable pageable = PageRequest.of(0, 10);
-            List<Expense> expenses = Arrays.asList(testExpense);
-            Page<Expense> expensePage = new PageImpl<>(expenses, pageable, 1);
 
             when(userRepository.existsById(1L)).thenReturn(true);
             when(categoryRepository.findById(1L)).thenReturn(Optional.of(testCategory));
-            when(expenseRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(expensePage);
-            when(entityMapper.toExpenseResponseDto(testExpense)).thenReturn(responseDto);
+            when(expenseRepository.findResponses(any(Specification.class), eq(pageable)))
+                    .thenReturn(List.of(responseDto));
 
             // Act
             Page<ExpenseResponseDto> result = expenseService.searchExpenses(
@@ -541,7 +1079,31 @@ class ExpenseServiceTest {
             assertThat(result.getContent()).hasSize(1);
             verify(userRepository).existsById(1L);
             verify(categoryRepository).findById(1L);
-            verify(expenseRepository).findAll(any(Specification.class), eq(pageable));
+            verify(expenseRepository).findResponses(any(Specification.class), eq(pageable));
+        }
+
+        @Test
+        @DisplayName("Should page newest-first results through expense index IDs")
+        void shouldPageThroughExpenseIndexIds() {
+            // Arrange
+            Pageable pageable = PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "date"));
+            ExpenseResponseDto olderDto = new ExpenseResponseDto();
+            olderDto.setId(2L);
+            ExpenseFilter filter = ExpenseFilter.builder().currency("USD").build();
+
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(expenseColumnStore.findIds(1L, filter, 2L, 2))
+                    .thenReturn(Optional.of(new ExpenseIdPage(List.of(1L, 2L), 5)));
+            when(expenseRepository.findResponses(any(Specification.class), eq(Pageable.unpaged())))
+                    .thenReturn(List.of(olderDto, responseDto));
+
+            // Act
+            Page<ExpenseResponseDto> result = expenseService.searchExpenses(1L, filter, pageable);
+
+            // Assert
+            assertThat(result.getContent()).containsExactly(responseDto, olderDto);
+            assertThat(result.getTotalElements()).isEqualTo(5);
+            verify(expenseRepository, never()).count(any(Specification.class));
         }
 
         @Test
@@ -570,7 +1132,7 @@ class ExpenseServiceTest {
                     .isInstanceOf(IllegalArgumentException.class)
                     .hasMessageContaining("From date cannot be after to date");
 
-            verify(expenseRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+            verify(expenseRepository, never()).findResponses(any(Specification.class), any(Pageable.class));
         }
 
         @Test
@@ -597,7 +1159,288 @@ class ExpenseServiceTest {
                     .isInstanceOf(IllegalArgumentException.class)
                     .hasMessageContaining("Minimum amount cannot be greater than maximum amount");
 
-            verify(expenseRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+            verify(expenseRepository, never()).findResponses(any(Specification.class), any(Pageable.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Search Expenses Slice Tests")
+    class SearchExpensesSliceTests {
+
+        @Test
+        @DisplayName("Should search expense slice without counting totals")
+        void shouldSearchExpenseSliceWithoutCount() {
+            // Arrange
+            Pageable pageable = PageRequest.of(0, 10);
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(expenseRepository.findResponseSlice(any(Specification.class), eq(pageable)))
+                    .thenReturn(new SliceImpl<>(List.of(responseDto), pageable, true));
+
+            // Act
+            Slice<ExpenseResponseDto> result = expenseService.searchExpensesSlice(1L, new ExpenseFilter(), pageable);
+
+            // Assert
+            assertThat(result.getContent()).containsExactly(responseDto);
+            assertThat(result.hasNext()).isTrue();
+            verify(expenseRepository, never()).findResponses(any(Specification.class), any(Pageable.class));
+            verify(expenseRepository, never()).count(any(Specification.class));
+        }
+
+        @Test
+        @DisplayName("Should replace relevance sort with specification ordering")
+        void shouldReplaceRelevanceSortWithSpecificationOrdering() {
+            // Arrange
+            Pageable pageable = PageRequest.of(2, 10, Sort.by("relevance"));
+            ExpenseFilter filter = ExpenseFilter.builder().searchText("coffee").build();
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(expenseRepository.findResponseSlice(any(Specification.class), eq(PageRequest.of(2, 10))))
+                    .thenReturn(new SliceImpl<>(List.of()));
+
+            // Act
+            Slice<ExpenseResponseDto> result = expenseService.searchExpensesSlice(1L, filter, pageable);
+
+            // Assert
+            assertThat(result.getContent()).isEmpty();
+            verify(expenseRepository).findResponseSlice(any(Specification.class), eq(PageRequest.of(2, 10)));
+        }
+
+        @Test
+        @DisplayName("Should apply similarity threshold and match category names in fuzzy mode")
+        void shouldApplySimilarityThresholdInFuzzyMode() {
+            // Arrange
+            Pageable pageable = PageRequest.of(0, 10);
+            ExpenseFilter filter = ExpenseFilter.builder()
+                    .searchText(" starb ")
+                    .searchMode(ExpenseSearchMode.FUZZY)
+                    .similarityThreshold(0.4)
+                    .build();
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(categoryRepository.findIdsByUserIdAndNameTrigramMatch(1L, "starb")).thenReturn(List.of(1L));
+            when(expenseRepository.findResponseSlice(any(Specification.class), eq(pageable)))
+                    .thenReturn(new SliceImpl<>(List.of(responseDto), pageable, false));
+
+            // Act
+            Slice<ExpenseResponseDto> result = expenseService.searchExpensesSlice(1L, filter, pageable);
+
+            // Assert
+            assertThat(result.getContent()).containsExactly(responseDto);
+            InOrder inOrder = inOrder(expenseRepository, categoryRepository);
+            inOrder.verify(expenseRepository).setWordSimilarityThreshold(0.4);
+            inOrder.verify(categoryRepository).findIdsByUserIdAndNameTrigramMatch(1L, "starb");
+            inOrder.verify(expenseRepository).findResponseSlice(any(Specification.class), eq(pageable));
+        }
+
+        @Test
+        @DisplayName("Should not touch trigram settings in full-text mode")
+        void shouldNotApplySimilarityThresholdInFullTextMode() {
+            // Arrange
+            Pageable pageable = PageRequest.of(0, 10);
+            ExpenseFilter filter = ExpenseFilter.builder().searchText("coffee").similarityThreshold(0.4).build();
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(expenseRepository.findResponseSlice(any(Specification.class), eq(pageable)))
+                    .thenReturn(new SliceImpl<>(List.of()));
+
+            // Act
+            expenseService.searchExpensesSlice(1L, filter, pageable);
+
+            // Assert
+            verify(expenseRepository, never()).setWordSimilarityThreshold(anyDouble());
+            verify(categoryRepository, never()).findIdsByUserIdAndNameTrigramMatch(anyLong(), anyString());
+        }
+
+        @Test
+        @DisplayName("Should throw exception when similarity threshold is out of range")
+        void shouldThrowExceptionWhenSimilarityThresholdIsOutOfRange() {
+            // Arrange
+            ExpenseFilter filter = ExpenseFilter.builder()
+                    .searchText("starb")
+                    .searchMode(ExpenseSearchMode.FUZZY)
+                    .similarityThreshold(1.5)
+                    .build();
+            when(userRepository.existsById(1L)).thenReturn(true);
+
+            // Act & Assert
+            assertThatThrownBy(() -> expenseService.searchExpensesSlice(1L, filter, PageRequest.of(0, 10)))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Similarity threshold must be between 0 and 1");
+
+            verify(expenseRepository, never()).findResponseSlice(any(Specification.class), any(Pageable.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Search Expenses By Cursor Tests")
+    class SearchExpensesByCursorTests {
+
+        @Test
+        @DisplayName("Should return next cursor when more rows than page size exist")
+        void shouldReturnNextCursorWhenMoreRowsExist() {
+            // Arrange
+            Sort keysetSort = Sort.by(Sort.Order.desc("date"), Sort.Order.desc("id"));
+
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(expenseRepository.findResponseSlice(any(Specification.class), eq(PageRequest.of(0, 1, keysetSort))))
+                    .thenReturn(new SliceImpl<>(List.of(responseDto), PageRequest.of(0, 1), true));
+
+            // Act
+            CursorPage<ExpenseResponseDto> result = expenseService.searchExpensesByCursor(
+                    1L, new ExpenseFilter(), "", 1);
+
+            // Assert
+            assertThat(result.getContent()).hasSize(1);
+            assertThat(result.isHasNext()).isTrue();
+            assertThat(ExpenseCursor.decode(result.getNextCursor()))
+                    .isEqualTo(new ExpenseCursor(testExpense.getDate(), testExpense.getId()));
+        }
+
+        @Test
+        @DisplayName("Should return last page without cursor")
+        void shouldReturnLastPageWithoutCursor() {
+            // Arrange
+            String cursor = new ExpenseCursor(LocalDate.now(), 10L).encode();
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(expenseRepository.findResponseSlice(any(Specification.class), any(Pageable.class)))
+                    .thenReturn(new SliceImpl<>(List.of(responseDto), PageRequest.of(0, 20), false));
+
+            // Act
+            CursorPage<ExpenseResponseDto> result = expenseService.searchExpensesByCursor(
+                    1L, new ExpenseFilter(), cursor, 20);
+
+            // Assert
+            assertThat(result.getContent()).hasSize(1);
+            assertThat(result.isHasNext()).isFalse();
+            assertThat(result.getNextCursor()).isNull();
+        }
+
+        @Test
+        @DisplayName("Should throw exception when cursor is malformed")
+        void shouldThrowExceptionWhenCursorIsMalformed() {
+            // Act & Assert
+            assertThatThrownBy(() -> expenseService.searchExpensesByCursor(
+                    1L, new ExpenseFilter(), "not-a-cursor", 20))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("Invalid cursor");
+
+            verify(expenseRepository, never()).findResponseSlice(any(Specification.class), any(Pageable.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Export CSV Tests")
+    class ExportCsvTests {
+
+        @Test
+        @DisplayName("Should write streamed rows without loading entities")
+        void shouldWriteStreamedRows() throws Exception {
+            // Arrange
+            responseDto.setDescription("Lunch, with \"friends\"");
+            responseDto.setTags(new LinkedHashSet<>(List.of("restaurant")));
+            responseDto.setCreatedAt(LocalDate.of(2024, 1, 15).atStartOfDay());
+            responseDto.setDate(LocalDate.of(2024, 1, 15));
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(expenseRepository.streamResponses(any(Specification.class), any(Sort.class)))
+                    .thenReturn(Stream.of(responseDto));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            // Act
+            expenseService.exportExpensesToCsv(out, 1L, Optional.empty(), Optional.empty(), Optional.empty(),
+                    Optional.empty(), Optional.empty(), Optional.empty(), Optional.of("USD"), Optional.empty());
+
+            // Assert
+            assertThat(out.toString(StandardCharsets.UTF_8).split("\n")).containsExactly(
+                    "ID,Date,Amount,Currency,Category,Description,Tags,Receipt ID,Created At",
+                    "1,2024-01-15,50.00,USD,Food,\"Lunch, with \"\"friends\"\"\",restaurant,,2024-01-15T00:00");
+            verify(expenseRepository, never()).findAll(any(Specification.class));
+            verifyNoInteractions(expenseCsvExportRepository);
+        }
+
+        @Test
+        @DisplayName("Should export date-filtered expenses with COPY")
+        void shouldCopyDateFilteredExport() throws Exception {
+            // Arrange
+            LocalDate from = LocalDate.of(2024, 1, 1);
+            LocalDate to = LocalDate.of(2024, 1, 31);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            when(userRepository.existsById(1L)).thenReturn(true);
+
+            // Act
+            expenseService.exportExpensesToCsv(out, 1L, Optional.of(from), Optional.of(to), Optional.empty(),
+                    Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+
+            // Assert
+            verify(expenseCsvExportRepository).copyCsv(1L, from, to, out);
+            verify(expenseRepository, never()).streamResponses(any(Specification.class), any(Sort.class));
+        }
+    }
+
+    @Nested
+    @DisplayName("Export NDJSON and Arrow Tests")
+    class ExportNdjsonAndArrowTests {
+
+        @Test
+        @DisplayName("Should write one JSON object per line")
+        void shouldWriteNdjsonLines() throws Exception {
+            // Arrange
+            ExpenseResponseDto second = new ExpenseResponseDto();
+            second.setId(2L);
+            second.setAmount(new BigDecimal("12.50"));
+            second.setCurrency("EUR");
+            second.setDate(LocalDate.of(2024, 1, 14));
+            second.setDescription("Line\nbreak");
+            responseDto.setDate(LocalDate.of(2024, 1, 15));
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(expenseRepository.streamResponses(any(Specification.class), any(Sort.class)))
+                    .thenReturn(Stream.of(responseDto, second));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            // Act
+            expenseService.exportExpensesToNdjson(out, 1L, ExpenseFilter.builder().currency("USD").build());
+
+            // Assert
+            String ndjson = out.toString(StandardCharsets.UTF_8);
+            assertThat(ndjson).endsWith("\n");
+            String[] lines = ndjson.split("\n");
+            assertThat(lines).hasSize(2);
+            JsonNode first = objectMapper.readTree(lines[0]);
+            assertThat(first.get("id").asLong()).isEqualTo(1L);
+            assertThat(first.get("amount").decimalValue()).isEqualByComparingTo("50.00");
+            assertThat(first.get("date").asText()).isEqualTo("2024-01-15");
+            assertThat(objectMapper.readTree(lines[1]).get("description").asText()).isEqualTo("Line\nbreak");
+        }
+
+        @Test
+        @DisplayName("Should frame the Arrow stream with a schema, record batch and end marker")
+        void shouldWriteArrowStream() throws Exception {
+            // Arrange
+            responseDto.setTags(new LinkedHashSet<>(List.of("restaurant")));
+            responseDto.setCreatedAt(LocalDate.of(2024, 1, 15).atStartOfDay());
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(expenseRepository.streamResponses(any(Specification.class), any(Sort.class)))
+                    .thenReturn(Stream.of(responseDto));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            // Act
+            expenseService.exportExpensesToArrow(out, 1L, ExpenseFilter.builder().build());
+
+            // Assert
+            ByteBuffer stream = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+            assertThat(stream.limit() % 8).isZero();
+            int messages = 0;
+            while (true) {
+                assertThat(stream.getInt()).isEqualTo(0xFFFFFFFF);
+                int metadataLength = stream.getInt();
+                if (metadataLength == 0) {
+                    break;
+                }
+                assertThat(metadataLength % 8).isZero();
+                Message message = Message.getRootAsMessage(
+                        stream.slice(stream.position(), metadataLength).order(ByteOrder.LITTLE_ENDIAN));
+                stream.position(stream.position() + metadataLength + (int) message.bodyLength());
+                messages++;
+            }
+            assertThat(messages).isEqualTo(2);
+            assertThat(stream.hasRemaining()).isFalse();
+            verifyNoInteractions(expenseCsvExportRepository);
         }
     }
 }
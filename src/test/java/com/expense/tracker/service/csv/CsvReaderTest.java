@@ -0,0 +1,162 @@
+package com.expense.tracker.service.csv;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("CsvReader Unit Tests")
+class CsvReaderTest {
+
+    @Test
+    @DisplayName("Should split plain fields and keep empty ones")
+    void shouldSplitPlainFields() throws IOException {
+        // Act
+        List<List<String>> records = readAll("a,b,,d\n,,\n");
+
+        // Assert
+        assertThat(records).containsExactly(List.of("a", "b", "", "d"), List.of("", "", ""));
+    }
+
+    @Test
+    @DisplayName("Should keep separators inside quoted fields")
+    void shouldReadQuotedFields() throws IOException {
+        // Act
+        List<List<String>> records = readAll("\"Rent, Utilities\",\"plain\",x\n");
+
+        // Assert
+        assertThat(records).containsExactly(List.of("Rent, Utilities", "plain", "x"));
+    }
+
+    @Test
+    @DisplayName("Should unescape doubled quotes")
+    void shouldUnescapeDoubledQuotes() throws IOException {
+        // Act
+        List<List<String>> records = readAll("\"Coffee at the \"\"usual\"\" place\",\"\"\"\"\n");
+
+        // Assert
+        assertThat(records).containsExactly(List.of("Coffee at the \"usual\" place", "\""));
+    }
+
+    @Test
+    @DisplayName("Should keep CRLF and LF inside quoted fields and count their lines")
+    void shouldReadEmbeddedLineBreaks() throws IOException {
+        // Arrange
+        CsvReader reader = new CsvReader(new StringReader("id,note\r\n1,\"first\r\nsecond\nthird\"\r\n2,last\r\n"));
+
+        // Act
+        List<String> header = reader.readRecord();
+        List<String> first = reader.readRecord();
+        long firstLine = reader.recordLine();
+        List<String> second = reader.readRecord();
+        long secondLine = reader.recordLine();
+
+        // Assert
+        assertThat(header).containsExactly("id", "note");
+        assertThat(first).containsExactly("1", "first\r\nsecond\nthird");
+        assertThat(firstLine).isEqualTo(2);
+        assertThat(second).containsExactly("2", "last");
+        assertThat(secondLine).isEqualTo(5);
+        assertThat(reader.readRecord()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should skip blank lines and accept a missing final line break")
+    void shouldSkipBlankLines() throws IOException {
+        // Arrange
+        CsvReader reader = new CsvReader(new StringReader("a\r\n\r\n\nb"));
+
+        // Act & Assert
+        assertThat(reader.readRecord()).containsExactly("a");
+        assertThat(reader.readRecord()).containsExactly("b");
+        assertThat(reader.recordLine()).isEqualTo(4);
+        assertThat(reader.readRecord()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should parse the same records when the input arrives one character at a time")
+    void shouldReadAcrossBufferRefills() throws IOException {
+        // Arrange
+        String csv = "\"a \"\"b\"\"\",\"c\r\nd\"\r\ne,f\r";
+        Reader trickle = new Reader() {
+            private final StringReader delegate = new StringReader(csv);
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                return delegate.read(buffer, offset, Math.min(length, 1));
+            }
+
+            @Override
+            public void close() {
+                delegate.close();
+            }
+        };
+
+        // Act
+        List<List<String>> records = readAll(trickle);
+
+        // Assert
+        assertThat(records).containsExactly(List.of("a \"b\"", "c\r\nd"), List.of("e", "f"));
+    }
+
+    @Test
+    @DisplayName("Should reject an unterminated quoted field with its starting line")
+    void shouldRejectUnterminatedQuote() throws IOException {
+        // Arrange
+        CsvReader reader = new CsvReader(new StringReader("a,b\n1,\"never closed\n2,x\n"));
+        reader.readRecord();
+
+        // Act & Assert
+        assertThatThrownBy(reader::readRecord)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unterminated")
+                .hasMessageContaining("line 2");
+    }
+
+    @Test
+    @DisplayName("Should reject a record longer than the size cap")
+    void shouldRejectOversizedRecord() {
+        // Arrange
+        String field = "x".repeat((1 << 20) + 1);
+        CsvReader reader = new CsvReader(new StringReader("\"" + field + "\"\n"));
+
+        // Act & Assert
+        assertThatThrownBy(reader::readRecord)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("exceeds");
+    }
+
+    @Test
+    @DisplayName("Should accept a record just under the size cap")
+    void shouldAcceptRecordUnderCap() throws IOException {
+        // Arrange
+        String field = "x".repeat((1 << 20) - 1);
+
+        // Act
+        List<List<String>> records = readAll(field + "\n");
+
+        // Assert
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).get(0)).hasSize((1 << 20) - 1);
+    }
+
+    private static List<List<String>> readAll(String csv) throws IOException {
+        return readAll(new StringReader(csv));
+    }
+
+    private static List<List<String>> readAll(Reader input) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(input)) {
+            for (List<String> record = reader.readRecord(); record != null; record = reader.readRecord()) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,275 @@
+package com.expense.tracker.service.csv;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("CsvRowEncoder Unit Tests")
+class CsvRowEncoderTest {
+
+    @Nested
+    @DisplayName("Text fields")
+    class TextTests {
+
+        @Test
+        @DisplayName("Should leave plain text unquoted")
+        void shouldWritePlainText() throws IOException {
+            // Act
+            String csv = encode(encoder -> encoder.text("Lunch").text("Café 🍎").endRow());
+
+            // Assert
+            assertThat(csv).isEqualTo("Lunch,Café 🍎\n");
+        }
+
+        @Test
+        @DisplayName("Should quote and double embedded quotes")
+        void shouldEscapeQuotes() throws IOException {
+            // Act
+            String csv = encode(encoder -> encoder.text("the \"usual\" place").text("\"").endRow());
+
+            // Assert
+            assertThat(csv).isEqualTo("\"the \"\"usual\"\" place\",\"\"\"\"\n");
+        }
+
+        @Test
+        @DisplayName("Should quote commas, CR and LF")
+        void shouldQuoteSeparatorsAndLineBreaks() throws IOException {
+            // Act
+            String csv = encode(encoder -> encoder.text("Rent, Utilities").text("a\r\nb").text("c\rd").text("e\nf")
+                    .endRow());
+
+            // Assert
+            assertThat(csv).isEqualTo("\"Rent, Utilities\",\"a\r\nb\",\"c\rd\",\"e\nf\"\n");
+        }
+
+        @Test
+        @DisplayName("Should write null fields empty and keep their separators")
+        void shouldWriteNullsEmpty() throws IOException {
+            // Act
+            String csv = encode(encoder -> encoder.number(1L).text(null).decimal(null).date(null).dateTime(null)
+                    .joined(null, "|").text("")
+                    .endRow());
+
+            // Assert
+            assertThat(csv).isEqualTo("1,,,,,,\n");
+        }
+
+        @Test
+        @DisplayName("Should write text longer than the buffer intact")
+        void shouldWriteTextLongerThanBuffer() throws IOException {
+            // Arrange
+            String plain = "x".repeat(20_000);
+            String quoted = "y\"".repeat(10_000);
+
+            // Act
+            String csv = encode(encoder -> encoder.text(plain).text(quoted).endRow());
+
+            // Assert
+            assertThat(csv).isEqualTo(plain + ",\"" + quoted.replace("\"", "\"\"") + "\"\n");
+        }
+    }
+
+    @Nested
+    @DisplayName("Joined fields")
+    class JoinedTests {
+
+        @Test
+        @DisplayName("Should join values into one unquoted field")
+        void shouldJoinPlainValues() throws IOException {
+            // Act
+            String csv = encode(encoder -> encoder.joined(new LinkedHashSet<>(List.of("work", "travel")), "|")
+                    .joined(Set.of(), "|")
+                    .endRow());
+
+            // Assert
+            assertThat(csv).isEqualTo("work|travel,\n");
+        }
+
+        @Test
+        @DisplayName("Should quote the whole field when any value needs it")
+        void shouldQuoteJoinedValues() throws IOException {
+            // Act
+            String csv = encode(encoder -> encoder.joined(List.of("a", "b,c", "say \"hi\""), "|").endRow());
+
+            // Assert
+            assertThat(csv).isEqualTo("\"a|b,c|say \"\"hi\"\"\"\n");
+        }
+
+        @Test
+        @DisplayName("Should quote the field when the delimiter needs it")
+        void shouldQuoteDelimiter() throws IOException {
+            // Act
+            String csv = encode(encoder -> encoder.joined(List.of("a", "b"), ",").endRow());
+
+            // Assert
+            assertThat(csv).isEqualTo("\"a,b\"\n");
+        }
+    }
+
+    @Nested
+    @DisplayName("Numbers and dates")
+    class NumberAndDateTests {
+
+        @Test
+        @DisplayName("Should write longs and decimals as their toString forms")
+        void shouldWriteNumbers() throws IOException {
+            // Arrange
+            List<BigDecimal> decimals = List.of(new BigDecimal("0.00"), new BigDecimal("0.05"),
+                    new BigDecimal("-0.05"), new BigDecimal("-1234567890.05"), new BigDecimal("42"),
+                    new BigDecimal("1E+3"), new BigDecimal("123456789012345678.9"),
+                    new BigDecimal(BigInteger.TEN.pow(30), 2), new BigDecimal("7.500"));
+
+            // Act
+            String csv = encode(encoder -> {
+                encoder.number(0L).number(-7L).number(Long.MAX_VALUE).number(Long.MIN_VALUE);
+                for (BigDecimal decimal : decimals) {
+                    encoder.decimal(decimal);
+                }
+                encoder.endRow();
+            });
+
+            // Assert
+            List<String> expected = new ArrayList<>(List.of("0", "-7", String.valueOf(Long.MAX_VALUE),
+                    String.valueOf(Long.MIN_VALUE)));
+            decimals.forEach(decimal -> expected.add(decimal.toString()));
+            assertThat(csv).isEqualTo(String.join(",", expected) + "\n");
+        }
+
+        @Test
+        @DisplayName("Should write dates as yyyy-MM-dd, padded and signed like LocalDate")
+        void shouldWriteDates() throws IOException {
+            // Arrange
+            List<LocalDate> dates = List.of(LocalDate.of(2024, 1, 5), LocalDate.of(1000, 12, 31),
+                    LocalDate.of(999, 1, 1), LocalDate.of(-5, 3, 4), LocalDate.of(10_000, 1, 1));
+
+            // Act
+            String csv = encode(encoder -> {
+                for (LocalDate date : dates) {
+                    encoder.date(date);
+                }
+                encoder.endRow();
+            });
+
+            // Assert
+            assertThat(csv).isEqualTo("2024-01-05,1000-12-31,0999-01-01,-0005-03-04,+10000-01-01\n");
+        }
+
+        @Test
+        @DisplayName("Should write timestamps like LocalDateTime, including fractional seconds")
+        void shouldWriteTimestamps() throws IOException {
+            // Arrange
+            List<LocalDateTime> timestamps = List.of(
+                    LocalDateTime.of(2024, 1, 15, 8, 30),
+                    LocalDateTime.of(2024, 1, 15, 8, 30, 5),
+                    LocalDateTime.of(2024, 1, 15, 8, 30, 0, 100_000_000),
+                    LocalDateTime.of(2024, 1, 15, 8, 30, 5, 120_000),
+                    LocalDateTime.of(2024, 1, 15, 8, 30, 5, 123_456_789),
+                    LocalDateTime.of(2024, 1, 15, 8, 30, 5, 1));
+
+            // Act
+            String csv = encode(encoder -> {
+                for (LocalDateTime timestamp : timestamps) {
+                    encoder.dateTime(timestamp);
+                }
+                encoder.endRow();
+            });
+
+            // Assert
+            assertThat(csv).isEqualTo("2024-01-15T08:30,2024-01-15T08:30:05,2024-01-15T08:30:00.100,"
+                    + "2024-01-15T08:30:05.000120,2024-01-15T08:30:05.123456789,2024-01-15T08:30:05.000000001\n");
+            assertThat(csv.strip().split(",")).containsExactly(
+                    timestamps.stream().map(LocalDateTime::toString).toArray(String[]::new));
+        }
+    }
+
+    @Test
+    @DisplayName("Should match the String.format export rows on random expenses")
+    void shouldMatchFormattedRows() throws IOException {
+        // Arrange
+        Random random = new Random(22);
+        StringWriter actual = new StringWriter();
+        StringBuilder expected = new StringBuilder();
+        CsvRowEncoder encoder = new CsvRowEncoder(actual);
+
+        // Act
+        for (int i = 0; i < 200_000; i++) {
+            long id = random.nextLong(1, Long.MAX_VALUE);
+            LocalDate date = LocalDate.ofEpochDay(random.nextInt(-200_000, 200_000));
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong(-10_000_000_000L, 10_000_000_000L), 2);
+            String currency = randomText(random);
+            String category = random.nextInt(10) == 0 ? null : randomText(random);
+            String description = random.nextInt(4) == 0 ? null : randomText(random);
+            List<String> tags = new ArrayList<>();
+            for (int t = random.nextInt(4); t > 0; t--) {
+                tags.add(randomText(random));
+            }
+            String receiptId = random.nextBoolean() ? null : randomText(random);
+            LocalDateTime createdAt = date.atStartOfDay().plusNanos(random.nextLong(86_400_000_000_000L)
+                    / (random.nextBoolean() ? 1 : 1_000_000) * (random.nextBoolean() ? 1 : 1_000));
+
+            encoder.number(id).date(date).decimal(amount).text(currency).text(category).text(description)
+                    .joined(tags, ExpenseCsvFormat.TAG_SEPARATOR).text(receiptId).dateTime(createdAt).endRow();
+            expected.append(String.format("%s,%s,%s,%s,%s,%s,%s,%s,%s\n",
+                    id, date, amount, escape(currency), escape(category), escape(description),
+                    tags.isEmpty() ? "" : escape(String.join(ExpenseCsvFormat.TAG_SEPARATOR, tags)),
+                    escape(receiptId), createdAt));
+        }
+        encoder.flush();
+
+        // Assert
+        assertThat(actual.toString()).isEqualTo(expected.toString());
+    }
+
+    @FunctionalInterface
+    private interface Encoding {
+        void write(CsvRowEncoder encoder) throws IOException;
+    }
+
+    private static String encode(Encoding encoding) throws IOException {
+        StringWriter out = new StringWriter();
+        CsvRowEncoder encoder = new CsvRowEncoder(out);
+        encoding.write(encoder);
+        encoder.flush();
+        return out.toString();
+    }
+
+    private static String randomText(Random random) {
+        String alphabet = "abcXYZ 019é🍎,\"\r\n|";
+        StringBuilder text = new StringBuilder();
+        for (int i = random.nextInt(12); i > 0; i--) {
+            int start = random.nextInt(alphabet.length());
+            if (Character.isLowSurrogate(alphabet.charAt(start))) {
+                start--;
+            }
+            text.appendCodePoint(alphabet.codePointAt(start));
+        }
+        return text.toString();
+    }
+
+    /**
+     * The escaping the export used before the encoder
+     */
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,258 @@
+package com.expense.tracker.service.export;
+
+import com.expense.tracker.dto.ExpenseResponseDto;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.TimeStampMicroVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("ExpenseArrowWriter Unit Tests")
+class ExpenseArrowWriterTest {
+
+    private final BufferAllocator allocator = new RootAllocator();
+
+    @AfterEach
+    void tearDown() {
+        // Fails the test if a reader left buffers unreleased
+        allocator.close();
+    }
+
+    @Test
+    @DisplayName("Should declare the typed expense schema")
+    void shouldDeclareSchema() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        new ExpenseArrowWriter(out).finish();
+
+        // Assert
+        try (ArrowStreamReader reader = reader(out)) {
+            List<Field> fields = reader.getVectorSchemaRoot().getSchema().getFields();
+            assertThat(fields).extracting(Field::getName).containsExactly(
+                    "id", "categoryId", "categoryName", "amount", "currency", "date", "description",
+                    "receiptMongoId", "tags", "createdAt", "updatedAt");
+            assertThat(fields).allMatch(Field::isNullable);
+            assertThat(fields.get(0).getType()).isEqualTo(new ArrowType.Int(64, true));
+            assertThat(fields.get(2).getType()).isEqualTo(ArrowType.Utf8.INSTANCE);
+            assertThat(fields.get(3).getType()).isEqualTo(new ArrowType.Decimal(12, 2, 128));
+            assertThat(fields.get(5).getType()).isEqualTo(new ArrowType.Date(DateUnit.DAY));
+            assertThat(fields.get(8).getType()).isEqualTo(ArrowType.List.INSTANCE);
+            assertThat(fields.get(8).getChildren()).singleElement()
+                    .extracting(Field::getType).isEqualTo(ArrowType.Utf8.INSTANCE);
+            assertThat(fields.get(9).getType()).isEqualTo(new ArrowType.Timestamp(TimeUnit.MICROSECOND, null));
+            assertThat(reader.loadNextBatch()).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Should split rows into record batches of the configured size")
+    void shouldWriteRecordBatches() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExpenseArrowWriter writer = new ExpenseArrowWriter(out, 3);
+
+        // Act
+        for (long id = 1; id <= 7; id++) {
+            writer.write(expense(id));
+        }
+        writer.finish();
+
+        // Assert
+        List<Integer> batchSizes = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        try (ArrowStreamReader reader = reader(out)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            while (reader.loadNextBatch()) {
+                batchSizes.add(root.getRowCount());
+                BigIntVector id = (BigIntVector) root.getVector("id");
+                for (int row = 0; row < root.getRowCount(); row++) {
+                    ids.add(id.get(row));
+                }
+            }
+        }
+        assertThat(batchSizes).containsExactly(3, 3, 1);
+        assertThat(ids).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+    }
+
+    @Test
+    @DisplayName("Should mark missing values as null in each column's validity bitmap")
+    void shouldWriteNulls() throws IOException {
+        // Arrange
+        ExpenseResponseDto full = expense(1L);
+        full.setReceiptMongoId("65a1f0c2e4b0a1b2c3d4e5f6");
+        ExpenseResponseDto sparse = new ExpenseResponseDto();
+        sparse.setId(2L);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExpenseArrowWriter writer = new ExpenseArrowWriter(out);
+
+        // Act
+        // More than 8 rows, so the nulls span several validity bytes
+        for (int i = 0; i < 5; i++) {
+            writer.write(full);
+            writer.write(sparse);
+        }
+        writer.finish();
+
+        // Assert
+        try (ArrowStreamReader reader = reader(out)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertThat(reader.loadNextBatch()).isTrue();
+            assertThat(root.getRowCount()).isEqualTo(10);
+            assertThat(root.getVector("id").getNullCount()).isZero();
+            for (String column : List.of("categoryId", "categoryName", "amount", "currency", "date", "description",
+                    "receiptMongoId", "tags", "createdAt", "updatedAt")) {
+                assertThat(root.getVector(column).getNullCount()).as(column).isEqualTo(5);
+                for (int row = 0; row < 10; row++) {
+                    assertThat(root.getVector(column).isNull(row)).as(column + " row " + row).isEqualTo(row % 2 == 1);
+                }
+            }
+            assertThat(((VarCharVector) root.getVector("receiptMongoId")).getObject(8).toString())
+                    .isEqualTo("65a1f0c2e4b0a1b2c3d4e5f6");
+            assertThat(reader.loadNextBatch()).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Should encode amounts, dates, timestamps and text exactly")
+    void shouldEncodeValues() throws IOException {
+        // Arrange
+        ExpenseResponseDto expense = expense(1L);
+        expense.setAmount(new BigDecimal("-1234567890.05"));
+        expense.setDate(LocalDate.of(1969, 12, 31));
+        expense.setCategoryName("Café – Äpfel 🍎");
+        expense.setCreatedAt(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 1_000));
+        expense.setUpdatedAt(LocalDateTime.of(2024, 1, 15, 8, 30, 15, 123_456_789));
+        ExpenseResponseDto small = expense(2L);
+        small.setAmount(new BigDecimal("7.5"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExpenseArrowWriter writer = new ExpenseArrowWriter(out);
+
+        // Act
+        writer.write(expense);
+        writer.write(small);
+        writer.finish();
+
+        // Assert
+        try (ArrowStreamReader reader = reader(out)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertThat(reader.loadNextBatch()).isTrue();
+            DecimalVector amount = (DecimalVector) root.getVector("amount");
+            assertThat(amount.getObject(0)).isEqualTo(new BigDecimal("-1234567890.05"));
+            assertThat(amount.getObject(1)).isEqualTo(new BigDecimal("7.50"));
+            assertThat(((DateDayVector) root.getVector("date")).get(0)).isEqualTo(-1);
+            TimeStampMicroVector createdAt = (TimeStampMicroVector) root.getVector("createdAt");
+            assertThat(createdAt.get(0)).isEqualTo(-999_999L);
+            TimeStampMicroVector updatedAt = (TimeStampMicroVector) root.getVector("updatedAt");
+            // Nanoseconds are truncated to microseconds
+            assertThat(updatedAt.get(0)).isEqualTo(1_705_307_415_123_456L);
+            assertThat(updatedAt.getObject(0)).isEqualTo(LocalDateTime.of(2024, 1, 15, 8, 30, 15, 123_456_000));
+            assertThat(new String(((VarCharVector) root.getVector("categoryName")).get(0), StandardCharsets.UTF_8))
+                    .isEqualTo("Café – Äpfel 🍎");
+            assertThat(((VarCharVector) root.getVector("currency")).getObject(1).toString()).isEqualTo("USD");
+        }
+    }
+
+    @Test
+    @DisplayName("Should write tags as list offsets into one string column")
+    void shouldEncodeTagLists() throws IOException {
+        // Arrange
+        ExpenseResponseDto twoTags = expense(1L);
+        twoTags.setTags(new LinkedHashSet<>(List.of("work", "travel")));
+        ExpenseResponseDto noTags = expense(2L);
+        noTags.setTags(Set.of());
+        ExpenseResponseDto nullTags = expense(3L);
+        nullTags.setTags(null);
+        ExpenseResponseDto oneTag = expense(4L);
+        oneTag.setTags(Set.of("family"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExpenseArrowWriter writer = new ExpenseArrowWriter(out, 2);
+
+        // Act
+        for (ExpenseResponseDto expense : List.of(twoTags, noTags, nullTags, oneTag)) {
+            writer.write(expense);
+        }
+        writer.finish();
+
+        // Assert
+        try (ArrowStreamReader reader = reader(out)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            ListVector tags = (ListVector) root.getVector("tags");
+
+            assertThat(reader.loadNextBatch()).isTrue();
+            assertThat(offsets(tags, 2)).containsExactly(0, 2, 2);
+            assertThat(tags.getObject(0)).extracting(Object::toString).containsExactly("work", "travel");
+            assertThat(tags.getObject(1)).isEmpty();
+            assertThat(tags.getDataVector().getValueCount()).isEqualTo(2);
+
+            // The second batch's offsets start again from zero
+            assertThat(reader.loadNextBatch()).isTrue();
+            assertThat(offsets(tags, 2)).containsExactly(0, 0, 1);
+            assertThat(tags.isNull(0)).isTrue();
+            assertThat(tags.getObject(1)).extracting(Object::toString).containsExactly("family");
+            assertThat(reader.loadNextBatch()).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a non-positive batch size")
+    void shouldRejectBatchSize() {
+        // Act & Assert
+        assertThatThrownBy(() -> new ExpenseArrowWriter(new ByteArrayOutputStream(), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ArrowStreamReader reader(ByteArrayOutputStream out) {
+        return new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator);
+    }
+
+    private static List<Integer> offsets(ListVector vector, int rows) {
+        List<Integer> offsets = new ArrayList<>();
+        for (int i = 0; i <= rows; i++) {
+            offsets.add(vector.getOffsetBuffer().getInt((long) i * ListVector.OFFSET_WIDTH));
+        }
+        return offsets;
+    }
+
+    private static ExpenseResponseDto expense(long id) {
+        ExpenseResponseDto expense = new ExpenseResponseDto();
+        expense.setId(id);
+        expense.setCategoryId(10L);
+        expense.setCategoryName("Food");
+        expense.setAmount(new BigDecimal("50.00"));
+        expense.setCurrency("USD");
+        expense.setDate(LocalDate.of(2024, 1, 15));
+        expense.setDescription("Lunch");
+        expense.setTags(Set.of("restaurant"));
+        expense.setCreatedAt(LocalDateTime.of(2024, 1, 15, 8, 30));
+        expense.setUpdatedAt(LocalDateTime.of(2024, 1, 15, 8, 30));
+        return expense;
+    }
+}
@@ -0,0 +1,177 @@
+package com.expense.tracker.service.export;
+
+import com.expense.tracker.service.csv.CsvRowEncoder;
+import com.github.luben.zstd.ZstdInputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("ExportCompression Unit Tests")
+class ExportCompressionTest {
+
+    @Nested
+    @DisplayName("Accept-Encoding negotiation")
+    class NegotiationTests {
+
+        @ParameterizedTest
+        @CsvSource(delimiter = '|', nullValues = "null", value = {
+                "gzip|GZIP",
+                "GZIP|GZIP",
+                "x-gzip|GZIP",
+                "gzip, deflate, br|GZIP",
+                "br;q=1.0, gzip;q=0.5|GZIP",
+                " deflate ; q=0.8 ,  gzip ; q=0.1 |GZIP",
+                "gzip;q=0|NONE",
+                "gzip;q=0.000|NONE",
+                "gzip;q=high|NONE",
+                "deflate, br, zstd|NONE",
+                "identity|NONE",
+                "''|NONE",
+                "null|NONE"
+        })
+        @DisplayName("Should choose gzip only when the client accepts it")
+        void shouldNegotiate(String acceptEncoding, ExportCompression expected) {
+            // Act & Assert
+            assertThat(ExportCompression.negotiate(acceptEncoding)).isEqualTo(expected);
+        }
+    }
+
+    @Nested
+    @DisplayName("Compressed streams")
+    class StreamTests {
+
+        @ParameterizedTest
+        @EnumSource(ExportCompression.class)
+        @DisplayName("Should round-trip a CSV export body")
+        void shouldRoundTripExport(ExportCompression compression) throws IOException {
+            // Arrange
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+            // Act
+            try (Writer writer = new OutputStreamWriter(compression.wrap(compressed), StandardCharsets.UTF_8)) {
+                writeExport(writer, 50_000);
+            }
+
+            // Assert
+            StringWriter expected = new StringWriter();
+            writeExport(expected, 50_000);
+            assertThat(new String(decompress(compression, compressed.toByteArray()), StandardCharsets.UTF_8))
+                    .isEqualTo(expected.toString());
+            if (compression != ExportCompression.NONE) {
+                assertThat(compressed.size()).isLessThan(expected.toString().length() / 3);
+            }
+        }
+
+        @Test
+        @DisplayName("Should pass an uncompressed stream through unwrapped")
+        void shouldNotWrapUncompressed() throws IOException {
+            // Arrange
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            // Act & Assert
+            assertThat(ExportCompression.NONE.wrap(out)).isSameAs(out);
+        }
+
+        @ParameterizedTest
+        @EnumSource(value = ExportCompression.class, names = {"GZIP", "ZSTD"})
+        @DisplayName("Should close the underlying stream")
+        void shouldCloseUnderlyingStream(ExportCompression compression) throws IOException {
+            // Arrange
+            boolean[] closed = new boolean[1];
+            OutputStream out = new FilterOutputStream(new ByteArrayOutputStream()) {
+                @Override
+                public void close() {
+                    closed[0] = true;
+                }
+            };
+
+            // Act
+            compression.wrap(out).close();
+
+            // Assert
+            assertThat(closed[0]).isTrue();
+        }
+
+        @Test
+        @DisplayName("Should let a client decompress the first chunk before the export ends")
+        void shouldFlushChunksAsTheyFill() throws IOException {
+            // Arrange
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            byte[] row = "1,2024-01-15,12.50,USD,Food,Lunch,,,2024-01-15T12:00\n".getBytes(StandardCharsets.UTF_8);
+            OutputStream out = ExportCompression.GZIP.wrap(compressed);
+
+            // Act
+            // One row at a time, as COPY hands them over, until just past the first 64 KB chunk
+            int written = 0;
+            while (written <= 64 * 1024) {
+                out.write(row);
+                written += row.length;
+            }
+            byte[] soFar = compressed.toByteArray();
+
+            // Assert
+            // The stream is unfinished, so read until the truncated end
+            ByteArrayOutputStream decompressed = new ByteArrayOutputStream();
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(soFar))) {
+                in.transferTo(decompressed);
+                fail("An unfinished gzip stream should end early");
+            } catch (EOFException expected) {
+                // All complete blocks were read
+            }
+            assertThat(decompressed.size()).isEqualTo(64 * 1024);
+            out.close();
+        }
+    }
+
+    private static byte[] decompress(ExportCompression compression, byte[] bytes) throws IOException {
+        InputStream in = switch (compression) {
+            case NONE -> new ByteArrayInputStream(bytes);
+            case GZIP -> new GZIPInputStream(new ByteArrayInputStream(bytes));
+            case ZSTD -> new ZstdInputStream(new ByteArrayInputStream(bytes));
+        };
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Rows shaped like the CSV export, repetitive enough to compress as real exports do
+     */
+    private static void writeExport(Writer out, int rows) throws IOException {
+        Random random = new Random(24);
+        List<String> categories = List.of("Food & Dining", "Transportation", "Rent, Utilities", "Shopping");
+        CsvRowEncoder encoder = new CsvRowEncoder(out);
+        for (int i = 1; i <= rows; i++) {
+            encoder.number((long) i)
+                    .date(LocalDate.of(2024, 1, 1).plusDays(random.nextInt(366)))
+                    .decimal(BigDecimal.valueOf(random.nextInt(100_000), 2))
+                    .text("USD")
+                    .text(categories.get(random.nextInt(categories.size())))
+                    .text("Expense " + random.nextInt(500))
+                    .endRow();
+        }
+        encoder.flush();
+    }
+}
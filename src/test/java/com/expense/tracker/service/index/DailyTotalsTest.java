@@ -0,0 +1,170 @@
+package com.expense.tracker.service.index;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("DailyTotals Unit Tests")
+class DailyTotalsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 15);
+
+    @Nested
+    @DisplayName("Range sums")
+    class RangeSumTests {
+
+        @Test
+        @DisplayName("Should sum prefixes and inner ranges of loaded days")
+        void shouldSumLoadedRanges() {
+            // Arrange
+            DailyTotals totals = new DailyTotals();
+            totals.load(
+                    new LocalDate[]{DAY, DAY.plusDays(1), DAY.plusDays(3), DAY},
+                    new BigDecimal[]{amount("10.00"), amount("2.50"), amount("0.01"), amount("5.00")});
+
+            // Act & Assert
+            assertThat(totals.total(DAY, DAY)).isEqualTo(amount("15.00"));
+            assertThat(totals.total(DAY, DAY.plusDays(1))).isEqualTo(amount("17.50"));
+            assertThat(totals.total(DAY.plusDays(1), DAY.plusDays(3))).isEqualTo(amount("2.51"));
+            assertThat(totals.total(DAY.plusDays(2), DAY.plusDays(2))).isEqualTo(amount("0.00"));
+        }
+
+        @Test
+        @DisplayName("Should clip ranges that straddle the window edges")
+        void shouldClipRangesAtWindowEdges() {
+            // Arrange
+            DailyTotals totals = new DailyTotals();
+            totals.load(
+                    new LocalDate[]{DAY, DAY.plusDays(10)},
+                    new BigDecimal[]{amount("1.00"), amount("2.00")});
+
+            // Act & Assert
+            assertThat(totals.total(DAY.minusYears(5), DAY)).isEqualTo(amount("1.00"));
+            assertThat(totals.total(DAY.plusDays(5), DAY.plusYears(5))).isEqualTo(amount("2.00"));
+            assertThat(totals.total(DAY.minusYears(5), DAY.plusYears(5))).isEqualTo(amount("3.00"));
+        }
+
+        @Test
+        @DisplayName("Should return zero for ranges outside the window, reversed ranges and an empty instance")
+        void shouldReturnZeroOutsideWindow() {
+            // Arrange
+            DailyTotals empty = new DailyTotals();
+            DailyTotals totals = new DailyTotals();
+            totals.load(new LocalDate[]{DAY}, new BigDecimal[]{amount("1.00")});
+
+            // Act & Assert
+            assertThat(empty.total(DAY.minusYears(1), DAY.plusYears(1))).isEqualTo(amount("0.00"));
+            assertThat(totals.total(DAY.minusYears(3), DAY.minusYears(2))).isEqualTo(amount("0.00"));
+            assertThat(totals.total(DAY.plusYears(3), DAY.plusYears(4))).isEqualTo(amount("0.00"));
+            assertThat(totals.total(DAY.plusDays(1), DAY.minusDays(1))).isEqualTo(amount("0.00"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Updates")
+    class UpdateTests {
+
+        @Test
+        @DisplayName("Should grow the window backwards and forwards and keep earlier totals")
+        void shouldGrowWindow() {
+            // Arrange
+            DailyTotals totals = new DailyTotals();
+            totals.load(new LocalDate[]{DAY}, new BigDecimal[]{amount("1.00")});
+
+            // Act
+            totals.add(DAY.minusYears(3), amount("10.00"));
+            totals.add(DAY.plusYears(4), amount("100.00"));
+
+            // Assert
+            assertThat(totals.total(DAY.minusYears(3), DAY.minusYears(3))).isEqualTo(amount("10.00"));
+            assertThat(totals.total(DAY, DAY)).isEqualTo(amount("1.00"));
+            assertThat(totals.total(DAY.plusYears(4), DAY.plusYears(4))).isEqualTo(amount("100.00"));
+            assertThat(totals.total(DAY.minusYears(10), DAY.plusYears(10))).isEqualTo(amount("111.00"));
+            assertThat(totals.total(DAY.minusYears(3).plusDays(1), DAY.plusYears(4).minusDays(1)))
+                    .isEqualTo(amount("1.00"));
+        }
+
+        @Test
+        @DisplayName("Should start a window on the first add")
+        void shouldStartWindowOnFirstAdd() {
+            // Arrange
+            DailyTotals totals = new DailyTotals();
+
+            // Act
+            totals.add(DAY, amount("4.20"));
+
+            // Assert
+            assertThat(totals.total(DAY.minusDays(1), DAY.plusDays(1))).isEqualTo(amount("4.20"));
+        }
+
+        @Test
+        @DisplayName("Should subtract negative deltas from deleted and moved expenses")
+        void shouldApplyNegativeDeltas() {
+            // Arrange
+            DailyTotals totals = new DailyTotals();
+            totals.load(
+                    new LocalDate[]{DAY, DAY.plusDays(1)},
+                    new BigDecimal[]{amount("30.00"), amount("5.00")});
+
+            // Act
+            // Delete 10.00 on DAY, move 5.00 from DAY + 1 to DAY + 2
+            totals.add(DAY, amount("-10.00"));
+            totals.add(DAY.plusDays(1), amount("-5.00"));
+            totals.add(DAY.plusDays(2), amount("5.00"));
+
+            // Assert
+            assertThat(totals.total(DAY, DAY)).isEqualTo(amount("20.00"));
+            assertThat(totals.total(DAY.plusDays(1), DAY.plusDays(1))).isEqualTo(amount("0.00"));
+            assertThat(totals.total(DAY, DAY.plusDays(2))).isEqualTo(amount("25.00"));
+        }
+
+        @Test
+        @DisplayName("Should match brute-force sums across random adds, deletes and window growth")
+        void shouldMatchBruteForce() {
+            // Arrange
+            Random random = new Random(11);
+            DailyTotals totals = new DailyTotals();
+            Map<LocalDate, Long> expected = new TreeMap<>();
+            LocalDate[] dates = new LocalDate[500];
+            BigDecimal[] amounts = new BigDecimal[dates.length];
+            for (int i = 0; i < dates.length; i++) {
+                dates[i] = DAY.plusDays(random.nextInt(200));
+                amounts[i] = BigDecimal.valueOf(random.nextInt(100_000), 2);
+                expected.merge(dates[i], amounts[i].unscaledValue().longValue(), Long::sum);
+            }
+            totals.load(dates, amounts);
+
+            // Act
+            // Dates well beyond the loaded span force several regrowths on both sides
+            for (int i = 0; i < 2_000; i++) {
+                LocalDate date = DAY.plusDays(random.nextInt(4_000) - 2_000);
+                long cents = random.nextInt(200_000) - 100_000;
+                totals.add(date, BigDecimal.valueOf(cents, 2));
+                expected.merge(date, cents, Long::sum);
+            }
+
+            // Assert
+            for (int i = 0; i < 500; i++) {
+                LocalDate from = DAY.plusDays(random.nextInt(5_000) - 2_500);
+                LocalDate to = from.plusDays(random.nextInt(3_000));
+                long cents = expected.entrySet().stream()
+                        .filter(entry -> !entry.getKey().isBefore(from) && !entry.getKey().isAfter(to))
+                        .mapToLong(Map.Entry::getValue)
+                        .sum();
+                assertThat(totals.total(from, to)).as("%s..%s", from, to).isEqualTo(BigDecimal.valueOf(cents, 2));
+            }
+        }
+    }
+
+    private static BigDecimal amount(String value) {
+        return new BigDecimal(value);
+    }
+}
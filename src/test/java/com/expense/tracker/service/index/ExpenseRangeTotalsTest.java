@@ -0,0 +1,147 @@
+package com.expense.tracker.service.index;
+
+import com.expense.tracker.repository.ExpenseRepository;
+import com.expense.tracker.service.event.ExpenseChangedEvent;
+import com.expense.tracker.service.event.ExpenseSnapshot;
+import com.expense.tracker.service.event.ExpensesChangedEvent;
+import com.expense.tracker.service.event.ExpensesImportedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExpenseRangeTotals Unit Tests")
+class ExpenseRangeTotalsTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 15);
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @InjectMocks
+    private ExpenseRangeTotals expenseRangeTotals;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(expenseRangeTotals, "enabled", true);
+        ReflectionTestUtils.setField(expenseRangeTotals, "memoryBudget", DataSize.ofMegabytes(16));
+    }
+
+    @Test
+    @DisplayName("Should load a user's daily totals once and answer ranges from memory")
+    void shouldLoadOnce() {
+        // Arrange
+        when(expenseRepository.sumAmountByUserIdGroupByDate(1L)).thenReturn(rows(
+                DAY, "10.00",
+                DAY.plusDays(1), "2.50"));
+
+        // Act
+        Optional<BigDecimal> first = expenseRangeTotals.total(1L, DAY, DAY);
+        Optional<BigDecimal> second = expenseRangeTotals.total(1L, DAY.minusDays(7), DAY.plusDays(7));
+
+        // Assert
+        assertThat(first).contains(new BigDecimal("10.00"));
+        assertThat(second).contains(new BigDecimal("12.50"));
+        verify(expenseRepository, times(1)).sumAmountByUserIdGroupByDate(1L);
+    }
+
+    @Test
+    @DisplayName("Should move committed updates between days and subtract deletes")
+    void shouldApplyCommittedChanges() {
+        // Arrange
+        when(expenseRepository.sumAmountByUserIdGroupByDate(1L)).thenReturn(rows(DAY, "30.00"));
+        expenseRangeTotals.total(1L, DAY, DAY);
+        ExpenseSnapshot original = expense(7L, DAY, "10.00");
+        ExpenseSnapshot moved = expense(7L, DAY.plusYears(3), "12.00");
+
+        // Act
+        expenseRangeTotals.onExpenseChanged(ExpenseChangedEvent.updated(original, moved));
+        expenseRangeTotals.onExpensesChanged(new ExpensesChangedEvent(1L, List.of(
+                ExpenseChangedEvent.deleted(expense(8L, DAY, "5.00")),
+                ExpenseChangedEvent.created(expense(9L, DAY.minusYears(2), "1.00")))));
+
+        // Assert
+        assertThat(expenseRangeTotals.total(1L, DAY, DAY)).contains(new BigDecimal("15.00"));
+        assertThat(expenseRangeTotals.total(1L, DAY.plusYears(3), DAY.plusYears(3))).contains(new BigDecimal("12.00"));
+        assertThat(expenseRangeTotals.total(1L, DAY.minusYears(5), DAY.plusYears(5))).contains(new BigDecimal("28.00"));
+        verify(expenseRepository, times(1)).sumAmountByUserIdGroupByDate(1L);
+    }
+
+    @Test
+    @DisplayName("Should ignore changes for users whose totals are not loaded")
+    void shouldIgnoreChangesOfUnloadedUsers() {
+        // Act
+        expenseRangeTotals.onExpenseChanged(ExpenseChangedEvent.created(expense(1L, DAY, "10.00")));
+
+        // Assert
+        verifyNoInteractions(expenseRepository);
+    }
+
+    @Test
+    @DisplayName("Should reload a user's totals after an import")
+    void shouldReloadAfterImport() {
+        // Arrange
+        when(expenseRepository.sumAmountByUserIdGroupByDate(1L))
+                .thenReturn(rows(DAY, "1.00"))
+                .thenReturn(rows(DAY, "1.00", DAY.plusDays(1), "99.00"));
+        expenseRangeTotals.total(1L, DAY, DAY.plusDays(1));
+
+        // Act
+        expenseRangeTotals.onExpensesImported(new ExpensesImportedEvent(1L, 1));
+
+        // Assert
+        assertThat(expenseRangeTotals.total(1L, DAY, DAY.plusDays(1))).contains(new BigDecimal("100.00"));
+        verify(expenseRepository, times(2)).sumAmountByUserIdGroupByDate(1L);
+    }
+
+    @Test
+    @DisplayName("Should answer nothing when disabled and query only the requested span for daily totals")
+    void shouldQuerySpanWhenDisabled() {
+        // Arrange
+        ReflectionTestUtils.setField(expenseRangeTotals, "enabled", false);
+        when(expenseRepository.sumAmountByUserIdAndDateBetweenGroupByDate(1L, DAY, DAY.plusDays(30)))
+                .thenReturn(rows(DAY, "3.00", DAY.plusDays(30), "4.00"));
+
+        // Act
+        Optional<BigDecimal> total = expenseRangeTotals.total(1L, DAY, DAY);
+        DailyTotals dailyTotals = expenseRangeTotals.dailyTotals(1L, DAY, DAY.plusDays(30));
+        expenseRangeTotals.onExpenseChanged(ExpenseChangedEvent.created(expense(1L, DAY, "10.00")));
+
+        // Assert
+        assertThat(total).isEmpty();
+        assertThat(dailyTotals.total(DAY, DAY.plusDays(30))).isEqualTo(new BigDecimal("7.00"));
+        verify(expenseRepository, never()).sumAmountByUserIdGroupByDate(anyLong());
+    }
+
+    /**
+     * Rows of [date, total] as returned by the GROUP BY date queries, from alternating dates and amounts
+     */
+    private static List<Object[]> rows(Object... datesAndAmounts) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < datesAndAmounts.length; i += 2) {
+            rows.add(new Object[]{datesAndAmounts[i], new BigDecimal((String) datesAndAmounts[i + 1])});
+        }
+        return rows;
+    }
+
+    private static ExpenseSnapshot expense(Long id, LocalDate date, String amount) {
+        return new ExpenseSnapshot(id, 1L, 10L, date, new BigDecimal(amount), "USD", Set.of());
+    }
+}
@@ -0,0 +1,252 @@
+package com.expense.tracker.service.index;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("OrdinalBitmap Unit Tests")
+class OrdinalBitmapTest {
+
+    // Values per chunk at which a container switches from a sorted array to a bitset
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int CHUNK = 1 << 16;
+
+    @Nested
+    @DisplayName("Add and remove")
+    class AddRemoveTests {
+
+        @Test
+        @DisplayName("Should switch a chunk to a bitset past the array limit")
+        void shouldSwitchToBitsetPastLimit() {
+            // Arrange
+            OrdinalBitmap bitmap = new OrdinalBitmap();
+            TreeSet<Integer> expected = new TreeSet<>();
+            // Spread out so the values copied into the bitset are not one contiguous run
+            for (int i = 0; i < ARRAY_LIMIT; i++) {
+                add(bitmap, expected, i * 16);
+            }
+
+            // Act
+            add(bitmap, expected, 7);
+
+            // Assert
+            assertMatches(bitmap, expected);
+            assertThat(bitmap.cardinality()).isEqualTo(ARRAY_LIMIT + 1);
+        }
+
+        @Test
+        @DisplayName("Should switch a chunk back to an array when removals drop it to the limit")
+        void shouldSwitchBackToArrayAtLimit() {
+            // Arrange
+            OrdinalBitmap bitmap = new OrdinalBitmap();
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = 0; i <= ARRAY_LIMIT + 10; i++) {
+                add(bitmap, expected, i * 3);
+            }
+
+            // Act & Assert
+            for (int i = 0; expected.size() > ARRAY_LIMIT - 10; i += 2) {
+                remove(bitmap, expected, i * 3);
+                assertThat(bitmap.cardinality()).isEqualTo(expected.size());
+            }
+            assertMatches(bitmap, expected);
+
+            // The array container keeps accepting values after the switch back
+            add(bitmap, expected, 1);
+            remove(bitmap, expected, 3 * 3);
+            assertMatches(bitmap, expected);
+        }
+
+        @Test
+        @DisplayName("Should ignore duplicate adds and removals of absent values")
+        void shouldIgnoreDuplicatesAndAbsentValues() {
+            // Arrange
+            OrdinalBitmap bitmap = new OrdinalBitmap();
+
+            // Act
+            bitmap.add(5);
+            bitmap.add(5);
+            bitmap.remove(6);
+            bitmap.remove(CHUNK + 5);
+
+            // Assert
+            assertThat(bitmap.cardinality()).isEqualTo(1);
+            assertThat(bitmap.toArray()).containsExactly(5);
+        }
+
+        @Test
+        @DisplayName("Should drop an emptied chunk and keep the others in order")
+        void shouldDropEmptiedChunk() {
+            // Arrange
+            OrdinalBitmap bitmap = new OrdinalBitmap();
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int chunk = 5; chunk >= 0; chunk--) {
+                add(bitmap, expected, chunk * CHUNK + 42);
+            }
+
+            // Act
+            remove(bitmap, expected, 2 * CHUNK + 42);
+            remove(bitmap, expected, 42);
+
+            // Assert
+            assertMatches(bitmap, expected);
+            assertThat(bitmap.contains(2 * CHUNK + 42)).isFalse();
+
+            // Re-adding into a dropped chunk recreates it in key order
+            add(bitmap, expected, 2 * CHUNK + 1);
+            assertMatches(bitmap, expected);
+        }
+
+        @Test
+        @DisplayName("Should match a TreeSet across random adds and removes")
+        void shouldMatchTreeSetUnderRandomOperations() {
+            // Arrange
+            Random random = new Random(8);
+            OrdinalBitmap bitmap = new OrdinalBitmap();
+            TreeSet<Integer> expected = new TreeSet<>();
+
+            // Act & Assert
+            // Chunk 0 hovers around the array limit, chunk 3 stays sparse
+            for (int step = 0; step < 60_000; step++) {
+                int ordinal = random.nextBoolean() ? random.nextInt(ARRAY_LIMIT * 2) : 3 * CHUNK + random.nextInt(CHUNK);
+                if (random.nextInt(100) < 55) {
+                    add(bitmap, expected, ordinal);
+                } else {
+                    remove(bitmap, expected, ordinal);
+                }
+                if (step % 5_000 == 0) {
+                    assertMatches(bitmap, expected);
+                }
+            }
+            assertMatches(bitmap, expected);
+        }
+    }
+
+    @Nested
+    @DisplayName("Intersection")
+    class AndTests {
+
+        @Test
+        @DisplayName("Should intersect array, bitset and mixed chunks")
+        void shouldIntersectMixedContainers() {
+            // Arrange
+            Random random = new Random(42);
+            OrdinalBitmap left = new OrdinalBitmap();
+            OrdinalBitmap right = new OrdinalBitmap();
+            TreeSet<Integer> leftValues = new TreeSet<>();
+            TreeSet<Integer> rightValues = new TreeSet<>();
+            // Chunk 0: bitset on the left, array on the right
+            fill(random, left, leftValues, 0, 10_000);
+            fill(random, right, rightValues, 0, 500);
+            // Chunk 1: bitset on both sides, overlapping in more than the array limit
+            fill(random, left, leftValues, 1, 20_000);
+            fill(random, right, rightValues, 1, 20_000);
+            // Chunk 5: bitset on both sides, overlapping in few enough values to come back as an array
+            fill(random, left, leftValues, 5, 5_000);
+            fill(random, right, rightValues, 5, 5_000);
+            // Chunk 2: array on both sides
+            fill(random, left, leftValues, 2, 300);
+            fill(random, right, rightValues, 2, 300);
+            // Chunk 3 only on the left, chunk 4 only on the right
+            fill(random, left, leftValues, 3, 100);
+            fill(random, right, rightValues, 4, 100);
+
+            TreeSet<Integer> expected = new TreeSet<>(leftValues);
+            expected.retainAll(rightValues);
+
+            // Act
+            OrdinalBitmap result = OrdinalBitmap.and(left, right);
+            OrdinalBitmap reversed = OrdinalBitmap.and(right, left);
+
+            // Assert
+            assertMatches(result, expected);
+            assertMatches(reversed, expected);
+            assertThat(expected).anyMatch(value -> value < CHUNK);
+            assertThat(expected).anyMatch(value -> value >= CHUNK && value < 2 * CHUNK);
+            assertThat(expected).anyMatch(value -> value >= 5 * CHUNK);
+        }
+
+        @Test
+        @DisplayName("Should drop chunks whose intersection is empty")
+        void shouldDropEmptyIntersections() {
+            // Arrange
+            OrdinalBitmap left = new OrdinalBitmap();
+            OrdinalBitmap right = new OrdinalBitmap();
+            for (int i = 0; i < ARRAY_LIMIT * 2; i++) {
+                left.add(2 * i);
+                right.add(2 * i + 1);
+            }
+            left.add(CHUNK + 9);
+            right.add(CHUNK + 9);
+
+            // Act
+            OrdinalBitmap result = OrdinalBitmap.and(left, right);
+
+            // Assert
+            assertThat(result.toArray()).containsExactly(CHUNK + 9);
+            assertThat(result.cardinality()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Should return a bitmap that can be modified independently")
+        void shouldReturnIndependentResult() {
+            // Arrange
+            OrdinalBitmap left = new OrdinalBitmap();
+            OrdinalBitmap right = new OrdinalBitmap();
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int i = 0; i < ARRAY_LIMIT + 100; i++) {
+                left.add(i);
+                right.add(i);
+                expected.add(i);
+            }
+            OrdinalBitmap result = OrdinalBitmap.and(left, right);
+
+            // Act
+            remove(result, expected, 10);
+            add(result, expected, CHUNK);
+
+            // Assert
+            assertMatches(result, expected);
+            assertThat(left.contains(10)).isTrue();
+            assertThat(right.contains(CHUNK)).isFalse();
+        }
+    }
+
+    private static void add(OrdinalBitmap bitmap, TreeSet<Integer> expected, int ordinal) {
+        bitmap.add(ordinal);
+        expected.add(ordinal);
+    }
+
+    private static void remove(OrdinalBitmap bitmap, TreeSet<Integer> expected, int ordinal) {
+        bitmap.remove(ordinal);
+        expected.remove(ordinal);
+    }
+
+    private static void fill(Random random, OrdinalBitmap bitmap, TreeSet<Integer> expected, int chunk, int count) {
+        int added = 0;
+        while (added < count) {
+            int ordinal = chunk * CHUNK + random.nextInt(CHUNK);
+            if (!expected.contains(ordinal)) {
+                add(bitmap, expected, ordinal);
+                added++;
+            }
+        }
+    }
+
+    private static void assertMatches(OrdinalBitmap bitmap, TreeSet<Integer> expected) {
+        assertThat(bitmap.cardinality()).isEqualTo(expected.size());
+        assertThat(bitmap.isEmpty()).isEqualTo(expected.isEmpty());
+        assertThat(bitmap.toArray()).containsExactly(expected.stream().mapToInt(Integer::intValue).toArray());
+        for (int ordinal : expected) {
+            assertThat(bitmap.contains(ordinal)).isTrue();
+        }
+        if (!expected.isEmpty()) {
+            assertThat(bitmap.contains(expected.last() + 1)).isFalse();
+        }
+    }
+}
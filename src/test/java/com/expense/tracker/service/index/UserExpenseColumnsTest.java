@@ -0,0 +1,174 @@
+package com.expense.tracker.service.index;
+
+import com.expense.tracker.dto.ExpenseFilter;
+import com.expense.tracker.service.event.ExpenseSnapshot;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("UserExpenseColumns Unit Tests")
+class UserExpenseColumnsTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @Nested
+    @DisplayName("Filtering after deletes")
+    class DeleteTests {
+
+        @Test
+        @DisplayName("Should repoint the bitmaps of the last row when it moves into a deleted slot")
+        void shouldFilterAfterDeletingMiddleRow() {
+            // Arrange
+            UserExpenseColumns columns = new UserExpenseColumns();
+            columns.load(List.of(
+                    expense(1L, 10L, "USD", 1, "50.00", "food"),
+                    expense(2L, 20L, "EUR", 2, "20.00", "travel"),
+                    expense(3L, 10L, "EUR", 3, "30.00", "food", "work"),
+                    expense(4L, 20L, "USD", 4, "40.00"),
+                    expense(5L, 30L, "GBP", 5, "15.00", "gift")));
+
+            // Act
+            // Row 3 sits in the middle, so the last row (ID 5) is moved into its slot
+            columns.remove(3L);
+
+            // Assert
+            assertThat(ids(columns, ExpenseFilter.builder().tag("gift").build())).containsExactly(5L);
+            assertThat(ids(columns, ExpenseFilter.builder().tag("work").build())).isEmpty();
+            assertThat(ids(columns, ExpenseFilter.builder().tag("FOOD").build())).containsExactly(1L);
+            assertThat(ids(columns, ExpenseFilter.builder().categoryId(30L).build())).containsExactly(5L);
+            assertThat(ids(columns, ExpenseFilter.builder().categoryId(10L).build())).containsExactly(1L);
+            assertThat(ids(columns, ExpenseFilter.builder().currency("gbp").build())).containsExactly(5L);
+            assertThat(ids(columns, ExpenseFilter.builder().currency("EUR").build())).containsExactly(2L);
+            assertThat(ids(columns, ExpenseFilter.builder().build())).containsExactly(5L, 4L, 2L, 1L);
+            assertThat(columns.aggregate(ExpenseFilter.builder().currency("EUR").build()))
+                    .isEqualTo(new ExpenseAggregate(2000, 1));
+        }
+
+        @Test
+        @DisplayName("Should drop a category's bitmap when its last row is deleted")
+        void shouldForgetEmptiedCategory() {
+            // Arrange
+            UserExpenseColumns columns = new UserExpenseColumns();
+            columns.load(List.of(
+                    expense(1L, 10L, "USD", 1, "50.00"),
+                    expense(2L, 20L, "USD", 2, "20.00")));
+
+            // Act
+            columns.remove(1L);
+            columns.upsert(expense(3L, 20L, "USD", 3, "5.00"));
+
+            // Assert
+            assertThat(ids(columns, ExpenseFilter.builder().categoryId(10L).build())).isEmpty();
+            assertThat(columns.aggregateByCategory(ExpenseFilter.builder().build()))
+                    .containsOnlyKeys(20L)
+                    .containsEntry(20L, new ExpenseAggregate(2500, 2));
+        }
+
+        @Test
+        @DisplayName("Should match a brute-force filter across random upserts and deletes")
+        void shouldMatchBruteForceAfterRandomDeletes() {
+            // Arrange
+            Random random = new Random(11);
+            UserExpenseColumns columns = new UserExpenseColumns();
+            Map<Long, ExpenseSnapshot> expected = new LinkedHashMap<>();
+            List<ExpenseSnapshot> initial = new ArrayList<>();
+            // Enough rows that the common category, currency and tag bitmaps switch to bitsets
+            for (long id = 1; id <= 12_000; id++) {
+                ExpenseSnapshot expense = randomExpense(random, id);
+                initial.add(expense);
+                expected.put(id, expense);
+            }
+            columns.load(initial);
+
+            // Act
+            for (int i = 0; i < 6_000; i++) {
+                long id = 1 + random.nextInt(14_000);
+                if (random.nextInt(3) == 0) {
+                    ExpenseSnapshot expense = randomExpense(random, id);
+                    columns.upsert(expense);
+                    expected.put(id, expense);
+                } else {
+                    columns.remove(id);
+                    expected.remove(id);
+                }
+            }
+
+            // Assert
+            List<ExpenseFilter> filters = List.of(
+                    ExpenseFilter.builder().build(),
+                    ExpenseFilter.builder().tag("work").build(),
+                    ExpenseFilter.builder().tag("rare").build(),
+                    ExpenseFilter.builder().categoryId(1L).build(),
+                    ExpenseFilter.builder().categoryId(7L).build(),
+                    ExpenseFilter.builder().currency("eur").build(),
+                    ExpenseFilter.builder().categoryId(2L).currency("USD").tag("work").build(),
+                    ExpenseFilter.builder().categoryId(7L).tag("rare")
+                            .fromDate(START.plusDays(30)).toDate(START.plusDays(200)).build());
+            for (ExpenseFilter filter : filters) {
+                List<Long> expectedIds = expected.values().stream()
+                        .filter(expense -> matches(expense, filter))
+                        .sorted(Comparator.comparing(ExpenseSnapshot::date).thenComparing(ExpenseSnapshot::id).reversed())
+                        .map(ExpenseSnapshot::id)
+                        .toList();
+                long expectedCents = expected.values().stream()
+                        .filter(expense -> matches(expense, filter))
+                        .mapToLong(expense -> expense.amount().movePointRight(2).longValueExact())
+                        .sum();
+
+                assertThat(ids(columns, filter)).as(filter.toString()).isEqualTo(expectedIds);
+                assertThat(columns.findIds(filter, 10, 25).ids()).as(filter.toString())
+                        .isEqualTo(expectedIds.subList(Math.min(10, expectedIds.size()), Math.min(35, expectedIds.size())));
+                assertThat(columns.aggregate(filter)).as(filter.toString())
+                        .isEqualTo(new ExpenseAggregate(expectedCents, expectedIds.size()));
+            }
+        }
+    }
+
+    private static List<Long> ids(UserExpenseColumns columns, ExpenseFilter filter) {
+        ExpenseIdPage page = columns.findIds(filter, 0, 100_000);
+        assertThat(page.totalMatches()).isEqualTo(page.ids().size());
+        return page.ids();
+    }
+
+    private static boolean matches(ExpenseSnapshot expense, ExpenseFilter filter) {
+        return (filter.getCategoryId() == null || filter.getCategoryId().equals(expense.categoryId()))
+                && (filter.getCurrency() == null || filter.getCurrency().equalsIgnoreCase(expense.currency()))
+                && (filter.getTag() == null || expense.tags().contains(filter.getTag().toLowerCase(Locale.ROOT)))
+                && (filter.getFromDate() == null || !expense.date().isBefore(filter.getFromDate()))
+                && (filter.getToDate() == null || !expense.date().isAfter(filter.getToDate()));
+    }
+
+    private static ExpenseSnapshot randomExpense(Random random, long id) {
+        // Category 7 and the "rare" tag stay sparse; the rest are dense
+        long categoryId = random.nextInt(20) == 0 ? 7L : 1 + random.nextInt(3);
+        String currency = random.nextInt(4) == 0 ? "EUR" : "USD";
+        List<String> tags = new ArrayList<>();
+        if (random.nextBoolean()) {
+            tags.add("work");
+        }
+        if (random.nextInt(50) == 0) {
+            tags.add("rare");
+        }
+        String amount = BigDecimal.valueOf(1 + random.nextInt(100_000), 2).toPlainString();
+        return expense(id, categoryId, currency, random.nextInt(365), amount, tags.toArray(String[]::new));
+    }
+
+    private static ExpenseSnapshot expense(Long id, Long categoryId, String currency, int day, String amount,
+                                           String... tags) {
+        return new ExpenseSnapshot(id, 1L, categoryId, START.plusDays(day), new BigDecimal(amount), currency,
+                Set.of(tags));
+    }
+}
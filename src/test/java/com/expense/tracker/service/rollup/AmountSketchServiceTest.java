@@ -0,0 +1,115 @@
+package com.expense.tracker.service.rollup;
+
+import com.expense.tracker.model.ExpenseAmountSketch;
+import com.expense.tracker.repository.ExpenseAmountSketchRepository;
+import com.expense.tracker.repository.ExpenseRepository;
+import com.expense.tracker.service.event.ExpenseChangedEvent;
+import com.expense.tracker.service.event.ExpenseSnapshot;
+import com.expense.tracker.service.event.ExpensesChangedEvent;
+import com.expense.tracker.service.sketch.TDigest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AmountSketchService Unit Tests")
+class AmountSketchServiceTest {
+
+    @Mock
+    private ExpenseAmountSketchRepository sketchRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @InjectMocks
+    private AmountSketchService amountSketchService;
+
+    private final Map<ExpenseAmountSketch.Key, ExpenseAmountSketch> sketches = new HashMap<>();
+
+    @Test
+    @DisplayName("Should keep amounts in different currencies in separate sketches")
+    void shouldSeparateCurrencies() {
+        // Arrange
+        storeSketches();
+        ExpenseSnapshot usd = expense(1L, "USD", "10.00");
+        ExpenseSnapshot eur = expense(2L, "eur", "900.00");
+        ExpenseSnapshot moreUsd = expense(3L, "usd", "30.00");
+
+        // Act
+        amountSketchService.onExpensesChanged(new ExpensesChangedEvent(1L, List.of(
+                ExpenseChangedEvent.created(usd),
+                ExpenseChangedEvent.created(eur),
+                ExpenseChangedEvent.created(moreUsd))));
+
+        // Assert
+        assertThat(sketches).containsOnlyKeys(key("EUR"), key("USD"));
+        TDigest usdDigest = TDigest.fromBytes(sketches.get(key("USD")).getSketch());
+        assertThat(usdDigest.count()).isEqualTo(2);
+        assertThat(usdDigest.quantile(1)).isEqualTo(30.0);
+        assertThat(TDigest.fromBytes(sketches.get(key("EUR")).getSketch()).quantile(0)).isEqualTo(900.0);
+
+        // Buckets are locked in currency order within a category and month
+        InOrder inOrder = inOrder(sketchRepository);
+        inOrder.verify(sketchRepository).findByIdForUpdate(key("EUR"));
+        inOrder.verify(sketchRepository).findByIdForUpdate(key("USD"));
+    }
+
+    @Test
+    @DisplayName("Should recompute only the deleted expense's currency")
+    void shouldRecomputeDeletedCurrency() {
+        // Arrange
+        storeSketches();
+        amountSketchService.onExpenseChanged(ExpenseChangedEvent.created(expense(1L, "USD", "10.00")));
+        amountSketchService.onExpenseChanged(ExpenseChangedEvent.created(expense(2L, "EUR", "900.00")));
+        when(expenseRepository.findAmountsByUserIdAndCategoryIdAndCurrencyAndDateBetween(
+                1L, 10L, "EUR", LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31)))
+                .thenReturn(List.of());
+
+        // Act
+        amountSketchService.onExpenseChanged(ExpenseChangedEvent.deleted(expense(2L, "eur", "900.00")));
+
+        // Assert
+        verify(sketchRepository).delete(sketches.get(key("EUR")));
+        verify(expenseRepository, never()).findAmountsByUserIdAndCategoryIdAndCurrencyAndDateBetween(
+                anyLong(), anyLong(), eq("USD"), any(), any());
+    }
+
+    /**
+     * Back the repository mock with the sketches map, as insertIfAbsent and findByIdForUpdate would
+     */
+    private void storeSketches() {
+        doAnswer(invocation -> {
+            ExpenseAmountSketch.Key key = new ExpenseAmountSketch.Key(invocation.getArgument(0),
+                    invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3),
+                    invocation.getArgument(4));
+            sketches.putIfAbsent(key, new ExpenseAmountSketch(key, invocation.getArgument(5), invocation.getArgument(6)));
+            return null;
+        }).when(sketchRepository).insertIfAbsent(anyLong(), anyLong(), anyInt(), anyInt(), anyString(), any(), anyLong());
+        when(sketchRepository.findByIdForUpdate(any()))
+                .thenAnswer(invocation -> Optional.ofNullable(sketches.get(invocation.<ExpenseAmountSketch.Key>getArgument(0))));
+    }
+
+    private static ExpenseAmountSketch.Key key(String currency) {
+        return new ExpenseAmountSketch.Key(1L, 10L, 2024, 3, currency);
+    }
+
+    private static ExpenseSnapshot expense(Long id, String currency, String amount) {
+        return new ExpenseSnapshot(id, 1L, 10L, LocalDate.of(2024, 3, 15), new BigDecimal(amount), currency, Set.of());
+    }
+}
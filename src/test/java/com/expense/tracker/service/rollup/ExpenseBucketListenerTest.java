@@ -0,0 +1,109 @@
+package com.expense.tracker.service.rollup;
+
+import com.expense.tracker.service.event.ExpenseChangedEvent;
+import com.expense.tracker.service.event.ExpenseSnapshot;
+import com.expense.tracker.service.event.ExpensesChangedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("ExpenseBucketListener Unit Tests")
+class ExpenseBucketListenerTest {
+
+    private final RecordingListener listener = new RecordingListener();
+
+    @Test
+    @DisplayName("Should fold a batch into one net change per bucket, in bucket order")
+    void shouldFoldBatchPerBucketInOrder() {
+        // Act
+        listener.onExpensesChanged(new ExpensesChangedEvent(1L, List.of(
+                ExpenseChangedEvent.created(expense(1L, 30L, "10.00")),
+                ExpenseChangedEvent.updated(expense(2L, 20L, "4.00"), expense(2L, 30L, "6.00")),
+                ExpenseChangedEvent.deleted(expense(3L, 10L, "1.50")),
+                ExpenseChangedEvent.created(expense(4L, 20L, "2.00")))));
+
+        // Assert
+        assertThat(listener.buckets).containsExactly(10L, 20L, 30L);
+        assertThat(listener.changes.get(0).total()).isEqualTo(new BigDecimal("-1.50"));
+        assertThat(listener.changes.get(0).count()).isEqualTo(-1);
+        assertThat(listener.changes.get(0).removed()).isTrue();
+        assertThat(listener.changes.get(1).total()).isEqualTo(new BigDecimal("-2.00"));
+        assertThat(listener.changes.get(1).count()).isZero();
+        assertThat(listener.changes.get(1).added()).containsExactly(new BigDecimal("2.00"));
+        assertThat(listener.changes.get(1).removed()).isTrue();
+        assertThat(listener.changes.get(2).total()).isEqualTo(new BigDecimal("16.00"));
+        assertThat(listener.changes.get(2).count()).isEqualTo(2);
+        assertThat(listener.changes.get(2).added()).containsExactly(new BigDecimal("10.00"), new BigDecimal("6.00"));
+        assertThat(listener.changes.get(2).removed()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should skip updates that keep the bucket and amount")
+    void shouldSkipUnchangedUpdates() {
+        // Act
+        listener.onExpenseChanged(ExpenseChangedEvent.updated(expense(1L, 10L, "5.00"), expense(1L, 10L, "5.0")));
+
+        // Assert
+        assertThat(listener.buckets).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should report an amount change within a bucket as a removal and an addition")
+    void shouldReportAmountChangeWithinBucket() {
+        // Act
+        listener.onExpenseChanged(ExpenseChangedEvent.updated(expense(1L, 10L, "5.00"), expense(1L, 10L, "8.00")));
+
+        // Assert
+        assertThat(listener.buckets).containsExactly(10L);
+        ExpenseBucketListener.BucketChange change = listener.changes.get(0);
+        assertThat(change.total()).isEqualTo(new BigDecimal("3.00"));
+        assertThat(change.count()).isZero();
+        assertThat(change.added()).containsExactly(new BigDecimal("8.00"));
+        assertThat(change.removed()).isTrue();
+        assertThat(change.isNetZero()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should mark a bucket whose changes cancel out as net zero")
+    void shouldDetectNetZero() {
+        // Act
+        listener.onExpensesChanged(new ExpensesChangedEvent(1L, List.of(
+                ExpenseChangedEvent.created(expense(1L, 10L, "5.00")),
+                ExpenseChangedEvent.deleted(expense(2L, 10L, "5.00")))));
+
+        // Assert
+        assertThat(listener.changes).singleElement()
+                .satisfies(change -> assertThat(change.isNetZero()).isTrue());
+    }
+
+    /**
+     * Buckets expenses by category ID and records what it is handed
+     */
+    private static class RecordingListener extends ExpenseBucketListener<Long> {
+
+        private final List<Long> buckets = new ArrayList<>();
+        private final List<BucketChange> changes = new ArrayList<>();
+
+        @Override
+        protected Long bucketOf(ExpenseSnapshot expense) {
+            return expense.categoryId();
+        }
+
+        @Override
+        protected void apply(Long bucket, BucketChange change) {
+            buckets.add(bucket);
+            changes.add(change);
+        }
+    }
+
+    private static ExpenseSnapshot expense(Long id, Long categoryId, String amount) {
+        return new ExpenseSnapshot(id, 1L, categoryId, LocalDate.of(2024, 3, 15), new BigDecimal(amount), "USD", Set.of());
+    }
+}
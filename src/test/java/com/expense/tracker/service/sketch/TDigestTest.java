@@ -0,0 +1,271 @@
+package com.expense.tracker.service.sketch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("TDigest Unit Tests")
+class TDigestTest {
+
+    private static final double[] QUANTILES = {0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999};
+
+    @Nested
+    @DisplayName("Quantile accuracy")
+    class AccuracyTests {
+
+        @Test
+        @DisplayName("Should be exact at the ends and interpolate a small digest")
+        void shouldEstimateSmallDigest() {
+            // Arrange
+            TDigest digest = new TDigest();
+            for (int amount = 10; amount >= 1; amount--) {
+                digest.add(amount * 10.0);
+            }
+
+            // Act & Assert
+            assertThat(digest.count()).isEqualTo(10);
+            assertThat(digest.quantile(0)).isEqualTo(10.0);
+            assertThat(digest.quantile(1)).isEqualTo(100.0);
+            assertThat(digest.quantile(0.5)).isEqualTo(55.0);
+            assertThat(digest.quantile(0.9)).isEqualTo(95.0);
+        }
+
+        @Test
+        @DisplayName("Should stay within a small rank error of the exact quantiles")
+        void shouldMatchExactSortWithinRankError() {
+            // Arrange
+            Random random = new Random(14);
+            double[] values = new double[100_000];
+            TDigest digest = new TDigest();
+            // Log-normal, skewed like expense amounts
+            for (int i = 0; i < values.length; i++) {
+                values[i] = Math.exp(random.nextGaussian() * 1.2 + 3);
+                digest.add(values[i]);
+            }
+            Arrays.sort(values);
+
+            // Act & Assert
+            for (double q : QUANTILES) {
+                double tolerance = q < 0.05 || q > 0.95 ? 0.0005 : 0.002;
+                assertThat(rank(values, digest.quantile(q)) - q).as("q=%s", q).isBetween(-tolerance, tolerance);
+            }
+            assertThat(digest.quantile(0)).isEqualTo(values[0]);
+            assertThat(digest.quantile(1)).isEqualTo(values[values.length - 1]);
+        }
+
+        @Test
+        @DisplayName("Should return a single value for every quantile")
+        void shouldEstimateSingleValue() {
+            // Arrange
+            TDigest digest = new TDigest();
+            digest.add(42.5);
+
+            // Act & Assert
+            for (double q : QUANTILES) {
+                assertThat(digest.quantile(q)).isEqualTo(42.5);
+            }
+        }
+
+        @Test
+        @DisplayName("Should return NaN for an empty digest and reject invalid input")
+        void shouldHandleEmptyAndInvalidInput() {
+            // Arrange
+            TDigest digest = new TDigest();
+
+            // Act & Assert
+            assertThat(digest.isEmpty()).isTrue();
+            assertThat(digest.quantile(0.5)).isNaN();
+            assertThatThrownBy(() -> digest.quantile(1.5)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> digest.add(Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> new TDigest(5)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("Merging")
+    class MergeTests {
+
+        @Test
+        @DisplayName("Should merge two digests into the quantiles of the combined values")
+        void shouldMergeDigests() {
+            // Arrange
+            Random random = new Random(7);
+            double[] values = new double[60_000];
+            TDigest small = new TDigest();
+            TDigest large = new TDigest();
+            // Two differently placed distributions, so the merged median falls between them
+            for (int i = 0; i < 20_000; i++) {
+                values[i] = random.nextDouble() * 100;
+                small.add(values[i]);
+            }
+            for (int i = 20_000; i < values.length; i++) {
+                values[i] = 50 + random.nextDouble() * 1000;
+                large.add(values[i]);
+            }
+            Arrays.sort(values);
+
+            // Act
+            small.add(large);
+
+            // Assert
+            assertThat(small.count()).isEqualTo(values.length);
+            assertThat(small.quantile(0)).isEqualTo(values[0]);
+            assertThat(small.quantile(1)).isEqualTo(values[values.length - 1]);
+            for (double q : QUANTILES) {
+                assertThat(rank(values, small.quantile(q)) - q).as("q=%s", q).isBetween(-0.003, 0.003);
+            }
+        }
+
+        @Test
+        @DisplayName("Should leave an empty digest unchanged when merged in")
+        void shouldMergeEmptyDigest() {
+            // Arrange
+            TDigest digest = new TDigest();
+            digest.add(1);
+            digest.add(3);
+
+            // Act
+            digest.add(new TDigest());
+
+            // Assert
+            assertThat(digest.count()).isEqualTo(2);
+            assertThat(digest.quantile(0)).isEqualTo(1.0);
+            assertThat(digest.quantile(1)).isEqualTo(3.0);
+        }
+    }
+
+    @Nested
+    @DisplayName("Compression")
+    class CompressionTests {
+
+        @ParameterizedTest
+        @ValueSource(ints = {20, 100, 500})
+        @DisplayName("Should keep at most about compression centroids however many values are added")
+        void shouldBoundCentroids(int compression) {
+            // Arrange
+            Random random = new Random(compression);
+            TDigest digest = new TDigest(compression);
+
+            // Act
+            for (int i = 0; i < 1_000_000; i++) {
+                digest.add(random.nextDouble());
+            }
+
+            // Assert
+            // Header plus, per centroid, an 8-byte mean and a weight of at most 3 varint bytes
+            assertThat(digest.toBytes().length).isLessThanOrEqualTo(1 + 4 + 16 + 3 + compression * (8 + 3));
+            assertThat(digest.count()).isEqualTo(1_000_000);
+        }
+
+        @Test
+        @DisplayName("Should grow in accuracy, not size, with the number of values")
+        void shouldNotGrowWithCount() {
+            // Arrange
+            Random random = new Random(3);
+            TDigest digest = new TDigest();
+            for (int i = 0; i < 10_000; i++) {
+                digest.add(random.nextDouble());
+            }
+            int bytesAt10k = digest.toBytes().length;
+
+            // Act
+            for (int i = 0; i < 990_000; i++) {
+                digest.add(random.nextDouble());
+            }
+
+            // Assert
+            assertThat(digest.toBytes().length).isLessThan(bytesAt10k * 3 / 2);
+        }
+    }
+
+    @Nested
+    @DisplayName("Serialization")
+    class SerializationTests {
+
+        @Test
+        @DisplayName("Should restore the same quantiles, count and bytes")
+        void shouldRoundTripBytes() {
+            // Arrange
+            Random random = new Random(21);
+            TDigest digest = new TDigest(50);
+            for (int i = 0; i < 50_000; i++) {
+                digest.add(random.nextGaussian() * 10);
+            }
+            byte[] bytes = digest.toBytes();
+
+            // Act
+            TDigest restored = TDigest.fromBytes(bytes);
+
+            // Assert
+            assertThat(restored.count()).isEqualTo(digest.count());
+            for (double q : new double[]{0, 0.001, 0.1, 0.5, 0.9, 0.999, 1}) {
+                assertThat(restored.quantile(q)).as("q=%s", q).isEqualTo(digest.quantile(q));
+            }
+            assertThat(restored.toBytes()).isEqualTo(bytes);
+        }
+
+        @Test
+        @DisplayName("Should keep accepting values after a round trip")
+        void shouldAddAfterRoundTrip() {
+            // Arrange
+            TDigest digest = new TDigest();
+            digest.add(5);
+            TDigest restored = TDigest.fromBytes(digest.toBytes());
+
+            // Act
+            restored.add(1);
+            restored.add(9);
+
+            // Assert
+            assertThat(restored.count()).isEqualTo(3);
+            assertThat(restored.quantile(0)).isEqualTo(1.0);
+            assertThat(restored.quantile(0.5)).isEqualTo(5.0);
+            assertThat(restored.quantile(1)).isEqualTo(9.0);
+        }
+
+        @Test
+        @DisplayName("Should round-trip an empty digest")
+        void shouldRoundTripEmptyDigest() {
+            // Act
+            TDigest restored = TDigest.fromBytes(new TDigest().toBytes());
+
+            // Assert
+            assertThat(restored.isEmpty()).isTrue();
+            assertThat(restored.quantile(0.5)).isNaN();
+        }
+
+        @Test
+        @DisplayName("Should reject truncated bytes and unknown versions")
+        void shouldRejectMalformedBytes() {
+            // Arrange
+            TDigest digest = new TDigest();
+            digest.add(1);
+            digest.add(2);
+            byte[] bytes = digest.toBytes();
+            byte[] unknownVersion = bytes.clone();
+            unknownVersion[0] = 99;
+
+            // Act & Assert
+            assertThatThrownBy(() -> TDigest.fromBytes(Arrays.copyOf(bytes, bytes.length - 3)))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> TDigest.fromBytes(unknownVersion))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("version");
+        }
+    }
+
+    /**
+     * Fraction of the sorted values below an estimate
+     */
+    private static double rank(double[] sorted, double estimate) {
+        int index = Arrays.binarySearch(sorted, estimate);
+        return (double) (index < 0 ? -index - 1 : index) / sorted.length;
+    }
+}